@@ -0,0 +1,76 @@
+package com.ilian.dataframe;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Colonne calculée à partir de deux colonnes numériques : expression compilée, comparée à la
+ * boucle sur {@link Series#get(int)} qu'elle remplace, et la même expression comme filtre.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExpressionBenchmark {
+
+    /** Deux colonnes numériques du jeu de données et l'expression qui les combine. */
+    @State(Scope.Benchmark)
+    public static class Operands {
+        String left;
+        String right;
+        Expression expression;
+        Expression condition;
+
+        @Setup(Level.Trial)
+        public void choose(SyntheticData data) {
+            for (Map.Entry<String, ColumnType> column : data.schema.entrySet()) {
+                if (column.getValue() == ColumnType.STRING) continue;
+                if (left == null) {
+                    left = column.getKey();
+                } else if (right == null) {
+                    right = column.getKey();
+                }
+            }
+            expression = Expression.col(left).times(Expression.lit(2)).plus(Expression.col(right));
+            condition = expression.gt(Expression.col(left));
+        }
+    }
+
+    @Benchmark
+    public DataFrame withColumn(SyntheticData data, Operands operands) {
+        return data.frame.withColumn("derived", operands.expression);
+    }
+
+    @Benchmark
+    public Series<?> boxedLoop(SyntheticData data, Operands operands) {
+        Series<?> left = data.frame.getColumn(operands.left);
+        Series<?> right = data.frame.getColumn(operands.right);
+        List<Double> values = new ArrayList<>(left.size());
+        for (int i = 0; i < left.size(); i++) {
+            Object a = left.get(i);
+            Object b = right.get(i);
+            values.add(a == null || b == null ? null : ((Number) a).doubleValue() * 2 + ((Number) b).doubleValue());
+        }
+        return new Series<>("derived", values);
+    }
+
+    @Benchmark
+    public DataFrame filterWhere(SyntheticData data, Operands operands) {
+        return data.frame.filter(Filter.where(operands.condition));
+    }
+}
@@ -0,0 +1,40 @@
+package com.ilian.dataframe;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coût de l'inférence de type : chargement avec inférence complète, sur un échantillon,
+ * puis avec un schéma imposé (aucune inférence). L'écart entre les variantes mesure
+ * l'inférence elle-même.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class InferenceBenchmark {
+
+    @Benchmark
+    public DataFrame inferAll(SyntheticData data) throws IOException {
+        return CsvLoader.load(data.csv.toString(), new CsvOptions());
+    }
+
+    @Benchmark
+    public DataFrame inferSample(SyntheticData data) throws IOException {
+        return CsvLoader.load(data.csv.toString(), new CsvOptions().inferenceSampleSize(1000));
+    }
+
+    @Benchmark
+    public DataFrame declaredSchema(SyntheticData data) throws IOException {
+        return CsvLoader.load(data.csv.toString(), new CsvOptions().schema(data.schema));
+    }
+}
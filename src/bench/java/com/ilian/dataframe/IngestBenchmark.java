@@ -0,0 +1,124 @@
+package com.ilian.dataframe;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Débit de chargement d'un CSV, en fichiers par seconde et en mégaoctets par seconde
+ * (compteur secondaire {@code megabytes}), ainsi que des statistiques calculées par lots et
+ * d'une requête différée qui ne lit que deux colonnes et 1 % des lignes. {@code loadAll} lit
+ * le même contenu découpé en {@value Shards#COUNT} fichiers.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class IngestBenchmark {
+
+    /** Octets lus, rapportés par JMH comme un débit. */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Bytes {
+        public double megabytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            megabytes = 0;
+        }
+    }
+
+    /** Le fichier synthétique découpé en fichiers de même en-tête, dans un répertoire. */
+    @State(Scope.Benchmark)
+    public static class Shards {
+        static final int COUNT = 64;
+
+        Path directory;
+
+        @Setup(Level.Trial)
+        public void split(SyntheticData data) throws IOException {
+            directory = Files.createTempDirectory("dataframe-shards");
+            List<String> lines = Files.readAllLines(data.csv);
+            int perShard = (lines.size() - 1 + COUNT - 1) / COUNT;
+            for (int s = 0; s < COUNT; s++) {
+                List<String> shard = new ArrayList<>();
+                shard.add(lines.get(0));
+                shard.addAll(lines.subList(Math.min(lines.size(), 1 + s * perShard), Math.min(lines.size(), 1 + (s + 1) * perShard)));
+                Files.write(directory.resolve(String.format("shard-%03d.csv", s)), shard);
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void delete() throws IOException {
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(directory);
+        }
+    }
+
+    @Benchmark
+    public DataFrame load(SyntheticData data, Bytes bytes) throws IOException {
+        bytes.megabytes += data.megabytes;
+        return CsvLoader.load(data.csv.toString());
+    }
+
+    @Benchmark
+    public DataFrame loadParallel(SyntheticData data, Bytes bytes) throws IOException {
+        bytes.megabytes += data.megabytes;
+        return CsvLoader.loadParallel(data.csv.toString());
+    }
+
+    @Benchmark
+    public DataFrame loadAll(SyntheticData data, Shards shards, Bytes bytes) throws IOException {
+        bytes.megabytes += data.megabytes;
+        return CsvLoader.loadAll(shards.directory);
+    }
+
+    @Benchmark
+    public Map<String, ColumnStatistics> streamStatistics(SyntheticData data, Bytes bytes) throws IOException {
+        bytes.megabytes += data.megabytes;
+        return CsvLoader.streamStatistics(data.csv.toString(), 65_536);
+    }
+
+    @Benchmark
+    public DataFrame lazyScan(SyntheticData data, Bytes bytes) throws IOException {
+        bytes.megabytes += data.megabytes;
+        String number = null;
+        String other = null;
+        for (Map.Entry<String, ColumnType> column : data.schema.entrySet()) {
+            if (number == null && column.getValue() == ColumnType.DOUBLE) {
+                number = column.getKey();
+            } else if (other == null) {
+                other = column.getKey();
+            }
+        }
+        double max = data.frame.getStatistics(number).get("max");
+        return LazyFrame.scanCsv(data.csv.toString())
+                .filter(Filter.ge(number, max * 0.99))
+                .select(other, number)
+                .collect();
+    }
+}
@@ -0,0 +1,69 @@
+package com.ilian.dataframe;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Affichage de l'en-tête et de la fin d'un DataFrame, ainsi que d'un bloc de mille lignes, et
+ * export CSV complet.
+ * La sortie standard est redirigée vers un flux qui ignore les octets pendant la mesure.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PrintBenchmark {
+
+    /** Redirection de la sortie standard. */
+    @State(Scope.Benchmark)
+    public static class Console {
+        private PrintStream original;
+
+        @Setup(Level.Trial)
+        public void redirect() {
+            original = System.out;
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        }
+
+        @TearDown(Level.Trial)
+        public void restore() {
+            System.setOut(original);
+        }
+    }
+
+    @Benchmark
+    public void head(SyntheticData data, Console console) {
+        data.frame.printHead(20);
+    }
+
+    @Benchmark
+    public void tail(SyntheticData data, Console console) {
+        data.frame.printTail(20);
+    }
+
+    @Benchmark
+    public void thousandRows(SyntheticData data, Console console) {
+        data.frame.selectRows(0, Math.min(1000, data.rows)).printFull();
+    }
+
+    @Benchmark
+    public void toCsv(SyntheticData data) throws IOException {
+        data.frame.toCSV(OutputStream.nullOutputStream());
+    }
+}
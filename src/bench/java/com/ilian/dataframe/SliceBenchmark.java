@@ -0,0 +1,65 @@
+package com.ilian.dataframe;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sélection de lignes et de colonnes : vues (sans copie), copie d'une vue et sélection
+ * par vecteur d'index.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SliceBenchmark {
+
+    /** Lignes et colonnes sélectionnées, tirées une fois par essai. */
+    @State(Scope.Benchmark)
+    public static class Selection {
+        int[] rows;
+        String[] labels;
+
+        @Setup(Level.Trial)
+        public void choose(SyntheticData data) {
+            SplittableRandom random = new SplittableRandom(7);
+            rows = random.ints(data.rows / 10, 0, data.rows).sorted().toArray();
+            List<String> all = new ArrayList<>(data.frame.getColumnLabels());
+            labels = all.subList(0, Math.max(1, all.size() / 2)).toArray(new String[0]);
+        }
+    }
+
+    @Benchmark
+    public DataFrame selectRows(SyntheticData data) {
+        return data.frame.selectRows(data.rows / 4, 3 * data.rows / 4);
+    }
+
+    @Benchmark
+    public DataFrame selectRowsMaterialized(SyntheticData data) {
+        return data.frame.selectRows(data.rows / 4, 3 * data.rows / 4).materialize();
+    }
+
+    @Benchmark
+    public DataFrame selectColumns(SyntheticData data, Selection selection) {
+        return data.frame.selectColumns(selection.labels);
+    }
+
+    @Benchmark
+    public DataFrame takeMaterialized(SyntheticData data, Selection selection) {
+        return data.frame.take(selection.rows).materialize();
+    }
+}
@@ -0,0 +1,51 @@
+package com.ilian.dataframe;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Calcul des statistiques de colonnes. Les statistiques étant conservées par les séries,
+ * elles sont recalculées explicitement ({@code computeStatistics}) à chaque appel.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StatisticsBenchmark {
+
+    @Benchmark
+    public void allColumns(SyntheticData data, Blackhole blackhole) {
+        for (String label : data.frame.getColumnLabels()) {
+            blackhole.consume(data.frame.getColumn(label).computeStatistics());
+        }
+    }
+
+    @Benchmark
+    public void sliceOfColumns(SyntheticData data, Blackhole blackhole) {
+        DataFrame half = data.frame.selectRows(data.rows / 4, 3 * data.rows / 4);
+        for (String label : half.getColumnLabels()) {
+            blackhole.consume(half.getColumn(label).computeStatistics());
+        }
+    }
+
+    @Benchmark
+    public double numericSums(SyntheticData data) {
+        double total = 0;
+        for (String label : data.frame.getColumnLabels()) {
+            Series<?> series = data.frame.getColumn(label);
+            if (series instanceof NumericSeries) {
+                total += ((NumericSeries<?>) series).sum();
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,213 @@
+package com.ilian.dataframe;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Générateur déterministe de fichiers CSV synthétiques pour les benchmarks.
+ *
+ * Le contenu ne dépend que des paramètres et de la graine : deux exécutions produisent
+ * exactement le même fichier. Le mélange de types est décrit par des poids, par exemple
+ * {@code "int=2,double=2,category=2,text=1,long=1"} ; les colonnes sont réparties entre
+ * les types au prorata de ces poids. Une proportion de cellules peut être laissée vide.
+ *
+ * Types disponibles :
+ * <ul>
+ *   <li>{@code int} : entiers 32 bits ;</li>
+ *   <li>{@code long} : entiers au-delà de 32 bits ;</li>
+ *   <li>{@code double} : nombres à deux décimales ;</li>
+ *   <li>{@code category} : texte parmi quelques dizaines de valeurs (encodé par dictionnaire) ;</li>
+ *   <li>{@code text} : texte presque toujours distinct.</li>
+ * </ul>
+ */
+public class SyntheticCsv {
+
+    /** Types de colonnes générés. */
+    enum Kind { INT, LONG, DOUBLE, CATEGORY, TEXT }
+
+    private static final String[] CATEGORIES = new String[40];
+
+    static {
+        for (int i = 0; i < CATEGORIES.length; i++) {
+            CATEGORIES[i] = "cat_" + Integer.toString(i * 7919, 36);
+        }
+    }
+
+    private int rows = 100_000;
+    private int columns = 8;
+    private String typeMix = "int=2,double=2,category=2,text=1,long=1";
+    private double nullRatio;
+    private long seed = 42;
+
+    /**
+     * Fixe le nombre de lignes.
+     *
+     * @param rows Le nombre de lignes (hors en-tête).
+     * @return Ce générateur.
+     */
+    public SyntheticCsv rows(int rows) {
+        this.rows = rows;
+        return this;
+    }
+
+    /**
+     * Fixe le nombre de colonnes.
+     *
+     * @param columns Le nombre de colonnes.
+     * @return Ce générateur.
+     */
+    public SyntheticCsv columns(int columns) {
+        this.columns = columns;
+        return this;
+    }
+
+    /**
+     * Fixe le mélange de types, sous la forme {@code type=poids,...}.
+     *
+     * @param typeMix Les poids de chaque type.
+     * @return Ce générateur.
+     */
+    public SyntheticCsv typeMix(String typeMix) {
+        this.typeMix = typeMix;
+        return this;
+    }
+
+    /**
+     * Fixe la proportion de cellules vides.
+     *
+     * @param nullRatio Une proportion entre 0 et 1.
+     * @return Ce générateur.
+     */
+    public SyntheticCsv nullRatio(double nullRatio) {
+        this.nullRatio = nullRatio;
+        return this;
+    }
+
+    /**
+     * Fixe la graine du générateur pseudo-aléatoire.
+     *
+     * @param seed La graine.
+     * @return Ce générateur.
+     */
+    public SyntheticCsv seed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    /**
+     * Retourne le type de chaque colonne : les colonnes sont attribuées aux types par
+     * tranches proportionnelles aux poids, dans l'ordre du mélange.
+     */
+    List<Kind> kinds() {
+        List<Kind> weighted = new ArrayList<>();
+        List<Integer> weights = new ArrayList<>();
+        int total = 0;
+        for (String entry : typeMix.split(",")) {
+            String[] parts = entry.trim().split("=");
+            int weight = parts.length > 1 ? Integer.parseInt(parts[1].trim()) : 1;
+            if (weight <= 0) continue;
+            weighted.add(Kind.valueOf(parts[0].trim().toUpperCase(Locale.ROOT)));
+            weights.add(weight);
+            total += weight;
+        }
+        if (total == 0) {
+            throw new IllegalArgumentException("Empty type mix: " + typeMix);
+        }
+        List<Kind> kinds = new ArrayList<>(columns);
+        for (int c = 0; c < columns; c++) {
+            // Column c takes the type whose cumulative weight range contains its position.
+            long position = (long) c * total / columns;
+            int k = 0;
+            for (long cumulative = weights.get(0); position >= cumulative; cumulative += weights.get(++k)) {
+                // advance to the next type
+            }
+            kinds.add(weighted.get(k));
+        }
+        return kinds;
+    }
+
+    /**
+     * Écrit le fichier.
+     *
+     * @param path Le fichier de destination, remplacé s'il existe.
+     * @return La taille du fichier, en octets.
+     * @throws IOException si l'écriture échoue.
+     */
+    public long write(Path path) throws IOException {
+        List<Kind> kinds = kinds();
+        SplittableRandom random = new SplittableRandom(seed);
+        try (BufferedWriter out = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            StringBuilder line = new StringBuilder();
+            for (int c = 0; c < columns; c++) {
+                if (c > 0) line.append(',');
+                line.append('c').append(c).append('_').append(kinds.get(c).name().toLowerCase(Locale.ROOT));
+            }
+            out.append(line).append('\n');
+            for (int r = 0; r < rows; r++) {
+                line.setLength(0);
+                for (int c = 0; c < columns; c++) {
+                    if (c > 0) line.append(',');
+                    if (nullRatio > 0 && random.nextDouble() < nullRatio) continue;
+                    appendCell(line, kinds.get(c), r, random);
+                }
+                out.append(line).append('\n');
+            }
+        }
+        return Files.size(path);
+    }
+
+    private static void appendCell(StringBuilder line, Kind kind, int row, SplittableRandom random) {
+        switch (kind) {
+            case INT:
+                line.append(random.nextInt(-1_000_000, 1_000_000));
+                break;
+            case LONG:
+                line.append(random.nextLong(1L << 33, 1L << 50));
+                break;
+            case DOUBLE:
+                long cents = random.nextLong(-10_000_000, 10_000_000);
+                if (cents < 0) line.append('-');
+                long abs = Math.abs(cents);
+                line.append(abs / 100).append('.');
+                if (abs % 100 < 10) line.append('0');
+                line.append(abs % 100);
+                break;
+            case CATEGORY:
+                line.append(CATEGORIES[random.nextInt(CATEGORIES.length)]);
+                break;
+            default:
+                line.append("row").append(row).append('_').append(Long.toString(random.nextLong() >>> 20, 36));
+        }
+    }
+
+    /**
+     * Génère un fichier depuis la ligne de commande.
+     *
+     * Arguments : chemin [lignes [colonnes [mélange [proportion de nulls [graine]]]]].
+     *
+     * @param args Les arguments.
+     * @throws IOException si l'écriture échoue.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: SyntheticCsv <path> [rows] [columns] [typeMix] [nullRatio] [seed]");
+            System.exit(1);
+        }
+        SyntheticCsv generator = new SyntheticCsv();
+        if (args.length > 1) generator.rows(Integer.parseInt(args[1]));
+        if (args.length > 2) generator.columns(Integer.parseInt(args[2]));
+        if (args.length > 3) generator.typeMix(args[3]);
+        if (args.length > 4) generator.nullRatio(Double.parseDouble(args[4]));
+        if (args.length > 5) generator.seed(Long.parseLong(args[5]));
+        long size = generator.write(Paths.get(args[0]));
+        System.out.println(args[0] + " : " + size + " octets");
+    }
+}
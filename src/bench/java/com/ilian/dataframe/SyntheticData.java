@@ -0,0 +1,74 @@
+package com.ilian.dataframe;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Jeu de données partagé par les benchmarks : un CSV synthétique généré une fois par essai
+ * (voir {@link SyntheticCsv}) et le DataFrame qui en est chargé.
+ *
+ * Les paramètres se changent depuis la ligne de commande JMH, par exemple
+ * {@code -p rows=1000000 -p nullRatio=0.1}.
+ */
+@State(Scope.Benchmark)
+public class SyntheticData {
+
+    @Param("200000")
+    public int rows;
+
+    @Param("8")
+    public int columns;
+
+    @Param("int=2,double=2,category=2,text=1,long=1")
+    public String typeMix;
+
+    @Param({"0.0", "0.05"})
+    public double nullRatio;
+
+    /** Le fichier généré. */
+    Path csv;
+    /** Sa taille, en mégaoctets. */
+    double megabytes;
+    /** Le fichier chargé, statistiques comprises. */
+    DataFrame frame;
+    /** Le type de chaque colonne, tel que déduit au chargement. */
+    Map<String, ColumnType> schema;
+
+    private Path directory;
+
+    @Setup(Level.Trial)
+    public void generate() throws IOException {
+        directory = Files.createTempDirectory("dataframe-bench");
+        csv = directory.resolve("synthetic.csv");
+        long size = new SyntheticCsv().rows(rows).columns(columns).typeMix(typeMix).nullRatio(nullRatio).write(csv);
+        megabytes = size / (1024.0 * 1024.0);
+        frame = CsvLoader.load(csv.toString());
+        schema = new LinkedHashMap<>();
+        for (String label : frame.getColumnLabels()) {
+            schema.put(label, typeOf(frame.getColumn(label)));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() throws IOException {
+        Files.deleteIfExists(csv);
+        Files.deleteIfExists(directory);
+    }
+
+    private static ColumnType typeOf(Series<?> series) {
+        if (series instanceof IntSeries) return ColumnType.INT;
+        if (series instanceof LongSeries) return ColumnType.LONG;
+        if (series instanceof DoubleSeries) return ColumnType.DOUBLE;
+        return ColumnType.STRING;
+    }
+}
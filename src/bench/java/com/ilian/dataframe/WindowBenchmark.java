@@ -0,0 +1,69 @@
+package com.ilian.dataframe;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moyenne et maximum glissants d'une colonne numérique : calcul incrémental de
+ * {@link DataFrame#rolling(String, int)}, comparé à une fenêtre recalculée par
+ * {@code selectRows} et {@code getStatistics} pour chaque ligne (sur les premières lignes seulement).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WindowBenchmark {
+
+    /** Taille des fenêtres et colonne numérique fenêtrée. */
+    @State(Scope.Benchmark)
+    public static class Windowed {
+        @Param({"10", "1000"})
+        int size;
+
+        String label;
+
+        @Setup(Level.Trial)
+        public void choose(SyntheticData data) {
+            for (Map.Entry<String, ColumnType> column : data.schema.entrySet()) {
+                if (column.getValue() != ColumnType.STRING) {
+                    label = column.getKey();
+                    break;
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public DataFrame rollingMean(SyntheticData data, Windowed windowed) {
+        return data.frame.rolling(windowed.label, windowed.size).mean();
+    }
+
+    @Benchmark
+    public DataFrame rollingMax(SyntheticData data, Windowed windowed) {
+        return data.frame.rolling(windowed.label, windowed.size).max();
+    }
+
+    @Benchmark
+    public double naiveFirstRows(SyntheticData data, Windowed windowed) {
+        double total = 0;
+        int rows = Math.min(data.frame.getRowCount(), 10_000);
+        for (int i = windowed.size; i <= rows; i++) {
+            total += data.frame.selectRows(i - windowed.size, i).getStatistics(windowed.label).get("mean");
+        }
+        return total;
+    }
+}
@@ -0,0 +1,236 @@
+package com.ilian.dataframe;
+
+import java.util.Arrays;
+
+/**
+ * Accumulateurs primitifs d'un {@link Aggregation}, indexés par numéro de groupe.
+ *
+ * Les accumulateurs partiels calculés sur des tranches de lignes différentes peuvent être
+ * fusionnés ; la variance utilise l'algorithme de Welford et la formule de fusion de Chan.
+ * Les agrégats approchés gardent un résumé par groupe ({@link HyperLogLog},
+ * {@link QuantileSketch}), créé à la première valeur du groupe et fusionné de la même façon.
+ */
+final class Accumulator {
+    private final Aggregation.Kind kind;
+    private final double quantile;
+    private long[] counts;
+    private double[] values;
+    private double[] m2;
+    private HyperLogLog[] distinct;
+    private QuantileSketch[] sketches;
+
+    Accumulator(Aggregation.Kind kind) {
+        this(kind, Double.NaN);
+    }
+
+    Accumulator(Aggregation aggregation) {
+        this(aggregation.getKind(), aggregation.getQuantile());
+    }
+
+    private Accumulator(Aggregation.Kind kind, double quantile) {
+        this.kind = kind;
+        this.quantile = quantile;
+        this.counts = new long[0];
+        this.values = new double[0];
+        this.m2 = new double[0];
+        this.distinct = new HyperLogLog[0];
+        this.sketches = new QuantileSketch[0];
+    }
+
+    /** Agrandit les tableaux pour contenir {@code groups} groupes. */
+    void ensureCapacity(int groups) {
+        int old = values.length;
+        if (groups <= old) return;
+        int capacity = Math.max(groups, old * 2);
+        counts = Arrays.copyOf(counts, capacity);
+        values = Arrays.copyOf(values, capacity);
+        if (kind == Aggregation.Kind.MIN) Arrays.fill(values, old, capacity, Double.POSITIVE_INFINITY);
+        if (kind == Aggregation.Kind.MAX) Arrays.fill(values, old, capacity, Double.NEGATIVE_INFINITY);
+        if (kind == Aggregation.Kind.VARIANCE) m2 = Arrays.copyOf(m2, capacity);
+        if (kind == Aggregation.Kind.APPROX_DISTINCT) distinct = Arrays.copyOf(distinct, capacity);
+        if (kind == Aggregation.Kind.APPROX_QUANTILE) sketches = Arrays.copyOf(sketches, capacity);
+    }
+
+    /**
+     * Ajoute les hachages ({@link HyperLogLog.Hasher}) des lignes non nulles de {@code [from, to)},
+     * pour {@link Aggregation.Kind#APPROX_DISTINCT}.
+     */
+    void accumulateHashes(long[] hashes, long[] valid, int from, int to, int[] groupOf) {
+        for (int r = from; r < to; r++) {
+            if ((valid[r >>> 6] & (1L << r)) == 0) continue;
+            int g = groupOf[r - from];
+            if (distinct[g] == null) distinct[g] = new HyperLogLog();
+            distinct[g].add(hashes[r]);
+        }
+    }
+
+    /**
+     * Ajoute les lignes {@code [from, to)} de la série, la ligne {@code r} appartenant
+     * au groupe {@code groupOf[r - from]}. Hors comptage, les valeurs nulles sont ignorées :
+     * les lignes valides sont énumérées par mots de 64 bits du bitmap de validité.
+     */
+    void accumulate(NumericSeries<?> series, int from, int to, int[] groupOf) {
+        if (kind != Aggregation.Kind.COUNT && series.validity != null) {
+            for (int base = from; base < to; base += 64) {
+                long bits = series.validBits(base);
+                if (to - base < 64) bits &= (1L << (to - base)) - 1;
+                for (; bits != 0; bits &= bits - 1) {
+                    int r = base + Long.numberOfTrailingZeros(bits);
+                    add(groupOf[r - from], series.getDouble(r));
+                }
+            }
+            return;
+        }
+        switch (kind) {
+            case COUNT:
+                for (int r = from; r < to; r++) counts[groupOf[r - from]]++;
+                break;
+            case SUM:
+                for (int r = from; r < to; r++) values[groupOf[r - from]] += series.getDouble(r);
+                break;
+            case MIN:
+                for (int r = from; r < to; r++) {
+                    int g = groupOf[r - from];
+                    double v = series.getDouble(r);
+                    if (v < values[g]) values[g] = v;
+                }
+                break;
+            case MAX:
+                for (int r = from; r < to; r++) {
+                    int g = groupOf[r - from];
+                    double v = series.getDouble(r);
+                    if (v > values[g]) values[g] = v;
+                }
+                break;
+            case MEAN:
+                for (int r = from; r < to; r++) {
+                    int g = groupOf[r - from];
+                    counts[g]++;
+                    values[g] += series.getDouble(r);
+                }
+                break;
+            case APPROX_QUANTILE:
+                for (int r = from; r < to; r++) add(groupOf[r - from], series.getDouble(r));
+                break;
+            default:
+                for (int r = from; r < to; r++) {
+                    int g = groupOf[r - from];
+                    double v = series.getDouble(r);
+                    long n = ++counts[g];
+                    double delta = v - values[g];
+                    values[g] += delta / n;
+                    m2[g] += delta * (v - values[g]);
+                }
+        }
+    }
+
+    /** Ajoute une valeur au groupe {@code g}. */
+    private void add(int g, double v) {
+        switch (kind) {
+            case SUM:
+                values[g] += v;
+                break;
+            case MIN:
+                if (v < values[g]) values[g] = v;
+                break;
+            case MAX:
+                if (v > values[g]) values[g] = v;
+                break;
+            case MEAN:
+                counts[g]++;
+                values[g] += v;
+                break;
+            case APPROX_QUANTILE:
+                if (sketches[g] == null) sketches[g] = new QuantileSketch();
+                sketches[g].add(v);
+                break;
+            default:
+                long n = ++counts[g];
+                double delta = v - values[g];
+                values[g] += delta / n;
+                m2[g] += delta * (v - values[g]);
+        }
+    }
+
+    /** Fusionne le groupe {@code otherGroup} de l'autre accumulateur dans le groupe {@code group}. */
+    void merge(int group, Accumulator other, int otherGroup) {
+        switch (kind) {
+            case COUNT:
+                counts[group] += other.counts[otherGroup];
+                break;
+            case SUM:
+                values[group] += other.values[otherGroup];
+                break;
+            case MIN:
+                values[group] = Math.min(values[group], other.values[otherGroup]);
+                break;
+            case MAX:
+                values[group] = Math.max(values[group], other.values[otherGroup]);
+                break;
+            case MEAN:
+                counts[group] += other.counts[otherGroup];
+                values[group] += other.values[otherGroup];
+                break;
+            case APPROX_DISTINCT:
+                distinct[group] = mergeSketch(distinct[group], other.distinct[otherGroup]);
+                break;
+            case APPROX_QUANTILE:
+                sketches[group] = mergeSketch(sketches[group], other.sketches[otherGroup]);
+                break;
+            default:
+                long na = counts[group];
+                long nb = other.counts[otherGroup];
+                long n = na + nb;
+                if (nb == 0) return;
+                double delta = other.values[otherGroup] - values[group];
+                values[group] += delta * nb / n;
+                m2[group] += other.m2[otherGroup] + delta * delta * na * nb / n;
+                counts[group] = n;
+        }
+    }
+
+    private static HyperLogLog mergeSketch(HyperLogLog into, HyperLogLog other) {
+        if (other == null) return into;
+        if (into == null) into = new HyperLogLog();
+        into.merge(other);
+        return into;
+    }
+
+    private static QuantileSketch mergeSketch(QuantileSketch into, QuantileSketch other) {
+        if (other == null) return into;
+        if (into == null) into = new QuantileSketch();
+        into.merge(other);
+        return into;
+    }
+
+    /** Construit la colonne résultat pour les {@code groups} premiers groupes. */
+    Series<?> result(String name, int groups) {
+        if (kind == Aggregation.Kind.COUNT) {
+            return new LongSeries(name, Arrays.copyOf(counts, groups));
+        }
+        if (kind == Aggregation.Kind.APPROX_DISTINCT) {
+            long[] estimates = new long[groups];
+            for (int g = 0; g < groups; g++) {
+                estimates[g] = distinct[g] == null ? 0 : distinct[g].estimate();
+            }
+            return new LongSeries(name, estimates);
+        }
+        double[] out = new double[groups];
+        for (int g = 0; g < groups; g++) {
+            switch (kind) {
+                case MEAN:
+                    out[g] = values[g] / counts[g];
+                    break;
+                case VARIANCE:
+                    out[g] = counts[g] > 1 ? m2[g] / (counts[g] - 1) : Double.NaN;
+                    break;
+                case APPROX_QUANTILE:
+                    out[g] = sketches[g] == null ? Double.NaN : sketches[g].quantile(quantile);
+                    break;
+                default:
+                    out[g] = values[g];
+            }
+        }
+        return new DoubleSeries(name, out);
+    }
+}
@@ -0,0 +1,149 @@
+package com.ilian.dataframe;
+
+/**
+ * Agrégat calculé par groupe dans {@link GroupBy#agg(Aggregation...)}.
+ *
+ * Chaque agrégat produit une colonne du résultat, nommée par défaut {@code fonction(colonne)}
+ * (par exemple {@code mean(Note)}) ou selon le nom donné à {@link #as(String)}.
+ */
+public final class Aggregation {
+
+    /** Fonctions d'agrégation disponibles. */
+    enum Kind { COUNT, SUM, MIN, MAX, MEAN, VARIANCE, APPROX_DISTINCT, APPROX_QUANTILE }
+
+    private final Kind kind;
+    private final String label;
+    private final String name;
+    /** Ordre du quantile, pour {@link Kind#APPROX_QUANTILE}. */
+    private final double quantile;
+
+    private Aggregation(Kind kind, String label, String name, double quantile) {
+        this.kind = kind;
+        this.label = label;
+        this.name = name;
+        this.quantile = quantile;
+    }
+
+    private static Aggregation of(Kind kind, String label) {
+        return new Aggregation(kind, label, kind.name().toLowerCase() + "(" + label + ")", Double.NaN);
+    }
+
+    /**
+     * Nombre de lignes de chaque groupe.
+     *
+     * @return L'agrégat, nommé {@code count}.
+     */
+    public static Aggregation count() {
+        return new Aggregation(Kind.COUNT, null, "count", Double.NaN);
+    }
+
+    /**
+     * Somme d'une colonne numérique.
+     *
+     * @param label L'étiquette de la colonne.
+     * @return L'agrégat.
+     */
+    public static Aggregation sum(String label) {
+        return of(Kind.SUM, label);
+    }
+
+    /**
+     * Minimum d'une colonne numérique.
+     *
+     * @param label L'étiquette de la colonne.
+     * @return L'agrégat.
+     */
+    public static Aggregation min(String label) {
+        return of(Kind.MIN, label);
+    }
+
+    /**
+     * Maximum d'une colonne numérique.
+     *
+     * @param label L'étiquette de la colonne.
+     * @return L'agrégat.
+     */
+    public static Aggregation max(String label) {
+        return of(Kind.MAX, label);
+    }
+
+    /**
+     * Moyenne d'une colonne numérique.
+     *
+     * @param label L'étiquette de la colonne.
+     * @return L'agrégat.
+     */
+    public static Aggregation mean(String label) {
+        return of(Kind.MEAN, label);
+    }
+
+    /**
+     * Variance (échantillon, dénominateur {@code n - 1}) d'une colonne numérique.
+     * Vaut NaN pour un groupe d'une seule ligne.
+     *
+     * @param label L'étiquette de la colonne.
+     * @return L'agrégat.
+     */
+    public static Aggregation variance(String label) {
+        return of(Kind.VARIANCE, label);
+    }
+
+    /**
+     * Nombre estimé de valeurs distinctes non nulles d'une colonne, numérique ou textuelle
+     * (voir {@link HyperLogLog} : exact pour les petits groupes, environ 2 % d'erreur au-delà).
+     *
+     * @param label L'étiquette de la colonne.
+     * @return L'agrégat, nommé {@code approxDistinct(colonne)}.
+     */
+    public static Aggregation approxDistinct(String label) {
+        return new Aggregation(Kind.APPROX_DISTINCT, label, "approxDistinct(" + label + ")", Double.NaN);
+    }
+
+    /**
+     * Quantile estimé d'une colonne numérique (voir {@link QuantileSketch} : exact pour les
+     * petits groupes, erreur de rang inférieure à 1 % au-delà).
+     *
+     * @param label L'étiquette de la colonne.
+     * @param q     L'ordre du quantile, entre 0 et 1 (0,5 pour la médiane).
+     * @return L'agrégat, nommé {@code approxQuantile(colonne, q)}.
+     * @throws IllegalArgumentException si {@code q} n'est pas entre 0 et 1.
+     */
+    public static Aggregation approxQuantile(String label, double q) {
+        if (!(q >= 0 && q <= 1)) {
+            throw new IllegalArgumentException("Quantile order must be between 0 and 1: " + q);
+        }
+        return new Aggregation(Kind.APPROX_QUANTILE, label, "approxQuantile(" + label + ", " + q + ")", q);
+    }
+
+    /**
+     * Retourne le même agrégat avec un autre nom de colonne en sortie.
+     *
+     * @param name Le nom de la colonne produite.
+     * @return Le nouvel agrégat.
+     */
+    public Aggregation as(String name) {
+        return new Aggregation(kind, label, name, quantile);
+    }
+
+    Kind getKind() {
+        return kind;
+    }
+
+    double getQuantile() {
+        return quantile;
+    }
+
+    /** Étiquette de la colonne agrégée, ou null pour {@link #count()}. */
+    String getLabel() {
+        return label;
+    }
+
+    /**
+     * Retourne le nom de la colonne produite par cet agrégat.
+     *
+     * @return Le nom de la colonne.
+     */
+    public String getName() {
+        return name;
+    }
+}
@@ -1,12 +1,14 @@
 package com.ilian.dataframe;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Map;
 import java.util.Scanner;
 
 /**
  * Classe principale de l'application.
  * Permet de charger un fichier CSV et d'interagir avec son contenu via un menu CLI.
+ * L'option {@code --cache} active le cache binaire du CSV (voir {@link CsvOptions#snapshotCache(boolean)}).
  */
 public class App {
 
@@ -15,7 +17,8 @@ public class App {
         DataFrame df = null;
 
         try {
-            df = CsvLoader.load("data/etudiants.csv");
+            boolean cache = Arrays.asList(args).contains("--cache");
+            df = CsvLoader.load("data/etudiants.csv", new CsvOptions().snapshotCache(cache));
             System.out.println("✅ Fichier chargé avec succès !");
         } catch (IOException e) {
             System.err.println("❌ Erreur lors du chargement du fichier CSV : " + e.getMessage());
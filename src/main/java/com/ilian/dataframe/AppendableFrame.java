@@ -0,0 +1,593 @@
+package com.ilian.dataframe;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Table extensible par ajout de lignes, lisible pendant les ajouts sans verrou.
+ *
+ * Chaque colonne est découpée en blocs de 16 384 lignes : un bloc plein est scellé et ses
+ * statistiques sont calculées une fois pour toutes. Les valeurs de chaque colonne sont rangées
+ * dans des tableaux qui ne font que grandir (par doublement de capacité) : un bloc scellé y est
+ * écrit une seule fois, et chaque publication n'y écrit que le dernier bloc, incomplet. Une
+ * colonne ne grandit donc jamais par recopie de tout son contenu, ni à l'ajout ni à la lecture.
+ *
+ * Après chaque ajout, une version immuable (une vue sur les lignes publiées de chaque colonne)
+ * est publiée par une simple écriture volatile : les lecteurs ({@link #snapshot()},
+ * {@link #getStatistics(String)}...) voient toujours une version cohérente, récente, sans prendre
+ * de verrou ni bloquer l'écrivain. Les ajouts sont sérialisés entre eux et n'écrivent qu'au-delà
+ * des lignes publiées (ou y réécrivent les mêmes valeurs).
+ *
+ * Le type de chaque colonne est déduit des valeurs ajoutées et peut s'élargir au fil des ajouts
+ * (INT, LONG, DOUBLE), comme pour {@link CsvLoader#stream(String, int)} ; les valeurs déjà rangées
+ * sont alors converties dans de nouveaux tableaux, et les versions déjà publiées gardent les
+ * anciens. Une colonne numérique qui reçoit du texte devient textuelle en entier : les lignes
+ * CSV déjà ajoutées reprennent le texte exact de leurs cellules (relu dans le fichier pour les
+ * blocs scellés d'un {@link CsvFollower}), comme {@link CsvLoader#load(String)} ; seules les
+ * valeurs ajoutées sous forme de nombres par {@link #append(DataFrame)} sont écrites avec leur
+ * représentation Java.
+ *
+ * <pre>{@code
+ * AppendableFrame feed = new AppendableFrame("Titre", "Prix");
+ * feed.append(batch);
+ * feed.getStatistics("Prix");
+ * }</pre>
+ */
+public final class AppendableFrame {
+
+    /** Nombre de lignes d'un bloc scellé. */
+    static final int CHUNK_ROWS = 1 << 14;
+
+    /**
+     * Relit les lignes CSV non vides comprises entre deux positions (en octets) du fichier source.
+     */
+    interface LineSource {
+        List<String> read(long from, long to) throws IOException;
+    }
+
+    private final List<String> labels;
+    private final LineSource source;
+    /** État de l'écrivain, protégé par le moniteur de cet objet. */
+    private final Column[] columns;
+    private final CellScanner scanner = new CellScanner();
+    /** Ligne CSV brute de chaque ligne du bloc ouvert, ou null pour une ligne ajoutée par DataFrame. */
+    private String[] tailLines = new String[CHUNK_ROWS];
+    /** Plage du fichier source couverte par le bloc ouvert, si toutes ses lignes en viennent. */
+    private boolean tailFromSource = true;
+    private long tailFrom = -1;
+    private long tailTo;
+    /** Plage du fichier source de chaque bloc scellé, ou null. */
+    private final List<long[]> sealedRanges = new ArrayList<>();
+    private volatile Version version;
+
+    /**
+     * Crée une table vide.
+     *
+     * @param labels Les étiquettes des colonnes.
+     * @throws IllegalArgumentException si aucune étiquette n'est donnée ou si une étiquette est en double.
+     */
+    public AppendableFrame(String... labels) {
+        this(labels, null);
+    }
+
+    /**
+     * Crée une table alimentée par un fichier CSV, dont les lignes peuvent être relues.
+     */
+    AppendableFrame(String[] labels, LineSource source) {
+        this.source = source;
+        if (labels.length == 0) {
+            throw new IllegalArgumentException("At least one column is required");
+        }
+        Set<String> seen = new HashSet<>();
+        columns = new Column[labels.length];
+        for (int c = 0; c < labels.length; c++) {
+            if (!seen.add(labels[c])) {
+                throw new IllegalArgumentException("Duplicate column label: " + labels[c]);
+            }
+            columns[c] = new Column(labels[c]);
+        }
+        this.labels = Collections.unmodifiableList(Arrays.asList(labels.clone()));
+        publish();
+    }
+
+    /**
+     * Ajoute les lignes d'un DataFrame à la fin de la table. Les valeurs sont copiées : le
+     * DataFrame peut ensuite être modifié ou réutilisé (par exemple un lot de
+     * {@link CsvLoader#stream(String, int)}).
+     *
+     * @param batch Les lignes à ajouter, avec exactement les colonnes de la table (dans un ordre quelconque).
+     * @return Cette table.
+     * @throws IllegalArgumentException si les colonnes du DataFrame ne sont pas celles de la table.
+     */
+    public synchronized AppendableFrame append(DataFrame batch) {
+        if (batch.getColumnCount() != columns.length || !batch.getColumnLabels().containsAll(labels)) {
+            throw new IllegalArgumentException("Expected columns " + labels + " but got " + batch.getColumnLabels());
+        }
+        int rows = batch.getRowCount();
+        try {
+            for (int from = 0; from < rows; ) {
+                int to = Math.min(rows, from + CHUNK_ROWS - columns[0].tail.size());
+                // Convert every column that receives text before copying any row, so that a
+                // failed conversion leaves all columns with the same length.
+                for (int c = 0; c < columns.length; c++) {
+                    Series<?> values = batch.getColumn(columns[c].label);
+                    if (columns[c].tail.type() != ColumnType.STRING && !Column.isNumeric(values, from, to)) {
+                        toText(c);
+                    }
+                }
+                for (Column column : columns) {
+                    Column.copy(column.tail, batch.getColumn(column.label), from, to);
+                }
+                tailFromSource = false;
+                sealIfFull();
+                from = to;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        publish();
+        return this;
+    }
+
+    /**
+     * Ajoute des lignes CSV (cellules séparées par des virgules, dans l'ordre des colonnes), sans
+     * les publier : l'appelant appelle {@link #publish()} une fois le lot terminé.
+     *
+     * @param lines Les lignes, non vides.
+     * @param from  La position dans le fichier source du début de la première ligne.
+     * @param ends  La position qui suit chaque ligne (son saut de ligne compris).
+     * @throws IOException si une colonne devient textuelle et que ses blocs scellés ne peuvent
+     *                     pas être relus.
+     */
+    synchronized void appendLines(List<String> lines, long from, long[] ends) throws IOException {
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i);
+            int row = columns[0].tail.size();
+            if (row == 0) {
+                tailFrom = i == 0 ? from : ends[i - 1];
+            }
+            String[] cells = line.split(",", -1);
+            for (int c = 0; c < columns.length; c++) {
+                String cell = c < cells.length ? cells[c] : "";
+                if (!columns[c].appendCell(cell, scanner)) {
+                    try {
+                        toText(c);
+                    } catch (IOException e) {
+                        // Take the row back from the columns that already received it.
+                        for (int k = 0; k < c; k++) {
+                            columns[k].tail.removeLast();
+                        }
+                        throw e;
+                    }
+                    columns[c].tail.appendString(cell);
+                }
+            }
+            tailLines[row] = line;
+            tailTo = ends[i];
+            sealIfFull();
+        }
+    }
+
+    /**
+     * Rend une colonne textuelle : le bloc ouvert reprend le texte brut de ses lignes CSV, et
+     * chaque bloc scellé numérique est relu dans le fichier source (ou, pour les lignes ajoutées
+     * par DataFrame, écrit avec la représentation Java de ses valeurs). La colonne n'est
+     * modifiée que si toute la conversion réussit.
+     */
+    private void toText(int c) throws IOException {
+        Column column = columns[c];
+        Series<?> values = column.tail.build(column.label);
+        ColumnBuilder text = new ColumnBuilder(ColumnType.STRING, CHUNK_ROWS);
+        for (int r = 0; r < values.size(); r++) {
+            text.appendString(tailLines[r] != null ? cell(tailLines[r], c) : render(values.get(r)));
+        }
+
+        // A numeric column only ever holds numeric chunks, so every sealed chunk is rebuilt
+        // into a new store; published versions keep reading the old one.
+        Series<?> numbers = column.store.view(column.label, column.sealedRows);
+        Store store = new Store(true);
+        ColumnStatistics sealedStatistics = null;
+        for (int k = 0; k < sealedRanges.size(); k++) {
+            Series<?> chunk = numbers.slice(k * CHUNK_ROWS, (k + 1) * CHUNK_ROWS);
+            ColumnBuilder rebuilt = new ColumnBuilder(ColumnType.STRING, CHUNK_ROWS);
+            long[] range = sealedRanges.get(k);
+            List<String> lines = range != null && source != null ? source.read(range[0], range[1]) : null;
+            if (lines != null && lines.size() != CHUNK_ROWS) {
+                throw new IOException("Le fichier suivi a été modifié avant la position lue.");
+            }
+            for (int r = 0; r < CHUNK_ROWS; r++) {
+                rebuilt.appendString(lines != null ? cell(lines.get(r), c) : render(chunk.get(r)));
+            }
+            Series<?> rebuiltChunk = rebuilt.build(column.label);
+            store.write(k * CHUNK_ROWS, rebuiltChunk);
+            ColumnStatistics stats = rebuiltChunk.getStatistics();
+            sealedStatistics = sealedStatistics == null ? stats : sealedStatistics.merge(stats);
+        }
+        column.tail = text;
+        column.store = store;
+        column.sealedStatistics = sealedStatistics;
+    }
+
+    private static String cell(String line, int c) {
+        String[] cells = line.split(",", -1);
+        return c < cells.length ? cells[c] : "";
+    }
+
+    private static String render(Object value) {
+        return value == null ? "" : value.toString();
+    }
+
+    private void sealIfFull() {
+        if (columns[0].tail.size() == CHUNK_ROWS) {
+            for (Column column : columns) {
+                column.seal();
+            }
+            sealedRanges.add(tailFromSource && source != null ? new long[] {tailFrom, tailTo} : null);
+            tailLines = new String[CHUNK_ROWS];
+            tailFromSource = true;
+        }
+    }
+
+    /**
+     * Publie une nouvelle version contenant toutes les lignes ajoutées. Seul le dernier bloc
+     * de chaque colonne est construit et écrit à la suite des blocs scellés ; la version n'est
+     * qu'une vue sur les tableaux de chaque colonne.
+     */
+    synchronized void publish() {
+        int rows = columns[0].sealedRows + columns[0].tail.size();
+        List<Series<?>> series = new ArrayList<>(columns.length);
+        Series<?>[] tails = new Series<?>[columns.length];
+        ColumnStatistics[] sealed = new ColumnStatistics[columns.length];
+        for (int c = 0; c < columns.length; c++) {
+            Column column = columns[c];
+            if (column.tail.size() > 0) {
+                tails[c] = column.tail.build(column.label);
+                column.store.write(column.sealedRows, tails[c]);
+            }
+            series.add(column.store.view(column.label, rows));
+            sealed[c] = column.sealedStatistics;
+        }
+        version = new Version(rows, new DataFrame(series), tails, sealed);
+    }
+
+    /**
+     * Retourne les étiquettes des colonnes, dans l'ordre de la table.
+     *
+     * @return La liste non modifiable des étiquettes.
+     */
+    public List<String> getColumnLabels() {
+        return labels;
+    }
+
+    /**
+     * Retourne le nombre de lignes de la dernière version publiée.
+     *
+     * @return Le nombre de lignes.
+     */
+    public int getRowCount() {
+        return version.rows;
+    }
+
+    /**
+     * Retourne le contenu de la dernière version publiée sous forme de DataFrame, que les ajouts
+     * suivants ne modifient pas. Aucune valeur n'est copiée : chaque colonne est une vue sur
+     * les lignes publiées.
+     *
+     * @return Un DataFrame immuable des lignes publiées.
+     */
+    public DataFrame snapshot() {
+        return version.frame;
+    }
+
+    /**
+     * Retourne les statistiques d'une colonne numérique sur toutes les lignes publiées (voir
+     * {@link DataFrame#getStatistics(String)}), sans construire de DataFrame : celles des blocs
+     * scellés sont déjà fusionnées, seules celles du dernier bloc sont calculées puis combinées.
+     *
+     * @param label Le nom de la colonne.
+     * @return Une map contenant les statistiques, ou null si la colonne n'est pas numérique,
+     *         est vide ou introuvable.
+     */
+    public Map<String, Double> getStatistics(String label) {
+        int c = labels.indexOf(label);
+        if (c < 0) return null;
+        ColumnStatistics stats = version.statistics(c);
+        if (stats == null || !stats.isNumeric() || stats.getCount() == 0) {
+            return null;
+        }
+        return stats.asMap();
+    }
+
+    /** Une version publiée : une vue sur les lignes publiées de chaque colonne. */
+    private static final class Version {
+        final int rows;
+        final DataFrame frame;
+        /** Dernier bloc de chaque colonne (null s'il est vide). */
+        final Series<?>[] tails;
+        /** Statistiques fusionnées des blocs scellés de chaque colonne (null s'il n'y en a pas). */
+        final ColumnStatistics[] sealed;
+
+        Version(int rows, DataFrame frame, Series<?>[] tails, ColumnStatistics[] sealed) {
+            this.rows = rows;
+            this.frame = frame;
+            this.tails = tails;
+            this.sealed = sealed;
+        }
+
+        ColumnStatistics statistics(int c) {
+            if (tails[c] == null) {
+                return sealed[c];
+            }
+            ColumnStatistics tail = tails[c].getStatistics();
+            return sealed[c] == null ? tail : sealed[c].merge(tail);
+        }
+    }
+
+    /**
+     * Valeurs de toutes les lignes rangées d'une colonne, dans des tableaux qui ne font que
+     * grandir. Une ligne déjà écrite n'est ensuite que réécrite à l'identique, et tout
+     * changement de capacité ou de type passe par de nouveaux tableaux : une vue renvoyée par
+     * {@link #view(String, int)} ne voit donc jamais ses lignes changer.
+     *
+     * Le texte est encodé par dictionnaire tant que les valeurs se répètent, comme au chargement
+     * d'un CSV ; au-delà de {@link #MAX_DICTIONARY} valeurs distinctes, le dictionnaire serait
+     * recopié à trop de publications et le texte est rangé tel quel.
+     */
+    private static final class Store {
+        static final int MAX_DICTIONARY = CHUNK_ROWS;
+
+        private final boolean text;
+        private ColumnType type;
+        private int capacity = CHUNK_ROWS;
+        /** Nombre de lignes écrites. */
+        private int size;
+        private int[] ints;
+        private long[] longs;
+        private double[] doubles;
+        private long[] validity;
+        private boolean nullable;
+        private int[] codes;
+        private String[] entries;
+        private int distinct;
+        private final Map<String, Integer> known = new HashMap<>();
+        /** Copie exacte des entrées, partagée par les vues tant qu'aucune valeur n'est ajoutée. */
+        private String[] dictionary;
+        private String[] strings;
+
+        Store(boolean text) {
+            this.text = text;
+            if (text) {
+                type = ColumnType.STRING;
+                codes = new int[capacity];
+                entries = new String[16];
+            } else {
+                type = ColumnType.INT;
+                ints = new int[capacity];
+                validity = new long[Bitmaps.words(capacity)];
+            }
+        }
+
+        boolean isText() {
+            return text;
+        }
+
+        /** Écrit les valeurs d'un bloc à partir de la ligne {@code at}. */
+        void write(int at, Series<?> values) {
+            int n = values.size();
+            reserve(at + n);
+            if (text) {
+                if (values instanceof NumericSeries) {
+                    throw new IllegalStateException("Numeric values written to a text column");
+                }
+                for (int i = 0; i < n; i++) {
+                    writeText(at + i, (String) values.get(i));
+                }
+            } else {
+                if (!(values instanceof NumericSeries)) {
+                    throw new IllegalStateException("Text written to a numeric column");
+                }
+                NumericSeries<?> numbers = (NumericSeries<?>) values;
+                widenTo(values instanceof IntSeries ? ColumnType.INT
+                        : values instanceof LongSeries ? ColumnType.LONG : ColumnType.DOUBLE);
+                for (int i = 0; i < n; i++) {
+                    int row = at + i;
+                    if (numbers.isNull(i)) {
+                        nullable = true;
+                        continue;
+                    }
+                    validity[row >>> 6] |= 1L << row;
+                    if (type == ColumnType.INT) {
+                        ints[row] = ((IntSeries) numbers).getInt(i);
+                    } else if (type == ColumnType.LONG) {
+                        longs[row] = numbers instanceof IntSeries
+                                ? ((IntSeries) numbers).getInt(i) : ((LongSeries) numbers).getLong(i);
+                    } else {
+                        doubles[row] = numbers.getDouble(i);
+                    }
+                }
+            }
+            size = Math.max(size, at + n);
+        }
+
+        private void writeText(int row, String value) {
+            if (strings == null) {
+                Integer code = known.get(value);
+                if (code == null && distinct == MAX_DICTIONARY) {
+                    decode(Math.max(size, row));
+                } else {
+                    if (code == null) {
+                        if (distinct == entries.length) {
+                            entries = Arrays.copyOf(entries, distinct * 2);
+                        }
+                        entries[distinct] = value;
+                        code = distinct++;
+                        known.put(value, code);
+                    }
+                    codes[row] = code;
+                    return;
+                }
+            }
+            strings[row] = value;
+        }
+
+        /** Remplace les codes des {@code rows} premières lignes par leur texte. */
+        private void decode(int rows) {
+            strings = new String[capacity];
+            for (int r = 0; r < rows; r++) {
+                strings[r] = entries[codes[r]];
+            }
+            codes = null;
+            entries = null;
+            dictionary = null;
+            known.clear();
+        }
+
+        private void reserve(int rows) {
+            if (rows <= capacity) return;
+            capacity = Math.max(capacity * 2, rows);
+            if (ints != null) ints = Arrays.copyOf(ints, capacity);
+            if (longs != null) longs = Arrays.copyOf(longs, capacity);
+            if (doubles != null) doubles = Arrays.copyOf(doubles, capacity);
+            if (validity != null) validity = Arrays.copyOf(validity, Bitmaps.words(capacity));
+            if (codes != null) codes = Arrays.copyOf(codes, capacity);
+            if (strings != null) strings = Arrays.copyOf(strings, capacity);
+        }
+
+        private void widenTo(ColumnType target) {
+            if (target.compareTo(type) <= 0) return;
+            if (target == ColumnType.LONG) {
+                longs = new long[capacity];
+                for (int r = 0; r < size; r++) longs[r] = ints[r];
+            } else {
+                doubles = new double[capacity];
+                for (int r = 0; r < size; r++) doubles[r] = ints != null ? ints[r] : longs[r];
+            }
+            ints = null;
+            if (target == ColumnType.DOUBLE) longs = null;
+            type = target;
+        }
+
+        /** Retourne une vue sur les {@code rows} premières lignes, sans copie des valeurs. */
+        Series<?> view(String label, int rows) {
+            long[] valid = nullable ? validity : null;
+            switch (type) {
+                case INT:
+                    return new IntSeries(label, ints, valid).slice(0, rows);
+                case LONG:
+                    return new LongSeries(label, longs, valid).slice(0, rows);
+                case DOUBLE:
+                    return new DoubleSeries(label, doubles, valid).slice(0, rows);
+                default:
+                    if (strings == null && rows >= CHUNK_ROWS && distinct > rows * DictionarySeries.MAX_DISTINCT_RATIO) {
+                        decode(size);
+                    }
+                    if (strings != null) {
+                        return new Series<>(label, Arrays.asList(strings)).slice(0, rows);
+                    }
+                    if (dictionary == null || dictionary.length != distinct) {
+                        dictionary = Arrays.copyOf(entries, distinct);
+                    }
+                    return new DictionarySeries(label, codes, dictionary).slice(0, rows);
+            }
+        }
+    }
+
+    /** Bloc ouvert et lignes rangées d'une colonne en cours de construction. */
+    private static final class Column {
+        final String label;
+        Store store = new Store(false);
+        /** Nombre de lignes des blocs scellés. */
+        int sealedRows;
+        ColumnStatistics sealedStatistics;
+        ColumnBuilder tail = new ColumnBuilder(ColumnType.INT, CHUNK_ROWS);
+
+        Column(String label) {
+            this.label = label;
+        }
+
+        /**
+         * Ajoute une cellule CSV, avec les règles de {@link CsvBatchReader}.
+         *
+         * @return false, sans rien ajouter, si la cellule est du texte et la colonne numérique.
+         */
+        boolean appendCell(String cell, CellScanner scanner) {
+            if (tail.type() == ColumnType.STRING) {
+                tail.appendString(cell);
+            } else if (cell.isEmpty()) {
+                tail.appendNull();
+            } else {
+                ColumnType cellType = scanner.scan(cell, 0, cell.length());
+                if (cellType == ColumnType.STRING) {
+                    return false;
+                }
+                tail.append(cellType, scanner);
+            }
+            return true;
+        }
+
+        static boolean isNumeric(Series<?> values, int from, int to) {
+            if (values instanceof NumericSeries) {
+                return true;
+            }
+            for (int i = from; i < to; i++) {
+                Object v = values.get(i);
+                if (v != null && !(v instanceof Number)) return false;
+            }
+            return true;
+        }
+
+        /** Copie des valeurs dans un tampon, en texte si le tampon est de type STRING. */
+        static void copy(ColumnBuilder builder, Series<?> values, int from, int to) {
+            if (builder.type() == ColumnType.STRING) {
+                for (int i = from; i < to; i++) {
+                    Object v = values.get(i);
+                    builder.appendString(v == null ? "" : v.toString());
+                }
+            } else if (values instanceof IntSeries) {
+                IntSeries ints = (IntSeries) values;
+                for (int i = from; i < to; i++) {
+                    if (ints.isNull(i)) builder.appendNull(); else builder.appendLong(ints.getInt(i));
+                }
+            } else if (values instanceof LongSeries) {
+                LongSeries longs = (LongSeries) values;
+                for (int i = from; i < to; i++) {
+                    if (longs.isNull(i)) builder.appendNull(); else builder.appendLong(longs.getLong(i));
+                }
+            } else if (values instanceof NumericSeries) {
+                NumericSeries<?> numbers = (NumericSeries<?>) values;
+                for (int i = from; i < to; i++) {
+                    if (numbers.isNull(i)) builder.appendNull(); else builder.appendDouble(numbers.getDouble(i));
+                }
+            } else {
+                for (int i = from; i < to; i++) {
+                    Object v = values.get(i);
+                    if (v == null) {
+                        builder.appendNull();
+                    } else if (v instanceof Double || v instanceof Float) {
+                        builder.appendDouble(((Number) v).doubleValue());
+                    } else {
+                        builder.appendLong(((Number) v).longValue());
+                    }
+                }
+            }
+        }
+
+        /** Scelle le bloc plein ; le bloc suivant reste textuel si celui-ci l'était. */
+        void seal() {
+            Series<?> chunk = tail.build(label);
+            store.write(sealedRows, chunk);
+            ColumnStatistics stats = chunk.getStatistics();
+            sealedStatistics = sealedStatistics == null ? stats : sealedStatistics.merge(stats);
+            sealedRows += chunk.size();
+            tail = new ColumnBuilder(tail.type() == ColumnType.STRING ? ColumnType.STRING : ColumnType.INT, CHUNK_ROWS);
+        }
+    }
+}
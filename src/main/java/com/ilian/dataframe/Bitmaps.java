@@ -0,0 +1,88 @@
+package com.ilian.dataframe;
+
+/**
+ * Opérations sur des bitmaps de lignes stockés dans des {@code long[]}
+ * (bit {@code i % 64} du mot {@code i / 64} pour la ligne {@code i}).
+ *
+ * Les bits situés au-delà du nombre de lignes sont toujours à zéro.
+ */
+final class Bitmaps {
+
+    private Bitmaps() {
+    }
+
+    /** Nombre de mots nécessaires pour {@code rows} lignes. */
+    static int words(int rows) {
+        return (rows + 63) >>> 6;
+    }
+
+    /** {@code target &= other}, mot par mot. */
+    static void and(long[] target, long[] other) {
+        for (int w = 0; w < target.length; w++) {
+            target[w] &= other[w];
+        }
+    }
+
+    /** {@code target |= other}, mot par mot. */
+    static void or(long[] target, long[] other) {
+        for (int w = 0; w < target.length; w++) {
+            target[w] |= other[w];
+        }
+    }
+
+    /** Inverse les {@code rows} premiers bits. */
+    static void not(long[] target, int rows) {
+        for (int w = 0; w < target.length; w++) {
+            target[w] = ~target[w];
+        }
+        clearTail(target, rows);
+    }
+
+    /** Remet à zéro les bits situés au-delà de {@code rows}. */
+    static void clearTail(long[] target, int rows) {
+        if ((rows & 63) != 0) {
+            target[target.length - 1] &= (1L << rows) - 1;
+        }
+    }
+
+    /** Met à un les bits {@code [from, to)}. */
+    static void setRange(long[] target, int from, int to) {
+        if (from >= to) return;
+        int first = from >>> 6;
+        int last = (to - 1) >>> 6;
+        long head = -1L << from;
+        long tail = -1L >>> -to;
+        if (first == last) {
+            target[first] |= head & tail;
+            return;
+        }
+        target[first] |= head;
+        for (int w = first + 1; w < last; w++) {
+            target[w] = -1L;
+        }
+        target[last] |= tail;
+    }
+
+    /** Nombre de bits à un. */
+    static int cardinality(long[] bits) {
+        int count = 0;
+        for (long word : bits) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /** Convertit le bitmap en vecteur de sélection (index croissants des bits à un). */
+    static int[] toIndices(long[] bits) {
+        int[] indices = new int[cardinality(bits)];
+        int k = 0;
+        for (int w = 0; w < bits.length; w++) {
+            long word = bits[w];
+            while (word != 0) {
+                indices[k++] = (w << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+            }
+        }
+        return indices;
+    }
+}
@@ -0,0 +1,91 @@
+package com.ilian.dataframe;
+
+/**
+ * Analyseur de cellules sans expression régulière.
+ *
+ * En un seul passage sur les caractères d'une cellule, il détermine le type le plus étroit
+ * qui la représente (selon la grammaire {@code -?\d+(\.\d+)?}) et calcule sa valeur.
+ * Une instance n'est pas thread-safe : chaque thread de chargement utilise la sienne.
+ */
+final class CellScanner {
+
+    private static final double[] POW10 = new double[23];
+
+    static {
+        POW10[0] = 1.0;
+        for (int i = 1; i < POW10.length; i++) {
+            POW10[i] = POW10[i - 1] * 10.0;
+        }
+    }
+
+    /** Valeur entière de la dernière cellule de type INT ou LONG. */
+    long longValue;
+
+    /** Valeur flottante de la dernière cellule de type DOUBLE. */
+    double doubleValue;
+
+    /**
+     * Analyse les caractères {@code [from, to)} de la séquence.
+     *
+     * @return Le type de la cellule ; {@link #longValue} ou {@link #doubleValue} contient sa valeur.
+     */
+    ColumnType scan(CharSequence s, int from, int to) {
+        int i = from;
+        if (i == to) return ColumnType.STRING;
+
+        boolean negative = s.charAt(i) == '-';
+        if (negative && ++i == to) return ColumnType.STRING;
+
+        long mantissa = 0;
+        boolean overflow = false;
+        int intStart = i;
+        while (i < to) {
+            int d = s.charAt(i) - '0';
+            if (d < 0 || d > 9) break;
+            if (mantissa > (Long.MAX_VALUE - d) / 10) {
+                overflow = true;
+            } else if (!overflow) {
+                mantissa = mantissa * 10 + d;
+            }
+            i++;
+        }
+        if (i == intStart) return ColumnType.STRING;
+
+        if (i == to) {
+            if (overflow) {
+                doubleValue = parseSlow(s, from, to);
+                return ColumnType.DOUBLE;
+            }
+            longValue = negative ? -mantissa : mantissa;
+            return longValue == (int) longValue ? ColumnType.INT : ColumnType.LONG;
+        }
+
+        if (s.charAt(i++) != '.') return ColumnType.STRING;
+        int fracStart = i;
+        while (i < to) {
+            int d = s.charAt(i) - '0';
+            if (d < 0 || d > 9) return ColumnType.STRING;
+            if (mantissa > (Long.MAX_VALUE - d) / 10) {
+                overflow = true;
+            } else if (!overflow) {
+                mantissa = mantissa * 10 + d;
+            }
+            i++;
+        }
+        int fracDigits = to - fracStart;
+        if (fracDigits == 0) return ColumnType.STRING;
+
+        // Exact when both operands are exactly representable as doubles.
+        if (!overflow && mantissa < (1L << 53) && fracDigits < POW10.length) {
+            double v = mantissa / POW10[fracDigits];
+            doubleValue = negative ? -v : v;
+        } else {
+            doubleValue = parseSlow(s, from, to);
+        }
+        return ColumnType.DOUBLE;
+    }
+
+    private static double parseSlow(CharSequence s, int from, int to) {
+        return Double.parseDouble(s.subSequence(from, to).toString());
+    }
+}
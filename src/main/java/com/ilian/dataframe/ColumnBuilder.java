@@ -0,0 +1,346 @@
+package com.ilian.dataframe;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tampon de construction d'une colonne typée.
+ *
+ * Les valeurs sont accumulées dans un tableau primitif qui est élargi sur place
+ * ({@code int[]} vers {@code long[]} puis {@code double[]}) dès qu'une valeur plus large
+ * est rencontrée. Le passage au type STRING n'est jamais automatique : l'appelant doit
+ * fournir le texte brut des cellules via {@link #appendString(String)}. Les colonnes de texte
+ * répétitif sont encodées par dictionnaire à la construction.
+ *
+ * Les cellules vides d'une colonne numérique sont ajoutées par {@link #appendNull()} : elles
+ * occupent une case du tableau (valeur 0) et sont marquées dans un bitmap des lignes nulles,
+ * alloué seulement à la première d'entre elles, qui devient le bitmap de validité de la série.
+ *
+ * Les colonnes d'entiers sont compressées à la construction quand c'est rentable
+ * (voir {@link IntSeries#encode(String, int[], int, long[])}).
+ */
+final class ColumnBuilder {
+    private ColumnType type;
+    private int size;
+    private int[] ints;
+    private long[] longs;
+    private double[] doubles;
+    private String[] strings;
+    /** Lignes nulles (un bit par ligne), ou null s'il n'y en a aucune. */
+    private long[] nulls;
+    private int nullCount;
+
+    ColumnBuilder(ColumnType type, int capacity) {
+        this.type = type;
+        capacity = Math.max(capacity, 16);
+        switch (type) {
+            case INT:
+                ints = new int[capacity];
+                break;
+            case LONG:
+                longs = new long[capacity];
+                break;
+            case DOUBLE:
+                doubles = new double[capacity];
+                break;
+            default:
+                strings = new String[capacity];
+        }
+    }
+
+    ColumnType type() {
+        return type;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Vide le tampon en conservant ses tableaux et son type, pour le remplir à nouveau
+     * (lots successifs d'un même fichier). Les séries construites précédemment partagent
+     * ces tableaux et ne doivent plus être lues.
+     */
+    void clear() {
+        size = 0;
+        nullCount = 0;
+        if (nulls != null) Arrays.fill(nulls, 0L);
+    }
+
+    /** Retire la dernière valeur ajoutée ; la colonne garde son type, éventuellement élargi. */
+    void removeLast() {
+        size--;
+        if (nulls != null && size >>> 6 < nulls.length && (nulls[size >>> 6] & (1L << size)) != 0) {
+            nulls[size >>> 6] &= ~(1L << size);
+            nullCount--;
+        }
+        if (strings != null) {
+            strings[size] = null;
+        }
+    }
+
+    /** Indique si au moins une valeur non nulle a été ajoutée. */
+    boolean hasValues() {
+        return size > nullCount;
+    }
+
+    /**
+     * Ajoute la dernière valeur analysée par le scanner, en élargissant la colonne si nécessaire.
+     *
+     * @param cellType Le type retourné par {@link CellScanner#scan}, différent de STRING.
+     */
+    void append(ColumnType cellType, CellScanner scanner) {
+        if (cellType == ColumnType.DOUBLE) {
+            appendDouble(scanner.doubleValue);
+        } else {
+            appendLong(cellType, scanner.longValue);
+        }
+    }
+
+    /**
+     * Ajoute une valeur entière, en élargissant la colonne si elle ne tient pas dans un {@code int}.
+     */
+    void appendLong(long value) {
+        appendLong(value == (int) value ? ColumnType.INT : ColumnType.LONG, value);
+    }
+
+    private void appendLong(ColumnType cellType, long value) {
+        if (cellType.compareTo(type) > 0) {
+            widenTo(cellType);
+        }
+        switch (type) {
+            case INT:
+                if (size == ints.length) ints = Arrays.copyOf(ints, size * 2);
+                ints[size++] = (int) value;
+                break;
+            case LONG:
+                if (size == longs.length) longs = Arrays.copyOf(longs, size * 2);
+                longs[size++] = value;
+                break;
+            case DOUBLE:
+                if (size == doubles.length) doubles = Arrays.copyOf(doubles, size * 2);
+                doubles[size++] = value;
+                break;
+            default:
+                throw new IllegalStateException("Numeric value appended to a STRING column");
+        }
+    }
+
+    /**
+     * Ajoute une valeur décimale, en élargissant la colonne en DOUBLE si nécessaire.
+     */
+    void appendDouble(double value) {
+        if (type == ColumnType.STRING) {
+            throw new IllegalStateException("Numeric value appended to a STRING column");
+        }
+        if (type != ColumnType.DOUBLE) {
+            widenTo(ColumnType.DOUBLE);
+        }
+        if (size == doubles.length) doubles = Arrays.copyOf(doubles, size * 2);
+        doubles[size++] = value;
+    }
+
+    /**
+     * Ajoute une valeur nulle (cellule vide) à une colonne numérique.
+     */
+    void appendNull() {
+        switch (type) {
+            case INT:
+                if (size == ints.length) ints = Arrays.copyOf(ints, size * 2);
+                ints[size] = 0;
+                break;
+            case LONG:
+                if (size == longs.length) longs = Arrays.copyOf(longs, size * 2);
+                longs[size] = 0;
+                break;
+            case DOUBLE:
+                if (size == doubles.length) doubles = Arrays.copyOf(doubles, size * 2);
+                doubles[size] = 0;
+                break;
+            default:
+                throw new IllegalStateException("Null appended to a STRING column");
+        }
+        if (nulls == null) {
+            nulls = new long[Bitmaps.words(Math.max(size + 1, 1024))];
+        } else if (size >>> 6 >= nulls.length) {
+            nulls = Arrays.copyOf(nulls, nulls.length * 2);
+        }
+        nulls[size >>> 6] |= 1L << size;
+        nullCount++;
+        size++;
+    }
+
+    /** Bitmap de validité des lignes ajoutées, ou null si aucune n'est nulle. */
+    private long[] validity() {
+        if (nulls == null) {
+            return null;
+        }
+        long[] validity = new long[Bitmaps.words(size)];
+        for (int w = 0; w < validity.length; w++) {
+            validity[w] = w < nulls.length ? ~nulls[w] : -1L;
+        }
+        Bitmaps.clearTail(validity, size);
+        return validity;
+    }
+
+    void appendString(String value) {
+        if (type != ColumnType.STRING) {
+            throw new IllegalStateException("String appended to a " + type + " column");
+        }
+        if (size == strings.length) strings = Arrays.copyOf(strings, size * 2);
+        strings[size++] = value;
+    }
+
+    private void widenTo(ColumnType target) {
+        if (target == ColumnType.LONG) {
+            longs = new long[ints.length];
+            for (int i = 0; i < size; i++) longs[i] = ints[i];
+            ints = null;
+        } else if (target == ColumnType.DOUBLE) {
+            doubles = new double[Math.max(16, type == ColumnType.INT ? ints.length : longs.length)];
+            copyAsDoubles(doubles, 0);
+            ints = null;
+            longs = null;
+        } else {
+            throw new IllegalStateException("Cannot widen " + type + " to " + target);
+        }
+        type = target;
+    }
+
+    private void copyAsDoubles(double[] dst, int offset) {
+        switch (type) {
+            case INT:
+                for (int i = 0; i < size; i++) dst[offset + i] = ints[i];
+                break;
+            case LONG:
+                for (int i = 0; i < size; i++) dst[offset + i] = longs[i];
+                break;
+            default:
+                System.arraycopy(doubles, 0, dst, offset, size);
+        }
+    }
+
+    /**
+     * Construit la série finale à partir de ce tampon. Le tableau n'est copié que s'il
+     * n'est pas rempli exactement.
+     *
+     * @param label L'étiquette de la série.
+     * @return Une série primitive ou une série de String selon le type de la colonne.
+     */
+    Series<?> build(String label) {
+        switch (type) {
+            case INT:
+                return IntSeries.encode(label, ints, size, validity());
+            case LONG:
+                return new LongSeries(label, size == longs.length ? longs : Arrays.copyOf(longs, size), validity());
+            case DOUBLE:
+                return new DoubleSeries(label, size == doubles.length ? doubles : Arrays.copyOf(doubles, size), validity());
+            default:
+                return DictionarySeries.tryEncode(label, Arrays.asList(size == strings.length ? strings : Arrays.copyOf(strings, size)));
+        }
+    }
+
+    /**
+     * Crée le tampon d'une colonne absente d'une partie des données : {@code rows} valeurs
+     * nulles, ou chaînes vides pour une colonne de texte.
+     *
+     * @param type Le type de la colonne.
+     * @param rows Le nombre de lignes.
+     * @return Le tampon rempli.
+     */
+    static ColumnBuilder missing(ColumnType type, int rows) {
+        ColumnBuilder builder = new ColumnBuilder(type, rows);
+        for (int i = 0; i < rows; i++) {
+            if (type == ColumnType.STRING) {
+                builder.appendString("");
+            } else {
+                builder.appendNull();
+            }
+        }
+        return builder;
+    }
+
+    /**
+     * Concatène plusieurs tampons (par exemple un par bloc de fichier) en une seule série,
+     * dont le type est l'élargissement des types de tous les tampons (ainsi que leurs bitmaps
+     * de lignes nulles).
+     * Chaque valeur n'est copiée qu'une seule fois.
+     *
+     * @param label L'étiquette de la série.
+     * @param parts Les tampons, dans l'ordre des lignes.
+     * @return La série concaténée.
+     */
+    static Series<?> concat(String label, List<ColumnBuilder> parts) {
+        ColumnType target = ColumnType.INT;
+        int total = 0;
+        boolean nullable = false;
+        for (ColumnBuilder part : parts) {
+            target = target.widen(part.type);
+            total += part.size;
+            nullable |= part.nulls != null;
+        }
+        long[] validity = nullable && target != ColumnType.STRING ? concatValidity(parts, total) : null;
+
+        int offset = 0;
+        switch (target) {
+            case INT: {
+                int[] out = new int[total];
+                for (ColumnBuilder part : parts) {
+                    System.arraycopy(part.ints, 0, out, offset, part.size);
+                    offset += part.size;
+                }
+                return IntSeries.encode(label, out, total, validity);
+            }
+            case LONG: {
+                long[] out = new long[total];
+                for (ColumnBuilder part : parts) {
+                    if (part.type == ColumnType.INT) {
+                        for (int i = 0; i < part.size; i++) out[offset + i] = part.ints[i];
+                    } else {
+                        System.arraycopy(part.longs, 0, out, offset, part.size);
+                    }
+                    offset += part.size;
+                }
+                return new LongSeries(label, out, validity);
+            }
+            case DOUBLE: {
+                double[] out = new double[total];
+                for (ColumnBuilder part : parts) {
+                    part.copyAsDoubles(out, offset);
+                    offset += part.size;
+                }
+                return new DoubleSeries(label, out, validity);
+            }
+            default: {
+                String[] out = new String[total];
+                for (ColumnBuilder part : parts) {
+                    if (part.type != ColumnType.STRING) {
+                        throw new IllegalStateException("Numeric part cannot be concatenated into a STRING column");
+                    }
+                    System.arraycopy(part.strings, 0, out, offset, part.size);
+                    offset += part.size;
+                }
+                return DictionarySeries.tryEncode(label, Arrays.asList(out));
+            }
+        }
+    }
+
+    private static long[] concatValidity(List<ColumnBuilder> parts, int total) {
+        long[] validity = new long[Bitmaps.words(total)];
+        Arrays.fill(validity, -1L);
+        Bitmaps.clearTail(validity, total);
+        int offset = 0;
+        for (ColumnBuilder part : parts) {
+            if (part.nulls != null) {
+                for (int w = 0; w < part.nulls.length; w++) {
+                    for (long bits = part.nulls[w]; bits != 0; bits &= bits - 1) {
+                        int row = offset + (w << 6) + Long.numberOfTrailingZeros(bits);
+                        validity[row >>> 6] &= ~(1L << row);
+                    }
+                }
+            }
+            offset += part.size;
+        }
+        return validity;
+    }
+}
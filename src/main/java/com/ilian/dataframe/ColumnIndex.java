@@ -0,0 +1,47 @@
+package com.ilian.dataframe;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Index secondaire d'une série, construit à la demande par
+ * {@link DataFrame#createIndex(String, IndexKind)} et conservé par la série indexée.
+ *
+ * Un index désigne des lignes de cette série précisément : les vues produites à partir d'elle
+ * ({@code take}, {@code filter}...) n'en héritent pas. Les lignes nulles ne sont jamais indexées.
+ * Les filtres élémentaires et les jointures utilisent automatiquement les index présents.
+ */
+abstract class ColumnIndex {
+    /** Nombre de lignes à partir duquel un index est construit en parallèle. */
+    static final int PARALLEL_THRESHOLD = 1 << 17;
+
+    /** Les clés sont les valeurs entières de la colonne (IntSeries ou LongSeries). */
+    final boolean integral;
+
+    ColumnIndex(Series<?> series) {
+        this.integral = KeyEncoder.isIntegral(series);
+    }
+
+    /**
+     * Construit un index sur une série.
+     *
+     * @throws IllegalArgumentException pour un index trié sur une colonne non numérique.
+     */
+    static ColumnIndex build(Series<?> series, IndexKind kind, ForkJoinPool pool) {
+        switch (kind) {
+            case HASH:
+                return new HashIndex(series, pool);
+            case SORTED:
+                return new SortedIndex(series, pool);
+            default:
+                throw new IllegalArgumentException("Unknown index kind: " + kind);
+        }
+    }
+
+    /** Type de l'index. */
+    abstract IndexKind kind();
+
+    /** Indique si les valeurs de la série sont des nombres. */
+    static boolean isNumeric(Series<?> series) {
+        return series instanceof NumericSeries || (series.size() > 0 && series.get(0) instanceof Number);
+    }
+}
@@ -0,0 +1,293 @@
+package com.ilian.dataframe;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Statistiques d'une colonne, calculées en un seul parcours et conservées par la série
+ * (voir {@link Series#getStatistics()}).
+ *
+ * Pour une colonne de texte, seuls le nombre de valeurs, le nombre de valeurs nulles et le
+ * nombre de valeurs distinctes sont renseignés ; les autres statistiques valent {@code NaN}.
+ * Le nombre de valeurs distinctes est exact pour une {@link DictionarySeries} et estimé
+ * (HyperLogLog, environ 2 % d'erreur) pour les autres colonnes.
+ *
+ * Les statistiques de plusieurs parties d'une même colonne (par exemple les lots d'un
+ * {@link CsvLoader#stream(String, int)}) se combinent avec {@link #merge(ColumnStatistics)}.
+ */
+public final class ColumnStatistics {
+    private final boolean numeric;
+    private final long count;
+    private final long nullCount;
+    private final double min;
+    private final double max;
+    private final double sum;
+    private final double m2;
+    private final long distinctEstimate;
+    private final HyperLogLog sketch;
+
+    /** Bornes par bloc, pour les colonnes primitives ; null sinon. */
+    final ZoneMap zones;
+
+    private volatile Map<String, Double> map;
+
+    private ColumnStatistics(boolean numeric, long count, long nullCount, double min, double max, double sum,
+                             double m2, long distinctEstimate, HyperLogLog sketch, ZoneMap zones) {
+        this.numeric = numeric;
+        this.count = count;
+        this.nullCount = nullCount;
+        this.min = min;
+        this.max = max;
+        this.sum = sum;
+        this.m2 = m2;
+        this.distinctEstimate = distinctEstimate;
+        this.sketch = sketch;
+        this.zones = zones;
+    }
+
+    /**
+     * Calcule les statistiques d'une série primitive, ainsi que ses bornes par bloc.
+     * Chaque bloc est agrégé pendant qu'il est en cache, avec les noyaux de
+     * {@link NumericKernels} (somme et bornes, puis écarts à la moyenne du bloc) ; les blocs
+     * sont combinés par la formule de Chan. Les valeurs nulles sont comptées à partir du
+     * bitmap de validité et ignorées.
+     */
+    static ColumnStatistics of(NumericSeries<?> series) {
+        int n = series.size();
+        int blocks = (n + ZoneMap.BLOCK_SIZE - 1) / ZoneMap.BLOCK_SIZE;
+        double[] mins = new double[blocks];
+        double[] maxs = new double[blocks];
+        boolean[] approximate = new boolean[blocks];
+        HyperLogLog distinct = new HyperLogLog();
+        double sum = 0;
+        double mean = 0;
+        double m2 = 0;
+        long seen = 0;
+        for (int b = 0; b < blocks; b++) {
+            int from = b * ZoneMap.BLOCK_SIZE;
+            int to = Math.min(n, from + ZoneMap.BLOCK_SIZE);
+            long size = series.validCount(from, to);
+            double blockSum = series.sum(from, to);
+            double min = series.min(from, to);
+            double max = series.max(from, to);
+            double blockMean = size == 0 ? 0 : blockSum / size;
+            double blockM2 = series.squaredDeviations(from, to, blockMean);
+            for (int base = from; base < to; base += 64) {
+                for (long bits = series.validBits(base); bits != 0; bits &= bits - 1) {
+                    distinct.add(HyperLogLog.hash(series, base + Long.numberOfTrailingZeros(bits)));
+                }
+            }
+            mins[b] = min;
+            maxs[b] = max;
+            // A NaN (or infinities) shows in the sum; large integers lose precision as doubles.
+            approximate[b] = Double.isNaN(blockSum) || !(Math.max(-min, max) < 0x1p53);
+
+            if (size == 0) continue;
+            double delta = blockMean - mean;
+            mean += delta * size / (seen + size);
+            m2 += blockM2 + delta * delta * seen * size / (seen + size);
+            sum += blockSum;
+            seen += size;
+        }
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (int b = 0; b < blocks; b++) {
+            min = Math.min(min, mins[b]);
+            max = Math.max(max, maxs[b]);
+        }
+        return new ColumnStatistics(true, seen, n - seen, min, max, sum, m2, distinct.estimate(), distinct,
+                new ZoneMap(mins, maxs, approximate));
+    }
+
+    /**
+     * Calcule les statistiques d'une série encodée : le nombre de valeurs distinctes est exact.
+     */
+    static ColumnStatistics of(DictionarySeries series) {
+        int[] counts = new int[series.getDictionarySize()];
+        for (int i = 0; i < series.size(); i++) {
+            counts[series.getCode(i)]++;
+        }
+        long nulls = 0;
+        long distinct = 0;
+        HyperLogLog sketch = new HyperLogLog();
+        for (int code = 0; code < counts.length; code++) {
+            if (counts[code] == 0) continue;
+            String value = series.getDictionaryValue(code);
+            if (value == null) {
+                nulls += counts[code];
+            } else {
+                distinct++;
+                sketch.add(HyperLogLog.hash(value));
+            }
+        }
+        return new ColumnStatistics(false, series.size() - nulls, nulls, 0, 0, 0, 0, distinct, sketch, null);
+    }
+
+    /**
+     * Calcule les statistiques d'une série d'objets. Elle est considérée numérique si toutes
+     * ses valeurs non nulles sont des {@link Number}.
+     */
+    static ColumnStatistics ofObjects(Series<?> series) {
+        HyperLogLog distinct = new HyperLogLog();
+        boolean numeric = true;
+        long count = 0;
+        long nulls = 0;
+        double sum = 0;
+        double mean = 0;
+        double m2 = 0;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (Object value : series.getValues()) {
+            if (value == null) {
+                nulls++;
+                continue;
+            }
+            count++;
+            if (numeric && value instanceof Number) {
+                double v = ((Number) value).doubleValue();
+                sum += v;
+                double delta = v - mean;
+                mean += delta / count;
+                m2 += delta * (v - mean);
+                min = Math.min(min, v);
+                max = Math.max(max, v);
+                distinct.add(HyperLogLog.hash((Number) value));
+            } else {
+                numeric = false;
+                distinct.add(HyperLogLog.hash(value.toString()));
+            }
+        }
+        return new ColumnStatistics(numeric && count > 0, count, nulls, min, max, sum, m2, distinct.estimate(), distinct, null);
+    }
+
+    /**
+     * Combine ces statistiques avec celles d'une autre partie de la même colonne.
+     *
+     * Les moyennes et variances sont fusionnées par la formule de Chan, les nombres de valeurs
+     * distinctes par union des estimateurs HyperLogLog (le résultat est donc toujours estimé).
+     * Les statistiques ne sont numériques que si celles des deux parties le sont.
+     *
+     * @param other Les statistiques de l'autre partie.
+     * @return Les statistiques de l'ensemble des deux parties.
+     */
+    public ColumnStatistics merge(ColumnStatistics other) {
+        long n = count + other.count;
+        double m2 = this.m2 + other.m2;
+        if (count > 0 && other.count > 0) {
+            double delta = other.sum / other.count - sum / count;
+            m2 += delta * delta * count * other.count / n;
+        }
+        HyperLogLog union = new HyperLogLog();
+        union.merge(sketch);
+        union.merge(other.sketch);
+        return new ColumnStatistics(numeric && other.numeric, n, nullCount + other.nullCount,
+                Math.min(min, other.min), Math.max(max, other.max), sum + other.sum, m2,
+                union.estimate(), union, null);
+    }
+
+    /**
+     * Indique si la colonne est numérique.
+     *
+     * @return true si les statistiques numériques (min, max, somme...) sont renseignées.
+     */
+    public boolean isNumeric() {
+        return numeric;
+    }
+
+    /**
+     * Retourne le nombre de valeurs non nulles.
+     *
+     * @return Le nombre de valeurs.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Retourne le nombre de valeurs nulles.
+     *
+     * @return Le nombre de valeurs nulles.
+     */
+    public long getNullCount() {
+        return nullCount;
+    }
+
+    /**
+     * Retourne la plus petite valeur.
+     *
+     * @return Le minimum, ou {@code NaN} si la colonne est vide ou non numérique.
+     */
+    public double getMin() {
+        return numeric && count > 0 ? min : Double.NaN;
+    }
+
+    /**
+     * Retourne la plus grande valeur.
+     *
+     * @return Le maximum, ou {@code NaN} si la colonne est vide ou non numérique.
+     */
+    public double getMax() {
+        return numeric && count > 0 ? max : Double.NaN;
+    }
+
+    /**
+     * Retourne la somme des valeurs.
+     *
+     * @return La somme, ou {@code NaN} si la colonne n'est pas numérique.
+     */
+    public double getSum() {
+        return numeric ? sum : Double.NaN;
+    }
+
+    /**
+     * Retourne la moyenne des valeurs.
+     *
+     * @return La moyenne, ou {@code NaN} si la colonne est vide ou non numérique.
+     */
+    public double getMean() {
+        return numeric && count > 0 ? sum / count : Double.NaN;
+    }
+
+    /**
+     * Retourne la variance d'échantillon (dénominateur n - 1).
+     *
+     * @return La variance, ou {@code NaN} pour moins de deux valeurs ou une colonne non numérique.
+     */
+    public double getVariance() {
+        return numeric && count > 1 ? m2 / (count - 1) : Double.NaN;
+    }
+
+    /**
+     * Retourne le nombre de valeurs distinctes non nulles, exact ou estimé.
+     *
+     * @return Le nombre de valeurs distinctes.
+     */
+    public long getDistinctEstimate() {
+        return distinctEstimate;
+    }
+
+    /**
+     * Retourne les statistiques sous forme de map non modifiable, construite une seule fois
+     * (clés count, nullCount, sum, mean, min, max, variance, distinct).
+     *
+     * @return Les statistiques indexées par nom.
+     */
+    public Map<String, Double> asMap() {
+        Map<String, Double> result = map;
+        if (result == null) {
+            Map<String, Double> stats = new LinkedHashMap<>();
+            stats.put("count", (double) count);
+            stats.put("nullCount", (double) nullCount);
+            stats.put("sum", getSum());
+            stats.put("mean", getMean());
+            stats.put("min", getMin());
+            stats.put("max", getMax());
+            stats.put("variance", getVariance());
+            stats.put("distinct", (double) distinctEstimate);
+            result = Collections.unmodifiableMap(stats);
+            map = result;
+        }
+        return result;
+    }
+}
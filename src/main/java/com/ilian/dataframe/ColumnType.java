@@ -0,0 +1,28 @@
+package com.ilian.dataframe;
+
+/**
+ * Types de colonnes reconnus lors du chargement d'un CSV.
+ *
+ * Les constantes sont ordonnées de la plus étroite à la plus large : une colonne
+ * peut être élargie de {@code INT} vers {@code LONG}, {@code DOUBLE} puis {@code STRING}.
+ */
+public enum ColumnType {
+    /** Entiers 32 bits, stockés dans une {@link IntSeries}. */
+    INT,
+    /** Entiers 64 bits, stockés dans une {@link LongSeries}. */
+    LONG,
+    /** Nombres à virgule flottante, stockés dans une {@link DoubleSeries}. */
+    DOUBLE,
+    /** Texte brut, stocké dans une {@link Series} de String. */
+    STRING;
+
+    /**
+     * Retourne le plus petit type capable de représenter à la fois ce type et l'autre.
+     *
+     * @param other L'autre type.
+     * @return Le type élargi.
+     */
+    public ColumnType widen(ColumnType other) {
+        return compareTo(other) >= 0 ? this : other;
+    }
+}
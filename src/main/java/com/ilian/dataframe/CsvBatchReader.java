@@ -0,0 +1,129 @@
+package com.ilian.dataframe;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Lecture d'un fichier CSV par lots de lignes de taille fixe, obtenue par
+ * {@link CsvLoader#stream(String, int)}.
+ *
+ * Chaque lot est un {@link DataFrame} dont les colonnes sont construites dans des tampons
+ * réutilisés d'un lot à l'autre : la mémoire utilisée ne dépend que de la taille des lots,
+ * pas de celle du fichier. En contrepartie, un lot n'est valide que jusqu'à l'appel suivant
+ * à {@link #next()} ; {@link DataFrame#materialize()} permet d'en conserver une copie.
+ *
+ * Le type de chaque colonne est déduit au fil des lots, comme pour {@link CsvLoader#load(String)} :
+ * il peut s'élargir d'un lot à l'autre (INT, LONG, DOUBLE, puis texte) mais jamais se rétrécir.
+ * Les cellules vides des colonnes numériques sont des valeurs nulles.
+ */
+final class CsvBatchReader implements Iterator<DataFrame>, Closeable {
+    private final BufferedReader reader;
+    private final String[] headers;
+    private final int batchSize;
+    private final ColumnBuilder[] columns;
+    /** Lignes du lot courant, conservées pour relire une colonne qui devient textuelle. */
+    private final String[] lines;
+    private final CellScanner scanner = new CellScanner();
+    private String pending;
+
+    CsvBatchReader(Path path, int batchSize) throws IOException {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+        }
+        this.reader = Files.newBufferedReader(path, StandardCharsets.UTF_8);
+        try {
+            String headerLine = reader.readLine();
+            if (headerLine == null) {
+                throw new IOException("Le fichier est vide.");
+            }
+            this.headers = headerLine.split(",");
+            this.pending = reader.readLine();
+        } catch (IOException e) {
+            reader.close();
+            throw e;
+        }
+        this.batchSize = batchSize;
+        this.columns = new ColumnBuilder[headers.length];
+        for (int c = 0; c < columns.length; c++) {
+            columns[c] = new ColumnBuilder(ColumnType.INT, batchSize);
+        }
+        this.lines = new String[batchSize];
+    }
+
+    @Override
+    public boolean hasNext() {
+        return pending != null;
+    }
+
+    @Override
+    public DataFrame next() {
+        if (pending == null) {
+            throw new NoSuchElementException();
+        }
+        for (ColumnBuilder column : columns) {
+            column.clear();
+        }
+        int rows = 0;
+        try {
+            while (pending != null && rows < batchSize) {
+                lines[rows] = pending;
+                appendRow(pending, rows);
+                rows++;
+                pending = reader.readLine();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        List<Series<?>> series = new ArrayList<>(columns.length);
+        for (int c = 0; c < columns.length; c++) {
+            series.add(columns[c].build(headers[c]));
+        }
+        return new DataFrame(series);
+    }
+
+    private void appendRow(String line, int row) {
+        String[] cells = line.split(",", -1);
+        for (int c = 0; c < columns.length; c++) {
+            String cell = c < cells.length ? cells[c] : "";
+            ColumnBuilder column = columns[c];
+            if (column.type() == ColumnType.STRING) {
+                column.appendString(cell);
+            } else if (cell.isEmpty()) {
+                column.appendNull();
+            } else {
+                ColumnType cellType = scanner.scan(cell, 0, cell.length());
+                if (cellType == ColumnType.STRING) {
+                    toText(c, row);
+                    columns[c].appendString(cell);
+                } else {
+                    column.append(cellType, scanner);
+                }
+            }
+        }
+    }
+
+    /** Passe la colonne en texte pour la suite du fichier, en relisant les lignes précédentes du lot. */
+    private void toText(int c, int rows) {
+        ColumnBuilder text = new ColumnBuilder(ColumnType.STRING, batchSize);
+        for (int r = 0; r < rows; r++) {
+            String[] cells = lines[r].split(",", -1);
+            text.appendString(c < cells.length ? cells[c] : "");
+        }
+        columns[c] = text;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
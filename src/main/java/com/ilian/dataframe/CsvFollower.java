@@ -0,0 +1,220 @@
+package com.ilian.dataframe;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Suivi d'un fichier CSV qui grandit (journal, flux de données), obtenu par
+ * {@link CsvLoader#follow(String)} ou {@link CsvLoader#follow(String, Duration)}.
+ *
+ * Le suiveur retient la position du dernier saut de ligne lu : chaque {@link #poll()} ne lit que
+ * les octets écrits depuis, ajoute les lignes complètes à une {@link AppendableFrame} et les
+ * publie. Une dernière ligne encore incomplète est relue au passage suivant. Les lecteurs de la
+ * table voient ainsi les nouvelles lignes (et leurs statistiques) dès la fin du passage, sans
+ * recharger le fichier.
+ *
+ * Le fichier ne doit être modifié que par ajout à la fin : un fichier tronqué est une erreur.
+ */
+public final class CsvFollower implements Closeable {
+
+    /** Taille initiale du tampon de lecture ; il double si une ligne ne tient pas. */
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final AppendableFrame frame;
+    private ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    /** Position du premier octet non encore lu (début d'une ligne). */
+    private long position;
+    /** Position qui suit chaque ligne du lot en cours, réutilisé d'un passage à l'autre. */
+    private long[] ends = new long[1024];
+    private ScheduledExecutorService scheduler;
+    private volatile Exception failure;
+
+    CsvFollower(Path path) throws IOException {
+        this.path = path;
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            if (fill() < 0) {
+                throw new IOException("Le fichier est vide.");
+            }
+            int end = 0;
+            while (buffer.get(end) != '\n') end++;
+            String header = line(0, end);
+            position = end + 1;
+            this.frame = new AppendableFrame(header.split(","), this::read);
+            poll();
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Relit le fichier toutes les {@code interval} dans un thread démon, jusqu'à {@link #close()}.
+     */
+    void start(Duration interval) {
+        scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "csv-follow-" + path.getFileName());
+            thread.setDaemon(true);
+            return thread;
+        });
+        long nanos = Math.max(1, interval.toNanos());
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                poll();
+            } catch (IOException | RuntimeException e) {
+                failure = e;
+                // An exception cancels the periodic task.
+                throw new IllegalStateException(e);
+            }
+        }, nanos, nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Retourne la table alimentée par le fichier, à lire depuis n'importe quel thread.
+     *
+     * @return La table des lignes lues.
+     */
+    public AppendableFrame getFrame() {
+        return frame;
+    }
+
+    /**
+     * Lit les lignes complètes ajoutées au fichier depuis le passage précédent et les publie.
+     *
+     * @return Le nombre de lignes ajoutées à la table.
+     * @throws IOException si le fichier ne peut pas être lu ou a été tronqué.
+     */
+    public synchronized int poll() throws IOException {
+        int appended = 0;
+        while (true) {
+            int end = fill();
+            if (end < 0) {
+                break;
+            }
+            List<String> lines = new ArrayList<>();
+            for (int start = 0; start <= end; ) {
+                int next = start;
+                while (buffer.get(next) != '\n') next++;
+                String line = line(start, next);
+                if (!line.isEmpty()) {
+                    if (lines.size() == ends.length) ends = Arrays.copyOf(ends, ends.length * 2);
+                    ends[lines.size()] = position + next + 1;
+                    lines.add(line);
+                }
+                start = next + 1;
+            }
+            frame.appendLines(lines, position, ends);
+            appended += lines.size();
+            position += end + 1;
+        }
+        if (appended > 0) {
+            frame.publish();
+        }
+        return appended;
+    }
+
+    /**
+     * Lit dans le tampon les octets disponibles à partir de {@link #position}.
+     *
+     * @return La position dans le tampon du dernier saut de ligne lu, ou -1 s'il n'y a aucune
+     *         ligne complète à lire.
+     */
+    private int fill() throws IOException {
+        while (true) {
+            long size = channel.size();
+            if (size < position) {
+                throw new IOException("Le fichier a été tronqué : " + path);
+            }
+            buffer.clear();
+            buffer.limit((int) Math.min(buffer.capacity(), size - position));
+            while (buffer.hasRemaining() && channel.read(buffer, position + buffer.position()) > 0) {
+                // Read until the buffer is full or the end of the file is reached.
+            }
+            int read = buffer.position();
+            for (int i = read - 1; i >= 0; i--) {
+                if (buffer.get(i) == '\n') return i;
+            }
+            if (read < buffer.capacity()) {
+                return -1;
+            }
+            // A single line is longer than the buffer.
+            buffer = ByteBuffer.allocate(buffer.capacity() * 2);
+        }
+    }
+
+    /** Décode une ligne du tampon, sans son éventuel retour chariot. */
+    private String line(int from, int to) {
+        return line(buffer, from, to);
+    }
+
+    private static String line(ByteBuffer buffer, int from, int to) {
+        if (to > from && buffer.get(to - 1) == '\r') to--;
+        return new String(buffer.array(), from, to - from, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Relit les lignes non vides déjà ajoutées entre deux positions du fichier, pour retrouver le
+     * texte exact des cellules d'une colonne devenue textuelle.
+     */
+    private List<String> read(long from, long to) throws IOException {
+        ByteBuffer bytes = ByteBuffer.allocate(Math.toIntExact(to - from));
+        while (bytes.hasRemaining()) {
+            if (channel.read(bytes, from + bytes.position()) < 0) {
+                throw new IOException("Le fichier a été tronqué : " + path);
+            }
+        }
+        List<String> lines = new ArrayList<>();
+        for (int start = 0; start < bytes.limit(); ) {
+            int next = start;
+            while (next < bytes.limit() && bytes.get(next) != '\n') next++;
+            String line = line(bytes, start, next);
+            if (!line.isEmpty()) {
+                lines.add(line);
+            }
+            start = next + 1;
+        }
+        return lines;
+    }
+
+    /**
+     * Arrête le suivi et ferme le fichier. La table reste lisible.
+     *
+     * @throws IOException si la fermeture échoue, ou si le suivi en arrière-plan s'est arrêté
+     *                     sur une erreur.
+     */
+    @Override
+    public void close() throws IOException {
+        if (scheduler != null) {
+            // Let a running pass finish: interrupting it would close the channel mid-read.
+            scheduler.shutdown();
+            try {
+                scheduler.awaitTermination(1, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        synchronized (this) {
+            channel.close();
+        }
+        Exception error = failure;
+        if (error instanceof IOException) {
+            throw (IOException) error;
+        } else if (error != null) {
+            throw new IOException(error);
+        }
+    }
+}
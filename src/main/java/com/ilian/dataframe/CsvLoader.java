@@ -3,27 +3,76 @@ package com.ilian.dataframe;
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Classe utilitaire permettant de charger un fichier CSV
  * et de le convertir en un objet {@link DataFrame}.
+ *
+ * Tous les chargements lisent le fichier en UTF-8, l'encodage écrit par {@link DataFrame#toCSV(Path)}.
  */
 public class CsvLoader {
 
     /**
      * Charge un fichier CSV depuis le chemin spécifié et le convertit en {@link DataFrame}.
-     * Détecte automatiquement le type de chaque colonne (Integer, Double ou String).
+     * Détecte automatiquement le type de chaque colonne, en une seule passe et sans expression
+     * régulière : les colonnes numériques sont stockées dans des séries primitives
+     * ({@link IntSeries}, {@link LongSeries}, {@link DoubleSeries}), les autres restent des
+     * séries de String, encodées par dictionnaire ({@link DictionarySeries}) lorsqu'elles
+     * répètent peu de valeurs distinctes. Les cellules vides (ou manquantes) d'une colonne
+     * numérique y deviennent des valeurs nulles.
      *
      * @param filePath le chemin vers le fichier CSV
      * @return un objet {@link DataFrame} contenant les données chargées
      * @throws IOException si une erreur d'entrée/sortie se produit lors de la lecture du fichier
      */
     public static DataFrame load(String filePath) throws IOException {
+        return load(filePath, new CsvOptions());
+    }
+
+    /**
+     * Charge un fichier CSV en appliquant les options données (échantillon d'inférence,
+     * types imposés, cache binaire).
+     *
+     * @param filePath le chemin vers le fichier CSV
+     * @param options  les options de chargement
+     * @return un objet {@link DataFrame} contenant les données chargées
+     * @throws IOException si une erreur d'entrée/sortie se produit, ou si une valeur ne correspond
+     *                     pas au type imposé pour sa colonne
+     * @throws IllegalArgumentException si le schéma référence une colonne absente du fichier
+     */
+    public static DataFrame load(String filePath, CsvOptions options) throws IOException {
+        if (options.isSnapshotCache()) {
+            Path csv = Paths.get(filePath);
+            Path snapshot = Snapshot.cachePath(csv);
+            if (Snapshot.isFresh(snapshot, csv)) {
+                return Snapshot.read(snapshot);
+            }
+            // Read before parsing, so that a snapshot never claims a newer CSV than it was built from.
+            long size = Files.size(csv);
+            long modified = Files.getLastModifiedTime(csv).toMillis();
+            DataFrame df = parse(filePath, options);
+            Snapshot.writeCache(df, snapshot, csv, size, modified);
+            return df;
+        }
+        return parse(filePath, options);
+    }
+
+    private static DataFrame parse(String filePath, CsvOptions options) throws IOException {
         List<String[]> allRows = new ArrayList<>();
         String[] headers;
 
-        try (BufferedReader br = new BufferedReader(new FileReader(filePath))) {
+        try (BufferedReader br = new BufferedReader(new FileReader(filePath, StandardCharsets.UTF_8))) {
             String headerLine = br.readLine();
             if (headerLine == null) {
                 throw new IOException("Le fichier est vide.");
@@ -39,6 +88,13 @@ public class CsvLoader {
         }
 
         int columnCount = headers.length;
+        Map<String, ColumnType> schema = options.getSchema();
+        for (String label : schema.keySet()) {
+            if (!Arrays.asList(headers).contains(label)) {
+                throw new IllegalArgumentException("Unknown column in schema: " + label);
+            }
+        }
+
         List<List<String>> columnsRaw = new ArrayList<>();
         for (int i = 0; i < columnCount; i++) {
             columnsRaw.add(new ArrayList<>());
@@ -59,40 +115,296 @@ public class CsvLoader {
         for (int i = 0; i < columnCount; i++) {
             String label = headers[i];
             List<String> values = columnsRaw.get(i);
-            Series<?> typedSeries = tryInferSeries(label, values);
+            ColumnType declared = schema.get(label);
+            Series<?> typedSeries = declared != null
+                    ? parseSeries(label, values, declared)
+                    : tryInferSeries(label, values, options.getInferenceSampleSize());
+            typedSeries.getStatistics(); // computed once at load, then cached on the series
             typedSeriesList.add(typedSeries);
         }
 
         return new DataFrame(typedSeriesList);
     }
 
-    private static Series<?> tryInferSeries(String label, List<String> values) {
-        boolean isInteger = true;
-        boolean isDouble = true;
+    /**
+     * Lit un fichier CSV par lots de {@code batchSize} lignes, sans jamais le charger en entier.
+     *
+     * Chaque lot est un {@link DataFrame} typé (le dernier peut être plus court). Les tableaux des
+     * colonnes sont réutilisés d'un lot au suivant, si bien qu'un lot n'est plus valide une fois
+     * le suivant lu : le traiter (filtre, statistiques...) avant de passer au suivant, ou le copier
+     * avec {@link DataFrame#materialize()}. Le flux doit être fermé pour libérer le fichier.
+     *
+     * Le type d'une colonne est déduit au fil de la lecture et peut s'élargir d'un lot à l'autre
+     * (une colonne entière devient décimale, ou textuelle, à partir du lot où la valeur apparaît).
+     *
+     * @param filePath  le chemin vers le fichier CSV
+     * @param batchSize le nombre de lignes par lot
+     * @return le flux séquentiel des lots ; une erreur de lecture en cours de flux est levée
+     *         sous forme d'{@link java.io.UncheckedIOException}
+     * @throws IOException si le fichier ne peut pas être ouvert ou est vide
+     * @throws IllegalArgumentException si {@code batchSize} n'est pas positif
+     */
+    public static Stream<DataFrame> stream(String filePath, int batchSize) throws IOException {
+        CsvBatchReader reader = new CsvBatchReader(Paths.get(filePath), batchSize);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(reader, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(() -> {
+                    try {
+                        reader.close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    /**
+     * Calcule les statistiques de chaque colonne d'un fichier CSV en mémoire constante, en le
+     * lisant par lots (voir {@link #stream(String, int)}) et en fusionnant les statistiques
+     * des lots ({@link ColumnStatistics#merge(ColumnStatistics)}).
+     *
+     * @param filePath  le chemin vers le fichier CSV
+     * @param batchSize le nombre de lignes par lot
+     * @return les statistiques de chaque colonne, dans l'ordre du fichier
+     * @throws IOException si une erreur d'entrée/sortie se produit lors de la lecture du fichier
+     */
+    public static Map<String, ColumnStatistics> streamStatistics(String filePath, int batchSize) throws IOException {
+        Map<String, ColumnStatistics> statistics = new LinkedHashMap<>();
+        try (Stream<DataFrame> batches = stream(filePath, batchSize)) {
+            batches.forEach(batch -> {
+                for (String label : batch.getColumnLabels()) {
+                    statistics.merge(label, batch.getColumn(label).getStatistics(), ColumnStatistics::merge);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return statistics;
+    }
+
+    /**
+     * Suit un fichier CSV qui grandit : les lignes présentes sont chargées, puis chaque
+     * {@link CsvFollower#poll()} ajoute seulement les lignes écrites depuis le passage précédent
+     * à la table {@link CsvFollower#getFrame()}, lisible sans verrou pendant les ajouts.
+     *
+     * <pre>{@code
+     * try (CsvFollower feed = CsvLoader.follow("cours.csv")) {
+     *     feed.poll();
+     *     feed.getFrame().getStatistics("Prix");
+     * }
+     * }</pre>
+     *
+     * @param filePath le chemin vers le fichier CSV
+     * @return le suiveur, à fermer pour libérer le fichier
+     * @throws IOException si le fichier ne peut pas être lu ou n'a pas encore d'en-tête complet
+     */
+    public static CsvFollower follow(String filePath) throws IOException {
+        return new CsvFollower(Paths.get(filePath));
+    }
+
+    /**
+     * Suit un fichier CSV qui grandit en le relisant automatiquement, dans un thread démon,
+     * toutes les {@code interval} (voir {@link #follow(String)}).
+     *
+     * @param filePath le chemin vers le fichier CSV
+     * @param interval le délai entre deux passages
+     * @return le suiveur, à fermer pour arrêter le suivi
+     * @throws IOException si le fichier ne peut pas être lu ou n'a pas encore d'en-tête complet
+     */
+    public static CsvFollower follow(String filePath, Duration interval) throws IOException {
+        CsvFollower follower = new CsvFollower(Paths.get(filePath));
+        follower.start(interval);
+        return follower;
+    }
+
+    /**
+     * Charge un fichier CSV en parallèle sur le pool fork-join commun.
+     *
+     * @param filePath le chemin vers le fichier CSV
+     * @return un objet {@link DataFrame} contenant les données chargées
+     * @throws IOException si une erreur d'entrée/sortie se produit lors de la lecture du fichier
+     * @see #loadParallel(String, ForkJoinPool)
+     */
+    public static DataFrame loadParallel(String filePath) throws IOException {
+        return loadParallel(filePath, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Charge un fichier CSV en le projetant en mémoire et en analysant ses blocs en parallèle.
+     *
+     * Le fichier est découpé en blocs alignés sur les fins de ligne ; chaque bloc est analysé
+     * par une tâche du pool directement dans des colonnes typées, puis les blocs sont concaténés.
+     * Contrairement à {@link #load(String)}, aucune liste intermédiaire de lignes n'est conservée.
+     * Le résultat (types inclus) est identique à celui de {@link #load(String)}.
+     *
+     * @param filePath le chemin vers le fichier CSV
+     * @param pool     le pool fork-join sur lequel exécuter l'analyse des blocs
+     * @return un objet {@link DataFrame} contenant les données chargées
+     * @throws IOException si une erreur d'entrée/sortie se produit lors de la lecture du fichier
+     */
+    public static DataFrame loadParallel(String filePath, ForkJoinPool pool) throws IOException {
+        return loadParallel(Paths.get(filePath), pool, defaultChunkSize(Paths.get(filePath), pool));
+    }
+
+    static DataFrame loadParallel(Path path, ForkJoinPool pool, int chunkSize) throws IOException {
+        return new MappedCsvReader(path, pool, chunkSize).read();
+    }
+
+    /**
+     * Charge ensemble plusieurs fichiers CSV (par exemple des fichiers journaliers de même
+     * format), sur le pool fork-join commun.
+     *
+     * @param dirOrGlob un répertoire, dont tous les fichiers {@code .csv} sont lus, ou un motif
+     *                  de chemins tel que {@code data/2024-*}{@code /*.csv}
+     * @return un objet {@link DataFrame} contenant les lignes de tous les fichiers
+     * @throws IOException si aucun fichier ne correspond, ou si l'un d'eux ne peut pas être lu
+     * @see #loadAll(Path, ForkJoinPool)
+     */
+    public static DataFrame loadAll(Path dirOrGlob) throws IOException {
+        return loadAll(dirOrGlob, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Charge ensemble plusieurs fichiers CSV, en un seul {@link DataFrame} dont les lignes
+     * suivent l'ordre alphabétique des chemins.
+     *
+     * Les fichiers sont découpés en blocs analysés en parallèle sur le pool, comme par
+     * {@link #loadParallel(String, ForkJoinPool)} : le temps de chargement dépend du volume
+     * total et du nombre de cœurs, pas du nombre de fichiers, et le pool borne le nombre de
+     * lectures simultanées. Les colonnes sont appariées par étiquette ; leur type est
+     * l'élargissement des types déduits dans chaque fichier (entier, puis décimal, puis texte),
+     * et une colonne absente d'un fichier y est nulle. Chaque valeur n'est copiée qu'une fois,
+     * des tampons d'analyse vers la colonne finale.
+     *
+     * @param dirOrGlob un répertoire, dont tous les fichiers {@code .csv} sont lus, ou un motif
+     *                  de chemins ({@code *}, {@code ?}, {@code [..]}, {@code {a,b}}, et
+     *                  {@code **} pour traverser les sous-répertoires)
+     * @param pool      le pool fork-join sur lequel exécuter la lecture
+     * @return un objet {@link DataFrame} contenant les lignes de tous les fichiers
+     * @throws IOException si aucun fichier ne correspond, ou si l'un d'eux ne peut pas être lu
+     */
+    public static DataFrame loadAll(Path dirOrGlob, ForkJoinPool pool) throws IOException {
+        List<Path> files = listFiles(dirOrGlob);
+        long size = 0;
+        for (Path file : files) {
+            size += Files.size(file);
+        }
+        return loadAll(files, pool, chunkSize(size, pool));
+    }
+
+    static DataFrame loadAll(List<Path> files, ForkJoinPool pool, int chunkSize) throws IOException {
+        return new MappedCsvReader(files, pool, chunkSize).read();
+    }
 
+    /** Fichiers désignés par un répertoire ou un motif, triés par chemin. */
+    static List<Path> listFiles(Path dirOrGlob) throws IOException {
+        Path root;
+        int depth;
+        PathMatcher matcher;
+        if (Files.isDirectory(dirOrGlob)) {
+            root = dirOrGlob;
+            depth = 1;
+            matcher = path -> path.getFileName().toString().endsWith(".csv");
+        } else {
+            // Walk from the deepest directory whose name contains no wildcard.
+            root = dirOrGlob.isAbsolute() ? dirOrGlob.getRoot() : Paths.get("");
+            depth = dirOrGlob.getNameCount();
+            for (Path name : dirOrGlob) {
+                if (name.toString().matches(".*[*?\\[{].*")) break;
+                root = root.resolve(name);
+                depth--;
+            }
+            if (depth == 0) {
+                return Collections.singletonList(dirOrGlob);
+            }
+            if (dirOrGlob.toString().contains("**")) {
+                depth = Integer.MAX_VALUE; // crosses directories
+            }
+            matcher = dirOrGlob.getFileSystem().getPathMatcher("glob:" + dirOrGlob);
+        }
+        List<Path> files = new ArrayList<>();
+        if (Files.isDirectory(root)) {
+            try (Stream<Path> walk = Files.walk(root, depth)) {
+                walk.filter(path -> Files.isRegularFile(path) && matcher.matches(path)).sorted().forEach(files::add);
+            }
+        }
+        if (files.isEmpty()) {
+            throw new IOException("Aucun fichier ne correspond à " + dirOrGlob);
+        }
+        return files;
+    }
+
+    private static int defaultChunkSize(Path path, ForkJoinPool pool) throws IOException {
+        return chunkSize(Files.size(path), pool);
+    }
+
+    private static int chunkSize(long size, ForkJoinPool pool) {
+        long perTask = size / (pool.getParallelism() * 4L);
+        return (int) Math.max(MappedCsvReader.MIN_CHUNK_SIZE, Math.min(MappedCsvReader.MAX_CHUNK_SIZE, perTask));
+    }
+
+    /**
+     * Déduit le type d'une colonne et convertit ses valeurs en un seul passage.
+     * La colonne démarre en INT et est élargie sur place (LONG, puis DOUBLE) dès qu'une valeur
+     * plus large est rencontrée ; la première valeur non numérique la rend textuelle. Les
+     * cellules vides sont des valeurs nulles ; une colonne entièrement vide reste textuelle.
+     */
+    static Series<?> tryInferSeries(String label, List<String> values, int sampleSize) {
+        CellScanner scanner = new CellScanner();
+        ColumnType start = ColumnType.INT;
+
+        if (sampleSize > 0) {
+            int sampled = Math.min(sampleSize, values.size());
+            for (int i = 0; i < sampled && start != ColumnType.STRING; i++) {
+                String v = values.get(i);
+                if (v.isEmpty()) continue;
+                start = start.widen(scanner.scan(v, 0, v.length()));
+            }
+            if (start == ColumnType.STRING) {
+                return DictionarySeries.tryEncode(label, values);
+            }
+        }
+
+        ColumnBuilder builder = new ColumnBuilder(start, values.size());
         for (String v : values) {
-            if (!v.matches("-?\\d+")) {
-                isInteger = false;
+            if (v.isEmpty()) {
+                builder.appendNull();
+                continue;
             }
-            if (!v.matches("-?\\d+(\\.\\d+)?")) {
-                isDouble = false;
+            ColumnType cellType = scanner.scan(v, 0, v.length());
+            if (cellType == ColumnType.STRING) {
+                return DictionarySeries.tryEncode(label, values);
             }
+            builder.append(cellType, scanner);
+        }
+        if (!builder.hasValues() && !values.isEmpty()) {
+            return DictionarySeries.tryEncode(label, values);
+        }
+        return builder.build(label);
+    }
+
+    /**
+     * Convertit les valeurs d'une colonne dans le type imposé, sans inférence. Pour un type
+     * numérique, les cellules vides deviennent des valeurs nulles.
+     */
+    static Series<?> parseSeries(String label, List<String> values, ColumnType type) throws IOException {
+        if (type == ColumnType.STRING) {
+            return DictionarySeries.tryEncode(label, values);
         }
 
-        if (isInteger) {
-            List<Integer> intValues = new ArrayList<>();
-            for (String v : values) {
-                intValues.add(Integer.parseInt(v));
+        CellScanner scanner = new CellScanner();
+        ColumnBuilder builder = new ColumnBuilder(type, values.size());
+        for (int i = 0; i < values.size(); i++) {
+            String v = values.get(i);
+            if (v.isEmpty()) {
+                builder.appendNull();
+                continue;
             }
-            return new Series<>(label, intValues);
-        } else if (isDouble) {
-            List<Double> doubleValues = new ArrayList<>();
-            for (String v : values) {
-                doubleValues.add(Double.parseDouble(v));
+            ColumnType cellType = scanner.scan(v, 0, v.length());
+            if (cellType.compareTo(type) > 0) {
+                throw new IOException("Valeur \"" + v + "\" invalide pour la colonne " + label
+                        + " (" + type + "), ligne " + (i + 2));
             }
-            return new Series<>(label, doubleValues);
-        } else {
-            return new Series<>(label, values);
+            builder.append(cellType, scanner);
         }
+        return builder.build(label);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,105 @@
+package com.ilian.dataframe;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Options de chargement d'un fichier CSV.
+ *
+ * Par défaut, le type de chaque colonne est déduit de l'ensemble de ses valeurs.
+ * Il est possible de limiter cette déduction à un échantillon de lignes, ou de fournir
+ * explicitement le type de certaines colonnes (voire de toutes) pour ne pas l'inférer.
+ */
+public class CsvOptions {
+    private int inferenceSampleSize;
+    private final Map<String, ColumnType> schema = new LinkedHashMap<>();
+    private boolean snapshotCache;
+
+    /**
+     * Limite l'inférence de type aux {@code rows} premières lignes.
+     *
+     * Le type déduit de l'échantillon sert de point de départ : une colonne reconnue comme
+     * texte n'est plus analysée, et une colonne numérique est encore élargie si une valeur
+     * plus large apparaît après l'échantillon.
+     *
+     * @param rows Le nombre de lignes de l'échantillon, ou 0 pour analyser toute la colonne.
+     * @return Ces options.
+     * @throws IllegalArgumentException si {@code rows} est négatif.
+     */
+    public CsvOptions inferenceSampleSize(int rows) {
+        if (rows < 0) {
+            throw new IllegalArgumentException("Sample size must not be negative: " + rows);
+        }
+        this.inferenceSampleSize = rows;
+        return this;
+    }
+
+    /**
+     * Impose le type d'une colonne. Aucune inférence n'est faite pour cette colonne et
+     * le chargement échoue si une de ses valeurs ne correspond pas au type.
+     *
+     * @param label L'étiquette de la colonne.
+     * @param type  Le type de la colonne.
+     * @return Ces options.
+     */
+    public CsvOptions columnType(String label, ColumnType type) {
+        schema.put(label, type);
+        return this;
+    }
+
+    /**
+     * Impose le type de plusieurs colonnes (voir {@link #columnType(String, ColumnType)}).
+     * Si toutes les colonnes du fichier sont décrites, l'inférence est entièrement désactivée.
+     *
+     * @param types Les types, indexés par étiquette de colonne.
+     * @return Ces options.
+     */
+    public CsvOptions schema(Map<String, ColumnType> types) {
+        schema.putAll(types);
+        return this;
+    }
+
+    /**
+     * Active le cache binaire : le premier chargement enregistre un instantané du résultat
+     * à côté du fichier ({@code <fichier>.snapshot}, voir {@link DataFrame#save}), et les suivants
+     * l'ouvrent directement au lieu d'analyser le CSV. L'instantané est reconstruit dès que la
+     * taille ou la date de modification du CSV change. Il reflète les options en vigueur lors de
+     * sa création : le supprimer après un changement de schéma. Si l'instantané ne peut pas être
+     * écrit (dossier en lecture seule par exemple), le chargement aboutit sans cache.
+     *
+     * @param enabled true pour utiliser le cache.
+     * @return Ces options.
+     */
+    public CsvOptions snapshotCache(boolean enabled) {
+        this.snapshotCache = enabled;
+        return this;
+    }
+
+    /**
+     * Indique si le cache binaire est activé.
+     *
+     * @return true si les chargements passent par un instantané.
+     */
+    public boolean isSnapshotCache() {
+        return snapshotCache;
+    }
+
+    /**
+     * Retourne la taille de l'échantillon d'inférence.
+     *
+     * @return Le nombre de lignes, ou 0 si toute la colonne est analysée.
+     */
+    public int getInferenceSampleSize() {
+        return inferenceSampleSize;
+    }
+
+    /**
+     * Retourne les types imposés par l'utilisateur.
+     *
+     * @return Une vue non modifiable des types, indexés par étiquette de colonne.
+     */
+    public Map<String, ColumnType> getSchema() {
+        return Collections.unmodifiableMap(schema);
+    }
+}
@@ -0,0 +1,290 @@
+package com.ilian.dataframe;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Lecture d'un fichier CSV limitée aux colonnes et aux lignes utiles, exécutée par
+ * {@link LazyFrame#collect()} pour le nœud de lecture d'un plan optimisé.
+ *
+ * Chaque ligne n'est découpée que jusqu'à la dernière colonne demandée, et seules les cellules
+ * demandées sont extraites : les autres colonnes ne sont ni copiées ni analysées. Avec une
+ * condition, les lignes sont lues par lots de {@link #BATCH_SIZE} : les colonnes de la condition
+ * sont extraites et typées pour le lot, la condition est évaluée sur ce petit DataFrame comme par
+ * {@link DataFrame#filter(Filter)}, puis les autres colonnes ne sont extraites que des lignes
+ * retenues. Seules les cellules des lignes retenues sont conservées jusqu'à la fin de la lecture.
+ *
+ * Le type de chaque colonne du résultat est déduit comme par {@link CsvLoader#load(String)}, à
+ * partir des lignes retenues. Une colonne de la condition est d'abord typée lot par lot ; si un
+ * lot a ainsi reçu un autre type que la colonne entière (par exemple des codes numériques puis
+ * du texte), le fichier est relu en imposant à chaque lot le type de la colonne entière, pour que
+ * la condition donne exactement le résultat de {@link DataFrame#filter(Filter)} après un
+ * chargement complet. Les colonnes de la condition gardent ce type dans le résultat.
+ */
+final class CsvScan {
+    /** Nombre de lignes par lot pour l'évaluation de la condition. */
+    static final int BATCH_SIZE = 1 << 14;
+
+    private final String filePath;
+    private final List<String> columns;
+    private final Filter predicate;
+    private final int sampleSize = new CsvOptions().getInferenceSampleSize();
+
+    /**
+     * @param filePath  Le fichier à lire.
+     * @param columns   Les colonnes du résultat, dans l'ordre, ou null pour toutes.
+     * @param predicate La condition sur les lignes, ou null pour toutes les garder.
+     */
+    CsvScan(String filePath, List<String> columns, Filter predicate) {
+        this.filePath = filePath;
+        this.columns = columns;
+        this.predicate = predicate;
+    }
+
+    DataFrame read() throws IOException {
+        Map<String, ColumnType> types = new HashMap<>();
+        DataFrame result = read(types, false);
+        if (result == null) {
+            // Some batches typed a condition column differently from the whole file: read it
+            // again with every condition column typed once, as CsvLoader#load types it.
+            result = read(types, true);
+        }
+        return result;
+    }
+
+    /**
+     * Lit le fichier une fois.
+     *
+     * @param types  Le type sur tout le fichier de chaque colonne de la condition : rempli par
+     *               une lecture libre, imposé aux lots par une lecture forcée.
+     * @param forced true pour imposer {@code types} aux lots.
+     * @return Le résultat, ou null si un lot a été évalué avec un autre type que sa colonne.
+     */
+    private DataFrame read(Map<String, ColumnType> types, boolean forced) throws IOException {
+        try (BufferedReader br = new BufferedReader(new FileReader(filePath, StandardCharsets.UTF_8))) {
+            String headerLine = br.readLine();
+            if (headerLine == null) {
+                throw new IOException("Le fichier est vide.");
+            }
+            String[] headers = headerLine.split(",");
+            Map<String, Integer> positions = new HashMap<>();
+            for (int c = headers.length - 1; c >= 0; c--) {
+                positions.put(headers[c], c);
+            }
+
+            List<String> labels = columns != null ? columns : Arrays.asList(headers);
+            Cells output = new Cells(positions, labels);
+            List<List<String>> values = new ArrayList<>();
+            for (int j = 0; j < labels.size(); j++) {
+                values.add(new ArrayList<>());
+            }
+            if (predicate == null) {
+                String line;
+                while ((line = br.readLine()) != null) {
+                    output.split(line);
+                    output.appendTo(values);
+                }
+            } else if (!scanFiltered(br, positions, output, values, types, forced)) {
+                return null;
+            }
+
+            List<Series<?>> series = new ArrayList<>();
+            for (int j = 0; j < labels.size(); j++) {
+                ColumnType type = types.get(labels.get(j));
+                series.add(type != null
+                        ? CsvLoader.parseSeries(labels.get(j), values.get(j), type)
+                        : CsvLoader.tryInferSeries(labels.get(j), values.get(j), sampleSize));
+            }
+            return new DataFrame(series);
+        }
+    }
+
+    /**
+     * Lit les lignes par lots et garde celles qui vérifient la condition. Une lecture libre
+     * type chaque colonne de la condition lot par lot, puis enregistre dans {@code types} son
+     * type sur tout le fichier.
+     *
+     * @return false si un lot a été évalué avec un autre type que celui de sa colonne.
+     */
+    private boolean scanFiltered(BufferedReader br, Map<String, Integer> positions, Cells output,
+                                 List<List<String>> values, Map<String, ColumnType> types,
+                                 boolean forced) throws IOException {
+        Set<String> needed = new LinkedHashSet<>();
+        predicate.collectColumns(needed);
+        List<String> predicateLabels = new ArrayList<>(needed);
+        Set<String> text = new HashSet<>();
+        predicate.collectTextColumns(text);
+        Cells condition = new Cells(positions, predicateLabels);
+        String[][] cells = new String[predicateLabels.size()][BATCH_SIZE];
+        String[] lines = new String[BATCH_SIZE];
+
+        // Output columns that the condition already extracted are copied instead of split again.
+        int[] shared = new int[output.labels.size()];
+        boolean split = false;
+        for (int j = 0; j < shared.length; j++) {
+            shared[j] = predicateLabels.indexOf(output.labels.get(j));
+            split |= shared[j] < 0;
+        }
+
+        // Free reading: the widest type of each condition column over its non-empty batches,
+        // and the types its batches were evaluated with (null for an all-null numeric batch).
+        ColumnType[] widest = new ColumnType[cells.length];
+        List<Set<ColumnType>> evaluated = new ArrayList<>();
+        for (int p = 0; p < cells.length; p++) {
+            evaluated.add(new HashSet<>());
+        }
+
+        boolean consistent = true;
+        boolean more = true;
+        while (more) {
+            int rows = 0;
+            String line;
+            while (rows < BATCH_SIZE && (line = br.readLine()) != null) {
+                condition.split(line);
+                for (int p = 0; p < cells.length; p++) {
+                    cells[p][rows] = condition.cells[p];
+                }
+                lines[rows++] = line;
+            }
+            more = rows == BATCH_SIZE;
+            if (rows == 0) break;
+
+            List<Series<?>> batch = new ArrayList<>();
+            for (int p = 0; p < cells.length; p++) {
+                String label = predicateLabels.get(p);
+                List<String> batchCells = Arrays.asList(cells[p]).subList(0, rows);
+                boolean empty = allEmpty(batchCells);
+                if (forced) {
+                    batch.add(CsvLoader.parseSeries(label, batchCells, types.get(label)));
+                } else if (empty && !text.contains(label)) {
+                    // Only nulls in this batch: keep the column numeric, as it usually is in the whole file.
+                    batch.add(new IntSeries(label, new int[rows], new long[Bitmaps.words(rows)]));
+                    evaluated.get(p).add(null);
+                } else {
+                    Series<?> inferred = CsvLoader.tryInferSeries(label, batchCells, sampleSize);
+                    ColumnType type = typeOf(inferred);
+                    batch.add(inferred);
+                    evaluated.get(p).add(type);
+                    if (!empty) widest[p] = widest[p] == null ? type : widest[p].widen(type);
+                }
+            }
+            if (!consistent) {
+                // The condition already failed on a batch: only the column types are still needed.
+                continue;
+            }
+            long[] bits = new long[Bitmaps.words(rows)];
+            try {
+                predicate.evaluate(new DataFrame(batch), bits);
+            } catch (IllegalArgumentException e) {
+                if (forced) throw e;
+                // Maybe a batch-only type (a text condition on numeric codes): the forced
+                // reading fails the same way if the whole column has that type too.
+                consistent = false;
+                continue;
+            }
+            for (int r : Bitmaps.toIndices(bits)) {
+                if (split) output.split(lines[r]);
+                for (int j = 0; j < shared.length; j++) {
+                    values.get(j).add(shared[j] >= 0 ? cells[shared[j]][r] : output.cells[j]);
+                }
+            }
+        }
+        if (forced) {
+            return true;
+        }
+        for (int p = 0; p < cells.length; p++) {
+            // A column without any value is text, as CsvLoader#load reads it.
+            ColumnType type = widest[p] != null ? widest[p] : ColumnType.STRING;
+            types.put(predicateLabels.get(p), type);
+            for (ColumnType used : evaluated.get(p)) {
+                consistent &= used == null ? type != ColumnType.STRING : used == type;
+            }
+        }
+        return consistent;
+    }
+
+    private static ColumnType typeOf(Series<?> series) {
+        if (series instanceof IntSeries) return ColumnType.INT;
+        if (series instanceof LongSeries) return ColumnType.LONG;
+        if (series instanceof DoubleSeries) return ColumnType.DOUBLE;
+        return ColumnType.STRING;
+    }
+
+    private static boolean allEmpty(List<String> cells) {
+        for (String cell : cells) {
+            if (!cell.isEmpty()) return false;
+        }
+        return true;
+    }
+
+    /** Extraction d'un ensemble de colonnes d'une ligne, en un seul parcours. */
+    private static final class Cells {
+        final List<String> labels;
+        /** Positions distinctes et croissantes des colonnes à extraire. */
+        private final int[] wanted;
+        /** Rang dans {@link #wanted} de chaque colonne demandée. */
+        private final int[] slot;
+        private final String[] found;
+        /** Cellules de la dernière ligne découpée, dans l'ordre des étiquettes. */
+        final String[] cells;
+
+        Cells(Map<String, Integer> positions, List<String> labels) {
+            this.labels = labels;
+            int[] columnOf = new int[labels.size()];
+            for (int j = 0; j < columnOf.length; j++) {
+                Integer position = positions.get(labels.get(j));
+                if (position == null) {
+                    throw new IllegalArgumentException("Unknown column: " + labels.get(j));
+                }
+                columnOf[j] = position;
+            }
+            wanted = Arrays.stream(columnOf).sorted().distinct().toArray();
+            slot = new int[columnOf.length];
+            for (int j = 0; j < columnOf.length; j++) {
+                slot[j] = Arrays.binarySearch(wanted, columnOf[j]);
+            }
+            found = new String[wanted.length];
+            cells = new String[labels.size()];
+        }
+
+        /** Découpe la ligne jusqu'à la dernière colonne voulue ; une colonne manquante est vide. */
+        void split(String line) {
+            int k = 0;
+            int column = 0;
+            int start = 0;
+            int length = line.length();
+            while (k < wanted.length) {
+                int end = line.indexOf(',', start);
+                if (end < 0) end = length;
+                if (column == wanted[k]) {
+                    found[k++] = line.substring(start, end);
+                }
+                if (end == length) break;
+                start = end + 1;
+                column++;
+            }
+            while (k < wanted.length) {
+                found[k++] = "";
+            }
+            for (int j = 0; j < cells.length; j++) {
+                cells[j] = found[slot[j]];
+            }
+        }
+
+        void appendTo(List<List<String>> values) {
+            for (int j = 0; j < cells.length; j++) {
+                values.get(j).add(cells[j]);
+            }
+        }
+    }
+}
@@ -1,6 +1,15 @@
 package com.ilian.dataframe;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Représente un tableau de données structuré, composé de colonnes (Series) identifiées par des étiquettes.
@@ -29,25 +38,7 @@ public class DataFrame {
      * Affiche l'intégralité du contenu du DataFrame dans la console.
      */
     public void printFull() {
-        List<String> labels = new ArrayList<>(columns.keySet());
-    
-        // Print column headers
-        for (int j = 0; j < labels.size(); j++) {
-            System.out.print(labels.get(j));
-            if (j < labels.size() - 1) System.out.print("\t");
-        }
-        System.out.println();
-    
-        // Print rows
-        int rowCount = getRowCount();
-        for (int i = 0; i < rowCount; i++) {
-            for (int j = 0; j < labels.size(); j++) {
-                Series<?> series = columns.get(labels.get(j));
-                System.out.print(series.get(i));
-                if (j < labels.size() - 1) System.out.print("\t");
-            }
-            System.out.println();
-        }
+        printRows(0, getRowCount());
     }
     
     /**
@@ -60,25 +51,7 @@ public class DataFrame {
      *          Si {@code n} dépasse le nombre total de lignes, toutes les lignes sont affichées.
     */
     public void printHead(int n) {
-        List<String> labels = new ArrayList<>(columns.keySet());
-    
-        // Print column headers
-        for (int j = 0; j < labels.size(); j++) {
-            System.out.print(labels.get(j));
-            if (j < labels.size() - 1) System.out.print("\t");
-        }
-        System.out.println();
-    
-        // Print rows
-        int rowCount = Math.min(n, getRowCount());
-        for (int i = 0; i < rowCount; i++) {
-            for (int j = 0; j < labels.size(); j++) {
-                Series<?> series = columns.get(labels.get(j));
-                System.out.print(series.get(i));
-                if (j < labels.size() - 1) System.out.print("\t");
-            }
-            System.out.println();
-        }
+        printRows(0, Math.min(n, getRowCount()));
     }
     
 
@@ -92,28 +65,107 @@ public class DataFrame {
      *          Si {@code n} dépasse le nombre total de lignes, toutes les lignes sont affichées.
     */
     public void printTail(int n) {
-        List<String> labels = new ArrayList<>(columns.keySet());
-    
-        // Print column headers
-        for (int j = 0; j < labels.size(); j++) {
-            System.out.print(labels.get(j));
-            if (j < labels.size() - 1) System.out.print("\t");
-        }
-        System.out.println();
-    
-        // Print rows
         int rowCount = getRowCount();
-        int start = Math.max(0, rowCount - n);
-        for (int i = start; i < rowCount; i++) {
-            for (int j = 0; j < labels.size(); j++) {
-                Series<?> series = columns.get(labels.get(j));
-                System.out.print(series.get(i));
-                if (j < labels.size() - 1) System.out.print("\t");
-            }
-            System.out.println();
+        printRows(Math.max(0, rowCount - n), rowCount);
+    }
+
+    /**
+     * Affiche l'en-tête puis les lignes comprises entre {@code from} (inclus) et {@code to} (exclu).
+     * Les lignes sont formatées dans un tampon réutilisé ({@link TableWriter}), écrit dans la
+     * console par blocs, afin que les colonnes primitives ne soient jamais converties en objets.
+     */
+    private void printRows(int from, int to) {
+        try {
+            TableWriter out = TableWriter.display(System.out, Charset.defaultCharset());
+            out.writeRows(this, from, to);
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Écrit l'en-tête puis les lignes comprises entre {@code from} (inclus) et {@code to} (exclu)
+     * dans un flux, au format de {@link #printFull()} (colonnes séparées par des tabulations),
+     * encodé en UTF-8. Le flux est vidé mais pas fermé.
+     *
+     * @param out  Le flux de destination.
+     * @param from La première ligne (incluse).
+     * @param to   La dernière ligne (exclue).
+     * @throws IOException en cas d'erreur d'écriture.
+     */
+    public void print(OutputStream out, int from, int to) throws IOException {
+        TableWriter writer = TableWriter.display(out, StandardCharsets.UTF_8);
+        writer.writeRows(this, from, to);
+        writer.flush();
+    }
+
+    /**
+     * Écrit l'en-tête puis les lignes comprises entre {@code from} (inclus) et {@code to} (exclu)
+     * dans une cible de caractères, au format de {@link #printFull()}. La cible est vidée mais
+     * pas fermée.
+     *
+     * @param out  La cible.
+     * @param from La première ligne (incluse).
+     * @param to   La dernière ligne (exclue).
+     * @throws IOException en cas d'erreur d'écriture.
+     */
+    public void print(Writer out, int from, int to) throws IOException {
+        TableWriter writer = TableWriter.display(out);
+        writer.writeRows(this, from, to);
+        writer.flush();
+    }
+
+    /**
+     * Exporte le DataFrame dans un fichier CSV encodé en UTF-8, relisible par {@link CsvLoader} :
+     * en-tête, virgules, valeurs nulles écrites comme des cellules vides et décimaux entiers écrits
+     * avec un « .0 » pour garder leur type. Les décimaux non finis ({@code NaN}, {@code ±Infinity})
+     * sont écrits comme des valeurs nulles, pour que la colonne reste numérique à la relecture.
+     * {@link CsvLoader} découpant chaque ligne sur les virgules, un texte (ou une étiquette)
+     * contenant une virgule ou une fin de ligne ne peut pas être exporté.
+     *
+     * @param path Le fichier à créer ou remplacer.
+     * @throws IOException en cas d'erreur d'écriture.
+     * @throws IllegalArgumentException si un texte contient une virgule ou une fin de ligne ; le
+     *                                  fichier est alors supprimé.
+     */
+    public void toCSV(Path path) throws IOException {
+        try (TableWriter writer = TableWriter.csv(Files.newOutputStream(path), StandardCharsets.UTF_8)) {
+            writer.writeRows(this, 0, getRowCount());
+        } catch (IllegalArgumentException e) {
+            Files.deleteIfExists(path);
+            throw e;
         }
     }
 
+    /**
+     * Exporte le DataFrame au format CSV (voir {@link #toCSV(Path)}) dans un flux, encodé en UTF-8.
+     * Le flux est vidé mais pas fermé.
+     *
+     * @param out Le flux de destination.
+     * @throws IOException en cas d'erreur d'écriture.
+     * @throws IllegalArgumentException si un texte contient une virgule ou une fin de ligne.
+     */
+    public void toCSV(OutputStream out) throws IOException {
+        TableWriter writer = TableWriter.csv(out, StandardCharsets.UTF_8);
+        writer.writeRows(this, 0, getRowCount());
+        writer.flush();
+    }
+
+    /**
+     * Exporte le DataFrame au format CSV (voir {@link #toCSV(Path)}) dans une cible de caractères.
+     * La cible est vidée mais pas fermée.
+     *
+     * @param out La cible.
+     * @throws IOException en cas d'erreur d'écriture.
+     * @throws IllegalArgumentException si un texte contient une virgule ou une fin de ligne.
+     */
+    public void toCSV(Writer out) throws IOException {
+        TableWriter writer = TableWriter.csv(out);
+        writer.writeRows(this, 0, getRowCount());
+        writer.flush();
+    }
+
     /**
      * Retourne le nombre de lignes dans le DataFrame.
      *
@@ -154,6 +206,19 @@ public class DataFrame {
         return columns.get(label);
     }
 
+    /**
+     * Retourne la série correspondant à une étiquette, en échouant si elle n'existe pas.
+     *
+     * @throws IllegalArgumentException si l’étiquette n’existe pas.
+     */
+    Series<?> requireColumn(String label) {
+        Series<?> series = columns.get(label);
+        if (series == null) {
+            throw new IllegalArgumentException("Unknown column: " + label);
+        }
+        return series;
+    }
+
     /**
      * Construit un DataFrame à partir d’un fichier CSV.
      *
@@ -165,12 +230,39 @@ public class DataFrame {
         return CsvLoader.load(filePath);
     }
 
+    /**
+     * Enregistre le DataFrame dans un fichier binaire colonnaire (instantané) : un en-tête
+     * décrivant le schéma et le nombre de lignes, puis un bloc contigu par colonne (valeurs
+     * primitives, codes et dictionnaire, ou texte UTF-8). Les colonnes d'objets qui ne sont ni
+     * numériques primitives ni encodées par dictionnaire sont enregistrées comme du texte.
+     *
+     * @param path Le fichier à écrire (remplacé s'il existe).
+     * @throws java.io.IOException si l'écriture échoue.
+     */
+    public void save(java.nio.file.Path path) throws java.io.IOException {
+        Snapshot.write(this, path, 0, 0);
+    }
+
+    /**
+     * Ouvre un instantané écrit par {@link #save(java.nio.file.Path)}. Le fichier est projeté
+     * en mémoire et les colonnes sont exposées directement sur la projection, sans décodage
+     * préalable : l'ouverture ne dépend pas du nombre de lignes.
+     *
+     * @param path Le fichier à ouvrir.
+     * @return Le DataFrame, en lecture seule.
+     * @throws java.io.IOException si le fichier est illisible ou n'est pas un instantané.
+     */
+    public static DataFrame open(java.nio.file.Path path) throws java.io.IOException {
+        return Snapshot.read(path);
+    }
+
 
     /**
      * Sélectionne un sous-ensemble de lignes du DataFrame.
      *
      * Cette méthode extrait les lignes comprises entre {@code fromIndex} (inclus) et {@code toIndex} (exclus),
-     * pour toutes les colonnes. Elle est utile pour découper une partie du DataFrame sans modifier l'original.
+     * pour toutes les colonnes. Le résultat est une vue : les colonnes partagent le stockage de l'original,
+     * qui n'est ni copié ni modifié. Utiliser {@link #materialize()} pour obtenir une copie indépendante.
      *
      * @param fromIndex L’index de début (inclus).
      * @param toIndex   L’index de fin (exclu).
@@ -185,15 +277,179 @@ public class DataFrame {
         List<Series<?>> newSeries = new ArrayList<>();
     
         for (Series<?> s : columns.values()) {
-            List<?> subList = s.getValues().subList(fromIndex, toIndex);
-            newSeries.add(new Series<>(s.getLabel(), new ArrayList<>(subList)));
+            newSeries.add(s.slice(fromIndex, toIndex));
         }
     
         return new DataFrame(newSeries);
     }    
 
+    /**
+     * Sélectionne les lignes situées aux index donnés, dans l'ordre donné.
+     *
+     * Le résultat est une vue reposant sur un vecteur de sélection : seules les positions
+     * sont allouées (une seule fois pour toutes les colonnes qui partagent le même adressage),
+     * les valeurs ne sont pas copiées.
+     *
+     * @param indices Les index des lignes à sélectionner (les doublons sont autorisés).
+     * @return Un nouveau DataFrame contenant les lignes sélectionnées.
+     * @throws IllegalArgumentException si un index est hors bornes.
+     */
+    public DataFrame take(int[] indices) {
+        int rowCount = getRowCount();
+        for (int i : indices) {
+            if (i < 0 || i >= rowCount) {
+                throw new IllegalArgumentException("Invalid row index: " + i);
+            }
+        }
+
+        return takeRows(indices);
+    }
+
+    /**
+     * Applique un vecteur de sélection déjà validé à toutes les colonnes.
+     */
+    DataFrame takeRows(int[] indices) {
+        List<Series<?>> newSeries = new ArrayList<>();
+        Series<?> reference = null;
+        int[] selection = null;
+        for (Series<?> s : columns.values()) {
+            if (reference == null || !s.sameAddressing(reference)) {
+                reference = s;
+                selection = s.toPhysical(indices);
+            }
+            newSeries.add(s.withSelection(selection));
+        }
+        return new DataFrame(newSeries);
+    }
+
+    /**
+     * Sélectionne les lignes vérifiant une condition.
+     *
+     * La condition est évaluée colonne par colonne en un bitmap, converti en un vecteur de
+     * sélection appliqué ensuite à toutes les colonnes. Comme {@link #take(int[])}, le résultat
+     * est une vue qui ne copie pas les valeurs. Si les colonnes de la condition sont indexées
+     * ({@link #createIndex(String, IndexKind)}) et qu'elle retient peu de lignes, celles-ci sont
+     * lues directement dans les index, sans parcourir les colonnes.
+     *
+     * <pre>{@code
+     * df.filter(Filter.and(Filter.ge("Note", 15), Filter.startsWith("Nom", "A")));
+     * }</pre>
+     *
+     * @param filter La condition à appliquer.
+     * @return Un nouveau DataFrame contenant les lignes retenues, dans leur ordre d'origine.
+     * @throws IllegalArgumentException si la condition référence une colonne inexistante
+     *                                  ou de type incompatible.
+     */
+    public DataFrame filter(Filter filter) {
+        int[] rows = filter.lookup(this);
+        if (rows != null) {
+            return takeRows(rows);
+        }
+        long[] bits = new long[Bitmaps.words(getRowCount())];
+        filter.evaluate(this, bits);
+        return takeRows(Bitmaps.toIndices(bits));
+    }
+
+    /**
+     * Ajoute une colonne calculée par une expression, ou remplace la colonne de même étiquette
+     * en gardant sa position. L'expression est compilée une fois par schéma puis évaluée par
+     * blocs de lignes sur les tableaux primitifs des colonnes, en parallèle pour un grand
+     * DataFrame (voir {@link Expression}).
+     *
+     * <pre>{@code
+     * df.withColumn("Total", Expression.parse("Note * 2 + Bonus"));
+     * df.withColumn("Majeur", Expression.col("Age").gt(Expression.lit(22)));
+     * }</pre>
+     *
+     * @param label      L'étiquette de la colonne.
+     * @param expression L'expression à calculer pour chaque ligne.
+     * @return Un nouveau DataFrame partageant les autres colonnes avec celui-ci. La colonne
+     *         calculée est une {@link IntSeries} (ou {@link LongSeries}) pour un résultat
+     *         entier, une {@link DoubleSeries} pour un résultat décimal et une série de Boolean
+     *         pour une condition.
+     * @throws IllegalArgumentException si l'expression référence une colonne inexistante ou
+     *                                  de type incompatible.
+     */
+    public DataFrame withColumn(String label, Expression expression) {
+        return withSeries(ExpressionProgram.compile(expression, this).evaluate(this, label));
+    }
+
+    /**
+     * Ajoute une série calculée, ou remplace la colonne de même étiquette en gardant sa position.
+     */
+    DataFrame withSeries(Series<?> computed) {
+        String label = computed.getLabel();
+        List<Series<?>> list = new ArrayList<>();
+        boolean replaced = false;
+        for (Series<?> s : columns.values()) {
+            if (s.getLabel().equals(label)) {
+                list.add(computed);
+                replaced = true;
+            } else {
+                list.add(s);
+            }
+        }
+        if (!replaced) {
+            list.add(computed);
+        }
+        return new DataFrame(list);
+    }
+
+    /**
+     * Ajoute une colonne calculée par une expression écrite en texte.
+     *
+     * @param label      L'étiquette de la colonne.
+     * @param expression L'expression, dans le langage de {@link Expression#parse(String)}.
+     * @return Un nouveau DataFrame contenant la colonne calculée.
+     * @throws IllegalArgumentException si l'expression est invalide ou référence une colonne
+     *                                  inexistante ou de type incompatible.
+     * @see #withColumn(String, Expression)
+     */
+    public DataFrame withColumn(String label, String expression) {
+        return withColumn(label, Expression.parse(expression));
+    }
+
+    /**
+     * Prépare des agrégats glissants sur une colonne : la fenêtre de chaque ligne contient cette
+     * ligne et les {@code window - 1} précédentes, dans l'ordre courant du DataFrame (à trier
+     * au préalable par {@link #sortBy(String...)} si nécessaire). Chaque agrégat est calculé en
+     * une seule passe, quelle que soit la taille de la fenêtre.
+     *
+     * <pre>{@code
+     * df.rolling("Prix", 20).mean();
+     * df.rolling("Prix", 5).partitionBy("Titre").as("Plus haut").max();
+     * }</pre>
+     *
+     * @param label  L'étiquette de la colonne.
+     * @param window Le nombre de lignes de chaque fenêtre.
+     * @return La fenêtre, sur laquelle appeler {@link Window#mean()}, {@link Window#sum()}...
+     * @throws IllegalArgumentException si la colonne n'existe pas ou si {@code window} n'est pas positif.
+     */
+    public Window rolling(String label, int window) {
+        return Window.rolling(this, label, window, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Prépare des agrégats cumulatifs sur une colonne (somme, minimum... de toutes les lignes
+     * jusqu'à la ligne courante), ainsi que les décalages {@link Window#lag(int)} et
+     * {@link Window#lead(int)}.
+     *
+     * <pre>{@code
+     * df.cumulative("Montant").partitionBy("Client").sum();
+     * df.cumulative("Prix").lag(1);
+     * }</pre>
+     *
+     * @param label L'étiquette de la colonne.
+     * @return La fenêtre cumulative.
+     * @throws IllegalArgumentException si la colonne n'existe pas.
+     */
+    public Window cumulative(String label) {
+        return Window.cumulative(this, label, ForkJoinPool.commonPool());
+    }
+
     /**
      * Sélectionne un sous-ensemble de colonnes du DataFrame selon leurs étiquettes.
+     * Les séries sont partagées avec l'original, aucune donnée n'est copiée.
      *
      * @param labels Les étiquettes des colonnes à sélectionner.
      * @return Un nouveau DataFrame ne contenant que les colonnes spécifiées.
@@ -206,9 +462,192 @@ public class DataFrame {
         }
         return new DataFrame(selected);
     }
+
+    /**
+     * Retourne une copie compacte du DataFrame : chaque colonne est recopiée dans un
+     * stockage propre, contenant exactement les lignes visibles.
+     *
+     * @return Un nouveau DataFrame indépendant de celui-ci.
+     */
+    public DataFrame materialize() {
+        List<Series<?>> copies = new ArrayList<>();
+        for (Series<?> s : columns.values()) {
+            copies.add(s.materialize());
+        }
+        return new DataFrame(copies);
+    }
+
+    /**
+     * Retourne une copie du DataFrame dont les colonnes numériques et les codes des colonnes
+     * encodées sont stockés hors du tas, dans l'arène donnée. La copie se manipule comme
+     * n'importe quel DataFrame, jusqu'à la fermeture de l'arène qui libère sa mémoire.
+     *
+     * @param arena L'arène qui possède la mémoire des colonnes.
+     * @return Un nouveau DataFrame, à ne plus utiliser après {@link OffHeapArena#close()}.
+     * @throws IllegalStateException si l'arène est fermée.
+     */
+    public DataFrame offHeap(OffHeapArena arena) {
+        List<Series<?>> copies = new ArrayList<>();
+        for (Series<?> s : columns.values()) {
+            copies.add(arena.copy(s));
+        }
+        return new DataFrame(copies);
+    }
     
     /**
-     * Calcule des statistiques de base (count, mean, min, max) sur une colonne numérique.
+     * Construit un index secondaire sur une colonne et l'attache à sa série : un index par
+     * hachage ({@link IndexKind#HASH}) pour les égalités, ou une permutation triée
+     * ({@link IndexKind#SORTED}, colonnes numériques) pour les intervalles. Les filtres
+     * ({@link #filter(Filter)}) et les jointures dont cette colonne est la clé de droite
+     * l'utilisent ensuite automatiquement. Les grandes colonnes sont indexées en parallèle.
+     *
+     * L'index est partagé par tous les DataFrame contenant cette série, mais pas par les vues
+     * produites à partir d'elle ({@code filter}, {@code take}, {@code sortBy}...).
+     *
+     * <pre>{@code
+     * df.createIndex("Nom", IndexKind.HASH);
+     * df.filter(Filter.eq("Nom", "Alice"));
+     * }</pre>
+     *
+     * @param label L'étiquette de la colonne à indexer.
+     * @param kind  Le type d'index.
+     * @return Ce DataFrame.
+     * @throws IllegalArgumentException si la colonne n'existe pas, ou pour un index trié sur
+     *                                  une colonne non numérique.
+     */
+    public DataFrame createIndex(String label, IndexKind kind) {
+        Series<?> series = requireColumn(label);
+        series.setIndex(ColumnIndex.build(series, kind, ForkJoinPool.commonPool()));
+        return this;
+    }
+
+    /**
+     * Indique si une colonne possède un index du type donné.
+     *
+     * @param label L'étiquette de la colonne.
+     * @param kind  Le type d'index.
+     * @return true si l'index a été construit sur cette colonne.
+     * @throws IllegalArgumentException si la colonne n'existe pas.
+     */
+    public boolean hasIndex(String label, IndexKind kind) {
+        Series<?> series = requireColumn(label);
+        return (kind == IndexKind.HASH ? series.hashIndex() : series.sortedIndex()) != null;
+    }
+
+    /**
+     * Regroupe les lignes selon les valeurs des colonnes clés, pour calculer des agrégats par groupe.
+     *
+     * <pre>{@code
+     * df.groupBy("Age").agg(Aggregation.count(), Aggregation.mean("Note"));
+     * }</pre>
+     *
+     * @param keys Les étiquettes des colonnes clés.
+     * @return Le regroupement, sur lequel appeler {@link GroupBy#agg(Aggregation...)}.
+     * @throws IllegalArgumentException si aucune clé n'est donnée ou si une clé n'existe pas.
+     */
+    public GroupBy groupBy(String... keys) {
+        return new GroupBy(this, keys, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Joint ce DataFrame (à gauche) avec un autre (à droite) sur des colonnes clés.
+     *
+     * Le résultat contient les colonnes de gauche puis, pour INNER et LEFT, les colonnes de droite
+     * autres que ses clés (suffixées par {@code _right}, répété jusqu'à obtenir un nom libre, en cas
+     * de conflit de nom). Les lignes suivent
+     * l'ordre de gauche. Les colonnes sont des vues obtenues par vecteurs d'index ; pour LEFT, les
+     * colonnes de droite des lignes sans correspondance contiennent null.
+     *
+     * @param other     Le DataFrame de droite.
+     * @param leftKeys  Les colonnes clés de ce DataFrame.
+     * @param rightKeys Les colonnes clés correspondantes de l'autre DataFrame.
+     * @param type      Le type de jointure.
+     * @return Le résultat de la jointure.
+     * @throws IllegalArgumentException si les listes de clés sont vides, de tailles différentes,
+     *                                  ou référencent une colonne inexistante.
+     */
+    public DataFrame join(DataFrame other, String[] leftKeys, String[] rightKeys, JoinType type) {
+        return new Join(this, other, leftKeys, rightKeys, type, ForkJoinPool.commonPool()).execute();
+    }
+
+    /**
+     * Joint ce DataFrame avec un autre sur une colonne clé portant le même nom des deux côtés.
+     *
+     * @param other Le DataFrame de droite.
+     * @param key   La colonne clé.
+     * @param type  Le type de jointure.
+     * @return Le résultat de la jointure.
+     * @see #join(DataFrame, String[], String[], JoinType)
+     */
+    public DataFrame join(DataFrame other, String key, JoinType type) {
+        return join(other, new String[] {key}, new String[] {key}, type);
+    }
+
+    /**
+     * Trie les lignes par ordre croissant des colonnes données (la première étant la plus significative).
+     *
+     * @param labels Les étiquettes des colonnes de tri.
+     * @return Une vue triée de ce DataFrame.
+     * @see #sortBy(SortKey...)
+     */
+    public DataFrame sortBy(String... labels) {
+        SortKey[] keys = new SortKey[labels.length];
+        for (int k = 0; k < labels.length; k++) {
+            keys[k] = SortKey.asc(labels[k]);
+        }
+        return sortBy(keys);
+    }
+
+    /**
+     * Trie les lignes selon plusieurs clés, chacune croissante ou décroissante.
+     *
+     * Seule une permutation des index de lignes est calculée (tri par base sur les colonnes
+     * numériques, sur les rangs du dictionnaire pour le texte), puis appliquée comme vue
+     * aux colonnes : les valeurs ne sont pas déplacées. Le tri est stable.
+     *
+     * <pre>{@code
+     * df.sortBy(SortKey.desc("Note"), SortKey.asc("Nom"));
+     * }</pre>
+     *
+     * @param keys Les clés de tri, de la plus significative à la moins significative.
+     * @return Une vue triée de ce DataFrame.
+     * @throws IllegalArgumentException si aucune clé n'est donnée ou si une colonne n'existe pas.
+     */
+    public DataFrame sortBy(SortKey... keys) {
+        return takeRows(Sorter.sort(this, keys, ForkJoinPool.commonPool()));
+    }
+
+    /**
+     * Retourne les {@code n} lignes ayant les plus grandes valeurs dans une colonne, par ordre décroissant.
+     *
+     * @param n     Le nombre de lignes souhaitées.
+     * @param label L'étiquette de la colonne.
+     * @return Une vue contenant au plus {@code n} lignes.
+     * @see #topN(int, SortKey)
+     */
+    public DataFrame topN(int n, String label) {
+        return topN(n, SortKey.desc(label));
+    }
+
+    /**
+     * Retourne les {@code n} premières lignes selon une clé de tri, dans l'ordre du tri.
+     *
+     * Équivalent à {@code sortBy(key).selectRows(0, n)} mais sans trier tout le DataFrame :
+     * un tas borné à {@code n} éléments est maintenu pendant un seul parcours de la colonne.
+     *
+     * @param n   Le nombre de lignes souhaitées.
+     * @param key La clé de tri.
+     * @return Une vue contenant au plus {@code n} lignes.
+     * @throws IllegalArgumentException si la colonne n'existe pas.
+     */
+    public DataFrame topN(int n, SortKey key) {
+        return takeRows(Sorter.top(this, n, key));
+    }
+
+    /**
+     * Retourne les statistiques d'une colonne numérique : count, mean, min, max, ainsi que
+     * nullCount, sum, variance et distinct (voir {@link ColumnStatistics}). Elles sont calculées
+     * une seule fois par colonne puis conservées ; la map retournée n'est pas modifiable.
      *
      * @param label Le nom de la colonne à analyser.
      * @return Une map contenant les statistiques, ou null si la colonne n'est pas numérique ou introuvable.
@@ -216,33 +655,44 @@ public class DataFrame {
     public Map<String, Double> getStatistics(String label) {
         Series<?> series = columns.get(label);
         if (series == null) return null;
-
-        List<?> values = series.getValues();
-        if (values.isEmpty() || !(values.get(0) instanceof Number)) {
+        ColumnStatistics stats = series.getStatistics();
+        if (!stats.isNumeric() || stats.getCount() == 0) {
             return null; // non numérique
         }
+        return stats.asMap();
+    }
 
-        double sum = 0;
-        double min = Double.MAX_VALUE;
-        double max = -Double.MAX_VALUE;
-        int count = 0;
-
-        for (Object obj : values) {
-            if (!(obj instanceof Number)) continue;
-            double val = ((Number) obj).doubleValue();
-            sum += val;
-            min = Math.min(min, val);
-            max = Math.max(max, val);
-            count++;
-        }
-
-        if (count == 0) return null;
+    /**
+     * Estime le nombre de valeurs distinctes non nulles d'une colonne, numérique ou textuelle,
+     * en mémoire bornée (voir {@link HyperLogLog} : exact pour quelques centaines de valeurs,
+     * environ 2 % d'erreur au-delà). Pour une autre précision, ou pour combiner plusieurs lots,
+     * utiliser directement un {@link HyperLogLog}.
+     *
+     * @param label Le nom de la colonne.
+     * @return Le nombre estimé de valeurs distinctes.
+     * @throws IllegalArgumentException si la colonne n'existe pas.
+     */
+    public long approxDistinct(String label) {
+        HyperLogLog sketch = new HyperLogLog();
+        sketch.add(requireColumn(label));
+        return sketch.estimate();
+    }
 
-        Map<String, Double> stats = new HashMap<>();
-        stats.put("count", (double) count);
-        stats.put("mean", sum / count);
-        stats.put("min", min);
-        stats.put("max", max);
-        return stats;
+    /**
+     * Estime un quantile d'une colonne numérique sans la trier, en mémoire bornée (voir
+     * {@link QuantileSketch} : exact pour quelques centaines de valeurs, erreur de rang
+     * inférieure à 1 % au-delà). Les valeurs nulles sont ignorées. Pour une autre précision, ou
+     * pour combiner plusieurs lots, utiliser directement un {@link QuantileSketch}.
+     *
+     * @param label Le nom de la colonne.
+     * @param q     L'ordre du quantile, entre 0 et 1 (0,5 pour la médiane).
+     * @return Le quantile estimé, ou NaN si la colonne ne contient aucune valeur.
+     * @throws IllegalArgumentException si la colonne n'existe pas, n'est pas numérique, ou si
+     *                                  {@code q} n'est pas entre 0 et 1.
+     */
+    public double approxQuantile(String label, double q) {
+        QuantileSketch sketch = new QuantileSketch();
+        sketch.add(requireColumn(label));
+        return sketch.quantile(q);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,235 @@
+package com.ilian.dataframe;
+
+import java.io.IOException;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Série de texte encodée par dictionnaire : chaque valeur distincte n'est stockée qu'une fois,
+ * et chaque ligne ne contient que le code ({@code int}) de sa valeur.
+ *
+ * Ce format convient aux colonnes catégorielles (noms, catégories, statuts...) qui répètent
+ * peu de valeurs distinctes sur beaucoup de lignes. Les filtres d'égalité, les regroupements,
+ * les jointures et les tris travaillent directement sur les codes.
+ */
+public class DictionarySeries extends Series<String> {
+
+    /** Proportion maximale de valeurs distinctes pour que l'encodage soit retenu au chargement. */
+    static final double MAX_DISTINCT_RATIO = 0.5;
+
+    private final int[] codes;
+    private final IntBuffer codeBuffer;
+    /** Durée de vie des codes s'il est libéré par une {@link OffHeapArena}, sinon null. */
+    private final MemoryScope scope;
+    private final String[] dictionary;
+
+    /**
+     * Construit une série encodée. Les tableaux ne sont pas copiés.
+     *
+     * @param label      Le nom (ou étiquette) de la série.
+     * @param codes      Le code de chaque ligne, index dans {@code dictionary}.
+     * @param dictionary Les valeurs distinctes.
+     */
+    public DictionarySeries(String label, int[] codes, String[] dictionary) {
+        this(label, codes, null, null, dictionary, 0, codes.length, null);
+    }
+
+    /**
+     * Construit une série encodée dont les codes sont lus dans un tampon, par exemple une
+     * région projetée en mémoire. Les codes ne sont pas copiés.
+     *
+     * @param label      Le nom (ou étiquette) de la série.
+     * @param codes      Le code de chaque ligne.
+     * @param dictionary Les valeurs distinctes.
+     */
+    DictionarySeries(String label, IntBuffer codes, String[] dictionary) {
+        this(label, codes, dictionary, null);
+    }
+
+    /**
+     * Construit une série encodée dont les codes sont lus dans un tampon dont la mémoire peut
+     * être libérée : toute lecture après la fermeture de {@code scope} lève une
+     * {@link IllegalStateException}.
+     */
+    DictionarySeries(String label, IntBuffer codes, String[] dictionary, MemoryScope scope) {
+        this(label, null, codes, scope, dictionary, 0, codes.limit(), null);
+    }
+
+    private DictionarySeries(String label, int[] codes, IntBuffer codeBuffer, MemoryScope scope, String[] dictionary,
+                             int offset, int length, int[] index) {
+        super(label, offset, length, index);
+        this.codes = codes;
+        this.codeBuffer = codeBuffer;
+        this.scope = scope;
+        this.dictionary = dictionary;
+    }
+
+    /** Lit le code à une position du stockage. */
+    private int codeAt(int p) {
+        if (codes != null) return codes[p];
+        if (scope != null) scope.check();
+        return codeBuffer.get(p);
+    }
+
+    /**
+     * Encode une liste de textes si elle contient suffisamment de répétitions
+     * (au plus {@link #MAX_DISTINCT_RATIO} de valeurs distinctes), sinon la conserve telle quelle.
+     *
+     * @param label  L'étiquette de la série.
+     * @param values Les valeurs.
+     * @return Une {@link DictionarySeries} ou une {@link Series} de String.
+     */
+    static Series<String> tryEncode(String label, List<String> values) {
+        int n = values.size();
+        int maxDistinct = (int) (n * MAX_DISTINCT_RATIO);
+        Map<String, Integer> known = new HashMap<>();
+        List<String> distinct = new ArrayList<>();
+        int[] codes = new int[n];
+        for (int i = 0; i < n; i++) {
+            String v = values.get(i);
+            Integer code = known.get(v);
+            if (code == null) {
+                if (distinct.size() >= maxDistinct) {
+                    return new Series<>(label, values);
+                }
+                code = distinct.size();
+                known.put(v, code);
+                distinct.add(v);
+            }
+            codes[i] = code;
+        }
+        return new DictionarySeries(label, codes, distinct.toArray(new String[0]));
+    }
+
+    /**
+     * Retourne le code de la valeur à l'index donné.
+     *
+     * @param index L’index de la valeur.
+     * @return Le code, index dans le dictionnaire.
+     */
+    public int getCode(int index) {
+        return codeAt(physical(index));
+    }
+
+    /**
+     * Retourne le nombre d'entrées du dictionnaire.
+     *
+     * @return La taille du dictionnaire.
+     */
+    public int getDictionarySize() {
+        return dictionary.length;
+    }
+
+    /**
+     * Retourne la valeur associée à un code.
+     *
+     * @param code Le code.
+     * @return La valeur correspondante.
+     */
+    public String getDictionaryValue(int code) {
+        return dictionary[code];
+    }
+
+    @Override
+    public String get(int index) {
+        return dictionary[codeAt(physical(index))];
+    }
+
+    @Override
+    public void appendValue(StringBuilder sb, int index) {
+        sb.append(dictionary[codeAt(physical(index))]);
+    }
+
+    @Override
+    void writeValue(TableWriter out, int index) throws IOException {
+        out.writeText(dictionary[codeAt(physical(index))]);
+    }
+
+    @Override
+    public DictionarySeries slice(int fromIndex, int toIndex) {
+        return (DictionarySeries) super.slice(fromIndex, toIndex);
+    }
+
+    @Override
+    public DictionarySeries take(int[] rows) {
+        return (DictionarySeries) super.take(rows);
+    }
+
+    /**
+     * Copie les codes aux index donnés ; l'index -1 désigne une entrée nulle du dictionnaire,
+     * ajoutée s'il n'en contient pas déjà une.
+     */
+    @Override
+    DictionarySeries takeNullable(int[] rows) {
+        int nullCode = -1;
+        for (int code = 0; code < dictionary.length && nullCode < 0; code++) {
+            if (dictionary[code] == null) nullCode = code;
+        }
+        String[] values = dictionary;
+        int[] gathered = new int[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            if (rows[i] >= 0) {
+                gathered[i] = codeAt(physical(rows[i]));
+                continue;
+            }
+            if (nullCode < 0) {
+                values = Arrays.copyOf(dictionary, dictionary.length + 1);
+                nullCode = dictionary.length;
+            }
+            gathered[i] = nullCode;
+        }
+        return new DictionarySeries(getLabel(), gathered, values);
+    }
+
+    @Override
+    protected DictionarySeries view(int offset, int length, int[] index) {
+        return new DictionarySeries(getLabel(), codes, codeBuffer, scope, dictionary, offset, length, index);
+    }
+
+    /**
+     * Retourne une copie compacte des codes ; le dictionnaire, immuable, est partagé.
+     *
+     * @return Une nouvelle série encodée contenant exactement les valeurs visibles.
+     */
+    @Override
+    public DictionarySeries materialize() {
+        int[] copy = new int[length];
+        if (isContiguous() && codes != null) {
+            System.arraycopy(codes, offset, copy, 0, length);
+        } else if (isContiguous()) {
+            if (scope != null) scope.check();
+            codeBuffer.get(offset, copy, 0, length);
+        } else {
+            for (int i = 0; i < length; i++) copy[i] = codeAt(index[offset + i]);
+        }
+        return new DictionarySeries(getLabel(), copy, dictionary);
+    }
+
+    @Override
+    protected ColumnStatistics computeStatistics() {
+        return ColumnStatistics.of(this);
+    }
+
+    /**
+     * Écrit dans {@code out} le bitmap des lignes dont le code est accepté.
+     *
+     * @param accepted Pour chaque code du dictionnaire, s'il est retenu.
+     * @param out      Le bitmap de sortie, de {@link Bitmaps#words(int)} mots.
+     */
+    void selectCodes(boolean[] accepted, long[] out) {
+        boolean contiguous = isContiguous();
+        for (int base = 0, w = 0; base < length; base += 64, w++) {
+            int n = Math.min(64, length - base);
+            long bits = 0;
+            for (int j = 0; j < n; j++) {
+                int p = offset + base + j;
+                bits |= (accepted[codeAt(contiguous ? p : index[p])] ? 1L : 0L) << j;
+            }
+            out[w] = bits;
+        }
+    }
+}
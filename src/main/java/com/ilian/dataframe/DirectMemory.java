@@ -0,0 +1,66 @@
+package com.ilian.dataframe;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Mémoire hors du tas à base de {@link ByteBuffer#allocateDirect(int) ByteBuffer directs}.
+ *
+ * La fermeture rend immédiatement chaque tampon au système, par
+ * {@code sun.misc.Unsafe#invokeCleaner} ; les séries qui les lisent vérifient auparavant leur
+ * {@link MemoryScope}, fermée par {@link OffHeapArena#close()} avant cette libération. Si le JDK
+ * n'expose pas {@code invokeCleaner}, les tampons sont rendus par le ramasse-miettes.
+ */
+final class DirectMemory implements NativeMemory {
+    private static final Method INVOKE_CLEANER;
+    private static final Object UNSAFE;
+
+    static {
+        Method invokeCleaner = null;
+        Object unsafe = null;
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field field = unsafeClass.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            unsafe = field.get(null);
+            invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // Unsafe is not reachable: the buffers are left to the garbage collector.
+        }
+        INVOKE_CLEANER = invokeCleaner;
+        UNSAFE = unsafe;
+    }
+
+    private final List<ByteBuffer> buffers = new ArrayList<>();
+    private boolean closed;
+
+    @Override
+    public synchronized ByteBuffer allocate(int bytes) {
+        if (closed) {
+            throw new IllegalStateException("Off-heap memory already released");
+        }
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+        buffers.add(buffer);
+        return buffer;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed) return;
+        closed = true;
+        if (INVOKE_CLEANER != null) {
+            for (ByteBuffer buffer : buffers) {
+                try {
+                    INVOKE_CLEANER.invoke(UNSAFE, buffer);
+                } catch (ReflectiveOperationException e) {
+                    // Leave this buffer to the garbage collector.
+                }
+            }
+        }
+        buffers.clear();
+    }
+}
@@ -0,0 +1,222 @@
+package com.ilian.dataframe;
+
+import java.io.IOException;
+import java.nio.DoubleBuffer;
+
+/**
+ * Série de nombres à virgule flottante stockée dans un tableau {@code double[]}, ou dans un
+ * {@link DoubleBuffer} lorsqu'elle est projetée en mémoire depuis un instantané ({@link DataFrame#open}).
+ */
+public class DoubleSeries extends NumericSeries<Double> {
+    private final double[] data;
+    private final DoubleBuffer buffer;
+    /** Durée de vie du tampon s'il est libéré par une {@link OffHeapArena}, sinon null. */
+    private final MemoryScope scope;
+
+    /**
+     * Construit une série de flottants à partir d'un tableau. Le tableau n'est pas copié.
+     *
+     * @param label Le nom (ou étiquette) de la série.
+     * @param data  Les valeurs de la série.
+     */
+    public DoubleSeries(String label, double[] data) {
+        this(label, data, null, null, null, 0, data.length, null);
+    }
+
+    /**
+     * Construit une série pouvant contenir des valeurs nulles. Les tableaux ne sont pas copiés.
+     *
+     * @param label    Le nom (ou étiquette) de la série.
+     * @param data     Les valeurs de la série ; celles des lignes nulles sont ignorées.
+     * @param validity Le bitmap de validité (bit {@code i % 64} du mot {@code i / 64} à 1 si la
+     *                 ligne {@code i} a une valeur), ou null si aucune valeur n'est nulle.
+     */
+    public DoubleSeries(String label, double[] data, long[] validity) {
+        this(label, data, null, null, validity, 0, data.length, null);
+    }
+
+    /**
+     * Construit une série adossée à un tampon, par exemple une région projetée en mémoire.
+     * Les valeurs ne sont pas copiées.
+     *
+     * @param label    Le nom (ou étiquette) de la série.
+     * @param buffer   Les valeurs de la série.
+     * @param validity Le bitmap de validité, ou null si aucune valeur n'est nulle.
+     */
+    DoubleSeries(String label, DoubleBuffer buffer, long[] validity) {
+        this(label, buffer, validity, null);
+    }
+
+    /**
+     * Construit une série adossée à un tampon dont la mémoire peut être libérée : toute lecture
+     * après la fermeture de {@code scope} lève une {@link IllegalStateException}.
+     */
+    DoubleSeries(String label, DoubleBuffer buffer, long[] validity, MemoryScope scope) {
+        this(label, null, buffer, scope, validity, 0, buffer.limit(), null);
+    }
+
+    private DoubleSeries(String label, double[] data, DoubleBuffer buffer, MemoryScope scope, long[] validity, int offset, int length, int[] index) {
+        super(label, offset, length, index, validity);
+        this.data = data;
+        this.buffer = buffer;
+        this.scope = scope;
+    }
+
+    /** Lit la valeur à une position du stockage. */
+    private double at(int p) {
+        if (data != null) return data[p];
+        if (scope != null) scope.check();
+        return buffer.get(p);
+    }
+
+    /**
+     * Retourne la valeur à l'index donné, sans boxing.
+     *
+     * @param index L’index de la valeur.
+     * @return La valeur flottante.
+     */
+    @Override
+    public double getDouble(int index) {
+        return at(physical(index));
+    }
+
+    @Override
+    public Double get(int index) {
+        int p = physical(index);
+        return isValidAt(p) ? at(p) : null;
+    }
+
+    @Override
+    public void appendValue(StringBuilder sb, int index) {
+        int p = physical(index);
+        if (isValidAt(p)) {
+            sb.append(at(p));
+        } else {
+            sb.append("null");
+        }
+    }
+
+    @Override
+    void writeValue(TableWriter out, int index) throws IOException {
+        int p = physical(index);
+        if (isValidAt(p)) {
+            out.writeDouble(at(p));
+        } else {
+            out.writeNull();
+        }
+    }
+
+    @Override
+    public DoubleSeries slice(int fromIndex, int toIndex) {
+        return (DoubleSeries) super.slice(fromIndex, toIndex);
+    }
+
+    @Override
+    public DoubleSeries take(int[] rows) {
+        return (DoubleSeries) super.take(rows);
+    }
+
+    @Override
+    protected DoubleSeries view(int offset, int length, int[] index) {
+        return new DoubleSeries(getLabel(), data, buffer, scope, validity, offset, length, index);
+    }
+
+    @Override
+    public DoubleSeries materialize() {
+        double[] copy = new double[length];
+        if (isContiguous() && data != null) {
+            System.arraycopy(data, offset, copy, 0, length);
+        } else if (isContiguous()) {
+            if (scope != null) scope.check();
+            buffer.get(offset, copy, 0, length);
+        } else {
+            for (int i = 0; i < length; i++) copy[i] = at(index[offset + i]);
+        }
+        return new DoubleSeries(getLabel(), copy, materializeValidity());
+    }
+
+    @Override
+    public double sum() {
+        if (validity != null) return sum(0, length);
+        if (data != null && isContiguous()) return NumericKernels.INSTANCE.sum(data, offset, offset + length);
+        double sum = 0;
+        if (isContiguous()) {
+            for (int i = offset, end = offset + length; i < end; i++) sum += at(i);
+        } else {
+            for (int i = offset, end = offset + length; i < end; i++) sum += at(index[i]);
+        }
+        return sum;
+    }
+
+    @Override
+    public double min() {
+        if (length == 0) return Double.NaN;
+        if (validity != null) return validCount(0, length) == 0 ? Double.NaN : min(0, length);
+        if (data != null && isContiguous()) return NumericKernels.INSTANCE.min(data, offset, offset + length);
+        double min = at(physical(0));
+        if (isContiguous()) {
+            for (int i = offset, end = offset + length; i < end; i++) if (at(i) < min) min = at(i);
+        } else {
+            for (int i = offset, end = offset + length; i < end; i++) if (at(index[i]) < min) min = at(index[i]);
+        }
+        return min;
+    }
+
+    @Override
+    public double max() {
+        if (length == 0) return Double.NaN;
+        if (validity != null) return validCount(0, length) == 0 ? Double.NaN : max(0, length);
+        if (data != null && isContiguous()) return NumericKernels.INSTANCE.max(data, offset, offset + length);
+        double max = at(physical(0));
+        if (isContiguous()) {
+            for (int i = offset, end = offset + length; i < end; i++) if (at(i) > max) max = at(i);
+        } else {
+            for (int i = offset, end = offset + length; i < end; i++) if (at(index[i]) > max) max = at(index[i]);
+        }
+        return max;
+    }
+
+    @Override
+    double sum(int from, int to) {
+        if (validity == null && data != null && isContiguous()) return NumericKernels.INSTANCE.sum(data, offset + from, offset + to);
+        return super.sum(from, to);
+    }
+
+    @Override
+    double min(int from, int to) {
+        if (validity == null && data != null && isContiguous()) return NumericKernels.INSTANCE.min(data, offset + from, offset + to);
+        return super.min(from, to);
+    }
+
+    @Override
+    double max(int from, int to) {
+        if (validity == null && data != null && isContiguous()) return NumericKernels.INSTANCE.max(data, offset + from, offset + to);
+        return super.max(from, to);
+    }
+
+    @Override
+    double squaredDeviations(int from, int to, double mean) {
+        if (validity == null && data != null && isContiguous()) return NumericKernels.INSTANCE.squaredDeviations(data, offset + from, offset + to, mean);
+        return super.squaredDeviations(from, to, mean);
+    }
+
+    @Override
+    void selectRange(double lo, boolean loInclusive, double hi, boolean hiInclusive, long[] out, int from, int to) {
+        if (data != null && isContiguous()) {
+            NumericKernels.INSTANCE.selectRange(data, offset + from, to - from, lo, loInclusive, hi, hiInclusive, out, from >>> 6);
+            return;
+        }
+        boolean contiguous = isContiguous();
+        for (int base = from, w = from >>> 6; base < to; base += 64, w++) {
+            int n = Math.min(64, to - base);
+            long bits = 0;
+            for (int j = 0; j < n; j++) {
+                int p = offset + base + j;
+                double v = at(contiguous ? p : index[p]);
+                boolean match = (loInclusive ? v >= lo : v > lo) & (hiInclusive ? v <= hi : v < hi);
+                bits |= (match ? 1L : 0L) << j;
+            }
+            out[w] = bits;
+        }
+    }
+}
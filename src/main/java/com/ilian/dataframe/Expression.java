@@ -0,0 +1,631 @@
+package com.ilian.dataframe;
+
+import java.util.Set;
+
+/**
+ * Expression calculée ligne par ligne sur les colonnes d'un {@link DataFrame}, utilisée par
+ * {@link DataFrame#withColumn(String, Expression)} pour dériver une colonne et par
+ * {@link Filter#where(Expression)} comme condition.
+ *
+ * Une expression se construit avec les méthodes de cette classe ou s'analyse depuis un texte :
+ *
+ * <pre>{@code
+ * Expression.col("Note").times(Expression.lit(2)).plus(Expression.col("Bonus"))
+ * Expression.parse("Note * 2 + Bonus")
+ * Expression.parse("Age > 22 and (Note >= 12 or Classe == \"A\")")
+ * }</pre>
+ *
+ * Le langage comprend les nombres, les textes entre guillemets, les colonnes (nom simple, ou
+ * entre accents graves {@code `Nom complet`}), les opérations {@code + - * / %}, les
+ * comparaisons {@code == != < <= > >=}, et {@code and}, {@code or}, {@code not} (ou
+ * {@code && || !}), avec les priorités usuelles et des parenthèses.
+ *
+ * Une opération entre entiers reste entière, sauf la division, toujours décimale ; un reste
+ * par zéro est nul, entre entiers comme entre décimaux. Une division par zéro suit en revanche
+ * les règles des décimaux et donne {@code ±Infinity} ou {@code NaN}. Une valeur nulle rend nul le résultat des opérations et comparaisons qui
+ * la lisent ; {@code and} et {@code or} suivent la logique à trois valeurs de SQL. Les textes
+ * ne peuvent être comparés qu'à un texte, par {@code ==} ou {@code !=}.
+ *
+ * L'expression est compilée une fois par schéma (voir {@link ExpressionProgram}) puis évaluée
+ * par blocs, sur des tableaux primitifs. Une expression est immuable.
+ */
+public abstract class Expression {
+
+    Expression() {
+    }
+
+    /**
+     * Analyse une expression écrite dans le langage décrit plus haut.
+     *
+     * @param text Le texte de l'expression.
+     * @return L'expression.
+     * @throws IllegalArgumentException si le texte n'est pas une expression valide.
+     */
+    public static Expression parse(String text) {
+        return new Parser(text).parse();
+    }
+
+    /**
+     * Valeur d'une colonne.
+     *
+     * @param label L'étiquette de la colonne.
+     * @return L'expression.
+     */
+    public static Expression col(String label) {
+        return new Column(label);
+    }
+
+    /**
+     * Constante entière.
+     *
+     * @param value La valeur.
+     * @return L'expression.
+     */
+    public static Expression lit(long value) {
+        return new Literal(value);
+    }
+
+    /**
+     * Constante décimale.
+     *
+     * @param value La valeur.
+     * @return L'expression.
+     */
+    public static Expression lit(double value) {
+        return new Literal(value);
+    }
+
+    /**
+     * Texte constant, à comparer à une colonne textuelle.
+     *
+     * @param value Le texte.
+     * @return L'expression.
+     */
+    public static Expression lit(String value) {
+        return new Literal(value);
+    }
+
+    /**
+     * Somme de cette expression et d'une autre.
+     *
+     * @param other L'autre opérande.
+     * @return L'expression.
+     */
+    public Expression plus(Expression other) {
+        return new Binary(Operator.ADD, this, other);
+    }
+
+    /**
+     * Différence de cette expression et d'une autre.
+     *
+     * @param other L'opérande soustrait.
+     * @return L'expression.
+     */
+    public Expression minus(Expression other) {
+        return new Binary(Operator.SUB, this, other);
+    }
+
+    /**
+     * Produit de cette expression et d'une autre.
+     *
+     * @param other L'autre opérande.
+     * @return L'expression.
+     */
+    public Expression times(Expression other) {
+        return new Binary(Operator.MUL, this, other);
+    }
+
+    /**
+     * Quotient décimal de cette expression par une autre.
+     *
+     * @param other Le diviseur.
+     * @return L'expression.
+     */
+    public Expression div(Expression other) {
+        return new Binary(Operator.DIV, this, other);
+    }
+
+    /**
+     * Reste de la division de cette expression par une autre.
+     *
+     * @param other Le diviseur.
+     * @return L'expression.
+     */
+    public Expression mod(Expression other) {
+        return new Binary(Operator.MOD, this, other);
+    }
+
+    /**
+     * Opposé de cette expression.
+     *
+     * @return L'expression.
+     */
+    public Expression negate() {
+        return new Unary(false, this);
+    }
+
+    /**
+     * Égalité de cette expression et d'une autre.
+     *
+     * @param other L'autre opérande.
+     * @return La condition.
+     */
+    public Expression eq(Expression other) {
+        return new Binary(Operator.EQ, this, other);
+    }
+
+    /**
+     * Différence de cette expression et d'une autre.
+     *
+     * @param other L'autre opérande.
+     * @return La condition.
+     */
+    public Expression ne(Expression other) {
+        return new Binary(Operator.NE, this, other);
+    }
+
+    /**
+     * Cette expression strictement inférieure à une autre.
+     *
+     * @param other L'autre opérande.
+     * @return La condition.
+     */
+    public Expression lt(Expression other) {
+        return new Binary(Operator.LT, this, other);
+    }
+
+    /**
+     * Cette expression inférieure ou égale à une autre.
+     *
+     * @param other L'autre opérande.
+     * @return La condition.
+     */
+    public Expression le(Expression other) {
+        return new Binary(Operator.LE, this, other);
+    }
+
+    /**
+     * Cette expression strictement supérieure à une autre.
+     *
+     * @param other L'autre opérande.
+     * @return La condition.
+     */
+    public Expression gt(Expression other) {
+        return new Binary(Operator.GT, this, other);
+    }
+
+    /**
+     * Cette expression supérieure ou égale à une autre.
+     *
+     * @param other L'autre opérande.
+     * @return La condition.
+     */
+    public Expression ge(Expression other) {
+        return new Binary(Operator.GE, this, other);
+    }
+
+    /**
+     * Conjonction de cette condition et d'une autre.
+     *
+     * @param other L'autre condition.
+     * @return La condition.
+     */
+    public Expression and(Expression other) {
+        return new Binary(Operator.AND, this, other);
+    }
+
+    /**
+     * Disjonction de cette condition et d'une autre.
+     *
+     * @param other L'autre condition.
+     * @return La condition.
+     */
+    public Expression or(Expression other) {
+        return new Binary(Operator.OR, this, other);
+    }
+
+    /**
+     * Négation de cette condition.
+     *
+     * @return La condition.
+     */
+    public Expression not() {
+        return new Unary(true, this);
+    }
+
+    /** Ajoute à {@code out} les étiquettes des colonnes lues. */
+    abstract void collectColumns(Set<String> out);
+
+    /** Ajoute à {@code out} les étiquettes des colonnes comparées à du texte. */
+    void collectTextColumns(Set<String> out) {
+    }
+
+    /** Compile ce nœud pour le schéma du compilateur. */
+    abstract ExpressionProgram.Node compile(ExpressionProgram.Compiler compiler);
+
+    /**
+     * Retourne le texte de l'expression, entièrement parenthésé, que {@link #parse(String)}
+     * relit en une expression identique.
+     *
+     * @return Le texte de l'expression.
+     */
+    @Override
+    public abstract String toString();
+
+    /** Opérateurs binaires et leur symbole dans le langage. */
+    enum Operator {
+        ADD("+"), SUB("-"), MUL("*"), DIV("/"), MOD("%"),
+        EQ("=="), NE("!="), LT("<"), LE("<="), GT(">"), GE(">="),
+        AND("and"), OR("or");
+
+        final String symbol;
+
+        Operator(String symbol) {
+            this.symbol = symbol;
+        }
+
+        boolean isComparison() {
+            return compareTo(EQ) >= 0 && compareTo(GE) <= 0;
+        }
+
+        boolean isLogical() {
+            return this == AND || this == OR;
+        }
+    }
+
+    /** Valeur d'une colonne. */
+    static final class Column extends Expression {
+        final String label;
+
+        Column(String label) {
+            this.label = label;
+        }
+
+        @Override
+        void collectColumns(Set<String> out) {
+            out.add(label);
+        }
+
+        @Override
+        ExpressionProgram.Node compile(ExpressionProgram.Compiler compiler) {
+            return compiler.column(label);
+        }
+
+        @Override
+        public String toString() {
+            boolean plain = !label.isEmpty() && Character.isJavaIdentifierStart(label.charAt(0))
+                    && !Parser.isKeyword(label);
+            for (int i = 1; i < label.length() && plain; i++) {
+                plain = Character.isJavaIdentifierPart(label.charAt(i));
+            }
+            return plain ? label : "`" + label.replace("\\", "\\\\").replace("`", "\\`") + "`";
+        }
+    }
+
+    /** Constante : entier, décimal ou texte. */
+    static final class Literal extends Expression {
+        final Object value;
+
+        Literal(Object value) {
+            this.value = value;
+        }
+
+        @Override
+        void collectColumns(Set<String> out) {
+        }
+
+        @Override
+        ExpressionProgram.Node compile(ExpressionProgram.Compiler compiler) {
+            if (value instanceof String) {
+                throw new IllegalArgumentException("Text literal " + this + " can only be compared to a text column");
+            }
+            return compiler.literal((Number) value);
+        }
+
+        @Override
+        public String toString() {
+            if (value instanceof String) {
+                return '"' + ((String) value).replace("\\", "\\\\").replace("\"", "\\\"") + '"';
+            }
+            if (value instanceof Double && !Double.isFinite((Double) value)) {
+                double v = (Double) value;
+                return Double.isNaN(v) ? "(0.0 / 0.0)" : v > 0 ? "(1.0 / 0.0)" : "(-1.0 / 0.0)";
+            }
+            return value.toString();
+        }
+    }
+
+    /** Opposé ou négation. */
+    static final class Unary extends Expression {
+        final boolean not;
+        final Expression operand;
+
+        Unary(boolean not, Expression operand) {
+            this.not = not;
+            this.operand = operand;
+        }
+
+        @Override
+        void collectColumns(Set<String> out) {
+            operand.collectColumns(out);
+        }
+
+        @Override
+        void collectTextColumns(Set<String> out) {
+            operand.collectTextColumns(out);
+        }
+
+        @Override
+        ExpressionProgram.Node compile(ExpressionProgram.Compiler compiler) {
+            ExpressionProgram.Node node = operand.compile(compiler);
+            return not ? compiler.not(node, this) : compiler.negate(node, this);
+        }
+
+        @Override
+        public String toString() {
+            return (not ? "not " : "-") + operand;
+        }
+    }
+
+    /** Opération, comparaison ou combinaison logique de deux opérandes. */
+    static final class Binary extends Expression {
+        final Operator operator;
+        final Expression left;
+        final Expression right;
+
+        Binary(Operator operator, Expression left, Expression right) {
+            this.operator = operator;
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        void collectColumns(Set<String> out) {
+            left.collectColumns(out);
+            right.collectColumns(out);
+        }
+
+        @Override
+        void collectTextColumns(Set<String> out) {
+            if (left instanceof Column && isText(right)) out.add(((Column) left).label);
+            if (right instanceof Column && isText(left)) out.add(((Column) right).label);
+            left.collectTextColumns(out);
+            right.collectTextColumns(out);
+        }
+
+        private static boolean isText(Expression e) {
+            return e instanceof Literal && ((Literal) e).value instanceof String;
+        }
+
+        @Override
+        ExpressionProgram.Node compile(ExpressionProgram.Compiler compiler) {
+            if (isText(left) || isText(right)) {
+                Expression column = isText(right) ? left : right;
+                Literal text = (Literal) (isText(right) ? right : left);
+                if (!(column instanceof Column) || (operator != Operator.EQ && operator != Operator.NE)) {
+                    throw new IllegalArgumentException("Text can only be compared to a column with == or !=: " + this);
+                }
+                return compiler.textEquals(((Column) column).label, (String) text.value, operator == Operator.NE);
+            }
+            return compiler.binary(operator, left.compile(compiler), right.compile(compiler), this);
+        }
+
+        @Override
+        public String toString() {
+            return "(" + left + " " + operator.symbol + " " + right + ")";
+        }
+    }
+
+    /** Analyse descendante récursive, un niveau de méthode par priorité. */
+    private static final class Parser {
+        private final String text;
+        private int pos;
+
+        Parser(String text) {
+            this.text = text;
+        }
+
+        static boolean isKeyword(String word) {
+            return word.equals("and") || word.equals("or") || word.equals("not");
+        }
+
+        Expression parse() {
+            Expression e = or();
+            skipSpaces();
+            if (pos < text.length()) {
+                throw error("Unexpected '" + text.charAt(pos) + "'");
+            }
+            return e;
+        }
+
+        private Expression or() {
+            Expression e = and();
+            while (accept("||") || acceptWord("or")) {
+                e = new Binary(Operator.OR, e, and());
+            }
+            return e;
+        }
+
+        private Expression and() {
+            Expression e = not();
+            while (accept("&&") || acceptWord("and")) {
+                e = new Binary(Operator.AND, e, not());
+            }
+            return e;
+        }
+
+        private Expression not() {
+            if (acceptWord("not") || (!peek("!=") && accept("!"))) {
+                return new Unary(true, not());
+            }
+            return comparison();
+        }
+
+        private Expression comparison() {
+            Expression e = additive();
+            // Two-character operators first, so that "<=" is not read as "<".
+            String[] symbols = {"==", "!=", "<=", ">=", "<", ">", "="};
+            Operator[] operators = {Operator.EQ, Operator.NE, Operator.LE, Operator.GE, Operator.LT, Operator.GT, Operator.EQ};
+            for (int k = 0; k < symbols.length; k++) {
+                if (accept(symbols[k])) {
+                    return new Binary(operators[k], e, additive());
+                }
+            }
+            return e;
+        }
+
+        private Expression additive() {
+            Expression e = multiplicative();
+            while (true) {
+                if (accept("+")) {
+                    e = new Binary(Operator.ADD, e, multiplicative());
+                } else if (accept("-")) {
+                    e = new Binary(Operator.SUB, e, multiplicative());
+                } else {
+                    return e;
+                }
+            }
+        }
+
+        private Expression multiplicative() {
+            Expression e = unary();
+            while (true) {
+                if (accept("*")) {
+                    e = new Binary(Operator.MUL, e, unary());
+                } else if (accept("/")) {
+                    e = new Binary(Operator.DIV, e, unary());
+                } else if (accept("%")) {
+                    e = new Binary(Operator.MOD, e, unary());
+                } else {
+                    return e;
+                }
+            }
+        }
+
+        private Expression unary() {
+            if (accept("-")) {
+                skipSpaces();
+                if (pos < text.length() && (Character.isDigit(text.charAt(pos)) || text.charAt(pos) == '.')) {
+                    // Read the sign with the digits, so that Long.MIN_VALUE can be written.
+                    return number(true);
+                }
+                Expression operand = unary();
+                if (operand instanceof Literal && ((Literal) operand).value instanceof Long) {
+                    return new Literal(-(Long) ((Literal) operand).value);
+                }
+                if (operand instanceof Literal && ((Literal) operand).value instanceof Double) {
+                    return new Literal(-(Double) ((Literal) operand).value);
+                }
+                return new Unary(false, operand);
+            }
+            return primary();
+        }
+
+        private Expression primary() {
+            skipSpaces();
+            if (pos == text.length()) {
+                throw error("Unexpected end of expression");
+            }
+            char c = text.charAt(pos);
+            if (c == '(') {
+                pos++;
+                Expression e = or();
+                expect(")");
+                return e;
+            }
+            if (c == '"' || c == '\'') {
+                return new Literal(quoted(c));
+            }
+            if (c == '`') {
+                return new Column(quoted('`'));
+            }
+            if (Character.isDigit(c) || c == '.') {
+                return number(false);
+            }
+            if (Character.isJavaIdentifierStart(c)) {
+                int start = pos;
+                while (pos < text.length() && Character.isJavaIdentifierPart(text.charAt(pos))) pos++;
+                String word = text.substring(start, pos);
+                if (isKeyword(word)) {
+                    pos = start;
+                    throw error("Unexpected '" + word + "'");
+                }
+                return new Column(word);
+            }
+            throw error("Unexpected '" + c + "'");
+        }
+
+        private Expression number(boolean negative) {
+            int start = pos;
+            boolean decimal = false;
+            while (pos < text.length()) {
+                char c = text.charAt(pos);
+                if (c == '.' || c == 'e' || c == 'E') {
+                    decimal = true;
+                } else if ((c == '+' || c == '-') && (text.charAt(pos - 1) == 'e' || text.charAt(pos - 1) == 'E')) {
+                    decimal = true;
+                } else if (!Character.isDigit(c)) {
+                    break;
+                }
+                pos++;
+            }
+            String literal = (negative ? "-" : "") + text.substring(start, pos);
+            try {
+                return decimal ? new Literal(Double.parseDouble(literal)) : new Literal(Long.parseLong(literal));
+            } catch (NumberFormatException e) {
+                pos = start;
+                throw error("Invalid number '" + literal + "'");
+            }
+        }
+
+        /** Lit un texte délimité par {@code quote}, où une barre oblique inverse protège le caractère suivant. */
+        private String quoted(char quote) {
+            int start = pos++;
+            StringBuilder sb = new StringBuilder();
+            while (pos < text.length() && text.charAt(pos) != quote) {
+                char c = text.charAt(pos++);
+                if (c == '\\' && pos < text.length()) c = text.charAt(pos++);
+                sb.append(c);
+            }
+            if (pos == text.length()) {
+                pos = start;
+                throw error("Unterminated " + quote);
+            }
+            pos++;
+            return sb.toString();
+        }
+
+        private void skipSpaces() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) pos++;
+        }
+
+        private boolean peek(String symbol) {
+            skipSpaces();
+            return text.startsWith(symbol, pos);
+        }
+
+        private boolean accept(String symbol) {
+            if (!peek(symbol)) return false;
+            pos += symbol.length();
+            return true;
+        }
+
+        private boolean acceptWord(String word) {
+            if (!peek(word)) return false;
+            int end = pos + word.length();
+            if (end < text.length() && Character.isJavaIdentifierPart(text.charAt(end))) return false;
+            pos = end;
+            return true;
+        }
+
+        private void expect(String symbol) {
+            if (!accept(symbol)) {
+                throw error("Expected '" + symbol + "'");
+            }
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at position " + pos + " in: " + text);
+        }
+    }
+}
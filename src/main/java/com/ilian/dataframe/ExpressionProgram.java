@@ -0,0 +1,860 @@
+package com.ilian.dataframe;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Forme compilée d'une {@link Expression} pour un schéma donné : un arbre de noyaux typés qui
+ * évaluent l'expression par blocs de {@value #BLOCK} lignes, chacun par une boucle sur des
+ * tableaux primitifs.
+ *
+ * La compilation choisit la lecture de chaque colonne selon la classe de sa série, le type de
+ * chaque opération (entier tant que ses deux opérandes le sont, décimal sinon, avec les
+ * conversions nécessaires) et ramène les comparaisons à {@code <}, {@code <=} et {@code ==}.
+ * Chaque nœud reçoit un registre : un tampon de valeurs d'un bloc et le bitmap de validité
+ * correspondant, alloués une fois par évaluation et réutilisés de bloc en bloc, si bien
+ * qu'aucune allocation ni mise en boîte n'est faite par ligne. Les conditions produisent
+ * directement des bitmaps, comme les {@link Filter}.
+ *
+ * Un programme ne dépend que du texte de l'expression et de la classe des séries lues : il est
+ * conservé dans un cache et partagé entre les évaluations, y compris parallèles, sur tous les
+ * DataFrame de même schéma.
+ */
+final class ExpressionProgram {
+    /** Nombre de lignes évaluées par passage dans l'arbre. */
+    static final int BLOCK = 1 << 10;
+    private static final int WORDS = BLOCK / 64;
+    /** Au-delà, le cache est vidé plutôt que de croître sans limite. */
+    static final int MAX_CACHED = 256;
+    private static final Map<String, ExpressionProgram> CACHE = new ConcurrentHashMap<>();
+
+    /** Type des valeurs d'un nœud. */
+    enum Type { LONG, DOUBLE, BOOLEAN }
+
+    private final Node root;
+    /** Étiquettes des colonnes lues, dans l'ordre de leurs emplacements. */
+    private final String[] columns;
+    private final int registers;
+
+    private ExpressionProgram(Node root, String[] columns, int registers) {
+        this.root = root;
+        this.columns = columns;
+        this.registers = registers;
+    }
+
+    /**
+     * Retourne le programme de l'expression pour le schéma du DataFrame, compilé au premier
+     * appel puis lu dans le cache.
+     *
+     * @throws IllegalArgumentException si une colonne manque ou a un type incompatible.
+     */
+    static ExpressionProgram compile(Expression expression, DataFrame df) {
+        Set<String> labels = new LinkedHashSet<>();
+        expression.collectColumns(labels);
+        StringBuilder key = new StringBuilder(expression.toString());
+        for (String label : labels) {
+            key.append('\n').append(label).append(':').append(kind(df.requireColumn(label)));
+        }
+        ExpressionProgram program = CACHE.get(key.toString());
+        if (program == null) {
+            Compiler compiler = new Compiler(df);
+            Node root = expression.compile(compiler);
+            program = new ExpressionProgram(root, compiler.columns.toArray(new String[0]), compiler.registers);
+            if (CACHE.size() >= MAX_CACHED) {
+                CACHE.clear();
+            }
+            CACHE.put(key.toString(), program);
+        }
+        return program;
+    }
+
+    /** Nature d'une série, qui détermine la façon de la lire. */
+    private static String kind(Series<?> series) {
+        if (series instanceof NumericSeries || series instanceof DictionarySeries) {
+            return series.getClass().getSimpleName();
+        }
+        return isNumbers(series) ? "Number" : "Text";
+    }
+
+    /** Indique si une série générique contient des nombres, d'après sa première valeur non nulle. */
+    private static boolean isNumbers(Series<?> series) {
+        for (int i = 0; i < series.size(); i++) {
+            Object v = series.get(i);
+            if (v != null) return v instanceof Number;
+        }
+        return false;
+    }
+
+    Type type() {
+        return root.type;
+    }
+
+    /**
+     * Calcule l'expression sur toutes les lignes du DataFrame. Un résultat entier donne une
+     * {@link IntSeries} (ou une {@link LongSeries} si une valeur dépasse), un résultat décimal
+     * une {@link DoubleSeries}, une condition une série de Boolean.
+     */
+    Series<?> evaluate(DataFrame df, String label) {
+        int rows = df.getRowCount();
+        long[] validity = new long[Bitmaps.words(rows)];
+        long[] longs = root.type == Type.LONG ? new long[rows] : null;
+        double[] doubles = root.type == Type.DOUBLE ? new double[rows] : null;
+        long[] bits = root.type == Type.BOOLEAN ? new long[validity.length] : null;
+        run(df, (r, from, n) -> {
+            int first = from >>> 6;
+            int words = Bitmaps.words(n);
+            System.arraycopy(r.valid[root.id], 0, validity, first, words);
+            if (longs != null) {
+                System.arraycopy(r.longs[root.id], 0, longs, from, n);
+            } else if (doubles != null) {
+                System.arraycopy(r.doubles[root.id], 0, doubles, from, n);
+            } else {
+                System.arraycopy(r.longs[root.id], 0, bits, first, words);
+            }
+        });
+        Bitmaps.clearTail(validity, rows);
+        long[] nullable = Bitmaps.cardinality(validity) == rows ? null : validity;
+        switch (root.type) {
+            case LONG:
+                return integers(label, longs, nullable);
+            case DOUBLE:
+                return new DoubleSeries(label, doubles, nullable);
+            default:
+                Boolean[] values = new Boolean[rows];
+                for (int i = 0; i < rows; i++) {
+                    if ((validity[i >>> 6] & (1L << i)) != 0) {
+                        values[i] = (bits[i >>> 6] & (1L << i)) != 0;
+                    }
+                }
+                return new Series<>(label, Arrays.asList(values));
+        }
+    }
+
+    /**
+     * Construit une colonne entière : une {@link IntSeries} si toutes les valeurs non nulles
+     * tiennent dans un {@code int}, une {@link LongSeries} sinon. Les valeurs nulles sont remises à 0.
+     */
+    static Series<?> integers(String label, long[] values, long[] validity) {
+        boolean fits = true;
+        for (int i = 0; i < values.length; i++) {
+            if (validity != null && (validity[i >>> 6] & (1L << i)) == 0) {
+                values[i] = 0;
+            } else if (values[i] != (int) values[i]) {
+                fits = false;
+            }
+        }
+        if (!fits) {
+            return new LongSeries(label, values, validity);
+        }
+        int[] ints = new int[values.length];
+        for (int i = 0; i < ints.length; i++) ints[i] = (int) values[i];
+        return IntSeries.encode(label, ints, ints.length, validity);
+    }
+
+    /**
+     * Écrit dans {@code out} le bitmap des lignes où la condition est vraie (une condition
+     * nulle ne retient pas la ligne).
+     */
+    void select(DataFrame df, long[] out) {
+        select(df, out, null);
+    }
+
+    /**
+     * Comme {@link #select(DataFrame, long[])}, et écrit de plus dans {@code known} (s'il n'est
+     * pas null) le bitmap des lignes où la condition n'est pas nulle.
+     */
+    void select(DataFrame df, long[] out, long[] known) {
+        run(df, (r, from, n) -> {
+            long[] bits = r.longs[root.id];
+            long[] valid = r.valid[root.id];
+            int first = from >>> 6;
+            for (int w = 0; w < Bitmaps.words(n); w++) {
+                out[first + w] = bits[w] & valid[w];
+                if (known != null) known[first + w] = valid[w];
+            }
+        });
+        Bitmaps.clearTail(out, df.getRowCount());
+        if (known != null) Bitmaps.clearTail(known, df.getRowCount());
+    }
+
+    /** Traitement du résultat d'un bloc, lu dans le registre de la racine. */
+    private interface BlockSink {
+        void accept(Registers r, int from, int n);
+    }
+
+    /** Évalue tous les blocs, en parallèle sur le pool commun pour un grand DataFrame. */
+    private void run(DataFrame df, BlockSink sink) {
+        int rows = df.getRowCount();
+        Series<?>[] series = new Series<?>[columns.length];
+        for (int k = 0; k < columns.length; k++) {
+            series[k] = df.requireColumn(columns[k]);
+        }
+        int blocks = (rows + BLOCK - 1) / BLOCK;
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        int parts = GroupBy.taskCount(pool, rows);
+        if (parts == 1) {
+            runBlocks(series, 0, blocks, rows, sink);
+            return;
+        }
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(parts);
+        for (int p = 0; p < parts; p++) {
+            int first = (int) ((long) blocks * p / parts);
+            int last = (int) ((long) blocks * (p + 1) / parts);
+            tasks.add(pool.submit(() -> runBlocks(series, first, last, rows, sink)));
+        }
+        for (ForkJoinTask<?> task : tasks) {
+            task.join();
+        }
+    }
+
+    private void runBlocks(Series<?>[] series, int firstBlock, int lastBlock, int rows, BlockSink sink) {
+        Registers r = new Registers(series, registers);
+        root.init(r);
+        for (int b = firstBlock; b < lastBlock; b++) {
+            int from = b * BLOCK;
+            int n = Math.min(BLOCK, rows - from);
+            root.eval(r, from, n);
+            sink.accept(r, from, n);
+        }
+    }
+
+    /** Registres d'une évaluation : les colonnes lues et un tampon par nœud. */
+    static final class Registers {
+        final Series<?>[] columns;
+        final long[][] longs;
+        final double[][] doubles;
+        final long[][] valid;
+        /** État propre à un nœud pour cette évaluation (par exemple les codes acceptés d'un dictionnaire). */
+        final Object[] state;
+
+        Registers(Series<?>[] columns, int count) {
+            this.columns = columns;
+            this.longs = new long[count][];
+            this.doubles = new double[count][];
+            this.valid = new long[count][];
+            this.state = new Object[count];
+        }
+    }
+
+    /** Construction des nœuds pour le schéma d'un DataFrame, appelée par {@link Expression#compile}. */
+    static final class Compiler {
+        private final DataFrame df;
+        private final List<String> columns = new ArrayList<>();
+        private int registers;
+
+        Compiler(DataFrame df) {
+            this.df = df;
+        }
+
+        private int slot(String label) {
+            int slot = columns.indexOf(label);
+            if (slot < 0) {
+                slot = columns.size();
+                columns.add(label);
+            }
+            return slot;
+        }
+
+        Node column(String label) {
+            Series<?> series = df.requireColumn(label);
+            if (series instanceof IntSeries) return new IntColumn(registers++, slot(label));
+            if (series instanceof LongSeries) return new LongColumn(registers++, slot(label));
+            if (series instanceof DoubleSeries) return new DoubleColumn(registers++, slot(label));
+            if (!(series instanceof DictionarySeries) && isNumbers(series)) {
+                return new NumberColumn(registers++, slot(label));
+            }
+            throw new IllegalArgumentException("Column " + label + " is not numeric");
+        }
+
+        Node literal(Number value) {
+            if (value instanceof Long) return new LongLiteral(registers++, value.longValue());
+            return new DoubleLiteral(registers++, value.doubleValue());
+        }
+
+        Node textEquals(String label, String value, boolean negate) {
+            Series<?> series = df.requireColumn(label);
+            if (series instanceof NumericSeries || (!(series instanceof DictionarySeries) && isNumbers(series))) {
+                throw new IllegalArgumentException("Column " + label + " is not a text column");
+            }
+            return new TextEquals(registers++, slot(label), value, negate);
+        }
+
+        Node negate(Node operand, Expression source) {
+            requireNumber(operand, source);
+            return new Negate(registers++, operand);
+        }
+
+        Node not(Node operand, Expression source) {
+            requireCondition(operand, source);
+            return new Not(registers++, operand);
+        }
+
+        Node binary(Expression.Operator operator, Node left, Node right, Expression source) {
+            if (operator.isLogical()) {
+                requireCondition(left, source);
+                requireCondition(right, source);
+                return new Logic(registers++, operator == Expression.Operator.AND, left, right);
+            }
+            requireNumber(left, source);
+            requireNumber(right, source);
+            boolean decimal = operator == Expression.Operator.DIV || left.type == Type.DOUBLE || right.type == Type.DOUBLE;
+            if (decimal) {
+                left = toDouble(left);
+                right = toDouble(right);
+            }
+            switch (operator) {
+                case LT:
+                    return new Compare(registers++, Compare.LT, left, right, false);
+                case LE:
+                    return new Compare(registers++, Compare.LE, left, right, false);
+                case GT:
+                    return new Compare(registers++, Compare.LT, right, left, false);
+                case GE:
+                    return new Compare(registers++, Compare.LE, right, left, false);
+                case EQ:
+                    return new Compare(registers++, Compare.EQ, left, right, false);
+                case NE:
+                    return new Compare(registers++, Compare.EQ, left, right, true);
+                default:
+                    return new Arithmetic(registers++, operator, left, right);
+            }
+        }
+
+        private Node toDouble(Node node) {
+            if (node.type == Type.DOUBLE) return node;
+            if (node instanceof LongLiteral) return new DoubleLiteral(registers++, ((LongLiteral) node).value);
+            return new ToDouble(registers++, node);
+        }
+
+        private static void requireNumber(Node node, Expression source) {
+            if (node.type == Type.BOOLEAN) {
+                throw new IllegalArgumentException("Expected a number, not a condition, in " + source);
+            }
+        }
+
+        private static void requireCondition(Node node, Expression source) {
+            if (node.type != Type.BOOLEAN) {
+                throw new IllegalArgumentException("Expected a condition, not a number, in " + source);
+            }
+        }
+    }
+
+    /**
+     * Nœud compilé. Les valeurs d'un bloc sont écrites dans {@code longs[id]} (entiers, ou bits
+     * d'une condition), ou {@code doubles[id]}, et leur validité dans {@code valid[id]}.
+     */
+    abstract static class Node {
+        final int id;
+        final Type type;
+
+        Node(int id, Type type) {
+            this.id = id;
+            this.type = type;
+        }
+
+        /** Alloue les registres du nœud et de ses opérandes. */
+        void init(Registers r) {
+            if (type == Type.DOUBLE) {
+                r.doubles[id] = new double[BLOCK];
+            } else {
+                r.longs[id] = new long[type == Type.BOOLEAN ? WORDS : BLOCK];
+            }
+            r.valid[id] = new long[WORDS];
+        }
+
+        /** Calcule les lignes {@code [from, from + n)} dans le registre du nœud. */
+        abstract void eval(Registers r, int from, int n);
+    }
+
+    /** Copie les bits de validité des lignes {@code [from, from + n)} d'une série. */
+    private static void validity(NumericSeries<?> series, int from, int n, long[] valid) {
+        for (int base = 0, w = 0; base < n; base += 64, w++) {
+            valid[w] = series.validBits(from + base);
+        }
+    }
+
+    private static final class IntColumn extends Node {
+        private final int slot;
+
+        IntColumn(int id, int slot) {
+            super(id, Type.LONG);
+            this.slot = slot;
+        }
+
+        @Override
+        void eval(Registers r, int from, int n) {
+            IntSeries series = (IntSeries) r.columns[slot];
+            long[] out = r.longs[id];
+            for (int j = 0; j < n; j++) {
+                out[j] = series.getInt(from + j);
+            }
+            validity(series, from, n, r.valid[id]);
+        }
+    }
+
+    private static final class LongColumn extends Node {
+        private final int slot;
+
+        LongColumn(int id, int slot) {
+            super(id, Type.LONG);
+            this.slot = slot;
+        }
+
+        @Override
+        void eval(Registers r, int from, int n) {
+            LongSeries series = (LongSeries) r.columns[slot];
+            long[] out = r.longs[id];
+            for (int j = 0; j < n; j++) {
+                out[j] = series.getLong(from + j);
+            }
+            validity(series, from, n, r.valid[id]);
+        }
+    }
+
+    private static final class DoubleColumn extends Node {
+        private final int slot;
+
+        DoubleColumn(int id, int slot) {
+            super(id, Type.DOUBLE);
+            this.slot = slot;
+        }
+
+        @Override
+        void eval(Registers r, int from, int n) {
+            DoubleSeries series = (DoubleSeries) r.columns[slot];
+            double[] out = r.doubles[id];
+            for (int j = 0; j < n; j++) {
+                out[j] = series.getDouble(from + j);
+            }
+            validity(series, from, n, r.valid[id]);
+        }
+    }
+
+    /** Série générique de nombres, lue valeur par valeur. */
+    private static final class NumberColumn extends Node {
+        private final int slot;
+
+        NumberColumn(int id, int slot) {
+            super(id, Type.DOUBLE);
+            this.slot = slot;
+        }
+
+        @Override
+        void eval(Registers r, int from, int n) {
+            Series<?> series = r.columns[slot];
+            double[] out = r.doubles[id];
+            long[] valid = r.valid[id];
+            Arrays.fill(valid, 0L);
+            for (int j = 0; j < n; j++) {
+                Object v = series.get(from + j);
+                if (v instanceof Number) {
+                    out[j] = ((Number) v).doubleValue();
+                    valid[j >>> 6] |= 1L << j;
+                }
+            }
+        }
+    }
+
+    private static final class LongLiteral extends Node {
+        private final long value;
+
+        LongLiteral(int id, long value) {
+            super(id, Type.LONG);
+            this.value = value;
+        }
+
+        @Override
+        void init(Registers r) {
+            super.init(r);
+            Arrays.fill(r.longs[id], value);
+            Arrays.fill(r.valid[id], -1L);
+        }
+
+        @Override
+        void eval(Registers r, int from, int n) {
+            // Filled once by init.
+        }
+    }
+
+    private static final class DoubleLiteral extends Node {
+        private final double value;
+
+        DoubleLiteral(int id, double value) {
+            super(id, Type.DOUBLE);
+            this.value = value;
+        }
+
+        @Override
+        void init(Registers r) {
+            super.init(r);
+            Arrays.fill(r.doubles[id], value);
+            Arrays.fill(r.valid[id], -1L);
+        }
+
+        @Override
+        void eval(Registers r, int from, int n) {
+            // Filled once by init.
+        }
+    }
+
+    /** Égalité d'une colonne textuelle à un texte ; pour un dictionnaire, chaque valeur distincte n'est comparée qu'une fois. */
+    private static final class TextEquals extends Node {
+        private final int slot;
+        private final String value;
+        private final boolean negate;
+
+        TextEquals(int id, int slot, String value, boolean negate) {
+            super(id, Type.BOOLEAN);
+            this.slot = slot;
+            this.value = value;
+            this.negate = negate;
+        }
+
+        @Override
+        void init(Registers r) {
+            super.init(r);
+            if (r.columns[slot] instanceof DictionarySeries) {
+                DictionarySeries encoded = (DictionarySeries) r.columns[slot];
+                long[] matches = new long[encoded.getDictionarySize()];
+                for (int code = 0; code < matches.length; code++) {
+                    String v = encoded.getDictionaryValue(code);
+                    // Bit 0: the code is a value; bit 1: it equals the literal.
+                    matches[code] = v == null ? 0 : value.equals(v) ? 3 : 1;
+                }
+                r.state[id] = matches;
+            }
+        }
+
+        @Override
+        void eval(Registers r, int from, int n) {
+            Series<?> series = r.columns[slot];
+            long[] matches = (long[]) r.state[id];
+            long[] out = r.longs[id];
+            long[] valid = r.valid[id];
+            for (int base = 0, w = 0; base < n; base += 64, w++) {
+                int m = Math.min(64, n - base);
+                long known = 0;
+                long bits = 0;
+                if (matches != null) {
+                    DictionarySeries encoded = (DictionarySeries) series;
+                    for (int j = 0; j < m; j++) {
+                        long match = matches[encoded.getCode(from + base + j)];
+                        known |= (match & 1) << j;
+                        bits |= (match >>> 1) << j;
+                    }
+                } else {
+                    for (int j = 0; j < m; j++) {
+                        Object v = series.get(from + base + j);
+                        if (v != null) {
+                            known |= 1L << j;
+                            if (value.equals(v)) bits |= 1L << j;
+                        }
+                    }
+                }
+                out[w] = negate ? ~bits : bits;
+                valid[w] = known;
+            }
+        }
+    }
+
+    private static final class ToDouble extends Node {
+        private final Node operand;
+
+        ToDouble(int id, Node operand) {
+            super(id, Type.DOUBLE);
+            this.operand = operand;
+        }
+
+        @Override
+        void init(Registers r) {
+            super.init(r);
+            operand.init(r);
+        }
+
+        @Override
+        void eval(Registers r, int from, int n) {
+            operand.eval(r, from, n);
+            long[] in = r.longs[operand.id];
+            double[] out = r.doubles[id];
+            for (int j = 0; j < n; j++) {
+                out[j] = in[j];
+            }
+            System.arraycopy(r.valid[operand.id], 0, r.valid[id], 0, WORDS);
+        }
+    }
+
+    private static final class Negate extends Node {
+        private final Node operand;
+
+        Negate(int id, Node operand) {
+            super(id, operand.type);
+            this.operand = operand;
+        }
+
+        @Override
+        void init(Registers r) {
+            super.init(r);
+            operand.init(r);
+        }
+
+        @Override
+        void eval(Registers r, int from, int n) {
+            operand.eval(r, from, n);
+            if (type == Type.LONG) {
+                long[] in = r.longs[operand.id];
+                long[] out = r.longs[id];
+                for (int j = 0; j < n; j++) out[j] = -in[j];
+            } else {
+                double[] in = r.doubles[operand.id];
+                double[] out = r.doubles[id];
+                for (int j = 0; j < n; j++) out[j] = -in[j];
+            }
+            System.arraycopy(r.valid[operand.id], 0, r.valid[id], 0, WORDS);
+        }
+    }
+
+    /** Opération arithmétique entre deux opérandes de même type. */
+    private static final class Arithmetic extends Node {
+        private final Expression.Operator operator;
+        private final Node left;
+        private final Node right;
+
+        Arithmetic(int id, Expression.Operator operator, Node left, Node right) {
+            super(id, left.type);
+            this.operator = operator;
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        void init(Registers r) {
+            super.init(r);
+            left.init(r);
+            right.init(r);
+        }
+
+        @Override
+        void eval(Registers r, int from, int n) {
+            left.eval(r, from, n);
+            right.eval(r, from, n);
+            long[] valid = r.valid[id];
+            long[] leftValid = r.valid[left.id];
+            long[] rightValid = r.valid[right.id];
+            for (int w = 0; w < WORDS; w++) {
+                valid[w] = leftValid[w] & rightValid[w];
+            }
+            // One loop per operator, so that each loop body is a single instruction.
+            if (type == Type.LONG) {
+                long[] a = r.longs[left.id];
+                long[] b = r.longs[right.id];
+                long[] out = r.longs[id];
+                switch (operator) {
+                    case ADD:
+                        for (int j = 0; j < n; j++) out[j] = a[j] + b[j];
+                        break;
+                    case SUB:
+                        for (int j = 0; j < n; j++) out[j] = a[j] - b[j];
+                        break;
+                    case MUL:
+                        for (int j = 0; j < n; j++) out[j] = a[j] * b[j];
+                        break;
+                    default:
+                        for (int j = 0; j < n; j++) {
+                            if (b[j] == 0) {
+                                out[j] = 0;
+                                valid[j >>> 6] &= ~(1L << j);
+                            } else {
+                                out[j] = a[j] % b[j];
+                            }
+                        }
+                }
+            } else {
+                double[] a = r.doubles[left.id];
+                double[] b = r.doubles[right.id];
+                double[] out = r.doubles[id];
+                switch (operator) {
+                    case ADD:
+                        for (int j = 0; j < n; j++) out[j] = a[j] + b[j];
+                        break;
+                    case SUB:
+                        for (int j = 0; j < n; j++) out[j] = a[j] - b[j];
+                        break;
+                    case MUL:
+                        for (int j = 0; j < n; j++) out[j] = a[j] * b[j];
+                        break;
+                    case DIV:
+                        for (int j = 0; j < n; j++) out[j] = a[j] / b[j];
+                        break;
+                    default:
+                        for (int j = 0; j < n; j++) {
+                            if (b[j] == 0) {
+                                out[j] = 0;
+                                valid[j >>> 6] &= ~(1L << j);
+                            } else {
+                                out[j] = a[j] % b[j];
+                            }
+                        }
+                }
+            }
+        }
+    }
+
+    /** Comparaison {@code <}, {@code <=} ou {@code ==} de deux opérandes de même type, éventuellement inversée. */
+    private static final class Compare extends Node {
+        static final int LT = 0;
+        static final int LE = 1;
+        static final int EQ = 2;
+
+        private final int comparison;
+        private final Node left;
+        private final Node right;
+        private final boolean negate;
+
+        Compare(int id, int comparison, Node left, Node right, boolean negate) {
+            super(id, Type.BOOLEAN);
+            this.comparison = comparison;
+            this.left = left;
+            this.right = right;
+            this.negate = negate;
+        }
+
+        @Override
+        void init(Registers r) {
+            super.init(r);
+            left.init(r);
+            right.init(r);
+        }
+
+        @Override
+        void eval(Registers r, int from, int n) {
+            left.eval(r, from, n);
+            right.eval(r, from, n);
+            long[] out = r.longs[id];
+            if (left.type == Type.LONG) {
+                compare(r.longs[left.id], r.longs[right.id], out, n);
+            } else {
+                compare(r.doubles[left.id], r.doubles[right.id], out, n);
+            }
+            long[] valid = r.valid[id];
+            long[] leftValid = r.valid[left.id];
+            long[] rightValid = r.valid[right.id];
+            for (int w = 0; w < WORDS; w++) {
+                valid[w] = leftValid[w] & rightValid[w];
+                if (negate) out[w] = ~out[w];
+            }
+        }
+
+        private void compare(long[] a, long[] b, long[] out, int n) {
+            for (int base = 0, w = 0; base < n; base += 64, w++) {
+                int m = Math.min(64, n - base);
+                long bits = 0;
+                switch (comparison) {
+                    case LT:
+                        for (int j = 0; j < m; j++) bits |= (a[base + j] < b[base + j] ? 1L : 0L) << j;
+                        break;
+                    case LE:
+                        for (int j = 0; j < m; j++) bits |= (a[base + j] <= b[base + j] ? 1L : 0L) << j;
+                        break;
+                    default:
+                        for (int j = 0; j < m; j++) bits |= (a[base + j] == b[base + j] ? 1L : 0L) << j;
+                }
+                out[w] = bits;
+            }
+        }
+
+        private void compare(double[] a, double[] b, long[] out, int n) {
+            for (int base = 0, w = 0; base < n; base += 64, w++) {
+                int m = Math.min(64, n - base);
+                long bits = 0;
+                switch (comparison) {
+                    case LT:
+                        for (int j = 0; j < m; j++) bits |= (a[base + j] < b[base + j] ? 1L : 0L) << j;
+                        break;
+                    case LE:
+                        for (int j = 0; j < m; j++) bits |= (a[base + j] <= b[base + j] ? 1L : 0L) << j;
+                        break;
+                    default:
+                        for (int j = 0; j < m; j++) bits |= (a[base + j] == b[base + j] ? 1L : 0L) << j;
+                }
+                out[w] = bits;
+            }
+        }
+    }
+
+    /** ET / OU en logique à trois valeurs, mot par mot. */
+    private static final class Logic extends Node {
+        private final boolean conjunction;
+        private final Node left;
+        private final Node right;
+
+        Logic(int id, boolean conjunction, Node left, Node right) {
+            super(id, Type.BOOLEAN);
+            this.conjunction = conjunction;
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        void init(Registers r) {
+            super.init(r);
+            left.init(r);
+            right.init(r);
+        }
+
+        @Override
+        void eval(Registers r, int from, int n) {
+            left.eval(r, from, n);
+            right.eval(r, from, n);
+            long[] a = r.longs[left.id];
+            long[] b = r.longs[right.id];
+            long[] aKnown = r.valid[left.id];
+            long[] bKnown = r.valid[right.id];
+            long[] out = r.longs[id];
+            long[] valid = r.valid[id];
+            for (int w = 0; w < WORDS; w++) {
+                long aTrue = a[w] & aKnown[w];
+                long bTrue = b[w] & bKnown[w];
+                long aFalse = ~a[w] & aKnown[w];
+                long bFalse = ~b[w] & bKnown[w];
+                // A known operand can decide the result even when the other one is null.
+                long isTrue = conjunction ? aTrue & bTrue : aTrue | bTrue;
+                long isFalse = conjunction ? aFalse | bFalse : aFalse & bFalse;
+                out[w] = isTrue;
+                valid[w] = isTrue | isFalse;
+            }
+        }
+    }
+
+    private static final class Not extends Node {
+        private final Node operand;
+
+        Not(int id, Node operand) {
+            super(id, Type.BOOLEAN);
+            this.operand = operand;
+        }
+
+        @Override
+        void init(Registers r) {
+            super.init(r);
+            operand.init(r);
+        }
+
+        @Override
+        void eval(Registers r, int from, int n) {
+            operand.eval(r, from, n);
+            long[] in = r.longs[operand.id];
+            long[] out = r.longs[id];
+            for (int w = 0; w < WORDS; w++) {
+                out[w] = ~in[w];
+            }
+            System.arraycopy(r.valid[operand.id], 0, r.valid[id], 0, WORDS);
+        }
+    }
+}
@@ -0,0 +1,757 @@
+package com.ilian.dataframe;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.StringJoiner;
+
+/**
+ * Condition sur les lignes d'un {@link DataFrame}, utilisée par {@link DataFrame#filter(Filter)}.
+ *
+ * Les conditions sont construites avec les méthodes statiques de cette classe (comparaisons,
+ * intervalles, appartenance à un ensemble, égalité ou préfixe de texte) et combinées avec
+ * {@link #and(Filter...)}, {@link #or(Filter...)} et {@link #not(Filter)}. Une condition plus
+ * libre (comparaison entre colonnes, calcul) s'écrit comme une {@link Expression} et s'utilise
+ * avec {@link #where(Expression)}.
+ *
+ * L'évaluation se fait colonne par colonne : chaque condition élémentaire parcourt le tableau
+ * primitif de sa colonne et produit un bitmap (un bit par ligne), puis les bitmaps sont
+ * combinés mot par mot. Aucune allocation n'est faite par ligne.
+ *
+ * Lorsqu'une colonne porte un index ({@link DataFrame#createIndex(String, IndexKind)}), les
+ * égalités et intervalles sur cette colonne lisent directement leurs lignes dans l'index si
+ * elles sont peu nombreuses ; un ET dont une condition est ainsi résolue n'évalue les autres
+ * que sur les lignes trouvées.
+ */
+public abstract class Filter {
+    /** Au-delà d'une ligne sur 16 (et de 64 lignes), parcourir la colonne coûte moins que l'index. */
+    private static final int MAX_LOOKUP_FRACTION = 16;
+
+    Filter() {
+    }
+
+    /**
+     * Évalue la condition sur toutes les lignes du DataFrame.
+     *
+     * @param df  Le DataFrame à évaluer.
+     * @param out Le bitmap de sortie, entièrement réécrit ({@link Bitmaps#words(int)} mots).
+     */
+    abstract void evaluate(DataFrame df, long[] out);
+
+    /**
+     * Évalue la condition en logique à trois valeurs, comme une {@link Expression} : une
+     * condition qui lit une valeur nulle est inconnue, sauf si une autre partie d'un ET ou d'un
+     * OU suffit à la décider. Par défaut, la condition est inconnue sur les lignes où l'une des
+     * colonnes qu'elle lit est nulle.
+     *
+     * @param df    Le DataFrame à évaluer.
+     * @param out   Le bitmap des lignes où la condition est vraie, entièrement réécrit.
+     * @param known Le bitmap des lignes où la condition est connue (vraie ou fausse), entièrement réécrit.
+     */
+    void evaluate(DataFrame df, long[] out, long[] known) {
+        evaluate(df, out);
+        Arrays.fill(known, 0L);
+        Bitmaps.setRange(known, 0, df.getRowCount());
+        Set<String> labels = new HashSet<>();
+        collectColumns(labels);
+        for (String label : labels) {
+            excludeNulls(column(df, label), known);
+        }
+        Bitmaps.and(out, known);
+    }
+
+    private static void excludeNulls(Series<?> series, long[] out) {
+        if (series instanceof NumericSeries) {
+            ((NumericSeries<?>) series).excludeNulls(out);
+        } else if (series instanceof DictionarySeries) {
+            DictionarySeries encoded = (DictionarySeries) series;
+            boolean[] present = new boolean[encoded.getDictionarySize()];
+            for (int code = 0; code < present.length; code++) {
+                present[code] = encoded.getDictionaryValue(code) != null;
+            }
+            long[] valid = new long[out.length];
+            encoded.selectCodes(present, valid);
+            Bitmaps.and(out, valid);
+        } else {
+            for (int i = 0; i < series.size(); i++) {
+                if (series.get(i) == null) {
+                    out[i >>> 6] &= ~(1L << i);
+                }
+            }
+        }
+    }
+
+    /**
+     * Retourne directement les lignes retenues, en ordre croissant, si des index permettent de
+     * les trouver sans parcourir les colonnes et qu'elles sont peu nombreuses.
+     *
+     * @param df Le DataFrame à évaluer.
+     * @return Les lignes retenues, ou null pour une évaluation par {@link #evaluate}.
+     */
+    int[] lookup(DataFrame df) {
+        return null;
+    }
+
+    /** Ajoute à {@code out} les étiquettes des colonnes lues par la condition. */
+    abstract void collectColumns(Set<String> out);
+
+    /** Ajoute à {@code out} les étiquettes des colonnes comparées à du texte. */
+    void collectTextColumns(Set<String> out) {
+    }
+
+    /** Indique si {@code count} lignes sur {@code rows} justifient une recherche par index. */
+    static boolean fewRows(long count, int rows) {
+        return count <= Math.max(64, rows / MAX_LOOKUP_FRACTION);
+    }
+
+    /** Réécrit {@code out} avec les lignes données. */
+    static void setRows(int[] rows, long[] out) {
+        Arrays.fill(out, 0L);
+        for (int row : rows) {
+            out[row >>> 6] |= 1L << row;
+        }
+    }
+
+    /**
+     * Lignes (croissantes) dont la valeur numérique est dans l'intervalle, d'après l'index trié
+     * ou l'index par hachage de la série, ou null si aucun ne convient.
+     */
+    static int[] lookupRange(Series<?> series, double lo, boolean loInclusive, double hi, boolean hiInclusive) {
+        SortedIndex sorted = series.sortedIndex();
+        if (sorted != null) {
+            int[] range = sorted.range(lo, loInclusive, hi, hiInclusive);
+            if (!fewRows(range[1] - range[0], series.size())) return null;
+            int[] rows = new int[range[1] - range[0]];
+            for (int i = 0; i < rows.length; i++) rows[i] = sorted.row(range[0] + i);
+            Arrays.sort(rows);
+            return rows;
+        }
+        HashIndex hash = series.hashIndex();
+        if (hash != null && lo == hi && loInclusive && hiInclusive) {
+            int[] rows = hash.lookup(lo);
+            return fewRows(rows.length, series.size()) ? rows : null;
+        }
+        return null;
+    }
+
+    /** Union de listes de lignes croissantes et disjointes, ou null si l'une manque ou si le total est trop grand. */
+    static int[] union(int[][] parts, int rows) {
+        int total = 0;
+        for (int[] part : parts) {
+            if (part == null) return null;
+            total += part.length;
+        }
+        if (!fewRows(total, rows)) return null;
+        int[] union = new int[total];
+        int k = 0;
+        for (int[] part : parts) {
+            System.arraycopy(part, 0, union, k, part.length);
+            k += part.length;
+        }
+        Arrays.sort(union);
+        return union;
+    }
+
+    /**
+     * Valeur de la colonne égale à {@code value}.
+     *
+     * @param label L'étiquette d'une colonne numérique.
+     * @param value La valeur recherchée.
+     * @return La condition.
+     */
+    public static Filter eq(String label, double value) {
+        return new Range(label, value, true, value, true);
+    }
+
+    /**
+     * Valeur de la colonne différente de {@code value} ; les valeurs nulles ne sont pas retenues.
+     *
+     * @param label L'étiquette d'une colonne numérique.
+     * @param value La valeur exclue.
+     * @return La condition.
+     */
+    public static Filter ne(String label, double value) {
+        return not(eq(label, value));
+    }
+
+    /**
+     * Valeur de la colonne strictement inférieure à {@code value}.
+     *
+     * @param label L'étiquette d'une colonne numérique.
+     * @param value La borne.
+     * @return La condition.
+     */
+    public static Filter lt(String label, double value) {
+        return new Range(label, Double.NEGATIVE_INFINITY, true, value, false);
+    }
+
+    /**
+     * Valeur de la colonne inférieure ou égale à {@code value}.
+     *
+     * @param label L'étiquette d'une colonne numérique.
+     * @param value La borne.
+     * @return La condition.
+     */
+    public static Filter le(String label, double value) {
+        return new Range(label, Double.NEGATIVE_INFINITY, true, value, true);
+    }
+
+    /**
+     * Valeur de la colonne strictement supérieure à {@code value}.
+     *
+     * @param label L'étiquette d'une colonne numérique.
+     * @param value La borne.
+     * @return La condition.
+     */
+    public static Filter gt(String label, double value) {
+        return new Range(label, value, false, Double.POSITIVE_INFINITY, true);
+    }
+
+    /**
+     * Valeur de la colonne supérieure ou égale à {@code value}.
+     *
+     * @param label L'étiquette d'une colonne numérique.
+     * @param value La borne.
+     * @return La condition.
+     */
+    public static Filter ge(String label, double value) {
+        return new Range(label, value, true, Double.POSITIVE_INFINITY, true);
+    }
+
+    /**
+     * Valeur de la colonne comprise entre {@code lo} et {@code hi}, bornes incluses.
+     *
+     * @param label L'étiquette d'une colonne numérique.
+     * @param lo    La borne inférieure.
+     * @param hi    La borne supérieure.
+     * @return La condition.
+     */
+    public static Filter between(String label, double lo, double hi) {
+        return new Range(label, lo, true, hi, true);
+    }
+
+    /**
+     * Valeur de la colonne appartenant à l'ensemble donné.
+     *
+     * @param label  L'étiquette d'une colonne numérique.
+     * @param values Les valeurs acceptées.
+     * @return La condition.
+     */
+    public static Filter in(String label, double... values) {
+        return new NumberSet(label, values);
+    }
+
+    /**
+     * Texte de la colonne égal à {@code value}.
+     *
+     * @param label L'étiquette d'une colonne textuelle.
+     * @param value Le texte recherché.
+     * @return La condition.
+     */
+    public static Filter eq(String label, String value) {
+        return in(label, value);
+    }
+
+    /**
+     * Texte de la colonne appartenant à l'ensemble donné.
+     *
+     * @param label  L'étiquette d'une colonne textuelle.
+     * @param values Les textes acceptés.
+     * @return La condition.
+     */
+    public static Filter in(String label, String... values) {
+        return new Text(label, new HashSet<>(Arrays.asList(values)), null);
+    }
+
+    /**
+     * Texte de la colonne commençant par {@code prefix}.
+     *
+     * @param label  L'étiquette d'une colonne textuelle.
+     * @param prefix Le préfixe recherché.
+     * @return La condition.
+     */
+    public static Filter startsWith(String label, String prefix) {
+        return new Text(label, null, prefix);
+    }
+
+    /**
+     * Conjonction de conditions.
+     *
+     * @param filters Les conditions, qui doivent toutes être vérifiées.
+     * @return La condition.
+     */
+    public static Filter and(Filter... filters) {
+        return new Combination(filters, true);
+    }
+
+    /**
+     * Disjonction de conditions.
+     *
+     * @param filters Les conditions, dont au moins une doit être vérifiée.
+     * @return La condition.
+     */
+    public static Filter or(Filter... filters) {
+        return new Combination(filters, false);
+    }
+
+    /**
+     * Négation d'une condition, en logique à trois valeurs comme pour {@link #where(Expression)} :
+     * une condition inconnue (qui lit une valeur nulle) le reste et la ligne n'est pas retenue,
+     * mais un ET dont une partie est fausse est faux, et sa négation vraie, même si une autre
+     * partie lit une valeur nulle.
+     *
+     * @param filter La condition à inverser.
+     * @return La condition.
+     */
+    public static Filter not(Filter filter) {
+        return new Not(filter);
+    }
+
+    /**
+     * Condition donnée par une expression, par exemple {@code Filter.where("Note * 2 + Bonus > 30")}.
+     *
+     * @param condition La condition, dans le langage de {@link Expression#parse(String)}.
+     * @return La condition.
+     * @throws IllegalArgumentException si le texte n'est pas une expression valide.
+     */
+    public static Filter where(String condition) {
+        return where(Expression.parse(condition));
+    }
+
+    /**
+     * Condition donnée par une expression, compilée une fois par schéma et évaluée par blocs
+     * directement en bitmap (voir {@link Expression}). Les lignes où elle est nulle ne sont pas
+     * retenues.
+     *
+     * @param condition La condition.
+     * @return La condition.
+     */
+    public static Filter where(Expression condition) {
+        return new Where(condition);
+    }
+
+    static Series<?> column(DataFrame df, String label) {
+        return df.requireColumn(label);
+    }
+
+    static void requireNumbers(Series<?> series) {
+        if (!(series instanceof NumericSeries) && series.size() > 0 && !(series.get(0) instanceof Number)) {
+            throw new IllegalArgumentException("Column " + series.getLabel() + " is not numeric");
+        }
+    }
+
+    /** Intervalle numérique ; toutes les comparaisons s'y ramènent. */
+    private static final class Range extends Filter {
+        private final String label;
+        private final double lo;
+        private final boolean loInclusive;
+        private final double hi;
+        private final boolean hiInclusive;
+
+        Range(String label, double lo, boolean loInclusive, double hi, boolean hiInclusive) {
+            this.label = label;
+            this.lo = lo;
+            this.loInclusive = loInclusive;
+            this.hi = hi;
+            this.hiInclusive = hiInclusive;
+        }
+
+        @Override
+        int[] lookup(DataFrame df) {
+            Series<?> series = column(df, label);
+            requireNumbers(series);
+            if (Double.isNaN(lo) || Double.isNaN(hi)) return null;
+            return lookupRange(series, lo, loInclusive, hi, hiInclusive);
+        }
+
+        @Override
+        void evaluate(DataFrame df, long[] out) {
+            Series<?> series = column(df, label);
+            requireNumbers(series);
+            int[] rows = lookup(df);
+            if (rows != null) {
+                setRows(rows, out);
+            } else if (Double.isNaN(lo) || Double.isNaN(hi)) {
+                Arrays.fill(out, 0L);
+            } else if (series instanceof NumericSeries) {
+                ((NumericSeries<?>) series).selectRange(lo, loInclusive, hi, hiInclusive, out);
+            } else {
+                Arrays.fill(out, 0L);
+                for (int i = 0; i < series.size(); i++) {
+                    Object v = series.get(i);
+                    if (v instanceof Number && matches(((Number) v).doubleValue())) {
+                        out[i >>> 6] |= 1L << i;
+                    }
+                }
+            }
+        }
+
+        private boolean matches(double v) {
+            return (loInclusive ? v >= lo : v > lo) && (hiInclusive ? v <= hi : v < hi);
+        }
+
+        @Override
+        void collectColumns(Set<String> out) {
+            out.add(label);
+        }
+
+        @Override
+        public String toString() {
+            if (lo == hi && loInclusive && hiInclusive) return label + " == " + lo;
+            String lower = (loInclusive ? " >= " : " > ") + lo;
+            String upper = (hiInclusive ? " <= " : " < ") + hi;
+            if (hi == Double.POSITIVE_INFINITY) return label + lower;
+            if (lo == Double.NEGATIVE_INFINITY) return label + upper;
+            return label + lower + " and " + label + upper;
+        }
+    }
+
+    /** Appartenance à un ensemble de nombres. */
+    private static final class NumberSet extends Filter {
+        /** Au-delà, une recherche dichotomique par ligne coûte moins qu'une passe par valeur. */
+        private static final int MAX_PASSES = 16;
+
+        private final String label;
+        private final double[] values;
+
+        NumberSet(String label, double[] values) {
+            this.label = label;
+            this.values = Arrays.stream(values).filter(v -> !Double.isNaN(v)).sorted().distinct().toArray();
+        }
+
+        @Override
+        int[] lookup(DataFrame df) {
+            Series<?> series = column(df, label);
+            requireNumbers(series);
+            if (series.sortedIndex() == null && series.hashIndex() == null) return null;
+            int[][] parts = new int[values.length][];
+            for (int k = 0; k < values.length; k++) {
+                parts[k] = lookupRange(series, values[k], true, values[k], true);
+            }
+            return union(parts, series.size());
+        }
+
+        @Override
+        void evaluate(DataFrame df, long[] out) {
+            Series<?> series = column(df, label);
+            requireNumbers(series);
+            int[] rows = lookup(df);
+            if (rows != null) {
+                setRows(rows, out);
+                return;
+            }
+            Arrays.fill(out, 0L);
+            if (series instanceof NumericSeries && values.length <= MAX_PASSES) {
+                NumericSeries<?> numeric = (NumericSeries<?>) series;
+                long[] scratch = new long[out.length];
+                for (double v : values) {
+                    numeric.selectRange(v, true, v, true, scratch);
+                    Bitmaps.or(out, scratch);
+                }
+                return;
+            }
+            for (int i = 0; i < series.size(); i++) {
+                double v = series instanceof NumericSeries
+                        ? ((NumericSeries<?>) series).getDouble(i)
+                        : series.get(i) instanceof Number ? ((Number) series.get(i)).doubleValue() : Double.NaN;
+                if (Arrays.binarySearch(values, v) >= 0) {
+                    out[i >>> 6] |= 1L << i;
+                }
+            }
+            if (series instanceof NumericSeries) {
+                ((NumericSeries<?>) series).excludeNulls(out);
+            }
+        }
+
+        @Override
+        void collectColumns(Set<String> out) {
+            out.add(label);
+        }
+
+        @Override
+        public String toString() {
+            return label + " in " + Arrays.toString(values);
+        }
+    }
+
+    /** Égalité (ensemble de textes) ou préfixe sur une colonne textuelle. */
+    private static final class Text extends Filter {
+        private final String label;
+        private final Set<String> values;
+        private final String prefix;
+
+        Text(String label, Set<String> values, String prefix) {
+            this.label = label;
+            this.values = values;
+            this.prefix = prefix;
+        }
+
+        @Override
+        int[] lookup(DataFrame df) {
+            Series<?> series = column(df, label);
+            HashIndex hash = series.hashIndex();
+            if (hash == null || prefix != null || series instanceof NumericSeries) return null;
+            int[][] parts = new int[values.size()][];
+            int k = 0;
+            for (String value : values) {
+                parts[k++] = hash.lookup(value);
+            }
+            return union(parts, series.size());
+        }
+
+        @Override
+        void evaluate(DataFrame df, long[] out) {
+            Series<?> series = column(df, label);
+            if (series instanceof NumericSeries) {
+                throw new IllegalArgumentException("Column " + label + " is not a text column");
+            }
+            int[] rows = lookup(df);
+            if (rows != null) {
+                setRows(rows, out);
+                return;
+            }
+            if (series instanceof DictionarySeries) {
+                // Test each distinct value once, then scan the codes.
+                DictionarySeries encoded = (DictionarySeries) series;
+                boolean[] accepted = new boolean[encoded.getDictionarySize()];
+                for (int code = 0; code < accepted.length; code++) {
+                    accepted[code] = matches(encoded.getDictionaryValue(code));
+                }
+                encoded.selectCodes(accepted, out);
+                return;
+            }
+            Arrays.fill(out, 0L);
+            for (int i = 0; i < series.size(); i++) {
+                if (matches(series.get(i))) {
+                    out[i >>> 6] |= 1L << i;
+                }
+            }
+        }
+
+        private boolean matches(Object v) {
+            if (!(v instanceof String)) return false;
+            return prefix != null ? ((String) v).startsWith(prefix) : values.contains(v);
+        }
+
+        @Override
+        void collectColumns(Set<String> out) {
+            out.add(label);
+        }
+
+        @Override
+        void collectTextColumns(Set<String> out) {
+            out.add(label);
+        }
+
+        @Override
+        public String toString() {
+            return prefix != null ? label + " startsWith \"" + prefix + "\"" : label + " in " + values;
+        }
+    }
+
+    /** ET / OU de plusieurs conditions, combinées mot par mot. */
+    private static final class Combination extends Filter {
+        private final Filter[] filters;
+        private final boolean conjunction;
+
+        Combination(Filter[] filters, boolean conjunction) {
+            if (filters.length == 0) {
+                throw new IllegalArgumentException("At least one filter is required");
+            }
+            this.filters = filters.clone();
+            this.conjunction = conjunction;
+        }
+
+        @Override
+        int[] lookup(DataFrame df) {
+            if (!conjunction) {
+                int[][] parts = new int[filters.length][];
+                for (int k = 0; k < filters.length; k++) {
+                    parts[k] = filters[k].lookup(df);
+                    if (parts[k] == null) return null;
+                }
+                return distinctUnion(parts);
+            }
+            for (int k = 0; k < filters.length; k++) {
+                int[] candidates = filters[k].lookup(df);
+                if (candidates == null) continue;
+                // Evaluate the other conditions on the candidate rows only.
+                Filter[] others = new Filter[filters.length - 1];
+                for (int j = 0, o = 0; j < filters.length; j++) {
+                    if (j != k) others[o++] = filters[j];
+                }
+                if (others.length == 0) return candidates;
+                long[] bits = new long[Bitmaps.words(candidates.length)];
+                new Combination(others, true).evaluate(df.takeRows(candidates), bits);
+                int[] kept = Bitmaps.toIndices(bits);
+                for (int i = 0; i < kept.length; i++) kept[i] = candidates[kept[i]];
+                return kept;
+            }
+            return null;
+        }
+
+        /** Union sans doublons de listes de lignes croissantes. */
+        private static int[] distinctUnion(int[][] parts) {
+            int total = 0;
+            for (int[] part : parts) total += part.length;
+            int[] all = new int[total];
+            int k = 0;
+            for (int[] part : parts) {
+                System.arraycopy(part, 0, all, k, part.length);
+                k += part.length;
+            }
+            Arrays.sort(all);
+            int size = 0;
+            for (int i = 0; i < all.length; i++) {
+                if (size == 0 || all[i] != all[size - 1]) all[size++] = all[i];
+            }
+            return Arrays.copyOf(all, size);
+        }
+
+        @Override
+        void evaluate(DataFrame df, long[] out) {
+            int[] rows = lookup(df);
+            if (rows != null) {
+                setRows(rows, out);
+                return;
+            }
+            filters[0].evaluate(df, out);
+            long[] scratch = null;
+            for (int k = 1; k < filters.length; k++) {
+                if (conjunction && Bitmaps.cardinality(out) == 0) {
+                    return;
+                }
+                if (scratch == null) {
+                    scratch = new long[out.length];
+                }
+                filters[k].evaluate(df, scratch);
+                if (conjunction) {
+                    Bitmaps.and(out, scratch);
+                } else {
+                    Bitmaps.or(out, scratch);
+                }
+            }
+        }
+
+        @Override
+        void evaluate(DataFrame df, long[] out, long[] known) {
+            filters[0].evaluate(df, out, known);
+            long[] bits = new long[out.length];
+            long[] bitsKnown = new long[out.length];
+            for (int k = 1; k < filters.length; k++) {
+                filters[k].evaluate(df, bits, bitsKnown);
+                for (int w = 0; w < out.length; w++) {
+                    // A known operand can decide the result even when the other one is unknown.
+                    long aFalse = ~out[w] & known[w];
+                    long bFalse = ~bits[w] & bitsKnown[w];
+                    long isTrue = conjunction ? out[w] & bits[w] : out[w] | bits[w];
+                    long isFalse = conjunction ? aFalse | bFalse : aFalse & bFalse;
+                    out[w] = isTrue;
+                    known[w] = isTrue | isFalse;
+                }
+            }
+        }
+
+        @Override
+        void collectColumns(Set<String> out) {
+            for (Filter filter : filters) {
+                filter.collectColumns(out);
+            }
+        }
+
+        @Override
+        void collectTextColumns(Set<String> out) {
+            for (Filter filter : filters) {
+                filter.collectTextColumns(out);
+            }
+        }
+
+        @Override
+        public String toString() {
+            StringJoiner joiner = new StringJoiner(conjunction ? " and " : " or ", "(", ")");
+            for (Filter filter : filters) {
+                joiner.add(filter.toString());
+            }
+            return joiner.toString();
+        }
+    }
+
+    /** Condition calculée par une expression compilée. */
+    private static final class Where extends Filter {
+        private final Expression condition;
+
+        Where(Expression condition) {
+            this.condition = condition;
+        }
+
+        @Override
+        void evaluate(DataFrame df, long[] out) {
+            compile(df).select(df, out);
+        }
+
+        @Override
+        void evaluate(DataFrame df, long[] out, long[] known) {
+            compile(df).select(df, out, known);
+        }
+
+        private ExpressionProgram compile(DataFrame df) {
+            ExpressionProgram program = ExpressionProgram.compile(condition, df);
+            if (program.type() != ExpressionProgram.Type.BOOLEAN) {
+                throw new IllegalArgumentException("Expression is not a condition: " + condition);
+            }
+            return program;
+        }
+
+        @Override
+        void collectColumns(Set<String> out) {
+            condition.collectColumns(out);
+        }
+
+        @Override
+        void collectTextColumns(Set<String> out) {
+            condition.collectTextColumns(out);
+        }
+
+        @Override
+        public String toString() {
+            return condition.toString();
+        }
+    }
+
+    private static final class Not extends Filter {
+        private final Filter filter;
+
+        Not(Filter filter) {
+            this.filter = filter;
+        }
+
+        @Override
+        void evaluate(DataFrame df, long[] out) {
+            evaluate(df, out, new long[out.length]);
+        }
+
+        @Override
+        void evaluate(DataFrame df, long[] out, long[] known) {
+            filter.evaluate(df, out, known);
+            // An unknown condition stays unknown once negated.
+            for (int w = 0; w < out.length; w++) {
+                out[w] = ~out[w] & known[w];
+            }
+        }
+
+        @Override
+        void collectColumns(Set<String> out) {
+            filter.collectColumns(out);
+        }
+
+        @Override
+        void collectTextColumns(Set<String> out) {
+            filter.collectTextColumns(out);
+        }
+
+        @Override
+        public String toString() {
+            return "not " + filter;
+        }
+    }
+}
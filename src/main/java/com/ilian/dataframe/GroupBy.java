@@ -0,0 +1,169 @@
+package com.ilian.dataframe;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Regroupement des lignes d'un {@link DataFrame} selon une ou plusieurs colonnes clés,
+ * obtenu par {@link DataFrame#groupBy(String...)}.
+ *
+ * Les clés sont encodées en {@code long} (valeurs primitives ou codes de dictionnaire), puis
+ * chaque tranche de lignes est agrégée en parallèle dans sa propre table de hachage à adressage
+ * ouvert avec des accumulateurs primitifs. Les agrégats partiels sont ensuite fusionnés.
+ * Une colonne clé primitive contenant des valeurs nulles reçoit une clé supplémentaire (0 pour
+ * null, 1 sinon), de sorte que les lignes nulles forment leur propre groupe.
+ */
+public class GroupBy {
+
+    /** En dessous de ce nombre de lignes par tranche, le parallélisme ne paie pas. */
+    static final int MIN_ROWS_PER_TASK = 1 << 16;
+
+    /**
+     * Nombre de tranches à traiter en parallèle : une par tranche de {@link #MIN_ROWS_PER_TASK}
+     * lignes, sans dépasser le parallélisme du pool, et au moins une.
+     */
+    static int taskCount(ForkJoinPool pool, int rows) {
+        return Math.max(1, Math.min(pool.getParallelism(), rows / MIN_ROWS_PER_TASK));
+    }
+
+    private final DataFrame df;
+    private final String[] keys;
+    private final ForkJoinPool pool;
+
+    GroupBy(DataFrame df, String[] keys, ForkJoinPool pool) {
+        if (keys.length == 0) {
+            throw new IllegalArgumentException("At least one key column is required");
+        }
+        for (String key : keys) {
+            df.requireColumn(key);
+        }
+        this.df = df;
+        this.keys = keys.clone();
+        this.pool = pool;
+    }
+
+    /**
+     * Calcule les agrégats demandés pour chaque groupe.
+     *
+     * Le résultat contient une ligne par groupe, dans l'ordre de première apparition des clés,
+     * avec les colonnes clés (de même type que dans la source) suivies d'une colonne par agrégat.
+     *
+     * @param aggregations Les agrégats à calculer.
+     * @return Un nouveau DataFrame contenant les agrégats par groupe.
+     * @throws IllegalArgumentException si une colonne agrégée est inexistante ou non numérique.
+     */
+    public DataFrame agg(Aggregation... aggregations) {
+        int rows = df.getRowCount();
+        long[][] codes = encodeKeys(df, keys);
+        NumericSeries<?>[] inputs = new NumericSeries<?>[aggregations.length];
+        long[][] hashes = new long[aggregations.length][];
+        long[][] hashValidity = new long[aggregations.length][];
+        for (int a = 0; a < aggregations.length; a++) {
+            String label = aggregations[a].getLabel();
+            if (aggregations[a].getKind() == Aggregation.Kind.APPROX_DISTINCT) {
+                // Distinct counts accept text columns: aggregate value hashes instead of numbers.
+                hashes[a] = new long[rows];
+                hashValidity[a] = new long[Bitmaps.words(rows)];
+                new HyperLogLog.Hasher(df.requireColumn(label)).fill(0, rows, hashes[a], hashValidity[a]);
+            } else if (label != null) {
+                inputs[a] = NumericSeries.asNumeric(df.requireColumn(label));
+            }
+        }
+
+        int parts = taskCount(pool, rows);
+        Partial[] partials = new Partial[parts];
+        if (parts == 1) {
+            partials[0] = new Partial(codes, aggregations, inputs, hashes, hashValidity, 0, rows);
+        } else {
+            List<ForkJoinTask<Partial>> tasks = new ArrayList<>();
+            for (int p = 0; p < parts; p++) {
+                int from = (int) ((long) rows * p / parts);
+                int to = (int) ((long) rows * (p + 1) / parts);
+                tasks.add(pool.submit(() -> new Partial(codes, aggregations, inputs, hashes, hashValidity, from, to)));
+            }
+            for (int p = 0; p < parts; p++) {
+                partials[p] = tasks.get(p).join();
+            }
+        }
+
+        Partial result = partials[0];
+        for (int p = 1; p < parts; p++) {
+            result.merge(partials[p]);
+        }
+        return result.toDataFrame(aggregations);
+    }
+
+    /**
+     * Encode les colonnes clés en un {@code long} par ligne et par colonne, suivi pour chaque
+     * colonne contenant des valeurs nulles d'une clé de présence (0 pour null, 1 sinon).
+     */
+    static long[][] encodeKeys(DataFrame df, String[] keys) {
+        int rows = df.getRowCount();
+        List<long[]> keyCodes = new ArrayList<>();
+        for (String key : keys) {
+            Series<?> series = df.getColumn(key);
+            keyCodes.add(KeyEncoder.encode(series, new HashMap<>()));
+            long[] validity = KeyEncoder.validity(series);
+            if (validity != null) {
+                long[] present = new long[rows];
+                for (int r = 0; r < rows; r++) present[r] = (validity[r >>> 6] >>> r) & 1L;
+                keyCodes.add(present);
+            }
+        }
+        return keyCodes.toArray(new long[0][]);
+    }
+
+    /** Agrégats d'une tranche de lignes. */
+    private final class Partial {
+        private final GroupTable table;
+        private final Accumulator[] accumulators;
+
+        Partial(long[][] codes, Aggregation[] aggregations, NumericSeries<?>[] inputs,
+                long[][] hashes, long[][] hashValidity, int from, int to) {
+            table = new GroupTable(codes.length, 1024);
+            int[] groupOf = new int[to - from];
+            for (int r = from; r < to; r++) {
+                groupOf[r - from] = table.findOrInsert(codes, r);
+            }
+            accumulators = new Accumulator[aggregations.length];
+            for (int a = 0; a < aggregations.length; a++) {
+                accumulators[a] = new Accumulator(aggregations[a]);
+                accumulators[a].ensureCapacity(table.size());
+                if (hashes[a] != null) {
+                    accumulators[a].accumulateHashes(hashes[a], hashValidity[a], from, to, groupOf);
+                } else {
+                    accumulators[a].accumulate(inputs[a], from, to, groupOf);
+                }
+            }
+        }
+
+        void merge(Partial other) {
+            for (int g = 0; g < other.table.size(); g++) {
+                int group = table.findOrInsert(other.table, g);
+                for (int a = 0; a < accumulators.length; a++) {
+                    accumulators[a].ensureCapacity(table.size());
+                    accumulators[a].merge(group, other.accumulators[a], g);
+                }
+            }
+        }
+
+        DataFrame toDataFrame(Aggregation[] aggregations) {
+            int groups = table.size();
+            int[] firstRows = new int[groups];
+            for (int g = 0; g < groups; g++) {
+                firstRows[g] = table.firstRow(g);
+            }
+            List<Series<?>> columns = new ArrayList<>();
+            for (String key : keys) {
+                columns.add(df.getColumn(key).take(firstRows).materialize());
+            }
+            for (int a = 0; a < aggregations.length; a++) {
+                columns.add(accumulators[a].result(aggregations[a].getName(), groups));
+            }
+            return new DataFrame(columns);
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.ilian.dataframe;
+
+import java.util.Arrays;
+
+/**
+ * Table de hachage à adressage ouvert (sondage linéaire) associant une clé composite,
+ * formée d'un {@code long} par colonne de regroupement, à un numéro de groupe dense.
+ *
+ * Les clés sont rangées à plat dans un {@code long[]} et les numéros de groupe dans un
+ * {@code int[]} : aucune entrée n'est allouée par groupe ni par ligne.
+ */
+final class GroupTable {
+    private static final int EMPTY = -1;
+
+    private final int width;
+    private long[] keys;
+    private int[] firstRows;
+    private int[] slots;
+    private int mask;
+    private int size;
+
+    GroupTable(int width, int expectedGroups) {
+        this.width = width;
+        int capacity = Integer.highestOneBit(Math.max(16, expectedGroups * 2) - 1) << 1;
+        this.slots = new int[capacity];
+        Arrays.fill(slots, EMPTY);
+        this.mask = capacity - 1;
+        this.keys = new long[Math.max(1, expectedGroups) * width];
+        this.firstRows = new int[Math.max(1, expectedGroups)];
+    }
+
+    /** Nombre de groupes distincts. */
+    int size() {
+        return size;
+    }
+
+    /** Première ligne (dans le DataFrame source) rencontrée pour le groupe donné. */
+    int firstRow(int group) {
+        return firstRows[group];
+    }
+
+    /**
+     * Retourne le groupe de la ligne {@code row}, dont les clés sont {@code codes[k][row]},
+     * en le créant s'il n'existe pas.
+     */
+    int findOrInsert(long[][] codes, int row) {
+        long h = 0;
+        for (int k = 0; k < width; k++) {
+            h = mix(h ^ codes[k][row]);
+        }
+        int slot = (int) h & mask;
+        while (true) {
+            int group = slots[slot];
+            if (group == EMPTY) {
+                group = append(row);
+                for (int k = 0; k < width; k++) {
+                    keys[group * width + k] = codes[k][row];
+                }
+                slots[slot] = group;
+                if (size * 2 > slots.length) rehash();
+                return group;
+            }
+            if (sameKey(group, codes, row)) {
+                return group;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Retourne le groupe de la ligne {@code row} d'une autre source de clés ({@code codes[k][row]}),
+     * ou -1 si cette clé n'est pas dans la table. La table n'est pas modifiée, ce qui permet
+     * de l'interroger depuis plusieurs threads.
+     */
+    int find(long[][] codes, int row) {
+        long h = 0;
+        for (int k = 0; k < width; k++) {
+            h = mix(h ^ codes[k][row]);
+        }
+        int slot = (int) h & mask;
+        while (true) {
+            int group = slots[slot];
+            if (group == EMPTY || sameKey(group, codes, row)) {
+                return group;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Retourne le groupe d'une clé d'une seule colonne (table de largeur 1), ou -1 si elle
+     * n'est pas dans la table. Comme {@link #find(long[][], int)}, la table n'est pas modifiée.
+     */
+    int find(long key) {
+        int slot = (int) mix(key) & mask;
+        while (true) {
+            int group = slots[slot];
+            if (group == EMPTY || keys[group] == key) {
+                return group;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Retourne le groupe de cette table ayant la même clé que le groupe {@code group}
+     * d'une autre table, en le créant s'il n'existe pas.
+     */
+    int findOrInsert(GroupTable other, int group) {
+        long h = 0;
+        int base = group * width;
+        for (int k = 0; k < width; k++) {
+            h = mix(h ^ other.keys[base + k]);
+        }
+        int slot = (int) h & mask;
+        while (true) {
+            int candidate = slots[slot];
+            if (candidate == EMPTY) {
+                candidate = append(other.firstRows[group]);
+                System.arraycopy(other.keys, base, keys, candidate * width, width);
+                slots[slot] = candidate;
+                if (size * 2 > slots.length) rehash();
+                return candidate;
+            }
+            if (Arrays.equals(keys, candidate * width, candidate * width + width, other.keys, base, base + width)) {
+                return candidate;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private boolean sameKey(int group, long[][] codes, int row) {
+        int base = group * width;
+        for (int k = 0; k < width; k++) {
+            if (keys[base + k] != codes[k][row]) return false;
+        }
+        return true;
+    }
+
+    private int append(int row) {
+        if (size == firstRows.length) {
+            firstRows = Arrays.copyOf(firstRows, size * 2);
+            keys = Arrays.copyOf(keys, size * 2 * width);
+        }
+        firstRows[size] = row;
+        return size++;
+    }
+
+    private void rehash() {
+        int[] newSlots = new int[slots.length * 2];
+        Arrays.fill(newSlots, EMPTY);
+        int newMask = newSlots.length - 1;
+        for (int group = 0; group < size; group++) {
+            long h = 0;
+            for (int k = 0; k < width; k++) {
+                h = mix(h ^ keys[group * width + k]);
+            }
+            int slot = (int) h & newMask;
+            while (newSlots[slot] != EMPTY) {
+                slot = (slot + 1) & newMask;
+            }
+            newSlots[slot] = group;
+        }
+        slots = newSlots;
+        mask = newMask;
+    }
+
+    /** Finaliseur de MurmurHash3 : répartit les bits de la clé sur tout le mot. */
+    static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb93fe53ec4cdL;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,248 @@
+package com.ilian.dataframe;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Index par hachage : associe chaque valeur distincte d'une colonne à la liste croissante de
+ * ses lignes.
+ *
+ * Les valeurs sont codées en {@code long} comme pour les jointures ({@link KeyEncoder}) :
+ * entiers tels quels, flottants par leur représentation binaire, texte par un code de
+ * dictionnaire conservé par l'index. Les lignes sont réparties en partitions selon les bits
+ * de poids fort du hachage de leur clé ; chaque partition a sa propre {@link GroupTable}, ce qui
+ * permet de les construire en parallèle. Les lignes de chaque valeur sont rangées à plat dans
+ * un seul {@code int[]}, les groupes étant numérotés globalement dans l'ordre des partitions.
+ */
+final class HashIndex extends ColumnIndex {
+    /** Code de dictionnaire d'une valeur absente : aucune ligne ne le porte. */
+    private static final long ABSENT = -1;
+
+    private final boolean numeric;
+    /** Codes des valeurs textuelles, null pour une colonne numérique. */
+    private final Map<Object, Integer> dictionary;
+    private final int partitionBits;
+    private final GroupTable[] tables;
+    /** Premier groupe global de chaque partition. */
+    private final int[] firstGroup;
+    /** Début de chaque groupe global dans {@link #rows}, plus la fin du dernier. */
+    private final int[] groupStart;
+    private final int[] rows;
+
+    HashIndex(Series<?> series, ForkJoinPool pool) {
+        super(series);
+        int n = series.size();
+        numeric = isNumeric(series);
+        dictionary = numeric ? null : new HashMap<>();
+        long[] keys = numeric ? numericKeys(series, integral) : KeyEncoder.encode(series, dictionary);
+        if (series instanceof DictionarySeries) {
+            DictionarySeries encoded = (DictionarySeries) series;
+            for (int code = 0; code < encoded.getDictionarySize(); code++) {
+                dictionary.put(encoded.getDictionaryValue(code), code);
+            }
+        }
+        long[] valid = KeyEncoder.validity(series);
+
+        int parallelism = n < PARALLEL_THRESHOLD ? 1 : pool.getParallelism();
+        partitionBits = parallelism <= 1 ? 0 : 32 - Integer.numberOfLeadingZeros(4 * parallelism - 1);
+        int partitions = 1 << partitionBits;
+
+        // Scatter the rows by partition, chunk by chunk, keeping ascending order inside each partition.
+        int chunks = parallelism;
+        int[][] counts = new int[chunks][partitions];
+        List<ForkJoinTask<?>> tasks = new ArrayList<>();
+        for (int c = 0; c < chunks; c++) {
+            int chunk = c;
+            tasks.add(pool.submit(() -> {
+                for (int r = bound(n, chunks, chunk), end = bound(n, chunks, chunk + 1); r < end; r++) {
+                    if (isValid(valid, r)) counts[chunk][partition(keys[r])]++;
+                }
+            }));
+        }
+        tasks.forEach(ForkJoinTask::join);
+        int[] partitionStart = new int[partitions + 1];
+        int[][] cursors = new int[chunks][partitions];
+        int total = 0;
+        for (int p = 0; p < partitions; p++) {
+            partitionStart[p] = total;
+            for (int c = 0; c < chunks; c++) {
+                cursors[c][p] = total;
+                total += counts[c][p];
+            }
+        }
+        partitionStart[partitions] = total;
+        int[] scattered = new int[total];
+        tasks.clear();
+        for (int c = 0; c < chunks; c++) {
+            int chunk = c;
+            tasks.add(pool.submit(() -> {
+                int[] cursor = cursors[chunk];
+                for (int r = bound(n, chunks, chunk), end = bound(n, chunks, chunk + 1); r < end; r++) {
+                    if (isValid(valid, r)) scattered[cursor[partition(keys[r])]++] = r;
+                }
+            }));
+        }
+        tasks.forEach(ForkJoinTask::join);
+
+        // Build one table per partition, then group its rows (stable counting sort by group).
+        tables = new GroupTable[partitions];
+        int[][] localStarts = new int[partitions][];
+        rows = new int[total];
+        long[][] codes = {keys};
+        tasks.clear();
+        for (int p = 0; p < partitions; p++) {
+            int part = p;
+            tasks.add(pool.submit(() -> {
+                int from = partitionStart[part];
+                int to = partitionStart[part + 1];
+                GroupTable table = new GroupTable(1, Math.min(to - from, 1 << 16));
+                int[] groupOf = new int[to - from];
+                for (int i = from; i < to; i++) {
+                    groupOf[i - from] = table.findOrInsert(codes, scattered[i]);
+                }
+                int[] starts = new int[table.size() + 1];
+                for (int g : groupOf) starts[g + 1]++;
+                for (int g = 0; g < table.size(); g++) starts[g + 1] += starts[g];
+                int[] cursor = Arrays.copyOf(starts, table.size());
+                for (int i = from; i < to; i++) {
+                    rows[from + cursor[groupOf[i - from]]++] = scattered[i];
+                }
+                tables[part] = table;
+                localStarts[part] = starts;
+            }));
+        }
+        tasks.forEach(ForkJoinTask::join);
+
+        firstGroup = new int[partitions];
+        int groups = 0;
+        for (int p = 0; p < partitions; p++) {
+            firstGroup[p] = groups;
+            groups += tables[p].size();
+        }
+        groupStart = new int[groups + 1];
+        for (int p = 0; p < partitions; p++) {
+            for (int g = 0; g < tables[p].size(); g++) {
+                groupStart[firstGroup[p] + g] = partitionStart[p] + localStarts[p][g];
+            }
+        }
+        groupStart[groups] = total;
+    }
+
+    @Override
+    IndexKind kind() {
+        return IndexKind.HASH;
+    }
+
+    /** Clés des valeurs d'une colonne numérique : entières, ou représentation binaire des flottants. */
+    private static long[] numericKeys(Series<?> series, boolean integral) {
+        if (integral) {
+            return KeyEncoder.encode(series, null);
+        }
+        NumericSeries<?> numeric = NumericSeries.asNumeric(series);
+        long[] keys = new long[numeric.size()];
+        for (int i = 0; i < keys.length; i++) keys[i] = doubleKey(numeric.getDouble(i));
+        return keys;
+    }
+
+    private static long doubleKey(double v) {
+        return v == 0 ? 0L : Double.doubleToLongBits(v);
+    }
+
+    private static int bound(int n, int chunks, int chunk) {
+        return (int) ((long) n * chunk / chunks);
+    }
+
+    private static boolean isValid(long[] valid, int row) {
+        return valid == null || (valid[row >>> 6] & (1L << row)) != 0;
+    }
+
+    private int partition(long key) {
+        return partitionBits == 0 ? 0 : (int) (GroupTable.mix(key) >>> (64 - partitionBits));
+    }
+
+    /**
+     * Retourne le groupe global d'une clé, ou -1 si aucune ligne ne la porte.
+     * Ses lignes sont {@code rows()[groupStart(g)]} à {@code rows()[groupStart(g + 1) - 1]}.
+     */
+    int find(long key) {
+        int p = partition(key);
+        int group = tables[p].find(key);
+        return group < 0 ? -1 : firstGroup[p] + group;
+    }
+
+    int groupStart(int group) {
+        return groupStart[group];
+    }
+
+    int[] rows() {
+        return rows;
+    }
+
+    /**
+     * Retourne les lignes (croissantes) dont la valeur est égale au nombre donné.
+     */
+    int[] lookup(double value) {
+        if (!numeric || Double.isNaN(value)) {
+            return new int[0];
+        }
+        if (integral && (value != Math.rint(value) || Math.abs(value) >= 0x1p63)) {
+            return new int[0];
+        }
+        return rowsOf(integral ? (long) value : doubleKey(value));
+    }
+
+    /**
+     * Retourne les lignes (croissantes) dont la valeur est égale au texte donné.
+     */
+    int[] lookup(String value) {
+        if (numeric || value == null) {
+            return new int[0];
+        }
+        Integer code = dictionary.get(value);
+        return code == null ? new int[0] : rowsOf(code);
+    }
+
+    private int[] rowsOf(long key) {
+        int group = find(key);
+        return group < 0 ? new int[0] : Arrays.copyOfRange(rows, groupStart[group], groupStart[group + 1]);
+    }
+
+    /**
+     * Code les valeurs d'une autre série dans l'espace de clés de cet index, pour la sonder
+     * (jointure). Une valeur absente de l'index reçoit un code qui ne correspond à aucune ligne ;
+     * les lignes nulles sont à écarter par l'appelant.
+     *
+     * @return Un code par ligne, ou null si les types des deux colonnes ne sont pas comparables
+     *         par cet index (entiers indexés et flottants sondés, par exemple).
+     */
+    long[] probeKeys(Series<?> probe) {
+        boolean probeNumeric = isNumeric(probe);
+        if (numeric != probeNumeric || (integral && !KeyEncoder.isIntegral(probe))) {
+            return null;
+        }
+        if (numeric) {
+            return numericKeys(probe, integral);
+        }
+        long[] keys = new long[probe.size()];
+        if (probe instanceof DictionarySeries) {
+            DictionarySeries encoded = (DictionarySeries) probe;
+            long[] translated = new long[encoded.getDictionarySize()];
+            for (int code = 0; code < translated.length; code++) {
+                Integer key = dictionary.get(encoded.getDictionaryValue(code));
+                translated[code] = key == null ? ABSENT : key;
+            }
+            for (int i = 0; i < keys.length; i++) keys[i] = translated[encoded.getCode(i)];
+            return keys;
+        }
+        for (int i = 0; i < keys.length; i++) {
+            Integer key = dictionary.get(probe.get(i));
+            keys[i] = key == null ? ABSENT : key;
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,355 @@
+package com.ilian.dataframe;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Estimateur HyperLogLog du nombre de valeurs distinctes, utilisé par
+ * {@link DataFrame#approxDistinct(String)}, {@link Aggregation#approxDistinct(String)} et les
+ * statistiques des colonnes.
+ *
+ * Chaque valeur est réduite à un hachage 64 bits : les entiers par leurs 64 bits (des
+ * {@code long} distincts au-delà de 2^53 restent distincts), les décimaux de valeur entière
+ * comme l'entier égal (un entier et le décimal égal comptent pour une seule valeur), les autres
+ * décimaux par leur représentation flottante, les textes par un hachage FNV-1a 64 bits de leurs
+ * caractères. Les {@code p} bits de poids fort choisissent un registre, qui
+ * retient la plus longue série de zéros de tête observée dans les bits restants ; l'estimation
+ * combine les registres avec l'estimateur d'Ertl (2017), sans biais sur toute l'étendue des
+ * cardinalités. L'erreur relative typique est de 1,04 / sqrt(2^p) : 2,3 % pour la précision par
+ * défaut ({@value #DEFAULT_PRECISION}), 0,4 % pour {@code p = 16}, quel que soit le nombre de
+ * valeurs ajoutées. La mémoire est bornée à 2^p octets.
+ *
+ * Tant que peu de valeurs distinctes ont été vues, leurs hachages sont conservés tels quels :
+ * l'estimation est alors exacte et la mémoire proportionnelle au nombre de valeurs, ce qui
+ * permet d'en garder un par groupe. Deux estimateurs de même précision calculés sur des parties
+ * différentes (lots d'un {@link CsvLoader#stream(String, int)}, tranches parallèles) se
+ * combinent avec {@link #merge(HyperLogLog)}.
+ */
+public final class HyperLogLog {
+    /** Précision par défaut : 2^11 registres. */
+    public static final int DEFAULT_PRECISION = 11;
+    static final int MIN_PRECISION = 4;
+    static final int MAX_PRECISION = 18;
+    private static final int PARALLEL_THRESHOLD = 1 << 17;
+
+    private final int precision;
+    /** Registres, alloués quand la table exacte dépasse sa limite. */
+    private byte[] registers;
+    /** Hachages distincts vus jusque-là (adressage ouvert, 0 pour une case libre). */
+    private long[] exact = new long[16];
+    private int exactSize;
+
+    /** Crée un estimateur de précision {@value #DEFAULT_PRECISION}. */
+    public HyperLogLog() {
+        this(DEFAULT_PRECISION);
+    }
+
+    /**
+     * Crée un estimateur de 2^{@code precision} registres.
+     *
+     * @param precision Le nombre de bits de registre, de 4 à 18.
+     * @throws IllegalArgumentException si la précision est hors de ces bornes.
+     */
+    public HyperLogLog(int precision) {
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("Precision must be between " + MIN_PRECISION + " and " + MAX_PRECISION + ": " + precision);
+        }
+        this.precision = precision;
+    }
+
+    /**
+     * Retourne la précision (nombre de bits de registre).
+     *
+     * @return La précision.
+     */
+    public int getPrecision() {
+        return precision;
+    }
+
+    /**
+     * Retourne l'erreur relative typique (un écart-type) de l'estimation.
+     *
+     * @return L'erreur relative, 1,04 / sqrt(2^p).
+     */
+    public double getRelativeError() {
+        return 1.04 / Math.sqrt(1 << precision);
+    }
+
+    /** Hachage d'un entier, sur ses 64 bits. */
+    static long hash(long v) {
+        return GroupTable.mix(v);
+    }
+
+    /** Hachage d'un décimal : celui de l'entier égal s'il en a un (0 et -0 sont confondus). */
+    static long hash(double v) {
+        if (v >= -0x1p63 && v < 0x1p63 && (long) v == v) {
+            return hash((long) v);
+        }
+        return GroupTable.mix(Double.doubleToLongBits(v));
+    }
+
+    /** Hachage d'un nombre en boîte, exact pour un {@link Long}. */
+    static long hash(Number v) {
+        return v instanceof Long ? hash(v.longValue()) : hash(v.doubleValue());
+    }
+
+    /** Hachage de la ligne {@code i} d'une série numérique, exact pour une {@link LongSeries}. */
+    static long hash(NumericSeries<?> series, int i) {
+        return series instanceof LongSeries ? hash(((LongSeries) series).getLong(i)) : hash(series.getDouble(i));
+    }
+
+    /** Hachage 64 bits d'un texte (FNV-1a sur les caractères, puis mélange). */
+    static long hash(String s) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < s.length(); i++) {
+            h = (h ^ s.charAt(i)) * 0x100000001b3L;
+        }
+        return GroupTable.mix(h);
+    }
+
+    /**
+     * Ajoute les valeurs non nulles d'une série, en parallèle pour une grande série. Les
+     * hachages sont calculés par blocs de lignes : la mémoire utilisée ne dépend pas de la
+     * taille de la série.
+     *
+     * @param series La série, numérique ou textuelle.
+     */
+    public void add(Series<?> series) {
+        int n = series.size();
+        Hasher hasher = new Hasher(series);
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        int parts = n < PARALLEL_THRESHOLD ? 1 : pool.getParallelism();
+        if (parts <= 1) {
+            addRows(hasher, 0, n);
+            return;
+        }
+        List<ForkJoinTask<HyperLogLog>> tasks = new ArrayList<>();
+        for (int p = 0; p < parts; p++) {
+            int from = (int) ((long) n * p / parts);
+            int to = (int) ((long) n * (p + 1) / parts);
+            tasks.add(pool.submit(() -> {
+                HyperLogLog part = new HyperLogLog(precision);
+                part.addRows(hasher, from, to);
+                return part;
+            }));
+        }
+        for (ForkJoinTask<HyperLogLog> task : tasks) {
+            merge(task.join());
+        }
+    }
+
+    private void addRows(Hasher hasher, int from, int to) {
+        long[] hashes = new long[Hasher.BLOCK];
+        long[] valid = new long[Hasher.BLOCK / 64];
+        for (int start = from; start < to; start += Hasher.BLOCK) {
+            int end = Math.min(to, start + Hasher.BLOCK);
+            hasher.fill(start, end, hashes, valid);
+            addAll(hashes, valid, end - start);
+        }
+    }
+
+    /** Ajoute les hachages des {@code count} premières positions marquées dans {@code valid}. */
+    void addAll(long[] hashes, long[] valid, int count) {
+        for (int base = 0; base < count; base += 64) {
+            long bits = valid[base >>> 6];
+            if (count - base < 64) bits &= (1L << (count - base)) - 1;
+            for (; bits != 0; bits &= bits - 1) {
+                add(hashes[base + Long.numberOfTrailingZeros(bits)]);
+            }
+        }
+    }
+
+    /** Ajoute une valeur, donnée par son hachage. */
+    void add(long hash) {
+        if (registers != null) {
+            addToRegisters(hash);
+            return;
+        }
+        long key = hash == 0 ? 1 : hash;
+        int mask = exact.length - 1;
+        int slot = (int) key & mask;
+        while (exact[slot] != 0) {
+            if (exact[slot] == key) return;
+            slot = (slot + 1) & mask;
+        }
+        exact[slot] = key;
+        exactSize++;
+        if (2 * exactSize > exact.length) {
+            // Keep at most 2^p / 16 exact hashes, so the table never exceeds the registers' size.
+            if (exact.length * 8L >= 1 << precision) {
+                toRegisters();
+            } else {
+                rehash(exact.length * 2);
+            }
+        }
+    }
+
+    private void addToRegisters(long hash) {
+        int register = (int) (hash >>> (64 - precision));
+        int rank = Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1;
+        if (rank > registers[register]) {
+            registers[register] = (byte) rank;
+        }
+    }
+
+    private void rehash(int capacity) {
+        long[] old = exact;
+        exact = new long[capacity];
+        exactSize = 0;
+        for (long key : old) {
+            if (key != 0) add(key);
+        }
+    }
+
+    private void toRegisters() {
+        registers = new byte[1 << precision];
+        for (long key : exact) {
+            if (key != 0) addToRegisters(key);
+        }
+        exact = null;
+        exactSize = 0;
+    }
+
+    /**
+     * Fusionne un autre estimateur dans celui-ci : le résultat estime le nombre de valeurs
+     * distinctes de l'union des deux ensembles.
+     *
+     * @param other L'autre estimateur, de même précision.
+     * @throws IllegalArgumentException si les précisions diffèrent.
+     */
+    public void merge(HyperLogLog other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("Cannot merge sketches of precision " + precision + " and " + other.precision);
+        }
+        if (other.registers == null) {
+            for (long key : other.exact) {
+                if (key != 0) add(key);
+            }
+            return;
+        }
+        if (registers == null) toRegisters();
+        for (int i = 0; i < registers.length; i++) {
+            if (other.registers[i] > registers[i]) registers[i] = other.registers[i];
+        }
+    }
+
+    /**
+     * Retourne l'estimation du nombre de valeurs distinctes ajoutées, exacte tant qu'elles sont
+     * peu nombreuses.
+     *
+     * @return Le nombre estimé de valeurs distinctes.
+     */
+    public long estimate() {
+        if (registers == null) {
+            return exactSize;
+        }
+        int m = registers.length;
+        int q = 64 - precision;
+        int[] histogram = new int[q + 2];
+        for (byte r : registers) histogram[r]++;
+        double z = m * tau(1 - (double) histogram[q + 1] / m);
+        for (int k = q; k >= 1; k--) {
+            z = 0.5 * (z + histogram[k]);
+        }
+        z += m * sigma((double) histogram[0] / m);
+        return Math.round(m * (m / (2 * Math.log(2))) / z);
+    }
+
+    private static double sigma(double x) {
+        if (x == 1) return Double.POSITIVE_INFINITY;
+        double y = 1;
+        double z = x;
+        double previous;
+        do {
+            x *= x;
+            previous = z;
+            z += x * y;
+            y += y;
+        } while (z != previous);
+        return z;
+    }
+
+    private static double tau(double x) {
+        if (x == 0 || x == 1) return 0;
+        double y = 1;
+        double z = 1 - x;
+        double previous;
+        do {
+            x = Math.sqrt(x);
+            previous = z;
+            y *= 0.5;
+            z -= (1 - x) * (1 - x) * y;
+        } while (z != previous);
+        return z / 3;
+    }
+
+    /**
+     * Calcul des hachages des valeurs d'une série, tranche par tranche. Pour une
+     * {@link DictionarySeries}, chaque valeur distincte n'est hachée qu'une fois.
+     */
+    static final class Hasher {
+        /** Taille des tranches utilisées par {@link HyperLogLog#add(Series)}. */
+        static final int BLOCK = 1 << 12;
+
+        private final Series<?> series;
+        private final long[] codeHashes;
+        private final boolean[] codePresent;
+
+        Hasher(Series<?> series) {
+            this.series = series;
+            if (series instanceof DictionarySeries) {
+                DictionarySeries encoded = (DictionarySeries) series;
+                codeHashes = new long[encoded.getDictionarySize()];
+                codePresent = new boolean[codeHashes.length];
+                for (int code = 0; code < codeHashes.length; code++) {
+                    String value = encoded.getDictionaryValue(code);
+                    codePresent[code] = value != null;
+                    if (value != null) codeHashes[code] = hash(value);
+                }
+            } else {
+                codeHashes = null;
+                codePresent = null;
+            }
+        }
+
+        /**
+         * Écrit le hachage de chaque ligne {@code i} de {@code [from, to)} en {@code out[i - from]},
+         * et le bit {@code i - from} de {@code valid} pour les lignes non nulles.
+         */
+        void fill(int from, int to, long[] out, long[] valid) {
+            int count = to - from;
+            if (series instanceof NumericSeries) {
+                NumericSeries<?> numeric = (NumericSeries<?>) series;
+                for (int base = 0; base < count; base += 64) {
+                    long bits = numeric.validBits(from + base);
+                    if (count - base < 64) bits &= (1L << (count - base)) - 1;
+                    valid[base >>> 6] = bits;
+                    for (; bits != 0; bits &= bits - 1) {
+                        int j = base + Long.numberOfTrailingZeros(bits);
+                        out[j] = hash(numeric, from + j);
+                    }
+                }
+                return;
+            }
+            Arrays.fill(valid, 0, Bitmaps.words(count), 0L);
+            for (int j = 0; j < count; j++) {
+                boolean present;
+                if (codeHashes != null) {
+                    int code = ((DictionarySeries) series).getCode(from + j);
+                    present = codePresent[code];
+                    out[j] = codeHashes[code];
+                } else {
+                    Object value = series.get(from + j);
+                    present = value != null;
+                    if (present) {
+                        out[j] = value instanceof Number ? hash((Number) value) : hash(value.toString());
+                    }
+                }
+                if (present) valid[j >>> 6] |= 1L << j;
+            }
+        }
+    }
+}
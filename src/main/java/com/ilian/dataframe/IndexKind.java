@@ -0,0 +1,11 @@
+package com.ilian.dataframe;
+
+/**
+ * Types d'index secondaires construits par {@link DataFrame#createIndex(String, IndexKind)}.
+ */
+public enum IndexKind {
+    /** Table de hachage valeur vers lignes : égalités, ensembles de valeurs et jointures. */
+    HASH,
+    /** Permutation triée des lignes : intervalles et égalités sur une colonne numérique. */
+    SORTED
+}
@@ -0,0 +1,460 @@
+package com.ilian.dataframe;
+
+import java.util.Arrays;
+
+/**
+ * Stockage compressé d'une colonne d'entiers, choisi au chargement par {@link #encode(int[], int, long[])}.
+ *
+ * Trois encodages sont disponibles :
+ * <ul>
+ *   <li>{@link Packed} : écart au minimum de la colonne, compacté sur le nombre de bits de
+ *       l'étendue (âges, notes, petits codes) ;</li>
+ *   <li>{@link FrameOfReference} : même principe par blocs de 128 valeurs, chacun avec son
+ *       propre minimum et sa propre largeur, adapté aux données triées ou regroupées dont les
+ *       valeurs voisines sont proches (identifiants croissants, dates) ;</li>
+ *   <li>{@link RunLength} : une valeur et une fin par plage de valeurs identiques.</li>
+ * </ul>
+ *
+ * Les positions sont celles du stockage. Les agrégats et la sélection par intervalle
+ * travaillent directement sur la forme compressée : sur les écarts sans reconstruire les
+ * valeurs, bloc par bloc en écartant les blocs dont les bornes excluent l'intervalle, ou plage
+ * par plage.
+ */
+abstract class IntEncoding {
+    /** Gain minimal pour compresser : l'encodage doit tenir dans la moitié de la place d'un {@code int[]}. */
+    private static final int MIN_RATIO = 2;
+
+    /**
+     * Choisit l'encodage le plus compact des {@code n} premières valeurs, ou aucun si le gain
+     * est insuffisant. Les lignes nulles prennent la valeur d'une ligne valide pour ne pas
+     * élargir l'étendue.
+     *
+     * @param values   Les valeurs, qui ne sont pas modifiées.
+     * @param n        Le nombre de valeurs.
+     * @param validity Le bitmap de validité, ou null.
+     * @return L'encodage, ou null pour garder un tableau.
+     */
+    static IntEncoding encode(int[] values, int n, long[] validity) {
+        if (n == 0) return null;
+        if (validity != null) {
+            values = fillNulls(values, n, validity);
+            if (values == null) return null;
+        }
+        int blocks = (n + FrameOfReference.BLOCK - 1) / FrameOfReference.BLOCK;
+        int min = values[0];
+        int max = values[0];
+        int runs = 1;
+        long blockedBits = 0;
+        for (int b = 0; b < blocks; b++) {
+            int from = b * FrameOfReference.BLOCK;
+            int to = Math.min(n, from + FrameOfReference.BLOCK);
+            int blockMin = values[from];
+            int blockMax = values[from];
+            for (int i = from; i < to; i++) {
+                int v = values[i];
+                if (v < blockMin) blockMin = v;
+                if (v > blockMax) blockMax = v;
+                if (i > 0 && v != values[i - 1]) runs++;
+            }
+            min = Math.min(min, blockMin);
+            max = Math.max(max, blockMax);
+            blockedBits += (long) FrameOfReference.BLOCK * width(blockMin, blockMax) + FrameOfReference.OVERHEAD_BITS;
+        }
+        long packedBits = (long) n * width(min, max);
+        long runBits = 64L * runs;
+        long best = Math.min(packedBits, Math.min(blockedBits, runBits));
+        if (best * MIN_RATIO > 32L * n) return null;
+        if (best == packedBits) return new Packed(values, n, min, width(min, max));
+        if (best == blockedBits) return new FrameOfReference(values, n);
+        return new RunLength(values, n, runs);
+    }
+
+    /** Copie des valeurs où chaque ligne nulle prend la valeur de la première ligne valide ; null si aucune. */
+    private static int[] fillNulls(int[] values, int n, long[] validity) {
+        int first = -1;
+        for (int w = 0; w < validity.length && first < 0; w++) {
+            if (validity[w] != 0) first = (w << 6) + Long.numberOfTrailingZeros(validity[w]);
+        }
+        if (first < 0 || first >= n) return null;
+        int[] filled = Arrays.copyOf(values, n);
+        for (int i = 0; i < n; i++) {
+            if ((validity[i >>> 6] & (1L << i)) == 0) filled[i] = values[first];
+        }
+        return filled;
+    }
+
+    /** Nombre de bits nécessaires pour représenter les écarts de l'intervalle {@code [min, max]}. */
+    static int width(int min, int max) {
+        return 64 - Long.numberOfLeadingZeros((long) max - min);
+    }
+
+    /** Lit un entier non signé de {@code width} bits à la position binaire {@code bit}. */
+    static long read(long[] words, long bit, int width) {
+        if (width == 0) return 0;
+        int w = (int) (bit >>> 6);
+        int shift = (int) bit & 63;
+        long v = words[w] >>> shift;
+        if (shift + width > 64) v |= words[w + 1] << (64 - shift);
+        return v & ((1L << width) - 1);
+    }
+
+    /** Écrit un entier non signé de {@code width} bits à la position binaire {@code bit} (bits initialement à zéro). */
+    static void write(long[] words, long bit, int width, long value) {
+        if (width == 0) return;
+        int w = (int) (bit >>> 6);
+        int shift = (int) bit & 63;
+        words[w] |= value << shift;
+        if (shift + width > 64) words[w + 1] |= value >>> (64 - shift);
+    }
+
+    /** Retourne la valeur à une position du stockage. */
+    abstract int get(int p);
+
+    /** Taille approximative de l'encodage en mémoire, en octets. */
+    abstract long sizeInBytes();
+
+    /** Somme des valeurs des positions {@code [from, to)}. */
+    long sum(int from, int to) {
+        long sum = 0;
+        for (int p = from; p < to; p++) sum += get(p);
+        return sum;
+    }
+
+    /** Minimum des positions {@code [from, to)}, {@code from < to}. */
+    int min(int from, int to) {
+        int min = get(from);
+        for (int p = from + 1; p < to; p++) min = Math.min(min, get(p));
+        return min;
+    }
+
+    /** Maximum des positions {@code [from, to)}, {@code from < to}. */
+    int max(int from, int to) {
+        int max = get(from);
+        for (int p = from + 1; p < to; p++) max = Math.max(max, get(p));
+        return max;
+    }
+
+    /** Somme des carrés des écarts à {@code mean} des positions {@code [from, to)}. */
+    double squaredDeviations(int from, int to, double mean) {
+        double m2 = 0;
+        for (int p = from; p < to; p++) {
+            double d = get(p) - mean;
+            m2 += d * d;
+        }
+        return m2;
+    }
+
+    /**
+     * Écrit le bitmap des positions {@code [start, start + rows)} dont la valeur est dans
+     * {@code [lo, hi]}, à partir du mot {@code firstWord} de {@code out} (même contrat que
+     * {@link NumericKernels#selectRange(int[], int, int, int, int, long[], int)}).
+     */
+    void selectRange(int start, int rows, int lo, int hi, long[] out, int firstWord) {
+        for (int base = 0, w = firstWord; base < rows; base += 64, w++) {
+            int n = Math.min(64, rows - base);
+            long bits = 0;
+            for (int j = 0; j < n; j++) {
+                int v = get(start + base + j);
+                bits |= ((v >= lo) & (v <= hi) ? 1L : 0L) << j;
+            }
+            out[w] = bits;
+        }
+    }
+
+    /** Copie les valeurs des positions {@code [from, from + length)} dans {@code dst}. */
+    void decode(int from, int[] dst, int dstOffset, int length) {
+        for (int i = 0; i < length; i++) dst[dstOffset + i] = get(from + i);
+    }
+
+    /**
+     * Compactage de bits : chaque valeur est stockée comme son écart au minimum de la colonne,
+     * sur {@link #width(int, int)} bits.
+     */
+    static final class Packed extends IntEncoding {
+        private final int reference;
+        private final int width;
+        private final long[] words;
+
+        Packed(int[] values, int n, int reference, int width) {
+            this.reference = reference;
+            this.width = width;
+            this.words = new long[(int) (((long) n * width + 63) >>> 6)];
+            for (int i = 0; i < n; i++) {
+                write(words, (long) i * width, width, (long) values[i] - reference);
+            }
+        }
+
+        private long delta(int p) {
+            return read(words, (long) p * width, width);
+        }
+
+        @Override
+        int get(int p) {
+            return (int) (reference + delta(p));
+        }
+
+        @Override
+        long sizeInBytes() {
+            return 8L * words.length;
+        }
+
+        @Override
+        long sum(int from, int to) {
+            long sum = 0;
+            for (int p = from; p < to; p++) sum += delta(p);
+            return sum + (long) reference * (to - from);
+        }
+
+        @Override
+        int min(int from, int to) {
+            long min = delta(from);
+            for (int p = from + 1; p < to && min > 0; p++) min = Math.min(min, delta(p));
+            return (int) (reference + min);
+        }
+
+        @Override
+        int max(int from, int to) {
+            long max = delta(from);
+            long top = (1L << width) - 1;
+            for (int p = from + 1; p < to && max < top; p++) max = Math.max(max, delta(p));
+            return (int) (reference + max);
+        }
+
+        @Override
+        void selectRange(int start, int rows, int lo, int hi, long[] out, int firstWord) {
+            // Compare the stored offsets to the shifted bounds, without rebuilding the values.
+            long a = Math.max(0, (long) lo - reference);
+            long b = (long) hi - reference;
+            for (int base = 0, w = firstWord; base < rows; base += 64, w++) {
+                int n = Math.min(64, rows - base);
+                long bits = 0;
+                for (int j = 0; j < n; j++) {
+                    long d = delta(start + base + j);
+                    bits |= ((d >= a) & (d <= b) ? 1L : 0L) << j;
+                }
+                out[w] = bits;
+            }
+        }
+    }
+
+    /**
+     * Référence par bloc : les valeurs sont découpées en blocs de {@link #BLOCK} valeurs,
+     * chacun stocké comme les écarts à son minimum sur la largeur de sa propre étendue.
+     * Un bloc de 128 valeurs de {@code w} bits occupe exactement {@code 2w} mots.
+     */
+    static final class FrameOfReference extends IntEncoding {
+        static final int BLOCK = 128;
+        /** Coût d'un bloc en plus de ses valeurs : référence, largeur et début. */
+        static final int OVERHEAD_BITS = 72;
+
+        private final int[] references;
+        private final byte[] widths;
+        private final int[] starts;
+        private final long[] words;
+
+        FrameOfReference(int[] values, int n) {
+            int blocks = (n + BLOCK - 1) / BLOCK;
+            references = new int[blocks];
+            widths = new byte[blocks];
+            starts = new int[blocks];
+            int totalWords = 0;
+            for (int b = 0; b < blocks; b++) {
+                int from = b * BLOCK;
+                int to = Math.min(n, from + BLOCK);
+                int min = values[from];
+                int max = values[from];
+                for (int i = from; i < to; i++) {
+                    min = Math.min(min, values[i]);
+                    max = Math.max(max, values[i]);
+                }
+                references[b] = min;
+                widths[b] = (byte) width(min, max);
+                starts[b] = totalWords;
+                totalWords += 2 * widths[b];
+            }
+            words = new long[totalWords];
+            for (int i = 0; i < n; i++) {
+                int b = i / BLOCK;
+                write(words, bitOf(b, i), widths[b], (long) values[i] - references[b]);
+            }
+        }
+
+        private long bitOf(int block, int p) {
+            return ((long) starts[block] << 6) + (long) (p & (BLOCK - 1)) * widths[block];
+        }
+
+        @Override
+        int get(int p) {
+            int b = p / BLOCK;
+            return (int) (references[b] + read(words, bitOf(b, p), widths[b]));
+        }
+
+        @Override
+        long sizeInBytes() {
+            return 8L * words.length + 9L * references.length;
+        }
+
+        @Override
+        long sum(int from, int to) {
+            long sum = 0;
+            for (int p = from; p < to; ) {
+                int b = p / BLOCK;
+                int end = Math.min(to, (b + 1) * BLOCK);
+                int width = widths[b];
+                sum += (long) references[b] * (end - p);
+                for (; p < end; p++) sum += read(words, bitOf(b, p), width);
+            }
+            return sum;
+        }
+
+        @Override
+        int min(int from, int to) {
+            int min = Integer.MAX_VALUE;
+            for (int p = from; p < to; ) {
+                int b = p / BLOCK;
+                int end = Math.min(to, (b + 1) * BLOCK);
+                if (references[b] >= min) {
+                    p = end; // the whole block is at least its reference
+                    continue;
+                }
+                for (; p < end; p++) min = Math.min(min, get(p));
+            }
+            return min;
+        }
+
+        @Override
+        void selectRange(int start, int rows, int lo, int hi, long[] out, int firstWord) {
+            Arrays.fill(out, firstWord, firstWord + Bitmaps.words(rows), 0L);
+            for (int p = start, end = start + rows; p < end; ) {
+                int b = p / BLOCK;
+                int blockEnd = Math.min(end, (b + 1) * BLOCK);
+                long a = (long) lo - references[b];
+                long c = (long) hi - references[b];
+                long top = (1L << widths[b]) - 1;
+                if (a <= 0 && c >= top) {
+                    setRows(out, firstWord, p - start, blockEnd - start);
+                } else if (a <= top && c >= 0) {
+                    for (; p < blockEnd; p++) {
+                        long d = read(words, bitOf(b, p), widths[b]);
+                        if (d >= a && d <= c) {
+                            int row = p - start;
+                            out[firstWord + (row >>> 6)] |= 1L << row;
+                        }
+                    }
+                }
+                p = blockEnd;
+            }
+        }
+    }
+
+    /**
+     * Plages : chaque suite de valeurs identiques est stockée comme une valeur et sa position
+     * de fin. L'accès à une position est une recherche dichotomique parmi les fins de plage.
+     */
+    static final class RunLength extends IntEncoding {
+        private final int[] values;
+        /** Fin (exclusive) de chaque plage, croissante. */
+        private final int[] ends;
+
+        RunLength(int[] source, int n, int runs) {
+            values = new int[runs];
+            ends = new int[runs];
+            int r = 0;
+            for (int i = 1; i <= n; i++) {
+                if (i == n || source[i] != source[i - 1]) {
+                    values[r] = source[i - 1];
+                    ends[r++] = i;
+                }
+            }
+        }
+
+        /** Index de la plage contenant la position {@code p}. */
+        private int run(int p) {
+            int r = Arrays.binarySearch(ends, p);
+            return r >= 0 ? r + 1 : -r - 1;
+        }
+
+        /** Nombre de plages. */
+        int runs() {
+            return values.length;
+        }
+
+        @Override
+        int get(int p) {
+            return values[run(p)];
+        }
+
+        @Override
+        long sizeInBytes() {
+            return 8L * values.length;
+        }
+
+        @Override
+        long sum(int from, int to) {
+            long sum = 0;
+            for (int r = run(from), p = from; p < to; r++) {
+                int end = Math.min(ends[r], to);
+                sum += (long) values[r] * (end - p);
+                p = end;
+            }
+            return sum;
+        }
+
+        @Override
+        int min(int from, int to) {
+            int min = Integer.MAX_VALUE;
+            for (int r = run(from), p = from; p < to; p = ends[r++]) {
+                min = Math.min(min, values[r]);
+            }
+            return min;
+        }
+
+        @Override
+        int max(int from, int to) {
+            int max = Integer.MIN_VALUE;
+            for (int r = run(from), p = from; p < to; p = ends[r++]) {
+                max = Math.max(max, values[r]);
+            }
+            return max;
+        }
+
+        @Override
+        double squaredDeviations(int from, int to, double mean) {
+            double m2 = 0;
+            for (int r = run(from), p = from; p < to; r++) {
+                int end = Math.min(ends[r], to);
+                double d = values[r] - mean;
+                m2 += d * d * (end - p);
+                p = end;
+            }
+            return m2;
+        }
+
+        @Override
+        void selectRange(int start, int rows, int lo, int hi, long[] out, int firstWord) {
+            Arrays.fill(out, firstWord, firstWord + Bitmaps.words(rows), 0L);
+            int end = start + rows;
+            for (int r = run(start), p = start; p < end; r++) {
+                int runEnd = Math.min(ends[r], end);
+                if (values[r] >= lo && values[r] <= hi) {
+                    setRows(out, firstWord, p - start, runEnd - start);
+                }
+                p = runEnd;
+            }
+        }
+
+        @Override
+        void decode(int from, int[] dst, int dstOffset, int length) {
+            for (int r = run(from), p = from, to = from + length; p < to; r++) {
+                int end = Math.min(ends[r], to);
+                Arrays.fill(dst, dstOffset + p - from, dstOffset + end - from, values[r]);
+                p = end;
+            }
+        }
+    }
+
+    /** Met à un les lignes {@code [from, to)} d'un bitmap commençant au mot {@code firstWord}. */
+    private static void setRows(long[] out, int firstWord, int from, int to) {
+        Bitmaps.setRange(out, (firstWord << 6) + from, (firstWord << 6) + to);
+    }
+}
@@ -0,0 +1,293 @@
+package com.ilian.dataframe;
+
+import java.io.IOException;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+/**
+ * Série d'entiers 32 bits stockée dans un tableau {@code int[]}, ou dans un
+ * {@link IntBuffer} lorsqu'elle est projetée en mémoire depuis un instantané ({@link DataFrame#open}).
+ *
+ * Les colonnes chargées depuis un CSV sont compressées lorsque c'est rentable (compactage de
+ * bits, référence par bloc ou plages, voir {@link #getEncoding()}) ; les agrégats et les filtres
+ * d'intervalle sont alors calculés sur la forme compressée.
+ */
+public class IntSeries extends NumericSeries<Integer> {
+    private final int[] data;
+    private final IntBuffer buffer;
+    /** Durée de vie du tampon s'il est libéré par une {@link OffHeapArena}, sinon null. */
+    private final MemoryScope scope;
+    private final IntEncoding encoded;
+
+    /**
+     * Construit une série d'entiers à partir d'un tableau. Le tableau n'est pas copié.
+     *
+     * @param label Le nom (ou étiquette) de la série.
+     * @param data  Les valeurs de la série.
+     */
+    public IntSeries(String label, int[] data) {
+        this(label, data, null, null, null, null, 0, data.length, null);
+    }
+
+    /**
+     * Construit une série pouvant contenir des valeurs nulles. Les tableaux ne sont pas copiés.
+     *
+     * @param label    Le nom (ou étiquette) de la série.
+     * @param data     Les valeurs de la série ; celles des lignes nulles sont ignorées.
+     * @param validity Le bitmap de validité (bit {@code i % 64} du mot {@code i / 64} à 1 si la
+     *                 ligne {@code i} a une valeur), ou null si aucune valeur n'est nulle.
+     */
+    public IntSeries(String label, int[] data, long[] validity) {
+        this(label, data, null, null, null, validity, 0, data.length, null);
+    }
+
+    /**
+     * Construit une série adossée à un tampon, par exemple une région projetée en mémoire.
+     * Les valeurs ne sont pas copiées.
+     *
+     * @param label    Le nom (ou étiquette) de la série.
+     * @param buffer   Les valeurs de la série.
+     * @param validity Le bitmap de validité, ou null si aucune valeur n'est nulle.
+     */
+    IntSeries(String label, IntBuffer buffer, long[] validity) {
+        this(label, buffer, validity, null);
+    }
+
+    /**
+     * Construit une série adossée à un tampon dont la mémoire peut être libérée : toute lecture
+     * après la fermeture de {@code scope} lève une {@link IllegalStateException}.
+     */
+    IntSeries(String label, IntBuffer buffer, long[] validity, MemoryScope scope) {
+        this(label, null, buffer, scope, null, validity, 0, buffer.limit(), null);
+    }
+
+    private IntSeries(String label, int[] data, IntBuffer buffer, MemoryScope scope, IntEncoding encoded, long[] validity,
+                      int offset, int length, int[] index) {
+        super(label, offset, length, index, validity);
+        this.data = data;
+        this.buffer = buffer;
+        this.scope = scope;
+        this.encoded = encoded;
+    }
+
+    /**
+     * Construit une série sur les {@code size} premières valeurs d'un tableau, compressée si l'un
+     * des encodages de {@link IntEncoding} divise au moins par deux sa taille. Le tableau peut
+     * être réutilisé ensuite seulement si la série est compressée.
+     *
+     * @param label    Le nom (ou étiquette) de la série.
+     * @param data     Les valeurs.
+     * @param size     Le nombre de valeurs.
+     * @param validity Le bitmap de validité, ou null si aucune valeur n'est nulle.
+     * @return La série, compressée ou adossée au tableau.
+     */
+    static IntSeries encode(String label, int[] data, int size, long[] validity) {
+        IntEncoding encoded = IntEncoding.encode(data, size, validity);
+        if (encoded == null) {
+            return new IntSeries(label, size == data.length ? data : Arrays.copyOf(data, size), validity);
+        }
+        return new IntSeries(label, null, null, null, encoded, validity, 0, size, null);
+    }
+
+    /**
+     * Retourne le nom du stockage de la série : {@code "array"}, {@code "buffer"}, ou celui de
+     * l'encodage compressé ({@code "packed"}, {@code "frame-of-reference"}, {@code "run-length"}).
+     *
+     * @return Le nom du stockage.
+     */
+    public String getEncoding() {
+        if (data != null) return "array";
+        if (buffer != null) return "buffer";
+        if (encoded instanceof IntEncoding.Packed) return "packed";
+        if (encoded instanceof IntEncoding.FrameOfReference) return "frame-of-reference";
+        return "run-length";
+    }
+
+    /** Lit la valeur à une position du stockage. */
+    private int at(int p) {
+        if (data != null) return data[p];
+        if (encoded != null) return encoded.get(p);
+        if (scope != null) scope.check();
+        return buffer.get(p);
+    }
+
+    /** Indique si les positions visibles sont contiguës dans un stockage compressé. */
+    private boolean scanEncoded() {
+        return encoded != null && isContiguous();
+    }
+
+    /**
+     * Retourne la valeur à l'index donné, sans boxing.
+     *
+     * @param index L’index de la valeur.
+     * @return La valeur entière.
+     */
+    public int getInt(int index) {
+        return at(physical(index));
+    }
+
+    @Override
+    public double getDouble(int index) {
+        return at(physical(index));
+    }
+
+    @Override
+    public Integer get(int index) {
+        int p = physical(index);
+        return isValidAt(p) ? at(p) : null;
+    }
+
+    @Override
+    public void appendValue(StringBuilder sb, int index) {
+        int p = physical(index);
+        if (isValidAt(p)) {
+            sb.append(at(p));
+        } else {
+            sb.append("null");
+        }
+    }
+
+    @Override
+    void writeValue(TableWriter out, int index) throws IOException {
+        int p = physical(index);
+        if (isValidAt(p)) {
+            out.writeLong(at(p));
+        } else {
+            out.writeNull();
+        }
+    }
+
+    @Override
+    public IntSeries slice(int fromIndex, int toIndex) {
+        return (IntSeries) super.slice(fromIndex, toIndex);
+    }
+
+    @Override
+    public IntSeries take(int[] rows) {
+        return (IntSeries) super.take(rows);
+    }
+
+    @Override
+    protected IntSeries view(int offset, int length, int[] index) {
+        return new IntSeries(getLabel(), data, buffer, scope, encoded, validity, offset, length, index);
+    }
+
+    @Override
+    public IntSeries materialize() {
+        int[] copy = new int[length];
+        if (isContiguous() && data != null) {
+            System.arraycopy(data, offset, copy, 0, length);
+        } else if (scanEncoded()) {
+            encoded.decode(offset, copy, 0, length);
+        } else if (isContiguous()) {
+            if (scope != null) scope.check();
+            buffer.get(offset, copy, 0, length);
+        } else {
+            for (int i = 0; i < length; i++) copy[i] = at(index[offset + i]);
+        }
+        return new IntSeries(getLabel(), copy, materializeValidity());
+    }
+
+    @Override
+    public double sum() {
+        if (validity != null) return sum(0, length);
+        if (data != null && isContiguous()) return NumericKernels.INSTANCE.sum(data, offset, offset + length);
+        if (scanEncoded()) return encoded.sum(offset, offset + length);
+        long sum = 0;
+        if (isContiguous()) {
+            for (int i = offset, end = offset + length; i < end; i++) sum += at(i);
+        } else {
+            for (int i = offset, end = offset + length; i < end; i++) sum += at(index[i]);
+        }
+        return sum;
+    }
+
+    @Override
+    public double min() {
+        if (length == 0) return Double.NaN;
+        if (validity != null) return validCount(0, length) == 0 ? Double.NaN : min(0, length);
+        if (data != null && isContiguous()) return NumericKernels.INSTANCE.min(data, offset, offset + length);
+        if (scanEncoded()) return encoded.min(offset, offset + length);
+        int min = at(physical(0));
+        if (isContiguous()) {
+            for (int i = offset, end = offset + length; i < end; i++) if (at(i) < min) min = at(i);
+        } else {
+            for (int i = offset, end = offset + length; i < end; i++) if (at(index[i]) < min) min = at(index[i]);
+        }
+        return min;
+    }
+
+    @Override
+    public double max() {
+        if (length == 0) return Double.NaN;
+        if (validity != null) return validCount(0, length) == 0 ? Double.NaN : max(0, length);
+        if (data != null && isContiguous()) return NumericKernels.INSTANCE.max(data, offset, offset + length);
+        if (scanEncoded()) return encoded.max(offset, offset + length);
+        int max = at(physical(0));
+        if (isContiguous()) {
+            for (int i = offset, end = offset + length; i < end; i++) if (at(i) > max) max = at(i);
+        } else {
+            for (int i = offset, end = offset + length; i < end; i++) if (at(index[i]) > max) max = at(index[i]);
+        }
+        return max;
+    }
+
+    @Override
+    double sum(int from, int to) {
+        if (validity == null && data != null && isContiguous()) return NumericKernels.INSTANCE.sum(data, offset + from, offset + to);
+        if (validity == null && scanEncoded()) return encoded.sum(offset + from, offset + to);
+        return super.sum(from, to);
+    }
+
+    @Override
+    double min(int from, int to) {
+        if (validity == null && data != null && isContiguous()) return NumericKernels.INSTANCE.min(data, offset + from, offset + to);
+        if (validity == null && scanEncoded() && from < to) return encoded.min(offset + from, offset + to);
+        return super.min(from, to);
+    }
+
+    @Override
+    double max(int from, int to) {
+        if (validity == null && data != null && isContiguous()) return NumericKernels.INSTANCE.max(data, offset + from, offset + to);
+        if (validity == null && scanEncoded() && from < to) return encoded.max(offset + from, offset + to);
+        return super.max(from, to);
+    }
+
+    @Override
+    double squaredDeviations(int from, int to, double mean) {
+        if (validity == null && data != null && isContiguous()) return NumericKernels.INSTANCE.squaredDeviations(data, offset + from, offset + to, mean);
+        if (validity == null && scanEncoded()) return encoded.squaredDeviations(offset + from, offset + to, mean);
+        return super.squaredDeviations(from, to, mean);
+    }
+
+    @Override
+    void selectRange(double lo, boolean loInclusive, double hi, boolean hiInclusive, long[] out, int from, int to) {
+        long min = lowerBound(lo, loInclusive);
+        long max = upperBound(hi, hiInclusive);
+        if (min > max || min > Integer.MAX_VALUE || max < Integer.MIN_VALUE) {
+            Arrays.fill(out, from >>> 6, Bitmaps.words(to), 0L);
+            return;
+        }
+        int a = (int) Math.max(min, Integer.MIN_VALUE);
+        int b = (int) Math.min(max, Integer.MAX_VALUE);
+        if (data != null && isContiguous()) {
+            NumericKernels.INSTANCE.selectRange(data, offset + from, to - from, a, b, out, from >>> 6);
+            return;
+        }
+        if (scanEncoded()) {
+            encoded.selectRange(offset + from, to - from, a, b, out, from >>> 6);
+            return;
+        }
+        boolean contiguous = isContiguous();
+        for (int base = from, w = from >>> 6; base < to; base += 64, w++) {
+            int n = Math.min(64, to - base);
+            long bits = 0;
+            for (int j = 0; j < n; j++) {
+                int p = offset + base + j;
+                int v = at(contiguous ? p : index[p]);
+                bits |= ((v >= a) & (v <= b) ? 1L : 0L) << j;
+            }
+            out[w] = bits;
+        }
+    }
+}
@@ -0,0 +1,402 @@
+package com.ilian.dataframe;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Exécution d'une jointure entre deux {@link DataFrame}.
+ *
+ * La jointure ne produit que des vecteurs d'index (lignes de gauche, lignes de droite)
+ * appliqués ensuite aux colonnes par {@code take} : aucune ligne n'est matérialisée en objet.
+ * Si les clés des deux côtés sont entières et déjà triées, une jointure par fusion est utilisée ;
+ * sinon une table de hachage est construite sur le plus petit côté et sondée, en parallèle,
+ * avec les lignes de l'autre. Si la clé (unique) de droite porte un index par hachage
+ * ({@link DataFrame#createIndex(String, IndexKind)}), les lignes de gauche sondent directement
+ * cet index, sans encoder la droite ni construire de table. Une ligne dont une clé primitive est
+ * nulle n'a jamais de correspondance.
+ */
+final class Join {
+    private final DataFrame left;
+    private final DataFrame right;
+    private final String[] leftKeys;
+    private final String[] rightKeys;
+    private final JoinType type;
+    private final ForkJoinPool pool;
+
+    private long[][] leftCodes;
+    private long[][] rightCodes;
+    /** Lignes dont toutes les clés sont non nulles, ou null si aucune clé n'est nulle. */
+    private long[] leftValid;
+    private long[] rightValid;
+
+    Join(DataFrame left, DataFrame right, String[] leftKeys, String[] rightKeys, JoinType type, ForkJoinPool pool) {
+        if (leftKeys.length == 0 || leftKeys.length != rightKeys.length) {
+            throw new IllegalArgumentException("Join requires the same non-zero number of keys on both sides");
+        }
+        this.left = left;
+        this.right = right;
+        this.leftKeys = leftKeys.clone();
+        this.rightKeys = rightKeys.clone();
+        this.type = type;
+        this.pool = pool;
+    }
+
+    DataFrame execute() {
+        if (rightKeys.length == 1) {
+            HashIndex index = right.requireColumn(rightKeys[0]).hashIndex();
+            Series<?> l = left.requireColumn(leftKeys[0]);
+            long[] probe = index == null ? null : index.probeKeys(l);
+            if (probe != null) {
+                leftCodes = new long[][] {probe};
+                leftValid = KeyEncoder.validity(l);
+                int[][] matches = indexJoin(index);
+                return output(matches[0], matches[1]);
+            }
+        }
+        boolean integral = true;
+        leftCodes = new long[leftKeys.length][];
+        rightCodes = new long[rightKeys.length][];
+        for (int k = 0; k < leftKeys.length; k++) {
+            Series<?> l = left.requireColumn(leftKeys[k]);
+            Series<?> r = right.requireColumn(rightKeys[k]);
+            Map<Object, Integer> dictionary = new HashMap<>();
+            long[][] codes = KeyEncoder.encodePair(l, r, dictionary);
+            leftCodes[k] = codes[0];
+            rightCodes[k] = codes[1];
+            integral &= KeyEncoder.isIntegral(l) && KeyEncoder.isIntegral(r);
+            leftValid = intersect(leftValid, KeyEncoder.validity(l));
+            rightValid = intersect(rightValid, KeyEncoder.validity(r));
+        }
+
+        boolean nullable = leftValid != null || rightValid != null;
+        int[][] matches = integral && !nullable && isSorted(leftCodes) && isSorted(rightCodes)
+                ? mergeJoin()
+                : hashJoin();
+        return output(matches[0], matches[1]);
+    }
+
+    private static long[] intersect(long[] a, long[] b) {
+        if (a == null) return b;
+        if (b != null) Bitmaps.and(a, b);
+        return a;
+    }
+
+    private static boolean isValid(long[] valid, int row) {
+        return valid == null || (valid[row >>> 6] & (1L << row)) != 0;
+    }
+
+    // ---------------------------------------------------------------- merge join
+
+    private static boolean isSorted(long[][] codes) {
+        int n = codes[0].length;
+        for (int i = 1; i < n; i++) {
+            if (compare(codes, i - 1, codes, i) > 0) return false;
+        }
+        return true;
+    }
+
+    private static int compare(long[][] a, int i, long[][] b, int j) {
+        for (int k = 0; k < a.length; k++) {
+            int c = Long.compare(a[k][i], b[k][j]);
+            if (c != 0) return c;
+        }
+        return 0;
+    }
+
+    private int[][] mergeJoin() {
+        int nl = left.getRowCount();
+        int nr = right.getRowCount();
+        IntBuffer outLeft = new IntBuffer();
+        IntBuffer outRight = new IntBuffer();
+        int i = 0;
+        int j = 0;
+        while (i < nl) {
+            while (j < nr && compare(rightCodes, j, leftCodes, i) < 0) j++;
+            int leftEnd = i + 1;
+            while (leftEnd < nl && compare(leftCodes, leftEnd, leftCodes, i) == 0) leftEnd++;
+            int rightEnd = j;
+            while (rightEnd < nr && compare(rightCodes, rightEnd, leftCodes, i) == 0) rightEnd++;
+            for (int l = i; l < leftEnd; l++) {
+                emit(outLeft, outRight, l, null, j, rightEnd, null, 0);
+            }
+            i = leftEnd;
+            j = rightEnd;
+        }
+        return new int[][] {outLeft.toArray(), outRight.toArray()};
+    }
+
+    /**
+     * Produit les lignes de sortie de la ligne de gauche {@code l}, dont les correspondances
+     * à droite sont les lignes {@code [from, to)} (ou {@code rows[from, to)} si {@code rows} est
+     * fourni, ou encore la chaîne {@code chain} si elle est fournie).
+     */
+    private void emit(IntBuffer outLeft, IntBuffer outRight, int l, int[] rows, int from, int to, int[] chain, int head) {
+        boolean matched = chain != null ? head >= 0 : from < to;
+        if (!matched) {
+            if (type == JoinType.ANTI) {
+                outLeft.add(l);
+            } else if (type == JoinType.LEFT) {
+                outLeft.add(l);
+                outRight.add(-1);
+            }
+            return;
+        }
+        switch (type) {
+            case SEMI:
+                outLeft.add(l);
+                return;
+            case ANTI:
+                return;
+            default:
+                if (chain != null) {
+                    for (int r = head; r >= 0; r = chain[r]) {
+                        outLeft.add(l);
+                        outRight.add(r);
+                    }
+                } else {
+                    for (int r = from; r < to; r++) {
+                        outLeft.add(l);
+                        outRight.add(rows != null ? rows[r] : r);
+                    }
+                }
+        }
+    }
+
+    // ---------------------------------------------------------------- hash join
+
+    private int[][] hashJoin() {
+        boolean buildLeft = left.getRowCount() < right.getRowCount();
+        long[][] buildCodes = buildLeft ? leftCodes : rightCodes;
+        long[] buildValid = buildLeft ? leftValid : rightValid;
+        long[][] probeCodes = buildLeft ? rightCodes : leftCodes;
+        int buildRows = buildCodes[0].length;
+        int probeRows = probeCodes[0].length;
+
+        // Distinct keys of the build side, and for each one the chain of its rows in ascending order.
+        GroupTable table = new GroupTable(buildCodes.length, Math.min(buildRows, 1 << 16));
+        int[] groupOf = new int[buildRows];
+        for (int r = 0; r < buildRows; r++) {
+            groupOf[r] = isValid(buildValid, r) ? table.findOrInsert(buildCodes, r) : -1;
+        }
+        int[] head = new int[table.size()];
+        Arrays.fill(head, -1);
+        int[] next = new int[buildRows];
+        for (int r = buildRows - 1; r >= 0; r--) {
+            if (groupOf[r] < 0) continue;
+            next[r] = head[groupOf[r]];
+            head[groupOf[r]] = r;
+        }
+
+        int parts = GroupBy.taskCount(pool, probeRows);
+        List<ForkJoinTask<IntBuffer[]>> tasks = new ArrayList<>();
+        boolean[] groupMatched = new boolean[table.size()];
+        for (int p = 0; p < parts; p++) {
+            int from = (int) ((long) probeRows * p / parts);
+            int to = (int) ((long) probeRows * (p + 1) / parts);
+            tasks.add(pool.submit(() -> buildLeft
+                    ? probeFromRight(table, head, next, groupMatched, from, to)
+                    : probeFromLeft(table, head, next, from, to)));
+        }
+        IntBuffer outLeft = new IntBuffer();
+        IntBuffer outRight = new IntBuffer();
+        for (ForkJoinTask<IntBuffer[]> task : tasks) {
+            IntBuffer[] part = task.join();
+            outLeft.addAll(part[0]);
+            outRight.addAll(part[1]);
+        }
+        if (!buildLeft) {
+            return new int[][] {outLeft.toArray(), outRight.toArray()};
+        }
+
+        // The probe ran over the right rows: add what the left side still needs, then restore left order.
+        int nl = left.getRowCount();
+        for (int l = 0; l < nl; l++) {
+            boolean matched = groupOf[l] >= 0 && groupMatched[groupOf[l]];
+            if (type == JoinType.SEMI && matched || type == JoinType.ANTI && !matched
+                    || type == JoinType.LEFT && !matched) {
+                outLeft.add(l);
+                outRight.add(-1);
+            }
+        }
+        return sortByLeft(outLeft.toArray(), outRight.toArray(), nl);
+    }
+
+    // ---------------------------------------------------------------- index join
+
+    /** Sonde l'index de la clé de droite avec toutes les lignes de gauche, en parallèle. */
+    private int[][] indexJoin(HashIndex index) {
+        int nl = left.getRowCount();
+        int parts = GroupBy.taskCount(pool, nl);
+        List<ForkJoinTask<IntBuffer[]>> tasks = new ArrayList<>();
+        for (int p = 0; p < parts; p++) {
+            int from = (int) ((long) nl * p / parts);
+            int to = (int) ((long) nl * (p + 1) / parts);
+            tasks.add(pool.submit(() -> probeIndex(index, from, to)));
+        }
+        IntBuffer outLeft = new IntBuffer();
+        IntBuffer outRight = new IntBuffer();
+        for (ForkJoinTask<IntBuffer[]> task : tasks) {
+            IntBuffer[] part = task.join();
+            outLeft.addAll(part[0]);
+            outRight.addAll(part[1]);
+        }
+        return new int[][] {outLeft.toArray(), outRight.toArray()};
+    }
+
+    private IntBuffer[] probeIndex(HashIndex index, int from, int to) {
+        IntBuffer outLeft = new IntBuffer();
+        IntBuffer outRight = new IntBuffer();
+        int[] rows = index.rows();
+        for (int l = from; l < to; l++) {
+            int group = isValid(leftValid, l) ? index.find(leftCodes[0][l]) : -1;
+            if (group < 0) {
+                emit(outLeft, outRight, l, rows, 0, 0, null, 0);
+            } else {
+                emit(outLeft, outRight, l, rows, index.groupStart(group), index.groupStart(group + 1), null, 0);
+            }
+        }
+        return new IntBuffer[] {outLeft, outRight};
+    }
+
+    /** Sonde la table construite sur la droite avec les lignes de gauche {@code [from, to)}. */
+    private IntBuffer[] probeFromLeft(GroupTable table, int[] head, int[] next, int from, int to) {
+        IntBuffer outLeft = new IntBuffer();
+        IntBuffer outRight = new IntBuffer();
+        for (int l = from; l < to; l++) {
+            int group = isValid(leftValid, l) ? table.find(leftCodes, l) : -1;
+            emit(outLeft, outRight, l, null, 0, 0, next, group < 0 ? -1 : head[group]);
+        }
+        return new IntBuffer[] {outLeft, outRight};
+    }
+
+    /**
+     * Sonde la table construite sur la gauche avec les lignes de droite {@code [from, to)}.
+     * Les clés de gauche rencontrées sont marquées dans {@code groupMatched} ; les couples ne
+     * sont produits que pour INNER et LEFT.
+     */
+    private IntBuffer[] probeFromRight(GroupTable table, int[] head, int[] next, boolean[] groupMatched, int from, int to) {
+        IntBuffer outLeft = new IntBuffer();
+        IntBuffer outRight = new IntBuffer();
+        boolean pairs = type == JoinType.INNER || type == JoinType.LEFT;
+        for (int r = from; r < to; r++) {
+            int group = isValid(rightValid, r) ? table.find(rightCodes, r) : -1;
+            if (group < 0) continue;
+            groupMatched[group] = true;
+            if (pairs) {
+                for (int l = head[group]; l >= 0; l = next[l]) {
+                    outLeft.add(l);
+                    outRight.add(r);
+                }
+            }
+        }
+        return new IntBuffer[] {outLeft, outRight};
+    }
+
+    /** Tri par dénombrement, stable, des couples selon la ligne de gauche. */
+    private static int[][] sortByLeft(int[] leftIdx, int[] rightIdx, int leftRows) {
+        int[] starts = new int[leftRows + 1];
+        for (int l : leftIdx) starts[l + 1]++;
+        for (int l = 0; l < leftRows; l++) starts[l + 1] += starts[l];
+        int[] sortedLeft = new int[leftIdx.length];
+        int[] sortedRight = new int[rightIdx.length];
+        for (int k = 0; k < leftIdx.length; k++) {
+            int pos = starts[leftIdx[k]]++;
+            sortedLeft[pos] = leftIdx[k];
+            sortedRight[pos] = rightIdx[k];
+        }
+        return new int[][] {sortedLeft, sortedRight};
+    }
+
+    // ---------------------------------------------------------------- output
+
+    private DataFrame output(int[] leftIdx, int[] rightIdx) {
+        DataFrame leftPart = left.takeRows(leftIdx);
+        List<Series<?>> columns = new ArrayList<>();
+        for (String label : leftPart.getColumnLabels()) {
+            columns.add(leftPart.getColumn(label));
+        }
+        if (type == JoinType.SEMI || type == JoinType.ANTI) {
+            return new DataFrame(columns);
+        }
+
+        Set<String> skipped = new HashSet<>(Arrays.asList(rightKeys));
+        // Labels already taken: a renamed column must not collide with any of them.
+        Set<String> used = new HashSet<>(left.getColumnLabels());
+        for (String label : right.getColumnLabels()) {
+            if (!skipped.contains(label)) used.add(label);
+        }
+        boolean complete = Arrays.stream(rightIdx).allMatch(r -> r >= 0);
+        for (String label : right.getColumnLabels()) {
+            if (skipped.contains(label)) continue;
+            Series<?> source = right.getColumn(label);
+            Series<?> gathered = complete ? source.take(rightIdx) : gatherNullable(source, rightIdx);
+            String name = label;
+            if (left.getColumn(label) != null) {
+                do {
+                    name += "_right";
+                } while (used.contains(name));
+                used.add(name);
+            }
+            columns.add(name.equals(label) ? gathered : gathered.rename(name));
+        }
+        return new DataFrame(columns);
+    }
+
+    /**
+     * Copie les valeurs désignées, avec null pour l'index -1 (lignes de gauche sans correspondance,
+     * ou décalages de {@link Window} sortant de la partition).
+     * Une colonne primitive reste primitive, les lignes sans correspondance étant marquées nulles
+     * dans son bitmap de validité ; une colonne encodée par dictionnaire ne copie que ses codes.
+     */
+    static Series<?> gatherNullable(Series<?> source, int[] rows) {
+        if (source instanceof NumericSeries) {
+            NumericSeries<?> numeric = (NumericSeries<?>) source;
+            long[] validity = new long[Bitmaps.words(rows.length)];
+            for (int i = 0; i < rows.length; i++) {
+                if (rows[i] >= 0 && !numeric.isNull(rows[i])) validity[i >>> 6] |= 1L << i;
+            }
+            if (source instanceof IntSeries) {
+                int[] values = new int[rows.length];
+                for (int i = 0; i < rows.length; i++) values[i] = rows[i] < 0 ? 0 : ((IntSeries) source).getInt(rows[i]);
+                return new IntSeries(source.getLabel(), values, validity);
+            }
+            if (source instanceof LongSeries) {
+                long[] values = new long[rows.length];
+                for (int i = 0; i < rows.length; i++) values[i] = rows[i] < 0 ? 0 : ((LongSeries) source).getLong(rows[i]);
+                return new LongSeries(source.getLabel(), values, validity);
+            }
+            double[] values = new double[rows.length];
+            for (int i = 0; i < rows.length; i++) values[i] = rows[i] < 0 ? 0 : numeric.getDouble(rows[i]);
+            return new DoubleSeries(source.getLabel(), values, validity);
+        }
+        return source.takeNullable(rows);
+    }
+
+    /** Liste d'entiers primitifs extensible. */
+    private static final class IntBuffer {
+        private int[] data = new int[16];
+        private int size;
+
+        void add(int v) {
+            if (size == data.length) data = Arrays.copyOf(data, size * 2);
+            data[size++] = v;
+        }
+
+        void addAll(IntBuffer other) {
+            if (size + other.size > data.length) data = Arrays.copyOf(data, Math.max(size + other.size, size * 2));
+            System.arraycopy(other.data, 0, data, size, other.size);
+            size += other.size;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(data, size);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.ilian.dataframe;
+
+/**
+ * Types de jointure supportés par {@link DataFrame#join(DataFrame, String[], String[], JoinType)}.
+ */
+public enum JoinType {
+    /** Une ligne par couple de lignes gauche/droite ayant la même clé. */
+    INNER,
+    /** Comme INNER, plus les lignes de gauche sans correspondance (colonnes de droite à null). */
+    LEFT,
+    /** Les lignes de gauche ayant au moins une correspondance, colonnes de gauche seulement. */
+    SEMI,
+    /** Les lignes de gauche n'ayant aucune correspondance, colonnes de gauche seulement. */
+    ANTI
+}
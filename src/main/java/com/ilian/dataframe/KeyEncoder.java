@@ -0,0 +1,115 @@
+package com.ilian.dataframe;
+
+import java.util.Map;
+
+/**
+ * Encode les valeurs d'une colonne de clés en {@code long}, pour le regroupement et les jointures.
+ *
+ * Les colonnes entières sont prises telles quelles, les flottants par leur représentation
+ * binaire (0.0 et -0.0 confondus), les colonnes {@link DictionarySeries} par leurs propres codes
+ * (regroupement) ou traduits via le dictionnaire partagé (jointure), et les autres valeurs par
+ * un code de dictionnaire attribué dans l'ordre de première apparition. Deux valeurs égales reçoivent toujours le même code
+ * tant que le même dictionnaire est utilisé. Les lignes nulles d'une colonne primitive reçoivent
+ * le code 0 : l'appelant les distingue à l'aide de {@link #validity(Series)}.
+ */
+final class KeyEncoder {
+
+    private KeyEncoder() {
+    }
+
+    /**
+     * Encode chaque ligne de la série.
+     *
+     * @param series     La colonne de clés.
+     * @param dictionary Le dictionnaire des valeurs non numériques, complété au besoin.
+     * @return Un code par ligne.
+     */
+    static long[] encode(Series<?> series, Map<Object, Integer> dictionary) {
+        int n = series.size();
+        long[] codes = new long[n];
+        if (series instanceof IntSeries) {
+            IntSeries ints = (IntSeries) series;
+            for (int i = 0; i < n; i++) codes[i] = ints.getInt(i);
+        } else if (series instanceof LongSeries) {
+            LongSeries longs = (LongSeries) series;
+            for (int i = 0; i < n; i++) codes[i] = longs.getLong(i);
+        } else if (series instanceof DoubleSeries) {
+            DoubleSeries doubles = (DoubleSeries) series;
+            for (int i = 0; i < n; i++) {
+                double v = doubles.getDouble(i);
+                codes[i] = v == 0 ? 0L : Double.doubleToLongBits(v);
+            }
+        } else if (series instanceof DictionarySeries) {
+            DictionarySeries encoded = (DictionarySeries) series;
+            for (int i = 0; i < n; i++) codes[i] = encoded.getCode(i);
+        } else {
+            return encodeObjects(series, dictionary);
+        }
+        if (series instanceof NumericSeries) {
+            ((NumericSeries<?>) series).zeroNulls(codes);
+        }
+        return codes;
+    }
+
+    /**
+     * Retourne le bitmap des lignes non nulles d'une colonne primitive (un bit par ligne),
+     * ou null si la colonne ne contient aucune valeur nulle.
+     */
+    static long[] validity(Series<?> series) {
+        return series instanceof NumericSeries ? ((NumericSeries<?>) series).materializeValidity() : null;
+    }
+
+    /**
+     * Encode les colonnes clés des deux côtés d'une jointure de façon cohérente : deux valeurs
+     * égales reçoivent le même code des deux côtés. Les colonnes entières sont comparées en entiers,
+     * un mélange entier/flottant en flottants, et tout autre mélange par égalité d'objets.
+     *
+     * @return Les codes de gauche puis ceux de droite.
+     */
+    static long[][] encodePair(Series<?> left, Series<?> right, Map<Object, Integer> dictionary) {
+        if (isIntegral(left) && isIntegral(right)) {
+            return new long[][] {encode(left, dictionary), encode(right, dictionary)};
+        }
+        if (isNumeric(left) && isNumeric(right)) {
+            return new long[][] {encodeAsDouble(NumericSeries.asNumeric(left)), encodeAsDouble(NumericSeries.asNumeric(right))};
+        }
+        return new long[][] {encodeObjects(left, dictionary), encodeObjects(right, dictionary)};
+    }
+
+    /** Indique si les codes de la série respectent l'ordre de ses valeurs. */
+    static boolean isIntegral(Series<?> series) {
+        return series instanceof IntSeries || series instanceof LongSeries;
+    }
+
+    private static boolean isNumeric(Series<?> series) {
+        return series instanceof NumericSeries || (series.size() > 0 && series.get(0) instanceof Number);
+    }
+
+    private static long[] encodeAsDouble(NumericSeries<?> series) {
+        long[] codes = new long[series.size()];
+        for (int i = 0; i < codes.length; i++) {
+            double v = series.getDouble(i);
+            codes[i] = v == 0 ? 0L : Double.doubleToLongBits(v);
+        }
+        series.zeroNulls(codes);
+        return codes;
+    }
+
+    private static long[] encodeObjects(Series<?> series, Map<Object, Integer> dictionary) {
+        long[] codes = new long[series.size()];
+        if (series instanceof DictionarySeries) {
+            // Translate the column's own dictionary once, then remap the row codes.
+            DictionarySeries encoded = (DictionarySeries) series;
+            int[] remap = new int[encoded.getDictionarySize()];
+            for (int code = 0; code < remap.length; code++) {
+                remap[code] = dictionary.computeIfAbsent(encoded.getDictionaryValue(code), v -> dictionary.size());
+            }
+            for (int i = 0; i < codes.length; i++) codes[i] = remap[encoded.getCode(i)];
+            return codes;
+        }
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = dictionary.computeIfAbsent(series.get(i), v -> dictionary.size());
+        }
+        return codes;
+    }
+}
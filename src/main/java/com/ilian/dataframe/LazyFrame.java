@@ -0,0 +1,352 @@
+package com.ilian.dataframe;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Requête différée sur un fichier CSV : les opérations enregistrent un plan logique, qui n'est
+ * optimisé puis exécuté qu'à l'appel de {@link #collect()}.
+ *
+ * <pre>
+ * DataFrame notes = LazyFrame.scanCsv("data/etudiants.csv")
+ *         .filter(Filter.ge("Note", 12))
+ *         .groupBy("Age")
+ *         .agg(Aggregation.mean("Note"))
+ *         .collect();
+ * </pre>
+ *
+ * L'optimisation descend les conditions le plus près possible de la lecture (à travers les
+ * sélections de colonnes, et sous un regroupement lorsqu'elles ne portent que sur ses clés),
+ * fusionne les conditions successives en une seule et ne lit que les colonnes utilisées par la
+ * suite du plan. Lecture, condition et sélection sont alors exécutées en une seule passe sur le
+ * fichier (voir {@link CsvScan}) : les colonnes inutiles ne sont pas analysées et les lignes
+ * rejetées ne sont pas conservées. {@link #explain()} affiche le plan optimisé.
+ *
+ * Un LazyFrame est immuable : chaque opération retourne un nouveau plan.
+ */
+public final class LazyFrame {
+    private final Plan plan;
+
+    private LazyFrame(Plan plan) {
+        this.plan = plan;
+    }
+
+    /**
+     * Commence une requête sur un fichier CSV, qui n'est pas lu avant {@link #collect()}.
+     *
+     * @param filePath Le chemin vers le fichier CSV.
+     * @return La requête qui lit le fichier entier.
+     */
+    public static LazyFrame scanCsv(String filePath) {
+        return new LazyFrame(new Scan(filePath, null, null));
+    }
+
+    /**
+     * Ne garde que les colonnes données, dans cet ordre.
+     *
+     * @param labels Les étiquettes des colonnes.
+     * @return La nouvelle requête.
+     */
+    public LazyFrame select(String... labels) {
+        return new LazyFrame(new Select(plan, Arrays.asList(labels.clone())));
+    }
+
+    /**
+     * Ne garde que les lignes vérifiant la condition.
+     *
+     * @param filter La condition.
+     * @return La nouvelle requête.
+     */
+    public LazyFrame filter(Filter filter) {
+        return new LazyFrame(new Where(plan, filter));
+    }
+
+    /**
+     * Regroupe les lignes selon des colonnes clés ; les agrégats sont donnés par
+     * {@link Grouped#agg(Aggregation...)}.
+     *
+     * @param keys Les étiquettes des colonnes clés.
+     * @return Le regroupement différé.
+     * @throws IllegalArgumentException si aucune clé n'est fournie.
+     */
+    public Grouped groupBy(String... keys) {
+        if (keys.length == 0) {
+            throw new IllegalArgumentException("At least one key column is required");
+        }
+        return new Grouped(plan, keys.clone());
+    }
+
+    /**
+     * Décrit le plan optimisé, un nœud par ligne, la lecture du fichier en dernier.
+     *
+     * @return La description du plan.
+     */
+    public String explain() {
+        StringBuilder out = new StringBuilder();
+        optimize(plan).describe(out, 0);
+        return out.toString();
+    }
+
+    /**
+     * Optimise puis exécute la requête.
+     *
+     * @return Le DataFrame résultat.
+     * @throws IOException si le fichier ne peut pas être lu.
+     * @throws IllegalArgumentException si une colonne référencée n'existe pas.
+     */
+    public DataFrame collect() throws IOException {
+        return optimize(plan).execute();
+    }
+
+    /** Descend les conditions, puis limite la lecture aux colonnes utilisées. */
+    static Plan optimize(Plan plan) {
+        return plan.pushFilters().prune(null);
+    }
+
+    /** Regroupement différé, obtenu par {@link LazyFrame#groupBy(String...)}. */
+    public static final class Grouped {
+        private final Plan child;
+        private final String[] keys;
+
+        private Grouped(Plan child, String[] keys) {
+            this.child = child;
+            this.keys = keys;
+        }
+
+        /**
+         * Calcule les agrégats demandés pour chaque groupe, comme {@link GroupBy#agg(Aggregation...)}.
+         *
+         * @param aggregations Les agrégats à calculer.
+         * @return La requête produisant une ligne par groupe.
+         */
+        public LazyFrame agg(Aggregation... aggregations) {
+            return new LazyFrame(new Aggregate(child, keys, aggregations.clone()));
+        }
+    }
+
+    private static Set<String> columnsOf(Filter filter) {
+        Set<String> columns = new LinkedHashSet<>();
+        filter.collectColumns(columns);
+        return columns;
+    }
+
+    /** Nœud du plan logique. */
+    abstract static class Plan {
+        /** Exécute le nœud et ceux dont il dépend. */
+        abstract DataFrame execute() throws IOException;
+
+        /** Retourne un plan équivalent où chaque condition est descendue le plus bas possible. */
+        abstract Plan pushFilters();
+
+        /** Retourne un plan équivalent à ce nœud suivi de la condition, la condition étant descendue. */
+        Plan pushFilter(Filter filter) {
+            return new Where(this, filter);
+        }
+
+        /**
+         * Retourne un plan équivalent qui ne produit que les colonnes utiles.
+         *
+         * @param required Les colonnes lues par la suite du plan, ou null pour toutes.
+         */
+        abstract Plan prune(Set<String> required);
+
+        abstract void describe(StringBuilder out, int depth);
+
+        void line(StringBuilder out, int depth, String text) {
+            for (int i = 0; i < depth; i++) out.append("  ");
+            out.append(text).append('\n');
+        }
+    }
+
+    /** Lecture du fichier, avec ses colonnes et sa condition. */
+    static final class Scan extends Plan {
+        private final String filePath;
+        private final List<String> columns;
+        private final Filter predicate;
+
+        Scan(String filePath, List<String> columns, Filter predicate) {
+            this.filePath = filePath;
+            this.columns = columns;
+            this.predicate = predicate;
+        }
+
+        @Override
+        DataFrame execute() throws IOException {
+            return new CsvScan(filePath, columns, predicate).read();
+        }
+
+        @Override
+        Plan pushFilters() {
+            return this;
+        }
+
+        @Override
+        Plan pushFilter(Filter filter) {
+            return new Scan(filePath, columns, predicate == null ? filter : Filter.and(predicate, filter));
+        }
+
+        @Override
+        Plan prune(Set<String> required) {
+            if (required == null) return this;
+            List<String> kept = new ArrayList<>();
+            for (String label : columns != null ? columns : new ArrayList<>(required)) {
+                if (required.contains(label)) kept.add(label);
+            }
+            return new Scan(filePath, kept, predicate);
+        }
+
+        @Override
+        void describe(StringBuilder out, int depth) {
+            line(out, depth, "CsvScan " + filePath
+                    + " columns=" + (columns == null ? "*" : columns.toString())
+                    + (predicate == null ? "" : " predicate=" + predicate));
+        }
+    }
+
+    /** Sélection de colonnes. */
+    static final class Select extends Plan {
+        private final Plan child;
+        private final List<String> labels;
+
+        Select(Plan child, List<String> labels) {
+            this.child = child;
+            this.labels = labels;
+        }
+
+        @Override
+        DataFrame execute() throws IOException {
+            DataFrame df = child.execute();
+            for (String label : labels) {
+                df.requireColumn(label);
+            }
+            return df.selectColumns(labels.toArray(new String[0]));
+        }
+
+        @Override
+        Plan pushFilters() {
+            return new Select(child.pushFilters(), labels);
+        }
+
+        @Override
+        Plan pushFilter(Filter filter) {
+            if (!labels.containsAll(columnsOf(filter))) {
+                return super.pushFilter(filter);
+            }
+            return new Select(child.pushFilter(filter), labels);
+        }
+
+        @Override
+        Plan prune(Set<String> required) {
+            List<String> kept = new ArrayList<>();
+            for (String label : labels) {
+                if (required == null || required.contains(label)) kept.add(label);
+            }
+            Plan pruned = child.prune(new LinkedHashSet<>(kept));
+            if (pruned instanceof Scan && kept.equals(((Scan) pruned).columns)) {
+                return pruned;
+            }
+            return new Select(pruned, kept);
+        }
+
+        @Override
+        void describe(StringBuilder out, int depth) {
+            line(out, depth, "Select " + labels);
+            child.describe(out, depth + 1);
+        }
+    }
+
+    /** Condition sur les lignes qui n'a pas pu être descendue. */
+    static final class Where extends Plan {
+        private final Plan child;
+        private final Filter filter;
+
+        Where(Plan child, Filter filter) {
+            this.child = child;
+            this.filter = filter;
+        }
+
+        @Override
+        DataFrame execute() throws IOException {
+            return child.execute().filter(filter);
+        }
+
+        @Override
+        Plan pushFilters() {
+            return child.pushFilters().pushFilter(filter);
+        }
+
+        @Override
+        Plan pushFilter(Filter other) {
+            return child.pushFilter(Filter.and(filter, other));
+        }
+
+        @Override
+        Plan prune(Set<String> required) {
+            if (required == null) return new Where(child.prune(null), filter);
+            Set<String> needed = new LinkedHashSet<>(required);
+            needed.addAll(columnsOf(filter));
+            return new Where(child.prune(needed), filter);
+        }
+
+        @Override
+        void describe(StringBuilder out, int depth) {
+            line(out, depth, "Filter " + filter);
+            child.describe(out, depth + 1);
+        }
+    }
+
+    /** Regroupement et agrégats. */
+    static final class Aggregate extends Plan {
+        private final Plan child;
+        private final String[] keys;
+        private final Aggregation[] aggregations;
+
+        Aggregate(Plan child, String[] keys, Aggregation[] aggregations) {
+            this.child = child;
+            this.keys = keys;
+            this.aggregations = aggregations;
+        }
+
+        @Override
+        DataFrame execute() throws IOException {
+            return child.execute().groupBy(keys).agg(aggregations);
+        }
+
+        @Override
+        Plan pushFilters() {
+            return new Aggregate(child.pushFilters(), keys, aggregations);
+        }
+
+        @Override
+        Plan pushFilter(Filter filter) {
+            // A condition on the keys keeps or drops whole groups: it can run before grouping.
+            if (!Arrays.asList(keys).containsAll(columnsOf(filter))) {
+                return super.pushFilter(filter);
+            }
+            return new Aggregate(child.pushFilter(filter), keys, aggregations);
+        }
+
+        @Override
+        Plan prune(Set<String> required) {
+            Set<String> needed = new LinkedHashSet<>(Arrays.asList(keys));
+            for (Aggregation aggregation : aggregations) {
+                if (aggregation.getLabel() != null) needed.add(aggregation.getLabel());
+            }
+            return new Aggregate(child.prune(needed), keys, aggregations);
+        }
+
+        @Override
+        void describe(StringBuilder out, int depth) {
+            List<String> names = new ArrayList<>();
+            for (Aggregation aggregation : aggregations) {
+                names.add(aggregation.getName());
+            }
+            line(out, depth, "Aggregate keys=" + Arrays.toString(keys) + " aggregations=" + names);
+            child.describe(out, depth + 1);
+        }
+    }
+}
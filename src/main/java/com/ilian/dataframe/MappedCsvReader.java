@@ -0,0 +1,419 @@
+package com.ilian.dataframe;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Lecteur CSV parallèle basé sur des fichiers projetés en mémoire (NIO).
+ *
+ * Le corps de chaque fichier est découpé en blocs alignés sur les fins de ligne. Chaque bloc
+ * est projeté séparément puis analysé octet par octet directement dans des {@link ColumnBuilder}
+ * typés, sans jamais construire de lignes intermédiaires. Les blocs sont ensuite concaténés
+ * colonne par colonne.
+ *
+ * Plusieurs fichiers peuvent être lus ensemble (voir {@link CsvLoader#loadAll(Path)}) : leurs
+ * blocs forment une seule liste de tâches, et les colonnes sont appariées par étiquette. Une
+ * colonne absente d'un fichier y est nulle (vide pour une colonne de texte).
+ */
+final class MappedCsvReader {
+
+    /** Taille minimale d'un bloc, pour que le coût des tâches reste négligeable. */
+    static final int MIN_CHUNK_SIZE = 1 << 20;
+
+    /** Taille maximale d'un bloc : une projection doit rester adressable par un int. */
+    static final int MAX_CHUNK_SIZE = 1 << 28;
+
+    private final List<Path> paths;
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+
+    MappedCsvReader(Path path, ForkJoinPool pool, int chunkSize) {
+        this(Collections.singletonList(path), pool, chunkSize);
+    }
+
+    MappedCsvReader(List<Path> paths, ForkJoinPool pool, int chunkSize) {
+        this.paths = paths;
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+    }
+
+    DataFrame read() throws IOException {
+        // Headers and chunk boundaries: a few small reads per file, one task per file.
+        List<Shard> shards = new ArrayList<>(paths.size());
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(paths.size());
+        for (Path path : paths) {
+            Shard shard = new Shard(path);
+            shards.add(shard);
+            tasks.add(pool.submit(() -> {
+                shard.open(chunkSize);
+                return null;
+            }));
+        }
+        joinAll(tasks);
+
+        // Columns are matched by label, in order of first appearance.
+        List<String> labels = new ArrayList<>();
+        for (Shard shard : shards) {
+            shard.bind(labels);
+        }
+        List<Chunk> chunks = new ArrayList<>();
+        for (Shard shard : shards) {
+            chunks.addAll(shard.chunks);
+        }
+
+        runAll(chunks, null);
+
+        // A column that turned out to be text in any chunk must be text everywhere:
+        // re-parse the chunks that still hold it as numbers, to recover the raw cells.
+        // So must a column with rows but only empty cells, as in CsvLoader.load.
+        int columnCount = labels.size();
+        ColumnType[] finalTypes = new ColumnType[columnCount];
+        Arrays.fill(finalTypes, ColumnType.INT);
+        boolean[] hasValues = new boolean[columnCount];
+        boolean hasRows = false;
+        for (Chunk chunk : chunks) {
+            for (int c = 0; c < chunk.columns.length; c++) {
+                int target = chunk.shard.targets[c];
+                finalTypes[target] = finalTypes[target].widen(chunk.columns[c].type());
+                hasValues[target] |= chunk.columns[c].hasValues();
+            }
+            hasRows |= chunk.rows() > 0;
+        }
+        for (int c = 0; c < columnCount; c++) {
+            if (hasRows && !hasValues[c]) finalTypes[c] = ColumnType.STRING;
+        }
+        runAll(chunks, finalTypes);
+
+        List<Series<?>> series = new ArrayList<>(columnCount);
+        for (int c = 0; c < columnCount; c++) {
+            List<ColumnBuilder> parts = new ArrayList<>(chunks.size());
+            for (Chunk chunk : chunks) {
+                int source = chunk.shard.sourceOf(c);
+                parts.add(source >= 0 ? chunk.columns[source] : ColumnBuilder.missing(finalTypes[c], chunk.rows()));
+            }
+            series.add(ColumnBuilder.concat(labels.get(c), parts));
+            for (Chunk chunk : chunks) {
+                int source = chunk.shard.sourceOf(c);
+                if (source >= 0) chunk.columns[source] = null; // release the per-chunk buffers early
+            }
+        }
+        // Column statistics (and zone maps) are computed once here, one task per column.
+        List<ForkJoinTask<?>> statistics = new ArrayList<>(series.size());
+        for (Series<?> column : series) {
+            statistics.add(pool.submit(column::getStatistics));
+        }
+        for (ForkJoinTask<?> task : statistics) {
+            task.join();
+        }
+        return new DataFrame(series);
+    }
+
+    private void runAll(List<Chunk> chunks, ColumnType[] finalTypes) throws IOException {
+        List<ForkJoinTask<?>> tasks = new ArrayList<>();
+        for (Chunk chunk : chunks) {
+            ColumnType[] types = finalTypes == null ? null : chunk.shard.localTypes(finalTypes);
+            if (types == null || chunk.needsStringPass(types)) {
+                tasks.add(pool.submit(() -> {
+                    chunk.parse(types);
+                    return null;
+                }));
+            }
+        }
+        joinAll(tasks);
+    }
+
+    private static void joinAll(List<ForkJoinTask<?>> tasks) throws IOException {
+        try {
+            for (ForkJoinTask<?> task : tasks) {
+                task.join();
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Un fichier : son en-tête, la position de ses colonnes dans le résultat et ses blocs.
+     */
+    private static final class Shard {
+        private final Path path;
+        private String[] headers;
+        /** Colonne du résultat de chaque colonne du fichier. */
+        private int[] targets;
+        private final List<Chunk> chunks = new ArrayList<>();
+
+        Shard(Path path) {
+            this.path = path;
+        }
+
+        /** Lit l'en-tête et découpe le corps du fichier en blocs. */
+        void open(int chunkSize) {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                long fileSize = channel.size();
+                if (fileSize == 0) {
+                    throw new IOException("Le fichier est vide : " + path);
+                }
+                long bodyStart = findLineEnd(channel, 0, fileSize);
+                headers = readHeader(channel, bodyStart);
+                if (bodyStart < fileSize) bodyStart++; // skip '\n'
+                for (long[] range : split(channel, bodyStart, fileSize, chunkSize)) {
+                    chunks.add(new Chunk(this, range[0], range[1]));
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /** Associe chaque colonne du fichier à une colonne du résultat, ajoutée si elle est nouvelle. */
+        void bind(List<String> labels) {
+            targets = new int[headers.length];
+            boolean[] taken = new boolean[labels.size() + headers.length];
+            for (int c = 0; c < headers.length; c++) {
+                // A label repeated within one file maps to a column of its own.
+                int target = -1;
+                for (int t = 0; t < labels.size() && target < 0; t++) {
+                    if (!taken[t] && labels.get(t).equals(headers[c])) target = t;
+                }
+                if (target < 0) {
+                    target = labels.size();
+                    labels.add(headers[c]);
+                }
+                taken[target] = true;
+                targets[c] = target;
+            }
+        }
+
+        /** Position dans le fichier de la colonne {@code target} du résultat, ou -1 si elle en est absente. */
+        int sourceOf(int target) {
+            for (int c = 0; c < targets.length; c++) {
+                if (targets[c] == target) return c;
+            }
+            return -1;
+        }
+
+        /** Types finals des colonnes du fichier. */
+        ColumnType[] localTypes(ColumnType[] finalTypes) {
+            ColumnType[] types = new ColumnType[targets.length];
+            for (int c = 0; c < targets.length; c++) {
+                types[c] = finalTypes[targets[c]];
+            }
+            return types;
+        }
+    }
+
+    private static String[] readHeader(FileChannel channel, long headerEnd) throws IOException {
+        ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, headerEnd);
+        byte[] bytes = new byte[(int) headerEnd];
+        buffer.get(bytes);
+        String headerLine = new String(bytes, StandardCharsets.UTF_8);
+        if (headerLine.endsWith("\r")) {
+            headerLine = headerLine.substring(0, headerLine.length() - 1);
+        }
+        return headerLine.split(",");
+    }
+
+    /** Découpe {@code [start, end)} en blocs d'environ {@code chunkSize} octets se terminant par une fin de ligne. */
+    private static List<long[]> split(FileChannel channel, long start, long end, int chunkSize) throws IOException {
+        List<long[]> ranges = new ArrayList<>();
+        long pos = start;
+        while (pos < end) {
+            long limit = Math.min(end, pos + chunkSize);
+            long lineEnd = limit == end ? end : findLineEnd(channel, limit - 1, end);
+            long chunkEnd = Math.min(end, lineEnd + 1);
+            if (chunkEnd - pos > Integer.MAX_VALUE) {
+                throw new IOException("Ligne trop longue à l'offset " + pos);
+            }
+            ranges.add(new long[] {pos, chunkEnd});
+            pos = chunkEnd;
+        }
+        return ranges;
+    }
+
+    /** Retourne la position du premier '\n' à partir de {@code from}, ou {@code end} s'il n'y en a pas. */
+    private static long findLineEnd(FileChannel channel, long from, long end) throws IOException {
+        ByteBuffer window = ByteBuffer.allocate(8192);
+        long pos = from;
+        while (pos < end) {
+            window.clear();
+            int read = channel.read(window, pos);
+            if (read <= 0) break;
+            for (int i = 0; i < read; i++) {
+                if (window.get(i) == '\n') {
+                    return pos + i;
+                }
+            }
+            pos += read;
+        }
+        return end;
+    }
+
+    /**
+     * Un bloc de lignes complètes du fichier et les colonnes typées qui en sont extraites.
+     */
+    private static final class Chunk {
+        private final Shard shard;
+        private final long start;
+        private final long end;
+        private final ColumnBuilder[] columns;
+        private int rows;
+
+        Chunk(Shard shard, long start, long end) {
+            this.shard = shard;
+            this.start = start;
+            this.end = end;
+            this.columns = new ColumnBuilder[shard.headers.length];
+        }
+
+        /** Nombre de lignes analysées. */
+        int rows() {
+            return rows;
+        }
+
+        boolean needsStringPass(ColumnType[] finalTypes) {
+            for (int c = 0; c < columns.length; c++) {
+                if (finalTypes[c] == ColumnType.STRING && columns[c].type() != ColumnType.STRING) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Analyse le bloc. Les colonnes dont le type final est STRING sont lues comme du texte ;
+         * si une cellule non numérique apparaît dans une autre colonne, le bloc est relu une
+         * seconde fois avec cette colonne en texte.
+         */
+        void parse(ColumnType[] finalTypes) {
+            MappedByteBuffer buffer;
+            // The mapping stays valid once the channel is closed: no file is held open between passes.
+            try (FileChannel channel = FileChannel.open(shard.path, StandardOpenOption.READ)) {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            boolean[] asText = new boolean[columns.length];
+            if (finalTypes != null) {
+                for (int c = 0; c < columns.length; c++) {
+                    asText[c] = finalTypes[c] == ColumnType.STRING;
+                }
+            }
+            while (!parse(buffer, asText)) {
+                // asText was updated with the columns that must be re-read as text
+            }
+        }
+
+        private boolean parse(ByteBuffer buffer, boolean[] asText) {
+            int columnCount = columns.length;
+            int estimatedRows = Math.max(16, buffer.limit() / (columnCount * 8 + 1));
+            for (int c = 0; c < columnCount; c++) {
+                columns[c] = new ColumnBuilder(asText[c] ? ColumnType.STRING : ColumnType.INT, estimatedRows);
+            }
+
+            AsciiView view = new AsciiView(buffer);
+            CellScanner scanner = new CellScanner();
+            byte[] scratch = new byte[256];
+            boolean[] sawText = new boolean[columnCount];
+            boolean complete = true;
+
+            int pos = 0;
+            int end = buffer.limit();
+            while (pos < end) {
+                int col = 0;
+                int cellStart = pos;
+                while (true) {
+                    byte b = pos < end ? buffer.get(pos) : (byte) '\n';
+                    if (b == ',' || b == '\n') {
+                        int cellEnd = pos;
+                        if (b == '\n' && cellEnd > cellStart && buffer.get(cellEnd - 1) == '\r') {
+                            cellEnd--;
+                        }
+                        if (col < columnCount && !sawText[col]) {
+                            if (asText[col]) {
+                                if (cellEnd - cellStart > scratch.length) {
+                                    scratch = new byte[Math.max(cellEnd - cellStart, scratch.length * 2)];
+                                }
+                                buffer.get(cellStart, scratch, 0, cellEnd - cellStart);
+                                columns[col].appendString(new String(scratch, 0, cellEnd - cellStart, StandardCharsets.UTF_8));
+                            } else if (cellEnd == cellStart) {
+                                columns[col].appendNull();
+                            } else {
+                                ColumnType cellType = scanner.scan(view, cellStart, cellEnd);
+                                if (cellType == ColumnType.STRING) {
+                                    sawText[col] = true;
+                                    complete = false;
+                                } else {
+                                    columns[col].append(cellType, scanner);
+                                }
+                            }
+                        }
+                        col++;
+                        pos++;
+                        if (b == '\n') break;
+                        cellStart = pos;
+                    } else {
+                        pos++;
+                    }
+                }
+                // Short rows are padded with empty cells, like CsvLoader.load
+                for (; col < columnCount; col++) {
+                    if (sawText[col]) continue;
+                    if (asText[col]) {
+                        columns[col].appendString("");
+                    } else {
+                        columns[col].appendNull();
+                    }
+                }
+            }
+
+            if (!complete) {
+                for (int c = 0; c < columnCount; c++) {
+                    asText[c] |= sawText[c];
+                }
+            }
+            rows = columnCount > 0 ? columns[0].size() : 0;
+            return complete;
+        }
+    }
+
+    /**
+     * Vue {@link CharSequence} sur des octets ASCII, pour partager {@link CellScanner}
+     * avec le chargement à partir de chaînes. Les octets non ASCII ne sont jamais des chiffres.
+     */
+    private static final class AsciiView implements CharSequence {
+        private final ByteBuffer buffer;
+
+        AsciiView(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int length() {
+            return buffer.limit();
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) (buffer.get(index) & 0xFF);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            byte[] bytes = new byte[end - start];
+            buffer.get(start, bytes);
+            return new String(bytes, StandardCharsets.US_ASCII);
+        }
+    }
+}
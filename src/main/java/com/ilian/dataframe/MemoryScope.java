@@ -0,0 +1,25 @@
+package com.ilian.dataframe;
+
+/**
+ * Durée de vie d'une mémoire hors du tas lue par plusieurs séries. Une fois la portée fermée,
+ * toute lecture lève une {@link IllegalStateException} au lieu d'accéder à la mémoire libérée.
+ */
+final class MemoryScope {
+    private volatile boolean closed;
+
+    /**
+     * Vérifie que la mémoire peut encore être lue.
+     *
+     * @throws IllegalStateException si la mémoire a été libérée.
+     */
+    void check() {
+        if (closed) {
+            throw new IllegalStateException("Off-heap memory already released");
+        }
+    }
+
+    /** Interdit toute lecture ultérieure. */
+    void close() {
+        closed = true;
+    }
+}
@@ -0,0 +1,37 @@
+package com.ilian.dataframe;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Mémoire hors du tas Java, allouée par blocs et libérée d'un coup.
+ *
+ * Deux implémentations existent : {@link DirectMemory}, à base de {@link ByteBuffer} directs,
+ * toujours disponible, et une version à base de {@code MemorySegment} (API FFM), compilée avec
+ * le profil Maven {@code ffm} (JDK 22 ou plus) et utilisée si le JDK d'exécution la supporte.
+ * La propriété système {@code dataframe.offheap=direct} force les {@link ByteBuffer} directs.
+ */
+interface NativeMemory {
+
+    /**
+     * Alloue un bloc de {@code bytes} octets, dans l'ordre d'octets natif.
+     *
+     * @throws IllegalStateException si la mémoire a été libérée.
+     */
+    ByteBuffer allocate(int bytes);
+
+    /** Libère tous les blocs alloués. */
+    void close();
+
+    /** Crée un espace mémoire avec la meilleure implémentation disponible. */
+    static NativeMemory open() {
+        if (!"direct".equals(System.getProperty("dataframe.offheap")) && Runtime.version().feature() >= 22) {
+            try {
+                return (NativeMemory) Class.forName("com.ilian.dataframe.SegmentMemory")
+                        .getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                // Built without the ffm profile: fall back to direct buffers.
+            }
+        }
+        return new DirectMemory();
+    }
+}
@@ -0,0 +1,64 @@
+package com.ilian.dataframe;
+
+/**
+ * Noyaux de calcul sur des plages contiguës de tableaux primitifs : agrégats et filtres
+ * d'intervalle.
+ *
+ * Deux implémentations existent : {@link ScalarKernels}, toujours disponible, et une version
+ * utilisant l'API Vector du JDK ({@code jdk.incubator.vector}), compilée uniquement avec le
+ * profil Maven {@code vector} et utilisée si le module est activé au lancement
+ * ({@code --add-modules jdk.incubator.vector}). La propriété système
+ * {@code dataframe.kernels=scalar} force la version scalaire.
+ *
+ * Pour les minimums et maximums de flottants, les NaN sont ignorés ; le résultat est
+ * {@code +Infinity} (resp. {@code -Infinity}) si la plage ne contient aucune autre valeur.
+ */
+interface NumericKernels {
+
+    /** Implémentation retenue pour ce processus. */
+    NumericKernels INSTANCE = load();
+
+    long sum(int[] a, int from, int to);
+
+    int min(int[] a, int from, int to);
+
+    int max(int[] a, int from, int to);
+
+    /** Somme des carrés des écarts à {@code mean}. */
+    double squaredDeviations(int[] a, int from, int to, double mean);
+
+    /**
+     * Écrit le bitmap des valeurs de {@code a[start, start + rows)} comprises dans {@code [lo, hi]},
+     * à partir du mot {@code firstWord} de {@code out}.
+     */
+    void selectRange(int[] a, int start, int rows, int lo, int hi, long[] out, int firstWord);
+
+    double sum(double[] a, int from, int to);
+
+    double min(double[] a, int from, int to);
+
+    double max(double[] a, int from, int to);
+
+    /** Somme des carrés des écarts à {@code mean}. */
+    double squaredDeviations(double[] a, int from, int to, double mean);
+
+    /**
+     * Écrit le bitmap des valeurs de {@code a[start, start + rows)} comprises dans l'intervalle,
+     * à partir du mot {@code firstWord} de {@code out}. Les NaN ne sont jamais retenus.
+     */
+    void selectRange(double[] a, int start, int rows, double lo, boolean loInclusive,
+                     double hi, boolean hiInclusive, long[] out, int firstWord);
+
+    private static NumericKernels load() {
+        if (!"scalar".equals(System.getProperty("dataframe.kernels"))
+                && ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                return (NumericKernels) Class.forName("com.ilian.dataframe.VectorKernels")
+                        .getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                // Built without the vector profile: fall back to scalar loops.
+            }
+        }
+        return new ScalarKernels();
+    }
+}
@@ -0,0 +1,304 @@
+package com.ilian.dataframe;
+
+import java.util.Arrays;
+
+/**
+ * Série numérique stockée dans un tableau primitif.
+ *
+ * Les sous-classes exposent des accesseurs typés ({@code getInt}, {@code getLong},
+ * {@code getDouble}) ainsi que des agrégats calculés directement sur le tableau,
+ * sans passer par des objets {@link Number}.
+ *
+ * Une série peut contenir des valeurs nulles, décrites par un bitmap de validité (un bit par
+ * position du stockage, à 1 si la valeur est présente). Les accesseurs typés retournent alors
+ * une valeur sans signification pour les lignes nulles ; {@link #isNull(int)} permet de les
+ * distinguer. Les agrégats, statistiques et filtres ignorent les lignes nulles en parcourant
+ * le bitmap mot par mot.
+ *
+ * @param <T> Le type "boxé" correspondant (Integer, Long ou Double).
+ */
+public abstract class NumericSeries<T extends Number> extends Series<T> {
+
+    /** Bitmap de validité indexé par position du stockage, ou null si aucune valeur n'est nulle. */
+    final long[] validity;
+
+    /**
+     * Construit une série numérique avec l'étiquette et l'adressage donnés.
+     *
+     * @param label    Le nom (ou étiquette) de la série.
+     * @param offset   Le début de la fenêtre visible.
+     * @param length   Le nombre de valeurs visibles.
+     * @param index    Le vecteur de sélection, ou null pour une fenêtre contiguë.
+     * @param validity Le bitmap de validité du stockage, ou null si aucune valeur n'est nulle.
+     */
+    protected NumericSeries(String label, int offset, int length, int[] index, long[] validity) {
+        super(label, offset, length, index);
+        this.validity = validity;
+    }
+
+    @Override
+    public boolean isNull(int index) {
+        return !isValidAt(physical(index));
+    }
+
+    /**
+     * Indique si la valeur à une position du stockage est présente.
+     *
+     * @param p La position dans le stockage.
+     * @return true si la valeur n'est pas nulle.
+     */
+    protected final boolean isValidAt(int p) {
+        return validity == null || (validity[p >>> 6] & (1L << p)) != 0;
+    }
+
+    /**
+     * Retourne les bits de validité des lignes {@code [base, base + 64)} de la série
+     * (bit {@code j} pour la ligne {@code base + j}), à zéro au-delà de la fin.
+     */
+    final long validBits(int base) {
+        int n = Math.min(64, length - base);
+        long mask = n == 64 ? -1L : (1L << n) - 1;
+        if (validity == null) {
+            return mask;
+        }
+        if (index == null) {
+            int p = offset + base;
+            int w = p >>> 6;
+            int shift = p & 63;
+            long bits = validity[w] >>> shift;
+            if (shift != 0 && w + 1 < validity.length) {
+                bits |= validity[w + 1] << (64 - shift);
+            }
+            return bits & mask;
+        }
+        long bits = 0;
+        for (int j = 0; j < n; j++) {
+            int p = index[offset + base + j];
+            bits |= ((validity[p >>> 6] >>> p) & 1L) << j;
+        }
+        return bits;
+    }
+
+    /** Nombre de valeurs non nulles parmi les lignes {@code [from, to)}, {@code from} multiple de 64. */
+    final int validCount(int from, int to) {
+        if (validity == null) {
+            return to - from;
+        }
+        int count = 0;
+        for (int base = from; base < to; base += 64) {
+            count += Long.bitCount(validBits(base) & rangeMask(to - base));
+        }
+        return count;
+    }
+
+    /**
+     * Retourne le bitmap de validité des lignes visibles, compacté pour une copie de la série,
+     * ou null si aucune valeur n'est nulle.
+     */
+    final long[] materializeValidity() {
+        if (validity == null) {
+            return null;
+        }
+        long[] compact = new long[Bitmaps.words(length)];
+        for (int w = 0; w < compact.length; w++) {
+            compact[w] = validBits(w << 6);
+        }
+        return compact;
+    }
+
+    /** Met à zéro, dans un tableau indexé par ligne, les entrées des lignes nulles. */
+    final void zeroNulls(long[] perRow) {
+        if (validity == null) return;
+        for (int base = 0; base < length; base += 64) {
+            for (long nulls = ~validBits(base) & rangeMask(length - base); nulls != 0; nulls &= nulls - 1) {
+                perRow[base + Long.numberOfTrailingZeros(nulls)] = 0;
+            }
+        }
+    }
+
+    private static long rangeMask(int remaining) {
+        return remaining >= 64 ? -1L : (1L << remaining) - 1;
+    }
+
+    /**
+     * Retourne la valeur à l'index donné convertie en {@code double}.
+     *
+     * @param index L’index de la valeur.
+     * @return La valeur sous forme de double.
+     */
+    public abstract double getDouble(int index);
+
+    /**
+     * Calcule la somme des valeurs de la série.
+     *
+     * @return La somme des valeurs.
+     */
+    public abstract double sum();
+
+    /**
+     * Retourne la plus petite valeur de la série.
+     *
+     * @return Le minimum, ou {@code NaN} si la série est vide.
+     */
+    public abstract double min();
+
+    /**
+     * Retourne la plus grande valeur de la série.
+     *
+     * @return Le maximum, ou {@code NaN} si la série est vide.
+     */
+    public abstract double max();
+
+    @Override
+    protected ColumnStatistics computeStatistics() {
+        return ColumnStatistics.of(this);
+    }
+
+    /** Somme des valeurs non nulles des lignes {@code [from, to)}, {@code from} multiple de 64. */
+    double sum(int from, int to) {
+        double sum = 0;
+        if (validity == null) {
+            for (int i = from; i < to; i++) sum += getDouble(i);
+            return sum;
+        }
+        for (int base = from; base < to; base += 64) {
+            for (long bits = validBits(base) & rangeMask(to - base); bits != 0; bits &= bits - 1) {
+                sum += getDouble(base + Long.numberOfTrailingZeros(bits));
+            }
+        }
+        return sum;
+    }
+
+    /** Minimum des lignes {@code [from, to)}, nulls et NaN ignorés ({@code +Infinity} si aucune valeur). */
+    double min(int from, int to) {
+        double min = Double.POSITIVE_INFINITY;
+        for (int base = from; base < to; base += 64) {
+            for (long bits = validBits(base) & rangeMask(to - base); bits != 0; bits &= bits - 1) {
+                double v = getDouble(base + Long.numberOfTrailingZeros(bits));
+                if (v < min) min = v;
+            }
+        }
+        return min;
+    }
+
+    /** Maximum des lignes {@code [from, to)}, nulls et NaN ignorés ({@code -Infinity} si aucune valeur). */
+    double max(int from, int to) {
+        double max = Double.NEGATIVE_INFINITY;
+        for (int base = from; base < to; base += 64) {
+            for (long bits = validBits(base) & rangeMask(to - base); bits != 0; bits &= bits - 1) {
+                double v = getDouble(base + Long.numberOfTrailingZeros(bits));
+                if (v > max) max = v;
+            }
+        }
+        return max;
+    }
+
+    /** Somme des carrés des écarts à {@code mean} sur les valeurs non nulles des lignes {@code [from, to)}. */
+    double squaredDeviations(int from, int to, double mean) {
+        double m2 = 0;
+        for (int base = from; base < to; base += 64) {
+            for (long bits = validBits(base) & rangeMask(to - base); bits != 0; bits &= bits - 1) {
+                double d = getDouble(base + Long.numberOfTrailingZeros(bits)) - mean;
+                m2 += d * d;
+            }
+        }
+        return m2;
+    }
+
+    /**
+     * Écrit dans {@code out} le bitmap des lignes dont la valeur est comprise dans l'intervalle
+     * donné. Les valeurs NaN et les valeurs nulles ne sont jamais retenues.
+     *
+     * Si les statistiques de la série sont déjà calculées, les blocs que leurs bornes
+     * ({@link ZoneMap}) excluent sont mis à zéro et ceux qu'elles incluent entièrement à un,
+     * sans lire les valeurs.
+     *
+     * @param lo          La borne inférieure (éventuellement {@code -Infinity}).
+     * @param loInclusive Si la borne inférieure est incluse.
+     * @param hi          La borne supérieure (éventuellement {@code +Infinity}).
+     * @param hiInclusive Si la borne supérieure est incluse.
+     * @param out         Le bitmap de sortie, de {@link Bitmaps#words(int)} mots.
+     */
+    final void selectRange(double lo, boolean loInclusive, double hi, boolean hiInclusive, long[] out) {
+        ColumnStatistics stats = cachedStatistics();
+        ZoneMap zones = stats == null ? null : stats.zones;
+        if (zones == null) {
+            selectRange(lo, loInclusive, hi, hiInclusive, out, 0, length);
+            excludeNulls(out);
+            return;
+        }
+        for (int b = 0; b < zones.blocks(); b++) {
+            int from = b * ZoneMap.BLOCK_SIZE;
+            int to = Math.min(length, from + ZoneMap.BLOCK_SIZE);
+            if (!zones.mayMatch(b, lo, loInclusive, hi, hiInclusive)) {
+                Arrays.fill(out, from >>> 6, Bitmaps.words(to), 0L);
+            } else if (zones.allMatch(b, lo, loInclusive, hi, hiInclusive)) {
+                Arrays.fill(out, from >>> 6, Bitmaps.words(to), -1L);
+            } else {
+                selectRange(lo, loInclusive, hi, hiInclusive, out, from, to);
+            }
+        }
+        Bitmaps.clearTail(out, length);
+        excludeNulls(out);
+    }
+
+    /** Retire les lignes nulles d'un bitmap de lignes, mot par mot. */
+    final void excludeNulls(long[] rows) {
+        if (validity == null) return;
+        for (int w = 0; w < rows.length; w++) {
+            rows[w] &= validBits(w << 6);
+        }
+    }
+
+    /**
+     * Noyau de {@link #selectRange(double, boolean, double, boolean, long[])} sur les lignes
+     * {@code [from, to)}, {@code from} étant un multiple de 64 ; seuls les mots correspondants
+     * de {@code out} sont écrits.
+     */
+    abstract void selectRange(double lo, boolean loInclusive, double hi, boolean hiInclusive, long[] out, int from, int to);
+
+    /** Plus petit entier satisfaisant la borne inférieure. */
+    static long lowerBound(double lo, boolean inclusive) {
+        double c = Math.ceil(lo);
+        if (!inclusive && c == lo) c += 1;
+        return (long) c;
+    }
+
+    /** Plus grand entier satisfaisant la borne supérieure. */
+    static long upperBound(double hi, boolean inclusive) {
+        double f = Math.floor(hi);
+        if (!inclusive && f == hi) f -= 1;
+        return (long) f;
+    }
+
+    /**
+     * Retourne la série sous forme numérique : telle quelle si elle est déjà primitive,
+     * sinon convertie en {@link DoubleSeries} (cas d'une série d'objets {@link Number}, les
+     * valeurs null devenant des valeurs nulles).
+     *
+     * @throws IllegalArgumentException si une valeur non nulle de la série n'est pas un nombre.
+     */
+    static NumericSeries<?> asNumeric(Series<?> series) {
+        if (series instanceof NumericSeries) {
+            return (NumericSeries<?>) series;
+        }
+        double[] values = new double[series.size()];
+        long[] validity = null;
+        for (int i = 0; i < values.length; i++) {
+            Object v = series.get(i);
+            if (v == null) {
+                if (validity == null) {
+                    validity = new long[Bitmaps.words(values.length)];
+                    Arrays.fill(validity, -1L);
+                    Bitmaps.clearTail(validity, values.length);
+                }
+                validity[i >>> 6] &= ~(1L << i);
+            } else if (v instanceof Number) {
+                values[i] = ((Number) v).doubleValue();
+            } else {
+                throw new IllegalArgumentException("Column " + series.getLabel() + " is not numeric");
+            }
+        }
+        return new DoubleSeries(series.getLabel(), values, validity);
+    }
+}
@@ -0,0 +1,134 @@
+package com.ilian.dataframe;
+
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+
+/**
+ * Espace de stockage hors du tas Java pour les colonnes d'un ou plusieurs {@link DataFrame}.
+ *
+ * Les colonnes numériques ({@link IntSeries}, {@link LongSeries}, {@link DoubleSeries}) et les
+ * codes des {@link DictionarySeries} copiés dans l'arène sont stockés dans de la mémoire native :
+ * ils ne pèsent plus sur le ramasse-miettes. Les autres colonnes, les dictionnaires et les
+ * bitmaps de validité restent sur le tas. Toutes les opérations du DataFrame fonctionnent
+ * de la même façon sur ces colonnes.
+ *
+ * {@link #close()} libère toute la mémoire de l'arène d'un coup et immédiatement : une lecture
+ * ultérieure d'une série copiée dans l'arène (ou d'une vue sur elle) lève une
+ * {@link IllegalStateException}, et l'arène fermée refuse toute copie. Sur un JDK 22 ou plus
+ * (profil Maven {@code ffm}), la mémoire est allouée dans une arène FFM partagée ; sinon, des
+ * {@link ByteBuffer} directs sont utilisés, et l'arène ne doit alors pas être fermée pendant
+ * qu'un autre thread lit encore ses séries.
+ *
+ * <pre>{@code
+ * try (OffHeapArena arena = OffHeapArena.open()) {
+ *     DataFrame df = CsvLoader.load("data.csv").offHeap(arena);
+ *     ...
+ * }
+ * }</pre>
+ */
+public final class OffHeapArena implements AutoCloseable {
+    private final NativeMemory memory;
+    private final MemoryScope scope = new MemoryScope();
+    private long allocatedBytes;
+    private boolean closed;
+
+    private OffHeapArena(NativeMemory memory) {
+        this.memory = memory;
+    }
+
+    /**
+     * Ouvre une nouvelle arène.
+     *
+     * @return L'arène, à fermer après usage.
+     */
+    public static OffHeapArena open() {
+        return new OffHeapArena(NativeMemory.open());
+    }
+
+    /**
+     * Copie une série dans l'arène. Une vue est copiée sous forme compacte ; les statistiques
+     * déjà calculées sont conservées. Les séries qui ne sont ni numériques ni encodées par
+     * dictionnaire sont retournées telles quelles.
+     *
+     * @param series La série à copier.
+     * @return La copie hors du tas, ou la série elle-même.
+     * @throws IllegalStateException si l'arène est fermée.
+     * @throws IllegalArgumentException si la colonne dépasse 2 Go.
+     */
+    Series<?> copy(Series<?> series) {
+        int n = series.size();
+        Series<?> copy;
+        if (series instanceof IntSeries) {
+            IntSeries ints = (IntSeries) series;
+            IntBuffer buffer = allocate(4L * n).asIntBuffer();
+            for (int i = 0; i < n; i++) buffer.put(i, ints.getInt(i));
+            copy = new IntSeries(series.getLabel(), buffer, ints.materializeValidity(), scope);
+        } else if (series instanceof LongSeries) {
+            LongSeries longs = (LongSeries) series;
+            LongBuffer buffer = allocate(8L * n).asLongBuffer();
+            for (int i = 0; i < n; i++) buffer.put(i, longs.getLong(i));
+            copy = new LongSeries(series.getLabel(), buffer, longs.materializeValidity(), scope);
+        } else if (series instanceof DoubleSeries) {
+            DoubleSeries doubles = (DoubleSeries) series;
+            DoubleBuffer buffer = allocate(8L * n).asDoubleBuffer();
+            for (int i = 0; i < n; i++) buffer.put(i, doubles.getDouble(i));
+            copy = new DoubleSeries(series.getLabel(), buffer, doubles.materializeValidity(), scope);
+        } else if (series instanceof DictionarySeries) {
+            DictionarySeries encoded = (DictionarySeries) series;
+            IntBuffer buffer = allocate(4L * n).asIntBuffer();
+            for (int i = 0; i < n; i++) buffer.put(i, encoded.getCode(i));
+            String[] dictionary = new String[encoded.getDictionarySize()];
+            for (int code = 0; code < dictionary.length; code++) {
+                dictionary[code] = encoded.getDictionaryValue(code);
+            }
+            copy = new DictionarySeries(series.getLabel(), buffer, dictionary, scope);
+        } else {
+            return series;
+        }
+        copy.adoptStatistics(series);
+        return copy;
+    }
+
+    /**
+     * Retourne le nombre d'octets alloués hors du tas par cette arène.
+     *
+     * @return Le nombre d'octets alloués.
+     */
+    public synchronized long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /**
+     * Indique si l'arène a été fermée.
+     *
+     * @return true si la mémoire a été libérée.
+     */
+    public synchronized boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Ferme l'arène et libère immédiatement sa mémoire ; les séries copiées dans l'arène ne
+     * peuvent plus être lues. Sans effet si elle est déjà fermée.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) return;
+        closed = true;
+        scope.close();
+        memory.close();
+    }
+
+    private synchronized ByteBuffer allocate(long bytes) {
+        if (closed) {
+            throw new IllegalStateException("Arena is closed");
+        }
+        if (bytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Column too large for off-heap storage: " + bytes + " bytes");
+        }
+        allocatedBytes += bytes;
+        return memory.allocate((int) bytes);
+    }
+}
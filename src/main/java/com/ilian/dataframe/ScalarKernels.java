@@ -0,0 +1,97 @@
+package com.ilian.dataframe;
+
+/**
+ * Noyaux scalaires : boucles simples sur les tableaux, sans branche dans les filtres.
+ */
+final class ScalarKernels implements NumericKernels {
+
+    @Override
+    public long sum(int[] a, int from, int to) {
+        long sum = 0;
+        for (int i = from; i < to; i++) sum += a[i];
+        return sum;
+    }
+
+    @Override
+    public int min(int[] a, int from, int to) {
+        int min = Integer.MAX_VALUE;
+        for (int i = from; i < to; i++) min = Math.min(min, a[i]);
+        return min;
+    }
+
+    @Override
+    public int max(int[] a, int from, int to) {
+        int max = Integer.MIN_VALUE;
+        for (int i = from; i < to; i++) max = Math.max(max, a[i]);
+        return max;
+    }
+
+    @Override
+    public double squaredDeviations(int[] a, int from, int to, double mean) {
+        double m2 = 0;
+        for (int i = from; i < to; i++) {
+            double d = a[i] - mean;
+            m2 += d * d;
+        }
+        return m2;
+    }
+
+    @Override
+    public void selectRange(int[] a, int start, int rows, int lo, int hi, long[] out, int firstWord) {
+        for (int base = 0, w = firstWord; base < rows; base += 64, w++) {
+            int n = Math.min(64, rows - base);
+            long bits = 0;
+            for (int j = 0; j < n; j++) {
+                int v = a[start + base + j];
+                bits |= ((v >= lo) & (v <= hi) ? 1L : 0L) << j;
+            }
+            out[w] = bits;
+        }
+    }
+
+    @Override
+    public double sum(double[] a, int from, int to) {
+        double sum = 0;
+        for (int i = from; i < to; i++) sum += a[i];
+        return sum;
+    }
+
+    @Override
+    public double min(double[] a, int from, int to) {
+        double min = Double.POSITIVE_INFINITY;
+        for (int i = from; i < to; i++) if (a[i] < min) min = a[i];
+        return min;
+    }
+
+    @Override
+    public double max(double[] a, int from, int to) {
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = from; i < to; i++) if (a[i] > max) max = a[i];
+        return max;
+    }
+
+    @Override
+    public double squaredDeviations(double[] a, int from, int to, double mean) {
+        double m2 = 0;
+        for (int i = from; i < to; i++) {
+            double d = a[i] - mean;
+            m2 += d * d;
+        }
+        return m2;
+    }
+
+    @Override
+    public void selectRange(double[] a, int start, int rows, double lo, boolean loInclusive,
+                            double hi, boolean hiInclusive, long[] out, int firstWord) {
+        for (int base = 0, w = firstWord; base < rows; base += 64, w++) {
+            int n = Math.min(64, rows - base);
+            long bits = 0;
+            for (int j = 0; j < n; j++) {
+                double v = a[start + base + j];
+                boolean match = (loInclusive ? v >= lo : v > lo) & (hiInclusive ? v <= hi : v < hi);
+                bits |= (match ? 1L : 0L) << j;
+            }
+            out[w] = bits;
+        }
+    }
+}
@@ -1,16 +1,43 @@
 package com.ilian.dataframe;
 
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * Représente une série de données étiquetée, contenant une liste de valeurs d'un même type.
  *
+ * Cette classe stocke ses valeurs sous forme d'objets. Les colonnes numériques chargées
+ * depuis un CSV utilisent plutôt les sous-classes spécialisées ({@link IntSeries},
+ * {@link LongSeries}, {@link DoubleSeries}) qui reposent sur des tableaux primitifs.
+ *
+ * Une série peut être une vue sur le stockage d'une autre série : une fenêtre
+ * (décalage + longueur) ou un vecteur de sélection (tableau d'index). Les vues sont
+ * produites par {@link #slice(int, int)} et {@link #take(int[])} sans copier les valeurs ;
+ * {@link #materialize()} en produit une copie compacte.
+ *
  * @param <T> Le type des valeurs contenues dans la série (ex. Integer, String, etc.)
  */
 public class Series<T> {
     private String label;
     private List<T> values;
 
+    /** Début de la fenêtre, dans le stockage ou dans {@link #index} s'il est présent. */
+    protected final int offset;
+
+    /** Nombre de valeurs visibles dans la série. */
+    protected final int length;
+
+    /** Vecteur de sélection vers le stockage, ou null pour une fenêtre contiguë. */
+    protected final int[] index;
+
+    private volatile ColumnStatistics statistics;
+    private volatile HashIndex hashIndex;
+    private volatile SortedIndex sortedIndex;
+
     /**
      * Construit une nouvelle série avec un label et une liste de valeurs.
      *
@@ -18,8 +45,27 @@ public class Series<T> {
      * @param values La liste des valeurs associées à cette série.
      */
     public Series(String label, List<T> values) {
+        this(label, values, 0, values.size(), null);
+    }
+
+    private Series(String label, List<T> values, int offset, int length, int[] index) {
         this.label = label;
         this.values = values;
+        this.offset = offset;
+        this.length = length;
+        this.index = index;
+    }
+
+    /**
+     * Constructeur réservé aux sous-classes qui gèrent leur propre stockage.
+     *
+     * @param label  Le nom (ou étiquette) de la série.
+     * @param offset Le début de la fenêtre visible.
+     * @param length Le nombre de valeurs visibles.
+     * @param index  Le vecteur de sélection, ou null pour une fenêtre contiguë.
+     */
+    protected Series(String label, int offset, int length, int[] index) {
+        this(label, null, offset, length, index);
     }
 
     /**
@@ -33,11 +79,25 @@ public class Series<T> {
 
     /**
      * Retourne la liste des valeurs de la série.
+     * Pour une vue ou une série primitive, il s'agit d'une liste en lecture seule adossée au stockage.
      *
      * @return La liste des valeurs.
      */
     public List<T> getValues() {
-        return values;
+        if (values != null && index == null && offset == 0 && length == values.size()) {
+            return values;
+        }
+        return new AbstractList<T>() {
+            @Override
+            public T get(int i) {
+                return Series.this.get(i);
+            }
+
+            @Override
+            public int size() {
+                return length;
+            }
+        };
     }
 
     /**
@@ -46,7 +106,7 @@ public class Series<T> {
      * @return Le nombre de valeurs dans la série.
      */
     public int size() {
-        return values.size();
+        return length;
     }
 
     /**
@@ -56,7 +116,231 @@ public class Series<T> {
      * @return La valeur à l’index spécifié.
      */
     public T get(int index) {
-        return values.get(index);
+        return values.get(physical(index));
+    }
+
+    /**
+     * Indique si la valeur à un index donné est nulle.
+     *
+     * @param index L’index de la valeur.
+     * @return true si la valeur est nulle.
+     */
+    public boolean isNull(int index) {
+        return get(index) == null;
+    }
+
+    /**
+     * Convertit un index de la série en position dans le stockage sous-jacent.
+     *
+     * @param i L'index dans la série.
+     * @return La position correspondante dans le stockage.
+     * @throws IndexOutOfBoundsException si l'index est hors de la série.
+     */
+    protected final int physical(int i) {
+        Objects.checkIndex(i, length);
+        return index == null ? offset + i : index[offset + i];
+    }
+
+    /**
+     * Indique si la série est une vue contiguë (sans vecteur de sélection) sur son stockage.
+     *
+     * @return true si les valeurs visibles sont contiguës dans le stockage.
+     */
+    protected final boolean isContiguous() {
+        return index == null;
+    }
+
+    /**
+     * Ajoute la représentation textuelle de la valeur à l'index donné au buffer fourni.
+     * Les sous-classes primitives redéfinissent cette méthode pour éviter le boxing.
+     *
+     * @param sb    Le buffer de destination.
+     * @param index L’index de la valeur à écrire.
+     */
+    public void appendValue(StringBuilder sb, int index) {
+        sb.append(get(index));
+    }
+
+    /**
+     * Écrit la valeur à l'index donné dans un {@link TableWriter}. Les sous-classes primitives
+     * la formatent directement, sans la convertir en objet.
+     *
+     * @param out   L'écrivain.
+     * @param index L'index de la valeur.
+     * @throws IOException en cas d'erreur d'écriture.
+     */
+    void writeValue(TableWriter out, int index) throws IOException {
+        Object v = get(index);
+        out.writeText(v == null ? null : v.toString());
+    }
+
+    /**
+     * Retourne une vue sur les valeurs comprises entre {@code fromIndex} (inclus) et
+     * {@code toIndex} (exclus). Aucune valeur n'est copiée.
+     *
+     * @param fromIndex L’index de début (inclus).
+     * @param toIndex   L’index de fin (exclu).
+     * @return Une série partageant le stockage de celle-ci.
+     * @throws IndexOutOfBoundsException si les index sont hors de la série ou mal ordonnés.
+     */
+    public Series<T> slice(int fromIndex, int toIndex) {
+        Objects.checkFromToIndex(fromIndex, toIndex, length);
+        return view(offset + fromIndex, toIndex - fromIndex, index);
+    }
+
+    /**
+     * Retourne une vue sur les valeurs situées aux index donnés, dans l'ordre donné.
+     * Seul le vecteur de sélection est alloué ; les valeurs ne sont pas copiées.
+     *
+     * @param rows Les index des valeurs à sélectionner (les doublons sont autorisés).
+     * @return Une série partageant le stockage de celle-ci.
+     * @throws IndexOutOfBoundsException si un index est hors de la série.
+     */
+    public Series<T> take(int[] rows) {
+        return withSelection(toPhysical(rows));
+    }
+
+    /**
+     * Copie les valeurs aux index donnés, avec null pour l'index -1 (voir
+     * {@link Join#gatherNullable(Series, int[])}). Les valeurs sont lues par position dans la
+     * liste d'origine ; une {@link DictionarySeries} ne copie que ses codes.
+     *
+     * @param rows Les index des valeurs, ou -1.
+     * @return Une nouvelle série de même type.
+     */
+    Series<T> takeNullable(int[] rows) {
+        @SuppressWarnings("unchecked")
+        T[] gathered = (T[]) new Object[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            if (rows[i] >= 0) gathered[i] = values.get(physical(rows[i]));
+        }
+        return new Series<>(label, Arrays.asList(gathered));
+    }
+
+    /**
+     * Traduit des index de la série en positions dans le stockage.
+     *
+     * @param rows Les index dans la série.
+     * @return Un nouveau tableau de positions dans le stockage.
+     */
+    final int[] toPhysical(int[] rows) {
+        int[] selection = new int[rows.length];
+        for (int k = 0; k < rows.length; k++) {
+            selection[k] = physical(rows[k]);
+        }
+        return selection;
+    }
+
+    /**
+     * Retourne une vue sur ce stockage selon un vecteur de sélection déjà traduit
+     * par {@link #toPhysical(int[])}, ce qui permet de le partager entre colonnes.
+     */
+    final Series<T> withSelection(int[] selection) {
+        return view(0, selection.length, selection);
+    }
+
+    /**
+     * Indique si cette série et l'autre désignent les mêmes positions de leurs stockages
+     * respectifs, auquel cas un même vecteur de sélection s'applique aux deux.
+     */
+    final boolean sameAddressing(Series<?> other) {
+        return offset == other.offset && length == other.length && index == other.index;
+    }
+
+    /**
+     * Retourne une vue de cette série sous une autre étiquette. Aucune valeur n'est copiée.
+     *
+     * @param newLabel La nouvelle étiquette.
+     * @return Une série de même type partageant le stockage de celle-ci.
+     */
+    public Series<T> rename(String newLabel) {
+        Series<T> renamed = view(offset, length, index);
+        renamed.label = newLabel;
+        renamed.statistics = statistics;
+        renamed.hashIndex = hashIndex;
+        renamed.sortedIndex = sortedIndex;
+        return renamed;
+    }
+
+    /**
+     * Crée une vue de même type sur le stockage de cette série. Les sous-classes
+     * qui gèrent leur propre stockage doivent redéfinir cette méthode.
+     *
+     * @param offset Le début de la fenêtre.
+     * @param length Le nombre de valeurs visibles.
+     * @param index  Le vecteur de sélection, ou null.
+     * @return La vue.
+     */
+    protected Series<T> view(int offset, int length, int[] index) {
+        return new Series<>(label, values, offset, length, index);
+    }
+
+    /**
+     * Retourne une copie compacte de la série, indépendante du stockage d'origine.
+     *
+     * @return Une nouvelle série contenant exactement les valeurs visibles.
+     */
+    public Series<T> materialize() {
+        return new Series<>(label, new ArrayList<>(getValues()));
+    }
+
+    /**
+     * Retourne les statistiques de la série. Elles sont calculées au premier appel (ou dès le
+     * chargement pour une série lue par {@link CsvLoader}) puis conservées : les valeurs d'une
+     * série ne doivent donc pas être modifiées après sa création. Une vue a ses propres statistiques.
+     *
+     * @return Les statistiques de la série.
+     */
+    public ColumnStatistics getStatistics() {
+        ColumnStatistics result = statistics;
+        if (result == null) {
+            result = computeStatistics();
+            statistics = result;
+        }
+        return result;
+    }
+
+    /**
+     * Retourne les statistiques si elles ont déjà été calculées, sans les calculer.
+     */
+    final ColumnStatistics cachedStatistics() {
+        return statistics;
+    }
+
+    /** Index par hachage de cette série, ou null. */
+    final HashIndex hashIndex() {
+        return hashIndex;
+    }
+
+    /** Index trié de cette série, ou null. */
+    final SortedIndex sortedIndex() {
+        return sortedIndex;
+    }
+
+    /** Attache un index à cette série, en remplaçant celui de même type. */
+    final void setIndex(ColumnIndex index) {
+        if (index instanceof HashIndex) {
+            hashIndex = (HashIndex) index;
+        } else {
+            sortedIndex = (SortedIndex) index;
+        }
+    }
+
+    /**
+     * Reprend les statistiques déjà calculées d'une série de mêmes valeurs (copie).
+     */
+    final void adoptStatistics(Series<?> source) {
+        statistics = source.statistics;
+    }
+
+    /**
+     * Calcule les statistiques de la série en un parcours. Les sous-classes à stockage
+     * primitif redéfinissent cette méthode.
+     *
+     * @return Les statistiques.
+     */
+    protected ColumnStatistics computeStatistics() {
+        return ColumnStatistics.ofObjects(this);
     }
 
     /**
@@ -64,8 +348,11 @@ public class Series<T> {
      */
     public void print() {
         System.out.println("Series: " + label);
-        for (T value : values) {
-            System.out.println(value);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < size(); i++) {
+            sb.setLength(0);
+            appendValue(sb, i);
+            System.out.println(sb);
         }
     }
 }
@@ -0,0 +1,416 @@
+package com.ilian.dataframe;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * Format binaire colonnaire d'un {@link DataFrame} (« instantané »).
+ *
+ * Le fichier commence par un en-tête : signature, taille et date de modification du CSV source
+ * (0 s'il n'y en a pas), nombre de lignes et schéma (type et étiquette de chaque colonne).
+ * Suivent les colonnes, chacune dans un bloc contigu aligné sur 8 octets et en petit-boutiste :
+ * <ul>
+ *   <li>entiers, longs, flottants : le bitmap de validité s'il y a des valeurs nulles, puis les valeurs brutes ;</li>
+ *   <li>dictionnaire : le nombre d'entrées, les entrées (bloc texte) puis un code {@code int} par ligne ;</li>
+ *   <li>texte : {@code n + 1} positions de fin ({@code long}), le bitmap de présence puis les octets UTF-8.</li>
+ * </ul>
+ *
+ * La lecture projette les blocs en mémoire : les colonnes numériques et les codes de dictionnaire
+ * sont exposés directement sur la projection, le texte est décodé à la demande. Seuls les
+ * dictionnaires sont décodés à l'ouverture.
+ */
+final class Snapshot {
+
+    private static final byte[] MAGIC = {'D', 'F', 'S', 'N', 'A', 'P', 0, 2};
+
+    private static final byte INT = 0;
+    private static final byte LONG = 1;
+    private static final byte DOUBLE = 2;
+    private static final byte DICTIONARY = 3;
+    private static final byte TEXT = 4;
+    /** Marque, dans le type d'une colonne primitive, la présence d'un bitmap de validité. */
+    private static final byte NULLABLE = (byte) 0x80;
+
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private Snapshot() {
+    }
+
+    /**
+     * Retourne l'emplacement de l'instantané servant de cache à un fichier CSV.
+     */
+    static Path cachePath(Path csv) {
+        return csv.resolveSibling(csv.getFileName() + ".snapshot");
+    }
+
+    /**
+     * Indique si l'instantané existe et a été produit à partir de la version actuelle du CSV
+     * (même taille et même date de modification).
+     */
+    static boolean isFresh(Path snapshot, Path csv) throws IOException {
+        if (!Files.isRegularFile(snapshot)) {
+            return false;
+        }
+        ByteBuffer header = ByteBuffer.allocate(MAGIC.length + 16).order(ByteOrder.LITTLE_ENDIAN);
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // keep reading until the fixed header is complete or the file ends
+            }
+        }
+        if (header.hasRemaining() || !hasMagic(header)) {
+            return false;
+        }
+        return header.getLong(MAGIC.length) == Files.size(csv)
+                && header.getLong(MAGIC.length + 8) == Files.getLastModifiedTime(csv).toMillis();
+    }
+
+    /**
+     * Écrit l'instantané du CSV dans un fichier temporaire, puis le met en place atomiquement.
+     * La taille et la date de modification enregistrées sont celles relevées avant la lecture du
+     * CSV : si le fichier a changé depuis, l'instantané décrirait un contenu qui n'existe plus et
+     * n'est pas mis en place. Le cache est facultatif : si l'écriture échoue (dossier en lecture
+     * seule, déplacement atomique non pris en charge...), le fichier temporaire est supprimé et
+     * l'erreur ignorée.
+     *
+     * @param size     La taille du CSV avant sa lecture.
+     * @param modified La date de modification du CSV (ms) avant sa lecture.
+     * @return true si l'instantané a été mis en place.
+     */
+    static boolean writeCache(DataFrame df, Path snapshot, Path csv, long size, long modified) {
+        Path tmp = snapshot.resolveSibling(snapshot.getFileName() + ".tmp");
+        try {
+            if (!isUnchanged(csv, size, modified)) {
+                return false;
+            }
+            write(df, tmp, size, modified);
+            if (!isUnchanged(csv, size, modified)) {
+                Files.deleteIfExists(tmp);
+                return false;
+            }
+            Files.move(tmp, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (IOException e) {
+            try {
+                Files.deleteIfExists(tmp);
+            } catch (IOException ignored) {
+                // Nothing more can be cleaned up; the next load will try again.
+            }
+            return false;
+        }
+    }
+
+    private static boolean isUnchanged(Path csv, long size, long modified) throws IOException {
+        return Files.size(csv) == size && Files.getLastModifiedTime(csv).toMillis() == modified;
+    }
+
+    /**
+     * Écrit le DataFrame au format instantané.
+     *
+     * @param sourceSize     La taille du CSV d'origine, ou 0.
+     * @param sourceModified La date de modification du CSV d'origine (ms), ou 0.
+     */
+    static void write(DataFrame df, Path path, long sourceSize, long sourceModified) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            Output out = new Output(channel);
+            out.putBytes(MAGIC);
+            out.putLong(sourceSize);
+            out.putLong(sourceModified);
+            out.putInt(df.getRowCount());
+            out.putInt(df.getColumnCount());
+            List<Series<?>> columns = new ArrayList<>();
+            for (String label : df.getColumnLabels()) {
+                Series<?> series = df.getColumn(label);
+                columns.add(series);
+                byte[] name = label.getBytes(StandardCharsets.UTF_8);
+                out.putByte(kindOf(series));
+                out.putInt(name.length);
+                out.putBytes(name);
+            }
+            out.align();
+            for (Series<?> series : columns) {
+                writeColumn(out, series);
+            }
+            out.flush();
+        }
+    }
+
+    private static byte kindOf(Series<?> series) {
+        byte nullable = series instanceof NumericSeries && ((NumericSeries<?>) series).validity != null ? NULLABLE : 0;
+        if (series instanceof IntSeries) return (byte) (INT | nullable);
+        if (series instanceof LongSeries) return (byte) (LONG | nullable);
+        if (series instanceof DoubleSeries) return (byte) (DOUBLE | nullable);
+        if (series instanceof DictionarySeries) return DICTIONARY;
+        return TEXT;
+    }
+
+    private static void writeColumn(Output out, Series<?> series) throws IOException {
+        int n = series.size();
+        if (series instanceof NumericSeries) {
+            long[] validity = ((NumericSeries<?>) series).materializeValidity();
+            if (validity != null) {
+                for (long word : validity) out.putLong(word);
+            }
+        }
+        if (series instanceof IntSeries) {
+            IntSeries ints = (IntSeries) series;
+            for (int i = 0; i < n; i++) out.putInt(ints.getInt(i));
+        } else if (series instanceof LongSeries) {
+            LongSeries longs = (LongSeries) series;
+            for (int i = 0; i < n; i++) out.putLong(longs.getLong(i));
+        } else if (series instanceof DoubleSeries) {
+            DoubleSeries doubles = (DoubleSeries) series;
+            for (int i = 0; i < n; i++) out.putDouble(doubles.getDouble(i));
+        } else if (series instanceof DictionarySeries) {
+            DictionarySeries encoded = (DictionarySeries) series;
+            String[] dictionary = new String[encoded.getDictionarySize()];
+            for (int code = 0; code < dictionary.length; code++) {
+                dictionary[code] = encoded.getDictionaryValue(code);
+            }
+            out.putLong(dictionary.length);
+            writeText(out, Arrays.asList(dictionary));
+            for (int i = 0; i < n; i++) out.putInt(encoded.getCode(i));
+        } else {
+            writeText(out, series.getValues());
+        }
+        out.align();
+    }
+
+    /**
+     * Écrit un bloc texte. Les positions et le bitmap, qui précèdent les octets dans le fichier,
+     * ne sont connus qu'après l'encodage : leur emplacement est réservé puis rempli à la fin.
+     */
+    private static void writeText(Output out, List<?> values) throws IOException {
+        int n = values.size();
+        long[] ends = new long[n + 1];
+        long[] present = new long[Bitmaps.words(n)];
+        long reserved = out.position();
+        out.skip(8L * ends.length + 8L * present.length);
+        long length = 0;
+        for (int i = 0; i < n; i++) {
+            Object value = values.get(i);
+            if (value != null) {
+                byte[] bytes = value.toString().getBytes(StandardCharsets.UTF_8);
+                out.putBytes(bytes);
+                length += bytes.length;
+                present[i >>> 6] |= 1L << i;
+            }
+            ends[i + 1] = length;
+        }
+        long end = out.position();
+        out.seek(reserved);
+        for (long e : ends) out.putLong(e);
+        for (long word : present) out.putLong(word);
+        out.seek(end);
+        out.align();
+    }
+
+    /**
+     * Ouvre un instantané en projetant ses colonnes en mémoire.
+     */
+    static DataFrame read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            ByteBuffer header = map(channel, 0, Math.min(fileSize, Integer.MAX_VALUE));
+            if (fileSize < MAGIC.length + 24 || !hasMagic(header)) {
+                throw new IOException("Not a DataFrame snapshot: " + path);
+            }
+            header.position(MAGIC.length + 16);
+            int rows = header.getInt();
+            int columnCount = header.getInt();
+            byte[] kinds = new byte[columnCount];
+            String[] labels = new String[columnCount];
+            for (int c = 0; c < columnCount; c++) {
+                kinds[c] = header.get();
+                byte[] name = new byte[header.getInt()];
+                header.get(name);
+                labels[c] = new String(name, StandardCharsets.UTF_8);
+            }
+            long position = align(header.position());
+
+            List<Series<?>> columns = new ArrayList<>();
+            for (int c = 0; c < columnCount; c++) {
+                long[] validity = null;
+                if ((kinds[c] & NULLABLE) != 0) {
+                    validity = new long[Bitmaps.words(rows)];
+                    map(channel, position, 8L * validity.length).asLongBuffer().get(validity);
+                    position += 8L * validity.length;
+                }
+                switch (kinds[c] & ~NULLABLE) {
+                    case INT:
+                        columns.add(new IntSeries(labels[c], map(channel, position, 4L * rows).asIntBuffer(), validity));
+                        position += align(4L * rows);
+                        break;
+                    case LONG:
+                        columns.add(new LongSeries(labels[c], map(channel, position, 8L * rows).asLongBuffer(), validity));
+                        position += 8L * rows;
+                        break;
+                    case DOUBLE:
+                        columns.add(new DoubleSeries(labels[c], map(channel, position, 8L * rows).asDoubleBuffer(), validity));
+                        position += 8L * rows;
+                        break;
+                    case DICTIONARY: {
+                        int size = (int) map(channel, position, 8).getLong(0);
+                        MappedText entries = new MappedText(channel, position + 8, size);
+                        String[] dictionary = entries.toArray(new String[0]);
+                        position = entries.end;
+                        columns.add(new DictionarySeries(labels[c], map(channel, position, 4L * rows).asIntBuffer(), dictionary));
+                        position += align(4L * rows);
+                        break;
+                    }
+                    case TEXT: {
+                        MappedText text = new MappedText(channel, position, rows);
+                        columns.add(new Series<>(labels[c], text));
+                        position = text.end;
+                        break;
+                    }
+                    default:
+                        throw new IOException("Unknown column kind " + kinds[c] + " in snapshot: " + path);
+                }
+            }
+            return new DataFrame(columns);
+        }
+    }
+
+    private static boolean hasMagic(ByteBuffer header) {
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (header.get(i) != MAGIC[i]) return false;
+        }
+        return true;
+    }
+
+    private static long align(long position) {
+        return (position + 7) & ~7L;
+    }
+
+    private static ByteBuffer map(FileChannel channel, long position, long size) throws IOException {
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Snapshot block too large to map: " + size + " bytes");
+        }
+        if (position + size > channel.size()) {
+            throw new IOException("Truncated snapshot");
+        }
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /** Bloc texte projeté en mémoire ; chaque valeur est décodée à la lecture. */
+    private static final class MappedText extends AbstractList<String> implements RandomAccess {
+        private final int size;
+        private final LongBuffer ends;
+        private final LongBuffer present;
+        private final ByteBuffer bytes;
+        /** Position suivant le bloc dans le fichier. */
+        final long end;
+
+        MappedText(FileChannel channel, long position, int size) throws IOException {
+            this.size = size;
+            this.ends = map(channel, position, 8L * (size + 1)).asLongBuffer();
+            long bitmapPosition = position + 8L * (size + 1);
+            this.present = map(channel, bitmapPosition, 8L * Bitmaps.words(size)).asLongBuffer();
+            long bytesPosition = bitmapPosition + 8L * Bitmaps.words(size);
+            long length = ends.get(size);
+            this.bytes = map(channel, bytesPosition, length);
+            this.end = align(bytesPosition + length);
+        }
+
+        @Override
+        public String get(int i) {
+            Objects.checkIndex(i, size);
+            if ((present.get(i >>> 6) & (1L << i)) == 0) {
+                return null;
+            }
+            int from = (int) ends.get(i);
+            byte[] value = new byte[(int) ends.get(i + 1) - from];
+            bytes.get(from, value);
+            return new String(value, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    /** Écriture tamponnée sur un canal, avec repositionnement pour les blocs réservés. */
+    private static final class Output {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        private long flushed;
+
+        Output(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        long position() {
+            return flushed + buffer.position();
+        }
+
+        void putByte(byte b) throws IOException {
+            ensure(1);
+            buffer.put(b);
+        }
+
+        void putInt(int v) throws IOException {
+            ensure(4);
+            buffer.putInt(v);
+        }
+
+        void putLong(long v) throws IOException {
+            ensure(8);
+            buffer.putLong(v);
+        }
+
+        void putDouble(double v) throws IOException {
+            ensure(8);
+            buffer.putDouble(v);
+        }
+
+        void putBytes(byte[] bytes) throws IOException {
+            for (int from = 0; from < bytes.length; ) {
+                ensure(1);
+                int n = Math.min(buffer.remaining(), bytes.length - from);
+                buffer.put(bytes, from, n);
+                from += n;
+            }
+        }
+
+        void align() throws IOException {
+            while ((position() & 7) != 0) putByte((byte) 0);
+        }
+
+        void skip(long n) throws IOException {
+            seek(position() + n);
+        }
+
+        void seek(long position) throws IOException {
+            flush();
+            flushed = position;
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                flushed += channel.write(buffer, flushed);
+            }
+            buffer.clear();
+        }
+
+        private void ensure(int n) throws IOException {
+            if (buffer.remaining() < n) flush();
+        }
+    }
+}
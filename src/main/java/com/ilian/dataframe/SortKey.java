@@ -0,0 +1,52 @@
+package com.ilian.dataframe;
+
+/**
+ * Colonne de tri et sens du tri, pour {@link DataFrame#sortBy(SortKey...)}.
+ */
+public final class SortKey {
+    private final String label;
+    private final boolean ascending;
+
+    private SortKey(String label, boolean ascending) {
+        this.label = label;
+        this.ascending = ascending;
+    }
+
+    /**
+     * Tri croissant sur une colonne.
+     *
+     * @param label L'étiquette de la colonne.
+     * @return La clé de tri.
+     */
+    public static SortKey asc(String label) {
+        return new SortKey(label, true);
+    }
+
+    /**
+     * Tri décroissant sur une colonne.
+     *
+     * @param label L'étiquette de la colonne.
+     * @return La clé de tri.
+     */
+    public static SortKey desc(String label) {
+        return new SortKey(label, false);
+    }
+
+    /**
+     * Retourne l'étiquette de la colonne triée.
+     *
+     * @return L'étiquette de la colonne.
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * Indique si le tri est croissant.
+     *
+     * @return true pour un tri croissant, false pour un tri décroissant.
+     */
+    public boolean isAscending() {
+        return ascending;
+    }
+}
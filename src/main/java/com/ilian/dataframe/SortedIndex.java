@@ -0,0 +1,96 @@
+package com.ilian.dataframe;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Index trié d'une colonne numérique : la permutation de ses lignes non nulles dans l'ordre
+ * croissant des valeurs, et les clés de tri correspondantes.
+ *
+ * Les clés sont celles de {@link Sorter} (ordre non signé égal à l'ordre des valeurs) et la
+ * permutation est calculée par le même tri par base, en parallèle au-delà de
+ * {@link Sorter#PARALLEL_THRESHOLD} lignes. Un intervalle de valeurs correspond à une tranche
+ * contiguë de la permutation, trouvée par deux recherches dichotomiques.
+ */
+final class SortedIndex extends ColumnIndex {
+    private final long[] keys;
+    private final int[] rows;
+
+    SortedIndex(Series<?> series, ForkJoinPool pool) {
+        super(series);
+        if (!isNumeric(series)) {
+            throw new IllegalArgumentException("Sorted index requires a numeric column: " + series.getLabel());
+        }
+        long[] sortKeys = Sorter.sortKeys(series, true);
+        int[] perm = Sorter.sort(new long[][] {sortKeys}, pool);
+        // Nulls sort first (key 0, shared only with Long.MIN_VALUE): drop them from the index.
+        int start = 0;
+        while (start < perm.length && sortKeys[perm[start]] == 0) start++;
+        int[] kept = new int[perm.length];
+        int size = 0;
+        for (int i = 0; i < start; i++) {
+            if (!series.isNull(perm[i])) kept[size++] = perm[i];
+        }
+        System.arraycopy(perm, start, kept, size, perm.length - start);
+        rows = Arrays.copyOf(kept, size + perm.length - start);
+        keys = new long[rows.length];
+        for (int i = 0; i < rows.length; i++) keys[i] = sortKeys[rows[i]];
+    }
+
+    @Override
+    IndexKind kind() {
+        return IndexKind.SORTED;
+    }
+
+    /** Nombre de lignes indexées. */
+    int size() {
+        return rows.length;
+    }
+
+    /** Ligne placée en position {@code i} dans l'ordre croissant. */
+    int row(int i) {
+        return rows[i];
+    }
+
+    /**
+     * Retourne les positions {@code [from, to)} de la permutation dont la valeur est comprise
+     * dans l'intervalle donné (bornes non NaN).
+     *
+     * @return Un tableau {@code {from, to}}.
+     */
+    int[] range(double lo, boolean loInclusive, double hi, boolean hiInclusive) {
+        long loKey;
+        long hiKey;
+        if (integral) {
+            long min = NumericSeries.lowerBound(lo, loInclusive);
+            long max = NumericSeries.upperBound(hi, hiInclusive);
+            if (min > max) return new int[] {0, 0};
+            loKey = min ^ Long.MIN_VALUE;
+            hiKey = max ^ Long.MIN_VALUE;
+            loInclusive = true;
+            hiInclusive = true;
+        } else {
+            loKey = Sorter.doubleKey(lo);
+            hiKey = Sorter.doubleKey(hi);
+        }
+        int from = search(loKey, !loInclusive);
+        int to = Math.max(from, search(hiKey, hiInclusive));
+        return new int[] {from, to};
+    }
+
+    /** Première position dont la clé est supérieure (ou égale si {@code !strict}) à {@code key}. */
+    private int search(long key, boolean strict) {
+        int lo = 0;
+        int hi = keys.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            int c = Long.compareUnsigned(keys[mid], key);
+            if (c < 0 || (strict && c == 0)) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+}
@@ -0,0 +1,283 @@
+package com.ilian.dataframe;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Calcul de permutations de tri pour un {@link DataFrame}.
+ *
+ * Chaque colonne de tri est d'abord convertie en une clé {@code long} dont l'ordre non signé
+ * est celui du tri demandé (entiers et flottants par transformation de bits, texte par rang dans
+ * son dictionnaire de valeurs distinctes triées, valeurs nulles en premier, sens décroissant par complément). La permutation
+ * est ensuite calculée par tri par base (LSD, octet par octet, stable) ; au-delà d'une certaine
+ * taille, des tranches sont triées en parallèle puis fusionnées. Les lignes ne sont jamais déplacées.
+ */
+final class Sorter {
+
+    /** Taille à partir de laquelle les tranches sont triées en parallèle puis fusionnées. */
+    static final int PARALLEL_THRESHOLD = 1 << 17;
+
+    private Sorter() {
+    }
+
+    /**
+     * Calcule la permutation qui trie les lignes selon les clés données (tri stable).
+     *
+     * @return {@code perm} tel que {@code perm[i]} est la ligne placée en position {@code i}.
+     */
+    static int[] sort(DataFrame df, SortKey[] keys, ForkJoinPool pool) {
+        if (keys.length == 0) {
+            throw new IllegalArgumentException("At least one sort key is required");
+        }
+        long[][] sortKeys = new long[keys.length][];
+        for (int k = 0; k < keys.length; k++) {
+            sortKeys[k] = sortKeys(df.requireColumn(keys[k].getLabel()), keys[k].isAscending());
+        }
+        return sort(sortKeys, pool);
+    }
+
+    /**
+     * Calcule la permutation stable qui trie les lignes selon des clés déjà converties
+     * (voir {@link #sortKeys(Series, boolean)}), la première étant la plus significative.
+     */
+    static int[] sort(long[][] sortKeys, ForkJoinPool pool) {
+        int n = sortKeys[0].length;
+        int[] perm = new int[n];
+        for (int i = 0; i < n; i++) perm[i] = i;
+        long[] keyBuffer = new long[n];
+        long[] keyTmp = new long[n];
+        int[] permTmp = new int[n];
+
+        int parts = n < PARALLEL_THRESHOLD ? 1 : pool.getParallelism();
+        if (parts <= 1) {
+            sortRange(sortKeys, perm, keyBuffer, keyTmp, permTmp, 0, n);
+            return perm;
+        }
+
+        int[] bounds = new int[parts + 1];
+        for (int p = 0; p <= parts; p++) bounds[p] = (int) ((long) n * p / parts);
+        List<ForkJoinTask<?>> tasks = new ArrayList<>();
+        for (int p = 0; p < parts; p++) {
+            int from = bounds[p];
+            int to = bounds[p + 1];
+            tasks.add(pool.submit(() -> sortRange(sortKeys, perm, keyBuffer, keyTmp, permTmp, from, to)));
+        }
+        tasks.forEach(ForkJoinTask::join);
+
+        // Merge sorted runs pairwise, one level at a time, each merge in its own task.
+        int[] src = perm;
+        int[] dst = permTmp;
+        while (bounds.length > 2) {
+            int runs = bounds.length - 1;
+            int[] merged = new int[(runs + 1) / 2 + 1];
+            tasks.clear();
+            for (int r = 0; r < runs; r += 2) {
+                int lo = bounds[r];
+                int mid = bounds[r + 1];
+                int hi = r + 2 <= runs ? bounds[r + 2] : mid;
+                merged[r / 2] = lo;
+                int[] from = src;
+                int[] to = dst;
+                tasks.add(pool.submit(() -> merge(sortKeys, from, to, lo, mid, hi)));
+            }
+            merged[merged.length - 1] = n;
+            tasks.forEach(ForkJoinTask::join);
+            bounds = merged;
+            int[] swap = src;
+            src = dst;
+            dst = swap;
+        }
+        return src;
+    }
+
+    /** Trie {@code perm[from, to)} selon toutes les clés, de la moins significative à la plus significative. */
+    private static void sortRange(long[][] sortKeys, int[] perm, long[] keys, long[] keyTmp, int[] permTmp, int from, int to) {
+        for (int k = sortKeys.length - 1; k >= 0; k--) {
+            long[] column = sortKeys[k];
+            for (int i = from; i < to; i++) keys[i] = column[perm[i]];
+            radixSort(keys, perm, keyTmp, permTmp, from, to);
+        }
+    }
+
+    /**
+     * Tri par base stable de {@code perm[from, to)} selon {@code keys[from, to)} (ordre non signé).
+     * Les passes dont l'octet est identique pour toutes les lignes sont sautées.
+     */
+    static void radixSort(long[] keys, int[] perm, long[] keyTmp, int[] permTmp, int from, int to) {
+        int n = to - from;
+        if (n < 2) return;
+        int[] count = new int[257];
+        for (int shift = 0; shift < 64; shift += 8) {
+            Arrays.fill(count, 0);
+            for (int i = from; i < to; i++) {
+                count[(int) ((keys[i] >>> shift) & 0xFF) + 1]++;
+            }
+            if (count[(int) ((keys[from] >>> shift) & 0xFF) + 1] == n) continue;
+            for (int d = 0; d < 256; d++) count[d + 1] += count[d];
+            for (int i = from; i < to; i++) {
+                int pos = from + count[(int) ((keys[i] >>> shift) & 0xFF)]++;
+                keyTmp[pos] = keys[i];
+                permTmp[pos] = perm[i];
+            }
+            System.arraycopy(keyTmp, from, keys, from, n);
+            System.arraycopy(permTmp, from, perm, from, n);
+        }
+    }
+
+    private static void merge(long[][] sortKeys, int[] src, int[] dst, int lo, int mid, int hi) {
+        int i = lo;
+        int j = mid;
+        int k = lo;
+        while (i < mid && j < hi) {
+            dst[k++] = compare(sortKeys, src[j], src[i]) < 0 ? src[j++] : src[i++];
+        }
+        while (i < mid) dst[k++] = src[i++];
+        while (j < hi) dst[k++] = src[j++];
+    }
+
+    private static int compare(long[][] sortKeys, int a, int b) {
+        for (long[] column : sortKeys) {
+            int c = Long.compareUnsigned(column[a], column[b]);
+            if (c != 0) return c;
+        }
+        return 0;
+    }
+
+    /**
+     * Retourne les {@code n} premières lignes selon la clé, dans l'ordre du tri, à l'aide d'un tas
+     * borné à {@code n} éléments : le reste des lignes n'est jamais trié.
+     */
+    static int[] top(DataFrame df, int n, SortKey key) {
+        long[] keys = sortKeys(df.requireColumn(key.getLabel()), key.isAscending());
+        int size = Math.min(Math.max(n, 0), keys.length);
+        // Max-heap on (key, row): the root is the worst of the rows kept so far.
+        int[] heap = new int[size];
+        int count = 0;
+        for (int row = 0; row < keys.length && size > 0; row++) {
+            if (count < size) {
+                heap[count] = row;
+                siftUp(heap, count++, keys);
+            } else if (before(keys, row, heap[0])) {
+                heap[0] = row;
+                siftDown(heap, size, keys);
+            }
+        }
+        // Ties are resolved by row number: sort the kept rows by number, then stably by key.
+        int[] rows = heap.clone();
+        Arrays.sort(rows);
+        long[] ordered = new long[size];
+        for (int i = 0; i < size; i++) ordered[i] = keys[rows[i]];
+        radixSort(ordered, rows, new long[size], new int[size], 0, size);
+        return rows;
+    }
+
+    private static boolean before(long[] keys, int a, int b) {
+        int c = Long.compareUnsigned(keys[a], keys[b]);
+        return c < 0 || (c == 0 && a < b);
+    }
+
+    private static void siftUp(int[] heap, int i, long[] keys) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!before(keys, heap[parent], heap[i])) return;
+            swap(heap, parent, i);
+            i = parent;
+        }
+    }
+
+    private static void siftDown(int[] heap, int size, long[] keys) {
+        int i = 0;
+        while (true) {
+            int worst = i;
+            int l = 2 * i + 1;
+            int r = l + 1;
+            if (l < size && before(keys, heap[worst], heap[l])) worst = l;
+            if (r < size && before(keys, heap[worst], heap[r])) worst = r;
+            if (worst == i) return;
+            swap(heap, i, worst);
+            i = worst;
+        }
+    }
+
+    private static void swap(int[] a, int i, int j) {
+        int t = a[i];
+        a[i] = a[j];
+        a[j] = t;
+    }
+
+    /**
+     * Convertit une colonne en clés dont l'ordre non signé est l'ordre de tri demandé.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static long[] sortKeys(Series<?> series, boolean ascending) {
+        int n = series.size();
+        long[] keys = new long[n];
+        if (series instanceof IntSeries) {
+            IntSeries ints = (IntSeries) series;
+            for (int i = 0; i < n; i++) keys[i] = ints.getInt(i) ^ Long.MIN_VALUE;
+            // Only Long.MIN_VALUE also maps to key 0: nulls sort first, like text nulls.
+            ints.zeroNulls(keys);
+        } else if (series instanceof LongSeries) {
+            LongSeries longs = (LongSeries) series;
+            for (int i = 0; i < n; i++) keys[i] = longs.getLong(i) ^ Long.MIN_VALUE;
+            longs.zeroNulls(keys);
+        } else if (series instanceof NumericSeries || (n > 0 && series.get(0) instanceof Number)) {
+            NumericSeries<?> numeric = NumericSeries.asNumeric(series);
+            for (int i = 0; i < n; i++) keys[i] = doubleKey(numeric.getDouble(i));
+            numeric.zeroNulls(keys);
+        } else if (series instanceof DictionarySeries) {
+            DictionarySeries encoded = (DictionarySeries) series;
+            int[] rank = dictionaryRanks(encoded);
+            for (int i = 0; i < n; i++) keys[i] = rank[encoded.getCode(i)];
+        } else {
+            // Rank of each value among the sorted distinct values (nulls first).
+            Map<Object, Integer> codes = new HashMap<>();
+            int[] rowCodes = new int[n];
+            List<Object> distinct = new ArrayList<>();
+            for (int i = 0; i < n; i++) {
+                Object v = series.get(i);
+                Integer code = codes.get(v);
+                if (code == null) {
+                    code = distinct.size();
+                    codes.put(v, code);
+                    distinct.add(v);
+                }
+                rowCodes[i] = code;
+            }
+            Integer[] byValue = new Integer[distinct.size()];
+            for (int c = 0; c < byValue.length; c++) byValue[c] = c;
+            Comparator<Object> natural = Comparator.nullsFirst((a, b) -> ((Comparable) a).compareTo(b));
+            Arrays.sort(byValue, (a, b) -> natural.compare(distinct.get(a), distinct.get(b)));
+            int[] rank = new int[byValue.length];
+            for (int r = 0; r < byValue.length; r++) rank[byValue[r]] = r;
+            for (int i = 0; i < n; i++) keys[i] = rank[rowCodes[i]];
+        }
+        if (!ascending) {
+            for (int i = 0; i < n; i++) keys[i] = ~keys[i];
+        }
+        return keys;
+    }
+
+    /** Rang de chaque code dans l'ordre naturel des valeurs du dictionnaire (nulls en premier). */
+    private static int[] dictionaryRanks(DictionarySeries series) {
+        Integer[] byValue = new Integer[series.getDictionarySize()];
+        for (int c = 0; c < byValue.length; c++) byValue[c] = c;
+        Comparator<String> natural = Comparator.nullsFirst(Comparator.naturalOrder());
+        Arrays.sort(byValue, (a, b) -> natural.compare(series.getDictionaryValue(a), series.getDictionaryValue(b)));
+        int[] rank = new int[byValue.length];
+        for (int r = 0; r < byValue.length; r++) rank[byValue[r]] = r;
+        return rank;
+    }
+
+    /** Clé ordonnée d'un double : les négatifs sont inversés, NaN est placé après +Infinity. */
+    static long doubleKey(double v) {
+        long bits = Double.doubleToLongBits(v == 0 ? 0.0 : v);
+        return bits < 0 ? ~bits : bits ^ Long.MIN_VALUE;
+    }
+}
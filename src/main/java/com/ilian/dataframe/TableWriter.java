@@ -0,0 +1,316 @@
+package com.ilian.dataframe;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Écriture de lignes de texte (affichage tabulé ou CSV) dans un grand tampon d'octets réutilisé.
+ *
+ * Les entiers et la plupart des décimaux sont formatés chiffre par chiffre directement dans le
+ * tampon, et le texte y est encodé en UTF-8 caractère par caractère : aucun objet n'est créé
+ * par cellule. Le tampon n'est écrit dans la cible que lorsqu'il est plein (ou à la fin), en
+ * un seul appel. Une cible {@link Writer}, ou un flux dont l'encodage n'est pas UTF-8, reçoit
+ * le contenu du tampon décodé dans un tampon de caractères lui aussi réutilisé.
+ *
+ * Les décimaux sont écrits comme par {@link Double#toString(double)}, avec un « .0 » final
+ * pour les valeurs entières, ce qui permet de les relire avec le même type. En CSV, les valeurs
+ * très grandes ou très petites sont écrites sans exposant, que {@link CsvLoader} ne lit pas, et
+ * les valeurs non finies ({@code NaN}, {@code ±Infinity}), qu'il lirait comme du texte, sont
+ * écrites comme des cellules vides (valeurs nulles).
+ */
+final class TableWriter implements Closeable {
+    /** Taille du tampon : les écritures dans la cible se font par blocs de cette taille. */
+    static final int BUFFER_SIZE = 1 << 18;
+    /** Place réservée pour un nombre formaté (le plus long {@code long} ou {@code double}). */
+    private static final int NUMBER_SPACE = 32;
+    private static final long[] POWERS_OF_TEN = new long[19];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int k = 1; k < POWERS_OF_TEN.length; k++) POWERS_OF_TEN[k] = POWERS_OF_TEN[k - 1] * 10;
+    }
+
+    private final OutputStream out;
+    private final Writer writer;
+    private final CharsetDecoder decoder;
+    private final CharBuffer chars;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+
+    private final char separator;
+    private final String nullText;
+    /** Format CSV : texte sans séparateur ni fin de ligne, décimaux sans exposant. */
+    private final boolean csv;
+    private final String lineSeparator;
+
+    private TableWriter(OutputStream out, Writer writer, char separator, String nullText, boolean csv, String lineSeparator) {
+        this.out = out;
+        this.writer = writer;
+        this.separator = separator;
+        this.nullText = nullText;
+        this.csv = csv;
+        this.lineSeparator = lineSeparator;
+        if (writer != null) {
+            decoder = StandardCharsets.UTF_8.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+            chars = CharBuffer.allocate(BUFFER_SIZE);
+        } else {
+            decoder = null;
+            chars = null;
+        }
+    }
+
+    /**
+     * Écrivain CSV (virgules, cellules nulles vides, fins de ligne {@code \n}) vers un flux dans
+     * l'encodage donné.
+     */
+    static TableWriter csv(OutputStream out, Charset charset) {
+        if (charset.equals(StandardCharsets.UTF_8)) {
+            return new TableWriter(out, null, ',', "", true, "\n");
+        }
+        return csv(new OutputStreamWriter(out, charset));
+    }
+
+    /** Écrivain CSV vers une cible de caractères. */
+    static TableWriter csv(Writer writer) {
+        return new TableWriter(null, writer, ',', "", true, "\n");
+    }
+
+    /**
+     * Écrivain d'affichage (tabulations, {@code null} pour les valeurs nulles, fins de ligne du
+     * système) vers un flux dans l'encodage donné.
+     */
+    static TableWriter display(OutputStream out, Charset charset) {
+        if (charset.equals(StandardCharsets.UTF_8)) {
+            return new TableWriter(out, null, '\t', "null", false, System.lineSeparator());
+        }
+        return display(new OutputStreamWriter(out, charset));
+    }
+
+    /** Écrivain d'affichage vers une cible de caractères. */
+    static TableWriter display(Writer writer) {
+        return new TableWriter(null, writer, '\t', "null", false, System.lineSeparator());
+    }
+
+    /**
+     * Écrit l'en-tête puis les lignes {@code [from, to)} d'un DataFrame.
+     */
+    void writeRows(DataFrame df, int from, int to) throws IOException {
+        List<Series<?>> series = new ArrayList<>();
+        for (String label : df.getColumnLabels()) {
+            series.add(df.getColumn(label));
+        }
+        for (int j = 0; j < series.size(); j++) {
+            if (j > 0) writeSeparator();
+            writeText(series.get(j).getLabel());
+        }
+        endLine();
+        for (int i = from; i < to; i++) {
+            for (int j = 0; j < series.size(); j++) {
+                if (j > 0) writeSeparator();
+                series.get(j).writeValue(this, i);
+            }
+            endLine();
+        }
+    }
+
+    private void writeSeparator() throws IOException {
+        reserve(1);
+        buffer[position++] = (byte) separator;
+    }
+
+    private void endLine() throws IOException {
+        writeAscii(lineSeparator);
+    }
+
+    /** Écrit la représentation d'une valeur nulle. */
+    void writeNull() throws IOException {
+        writeAscii(nullText);
+    }
+
+    /** Écrit un entier en décimal. */
+    void writeLong(long v) throws IOException {
+        reserve(NUMBER_SPACE);
+        if (v == Long.MIN_VALUE) {
+            writeAscii("-9223372036854775808");
+            return;
+        }
+        if (v < 0) {
+            buffer[position++] = '-';
+            v = -v;
+        }
+        int digits = 1;
+        while (digits < 19 && v >= POWERS_OF_TEN[digits]) digits++;
+        for (int k = position + digits - 1; k >= position; k--) {
+            buffer[k] = (byte) ('0' + v % 10);
+            v /= 10;
+        }
+        position += digits;
+    }
+
+    /**
+     * Écrit un décimal. Les valeurs comprises entre {@code 1e-3} et {@code 1e7} dont l'écriture
+     * décimale la plus courte a au plus 8 décimales sont formatées dans le tampon ; les autres
+     * passent par {@link Double#toString(double)}, réécrit sans exposant en CSV. En CSV, une
+     * valeur non finie est écrite comme une valeur nulle.
+     */
+    void writeDouble(double v) throws IOException {
+        if (csv && !Double.isFinite(v)) {
+            writeNull();
+            return;
+        }
+        reserve(NUMBER_SPACE);
+        double a = Math.abs(v);
+        if (a == 0) {
+            writeAscii(Double.doubleToRawLongBits(v) < 0 ? "-0.0" : "0.0");
+            return;
+        }
+        if (a >= 1e-3 && a < 1e7) {
+            for (int k = 1; k <= 8; k++) {
+                long scale = POWERS_OF_TEN[k];
+                long m = Math.round(a * scale);
+                if ((double) m / scale == a) {
+                    if (v < 0) buffer[position++] = '-';
+                    writeLong(m / scale);
+                    writeFraction(m % scale, k);
+                    return;
+                }
+            }
+        }
+        String text = Double.toString(v);
+        if (csv && text.indexOf('E') >= 0) {
+            text = new BigDecimal(text).stripTrailingZeros().toPlainString();
+            if (text.indexOf('.') < 0) text += ".0";
+        }
+        writeAscii(text);
+    }
+
+    /** Écrit {@code '.'} puis les {@code k} chiffres de {@code fraction}, sans les zéros finaux (au moins un chiffre). */
+    private void writeFraction(long fraction, int k) {
+        buffer[position++] = '.';
+        int digits = k;
+        while (digits > 1 && fraction % 10 == 0) {
+            fraction /= 10;
+            digits--;
+        }
+        for (int i = position + digits - 1; i >= position; i--) {
+            buffer[i] = (byte) ('0' + fraction % 10);
+            fraction /= 10;
+        }
+        position += digits;
+    }
+
+    /**
+     * Écrit un texte, encodé en UTF-8. Une valeur nulle est écrite comme {@link #writeNull()}.
+     *
+     * @throws IllegalArgumentException en CSV, si le texte contient un séparateur ou une fin de
+     *                                  ligne : {@link CsvLoader} ne saurait pas le relire.
+     */
+    void writeText(String s) throws IOException {
+        if (s == null) {
+            writeNull();
+            return;
+        }
+        if (csv) {
+            requireSingleCell(s);
+        }
+        for (int i = 0, n = s.length(); i < n; i++) {
+            reserve(4);
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                buffer[position++] = (byte) c;
+            } else if (c < 0x800) {
+                buffer[position++] = (byte) (0xC0 | (c >> 6));
+                buffer[position++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(s.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, s.charAt(++i));
+                buffer[position++] = (byte) (0xF0 | (cp >> 18));
+                buffer[position++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                buffer[position++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                buffer[position++] = (byte) (0x80 | (cp & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                buffer[position++] = '?';
+            } else {
+                buffer[position++] = (byte) (0xE0 | (c >> 12));
+                buffer[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buffer[position++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+    }
+
+    private void requireSingleCell(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == separator || c == '\n' || c == '\r') {
+                throw new IllegalArgumentException("Text with a separator or a line break cannot be written to CSV: " + s);
+            }
+        }
+    }
+
+    private void writeAscii(String s) throws IOException {
+        reserve(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            buffer[position++] = (byte) s.charAt(i);
+        }
+    }
+
+    /** Vide le tampon si moins de {@code bytes} octets y restent libres. */
+    private void reserve(int bytes) throws IOException {
+        if (position + bytes > buffer.length) {
+            drain();
+        }
+    }
+
+    /** Écrit le contenu du tampon dans la cible. Le tampon ne contient que des caractères complets. */
+    private void drain() throws IOException {
+        if (position == 0) return;
+        if (writer == null) {
+            out.write(buffer, 0, position);
+        } else {
+            ByteBuffer bytes = ByteBuffer.wrap(buffer, 0, position);
+            decoder.reset();
+            while (true) {
+                chars.clear();
+                boolean done = !decoder.decode(bytes, chars, true).isOverflow();
+                chars.flip();
+                writer.write(chars.array(), 0, chars.limit());
+                if (done) break;
+            }
+        }
+        position = 0;
+    }
+
+    /** Écrit le tampon puis vide la cible, sans la fermer. */
+    void flush() throws IOException {
+        drain();
+        if (writer == null) {
+            out.flush();
+        } else {
+            writer.flush();
+        }
+    }
+
+    /** Écrit le tampon et ferme la cible. */
+    @Override
+    public void close() throws IOException {
+        drain();
+        if (writer == null) {
+            out.close();
+        } else {
+            writer.close();
+        }
+    }
+}
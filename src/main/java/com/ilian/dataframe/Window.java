@@ -0,0 +1,485 @@
+package com.ilian.dataframe;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Fenêtre glissante ou cumulative sur une colonne d'un {@link DataFrame} ordonné, obtenue par
+ * {@link DataFrame#rolling(String, int)} ou {@link DataFrame#cumulative(String)}.
+ *
+ * La fenêtre d'une ligne contient cette ligne et les {@code taille - 1} lignes qui la précèdent
+ * dans l'ordre courant du DataFrame (toutes les précédentes pour une fenêtre cumulative), au sein
+ * de sa partition si {@link #partitionBy(String...)} est utilisé. Chaque fonction retourne le
+ * DataFrame complété d'une colonne primitive, nommée par défaut {@code rollingMean(Note, 3)},
+ * {@code cumSum(Note)}... ou selon le nom donné à {@link #as(String)}.
+ *
+ * Les agrégats sont calculés en une passe, sans recalculer chaque fenêtre : somme glissante
+ * compensée, moyenne et variance mises à jour à l'entrée et à la sortie de chaque valeur, files
+ * monotones de positions pour le minimum et le maximum. Le coût ne dépend donc pas de la taille
+ * de la fenêtre. Les grandes colonnes sont découpées en tranches calculées en parallèle, chaque
+ * tranche reprenant les {@code taille - 1} lignes précédentes pour amorcer sa fenêtre.
+ *
+ * Les valeurs nulles et NaN sont ignorées ; une ligne dont la fenêtre contient moins de
+ * {@link #minPeriods(int)} valeurs reçoit null.
+ */
+public final class Window {
+
+    /** Taille d'une fenêtre cumulative : toutes les lignes précédentes de la partition. */
+    private static final int UNBOUNDED = Integer.MAX_VALUE;
+
+    private enum Kind { SUM, MEAN, MIN, MAX, STD }
+
+    private final DataFrame df;
+    private final String label;
+    private final int size;
+    private final String[] partitions;
+    private final int minPeriods;
+    private final String name;
+    private final ForkJoinPool pool;
+
+    private Window(DataFrame df, String label, int size, String[] partitions, int minPeriods, String name,
+                   ForkJoinPool pool) {
+        this.df = df;
+        this.label = label;
+        this.size = size;
+        this.partitions = partitions;
+        this.minPeriods = minPeriods;
+        this.name = name;
+        this.pool = pool;
+    }
+
+    static Window rolling(DataFrame df, String label, int size, ForkJoinPool pool) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Window size must be positive: " + size);
+        }
+        df.requireColumn(label);
+        return new Window(df, label, size, new String[0], size, null, pool);
+    }
+
+    static Window cumulative(DataFrame df, String label, ForkJoinPool pool) {
+        df.requireColumn(label);
+        return new Window(df, label, UNBOUNDED, new String[0], 1, null, pool);
+    }
+
+    /**
+     * Calcule chaque fenêtre séparément pour chaque valeur des colonnes clés : une fenêtre ne
+     * contient que des lignes de la même partition, prises dans l'ordre du DataFrame. Le
+     * résultat garde l'ordre des lignes d'origine.
+     *
+     * @param keys Les étiquettes des colonnes clés (les valeurs nulles forment leur propre partition).
+     * @return La même fenêtre, partitionnée.
+     * @throws IllegalArgumentException si une clé n'existe pas.
+     */
+    public Window partitionBy(String... keys) {
+        for (String key : keys) {
+            df.requireColumn(key);
+        }
+        return new Window(df, label, size, keys.clone(), minPeriods, name, pool);
+    }
+
+    /**
+     * Fixe le nombre minimal de valeurs non nulles qu'une fenêtre doit contenir pour produire
+     * un résultat. Par défaut, la taille de la fenêtre (les premières lignes d'une fenêtre
+     * glissante sont nulles), ou 1 pour une fenêtre cumulative.
+     *
+     * @param count Le nombre minimal de valeurs.
+     * @return La même fenêtre avec ce seuil.
+     * @throws IllegalArgumentException si {@code count} est inférieur à 1.
+     */
+    public Window minPeriods(int count) {
+        if (count < 1) {
+            throw new IllegalArgumentException("Minimum number of values must be positive: " + count);
+        }
+        return new Window(df, label, size, partitions, count, name, pool);
+    }
+
+    /**
+     * Retourne la même fenêtre avec un autre nom de colonne en sortie.
+     *
+     * @param name Le nom de la colonne produite.
+     * @return La nouvelle fenêtre.
+     */
+    public Window as(String name) {
+        return new Window(df, label, size, partitions, minPeriods, name, pool);
+    }
+
+    /**
+     * Somme des valeurs de chaque fenêtre. Elle reste entière pour une colonne entière.
+     *
+     * @return Le DataFrame complété de la colonne des sommes.
+     * @throws IllegalArgumentException si la colonne n'est pas numérique.
+     */
+    public DataFrame sum() {
+        return aggregate(Kind.SUM, "Sum");
+    }
+
+    /**
+     * Moyenne des valeurs de chaque fenêtre.
+     *
+     * @return Le DataFrame complété d'une {@link DoubleSeries} des moyennes.
+     * @throws IllegalArgumentException si la colonne n'est pas numérique.
+     */
+    public DataFrame mean() {
+        return aggregate(Kind.MEAN, "Mean");
+    }
+
+    /**
+     * Minimum des valeurs de chaque fenêtre, du type de la colonne.
+     *
+     * @return Le DataFrame complété de la colonne des minimums.
+     * @throws IllegalArgumentException si la colonne n'est pas numérique.
+     */
+    public DataFrame min() {
+        return aggregate(Kind.MIN, "Min");
+    }
+
+    /**
+     * Maximum des valeurs de chaque fenêtre, du type de la colonne.
+     *
+     * @return Le DataFrame complété de la colonne des maximums.
+     * @throws IllegalArgumentException si la colonne n'est pas numérique.
+     */
+    public DataFrame max() {
+        return aggregate(Kind.MAX, "Max");
+    }
+
+    /**
+     * Écart type (échantillon, dénominateur {@code n - 1}) des valeurs de chaque fenêtre.
+     * Vaut NaN pour une fenêtre d'une seule valeur.
+     *
+     * @return Le DataFrame complété d'une {@link DoubleSeries} des écarts types.
+     * @throws IllegalArgumentException si la colonne n'est pas numérique.
+     */
+    public DataFrame std() {
+        return aggregate(Kind.STD, "Std");
+    }
+
+    /**
+     * Valeur de la colonne {@code n} lignes plus tôt dans la partition, ou null avant la
+     * {@code n}-ième ligne. La taille de la fenêtre n'intervient pas ; la colonne peut être
+     * de tout type.
+     *
+     * @param n Le décalage.
+     * @return Le DataFrame complété de la colonne décalée, nommée par défaut {@code lag(Note, n)}.
+     * @throws IllegalArgumentException si {@code n} est négatif.
+     */
+    public DataFrame lag(int n) {
+        return shift(n, "lag", n);
+    }
+
+    /**
+     * Valeur de la colonne {@code n} lignes plus loin dans la partition, ou null pour les
+     * {@code n} dernières lignes. La taille de la fenêtre n'intervient pas ; la colonne peut
+     * être de tout type.
+     *
+     * @param n Le décalage.
+     * @return Le DataFrame complété de la colonne décalée, nommée par défaut {@code lead(Note, n)}.
+     * @throws IllegalArgumentException si {@code n} est négatif.
+     */
+    public DataFrame lead(int n) {
+        return shift(-n, "lead", n);
+    }
+
+    private DataFrame shift(int offset, String function, int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("Offset must not be negative: " + n);
+        }
+        Series<?> source = df.getColumn(label);
+        int rows = source.size();
+        int[][] layout = layout(rows);
+        int[] order = layout[0];
+        int[] bounds = layout[1];
+        int[] sources = new int[rows];
+        for (int p = 0; p + 1 < bounds.length; p++) {
+            for (int k = bounds[p]; k < bounds[p + 1]; k++) {
+                long s = (long) k - offset;
+                sources[order[k]] = s >= bounds[p] && s < bounds[p + 1] ? order[(int) s] : -1;
+            }
+        }
+        String output = name != null ? name : function + "(" + label + ", " + n + ")";
+        return df.withSeries(Join.gatherNullable(source, sources).rename(output));
+    }
+
+    private DataFrame aggregate(Kind kind, String function) {
+        NumericSeries<?> input = NumericSeries.asNumeric(df.getColumn(label));
+        int rows = input.size();
+        int[][] layout = layout(rows);
+        Pass pass = new Pass(kind, input, layout[0]);
+        int[] bounds = layout[1];
+
+        int parts = GroupBy.taskCount(pool, rows);
+        int[] cuts = new int[parts + 1];
+        for (int p = 1; p <= parts; p++) {
+            cuts[p] = (int) ((long) rows * p / parts);
+            if (size == UNBOUNDED) {
+                // A cumulative window would have to replay its whole partition: cut between partitions only.
+                int at = Arrays.binarySearch(bounds, cuts[p]);
+                cuts[p] = Math.max(cuts[p - 1], bounds[at >= 0 ? at : -at - 1]);
+            }
+        }
+        if (parts == 1) {
+            pass.run(bounds, 0, rows);
+        } else {
+            List<ForkJoinTask<?>> tasks = new ArrayList<>();
+            for (int p = 0; p < parts; p++) {
+                int from = cuts[p];
+                int to = cuts[p + 1];
+                if (from < to) tasks.add(pool.submit(() -> pass.run(bounds, from, to)));
+            }
+            for (ForkJoinTask<?> task : tasks) {
+                task.join();
+            }
+        }
+
+        String output = name != null ? name
+                : (size == UNBOUNDED ? "cum" + function + "(" + label + ")"
+                                     : "rolling" + function + "(" + label + ", " + size + ")");
+        return df.withSeries(pass.build(output));
+    }
+
+    /**
+     * Ordonne les lignes par partition, en gardant leur ordre au sein de chacune.
+     *
+     * @return La permutation des lignes, puis les bornes des partitions dans cette permutation
+     *         (la partition {@code p} occupe les positions {@code [bornes[p], bornes[p + 1])}).
+     */
+    private int[][] layout(int rows) {
+        int[] order = new int[rows];
+        if (partitions.length == 0) {
+            for (int r = 0; r < rows; r++) order[r] = r;
+            return new int[][] {order, {0, rows}};
+        }
+        long[][] codes = GroupBy.encodeKeys(df, partitions);
+        GroupTable table = new GroupTable(codes.length, 1024);
+        int[] groupOf = new int[rows];
+        for (int r = 0; r < rows; r++) {
+            groupOf[r] = table.findOrInsert(codes, r);
+        }
+        int[] bounds = new int[table.size() + 1];
+        for (int r = 0; r < rows; r++) bounds[groupOf[r] + 1]++;
+        for (int g = 0; g < table.size(); g++) bounds[g + 1] += bounds[g];
+        int[] next = Arrays.copyOf(bounds, table.size());
+        for (int r = 0; r < rows; r++) order[next[groupOf[r]]++] = r;
+        return new int[][] {order, bounds};
+    }
+
+    /**
+     * Calcul d'un agrégat : valeurs lues une fois dans l'ordre des partitions, résultats écrits
+     * à la position d'origine de chaque ligne. Les tranches parallèles écrivent des lignes disjointes.
+     */
+    private final class Pass {
+        private final Kind kind;
+        private final int[] order;
+        /** Valeurs dans l'ordre des partitions : entières ou décimales selon la colonne. */
+        private final long[] longs;
+        private final double[] doubles;
+        private final boolean[] present;
+        private final long[] outLongs;
+        private final double[] outDoubles;
+        private final boolean[] defined;
+
+        Pass(Kind kind, NumericSeries<?> input, int[] order) {
+            int rows = order.length;
+            boolean integral = input instanceof IntSeries || input instanceof LongSeries;
+            this.kind = kind;
+            this.order = order;
+            this.present = new boolean[rows];
+            this.defined = new boolean[rows];
+            this.longs = integral ? new long[rows] : null;
+            this.doubles = integral ? null : new double[rows];
+            boolean integralOutput = integral && (kind == Kind.SUM || kind == Kind.MIN || kind == Kind.MAX);
+            this.outLongs = integralOutput ? new long[rows] : null;
+            this.outDoubles = integralOutput ? null : new double[rows];
+            if (input instanceof IntSeries) {
+                IntSeries ints = (IntSeries) input;
+                for (int k = 0; k < rows; k++) {
+                    longs[k] = ints.getInt(order[k]);
+                    present[k] = !ints.isNull(order[k]);
+                }
+            } else if (input instanceof LongSeries) {
+                LongSeries values = (LongSeries) input;
+                for (int k = 0; k < rows; k++) {
+                    longs[k] = values.getLong(order[k]);
+                    present[k] = !values.isNull(order[k]);
+                }
+            } else {
+                for (int k = 0; k < rows; k++) {
+                    double v = input.getDouble(order[k]);
+                    doubles[k] = v;
+                    present[k] = v == v && !input.isNull(order[k]);
+                }
+            }
+        }
+
+        /** Calcule les positions {@code [from, to)}, découpées selon les partitions qu'elles traversent. */
+        void run(int[] bounds, int from, int to) {
+            int at = Arrays.binarySearch(bounds, from);
+            for (int p = at >= 0 ? at : -at - 2; p + 1 < bounds.length && bounds[p] < to; p++) {
+                int start = bounds[p];
+                int pieceFrom = Math.max(from, start);
+                int pieceTo = Math.min(to, bounds[p + 1]);
+                // Warm the window up on the rows preceding the piece.
+                int begin = pieceFrom - start < size ? start : pieceFrom - size + 1;
+                if (kind == Kind.MIN || kind == Kind.MAX) {
+                    extremes(begin, pieceFrom, pieceTo, kind == Kind.MAX);
+                } else {
+                    moments(begin, pieceFrom, pieceTo);
+                }
+            }
+        }
+
+        /** Somme, moyenne et écart type, mis à jour à l'entrée et à la sortie de chaque valeur. */
+        private void moments(int begin, int from, int to) {
+            boolean integral = longs != null;
+            boolean std = kind == Kind.STD;
+            int count = 0;
+            long exact = 0;
+            // Neumaier-compensated sum of the finite values; infinities are counted apart so that
+            // they leave the window without turning the sum into NaN.
+            double sum = 0;
+            double compensation = 0;
+            int positive = 0;
+            int negative = 0;
+            // Welford mean and sum of squared deviations of the finite values.
+            int finite = 0;
+            double mean = 0;
+            double m2 = 0;
+            for (int k = begin; k < to; k++) {
+                for (int step = 0; step < 2; step++) {
+                    // Step 0 adds the entering value, step 1 removes the one leaving the window.
+                    int position = step == 0 ? k : k - size;
+                    if (step == 1 && (size == UNBOUNDED || position < begin)) break;
+                    if (!present[position]) continue;
+                    int sign = step == 0 ? 1 : -1;
+                    count += sign;
+                    double v;
+                    if (integral) {
+                        exact += sign * longs[position];
+                        v = longs[position];
+                    } else {
+                        v = doubles[position];
+                        if (v == Double.POSITIVE_INFINITY) {
+                            positive += sign;
+                            continue;
+                        } else if (v == Double.NEGATIVE_INFINITY) {
+                            negative += sign;
+                            continue;
+                        }
+                        double signed = sign * v;
+                        double t = sum + signed;
+                        compensation += Math.abs(sum) >= Math.abs(signed) ? (sum - t) + signed : (signed - t) + sum;
+                        sum = t;
+                    }
+                    if (std) {
+                        finite += sign;
+                        if (finite == 0) {
+                            mean = 0;
+                            m2 = 0;
+                        } else {
+                            double d = v - mean;
+                            mean += sign * d / finite;
+                            m2 += sign * d * (v - mean);
+                        }
+                    }
+                }
+                if (std && size != UNBOUNDED && finite > 0 && (k - begin) % size == size - 1) {
+                    // Sliding updates drift over a long partition: recompute the window exactly once
+                    // per window length, which keeps the amortized cost constant.
+                    double s = 0;
+                    for (int j = k - size + 1; j <= k; j++) {
+                        if (present[j] && Double.isFinite(value(j))) s += value(j);
+                    }
+                    mean = s / finite;
+                    m2 = 0;
+                    for (int j = k - size + 1; j <= k; j++) {
+                        if (present[j] && Double.isFinite(value(j))) m2 += (value(j) - mean) * (value(j) - mean);
+                    }
+                }
+                if (k < from || count < minPeriods) continue;
+                int row = order[k];
+                defined[row] = true;
+                double total = integral ? exact
+                        : positive > 0 && negative > 0 ? Double.NaN
+                        : positive > 0 ? Double.POSITIVE_INFINITY
+                        : negative > 0 ? Double.NEGATIVE_INFINITY
+                        : sum + compensation;
+                switch (kind) {
+                    case SUM:
+                        if (integral) {
+                            outLongs[row] = exact;
+                        } else {
+                            outDoubles[row] = total;
+                        }
+                        break;
+                    case MEAN:
+                        outDoubles[row] = total / count;
+                        break;
+                    default:
+                        outDoubles[row] = count < 2 || finite < count ? Double.NaN
+                                : Math.sqrt(Math.max(m2, 0) / (count - 1));
+                }
+            }
+        }
+
+        /**
+         * Minimum ou maximum par file monotone : la file garde les positions des valeurs qui
+         * peuvent encore devenir l'extremum, de la plus ancienne (l'extremum courant) à la plus
+         * récente. Chaque position y entre et en sort au plus une fois.
+         */
+        private void extremes(int begin, int from, int to, boolean max) {
+            int capacity = Integer.highestOneBit(Math.max(2, (int) Math.min(size, (long) to - begin) + 1) - 1) << 1;
+            int[] queue = new int[capacity];
+            int mask = capacity - 1;
+            int head = 0;
+            int tail = 0;
+            int count = 0;
+            for (int k = begin; k < to; k++) {
+                int leaving = k - size;
+                if (size != UNBOUNDED && leaving >= begin && present[leaving]) {
+                    count--;
+                    if (queue[head & mask] == leaving) head++;
+                }
+                if (present[k]) {
+                    count++;
+                    while (tail != head && !dominates(queue[(tail - 1) & mask], k, max)) tail--;
+                    queue[tail++ & mask] = k;
+                }
+                if (k < from || count < minPeriods) continue;
+                int row = order[k];
+                int best = queue[head & mask];
+                defined[row] = true;
+                if (outLongs != null) {
+                    outLongs[row] = longs[best];
+                } else {
+                    outDoubles[row] = value(best);
+                }
+            }
+        }
+
+        private double value(int position) {
+            return longs != null ? longs[position] : doubles[position];
+        }
+
+        /** Indique si la valeur plus ancienne reste meilleure que la nouvelle. */
+        private boolean dominates(int older, int newer, boolean max) {
+            if (longs != null) {
+                return max ? longs[older] > longs[newer] : longs[older] < longs[newer];
+            }
+            return max ? doubles[older] > doubles[newer] : doubles[older] < doubles[newer];
+        }
+
+        Series<?> build(String label) {
+            int rows = defined.length;
+            long[] validity = new long[Bitmaps.words(rows)];
+            for (int r = 0; r < rows; r++) {
+                if (defined[r]) validity[r >>> 6] |= 1L << r;
+            }
+            long[] nullable = Bitmaps.cardinality(validity) == rows ? null : validity;
+            return outLongs != null ? ExpressionProgram.integers(label, outLongs, nullable)
+                                    : new DoubleSeries(label, outDoubles, nullable);
+        }
+    }
+}
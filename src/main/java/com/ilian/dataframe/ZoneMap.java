@@ -0,0 +1,43 @@
+package com.ilian.dataframe;
+
+/**
+ * Minimum et maximum de chaque bloc de {@value #BLOCK_SIZE} lignes d'une colonne numérique.
+ *
+ * Un filtre d'intervalle consulte ces bornes avant de parcourir un bloc : un bloc dont
+ * l'intervalle [min, max] ne rencontre pas celui du filtre est ignoré, et un bloc entièrement
+ * inclus est retenu sans lire ses valeurs.
+ */
+final class ZoneMap {
+    /** Taille d'un bloc, multiple de 64 pour que chaque bloc couvre des mots entiers du bitmap. */
+    static final int BLOCK_SIZE = 1 << 16;
+
+    private final double[] mins;
+    private final double[] maxs;
+    /** Blocs dont les bornes ne décrivent pas exactement les valeurs (NaN, entiers au-delà de 2^53). */
+    private final boolean[] approximate;
+
+    ZoneMap(double[] mins, double[] maxs, boolean[] approximate) {
+        this.mins = mins;
+        this.maxs = maxs;
+        this.approximate = approximate;
+    }
+
+    int blocks() {
+        return mins.length;
+    }
+
+    /** Indique si une valeur du bloc peut appartenir à l'intervalle. */
+    boolean mayMatch(int block, double lo, boolean loInclusive, double hi, boolean hiInclusive) {
+        double max = maxs[block];
+        double min = mins[block];
+        return (loInclusive ? max >= lo : max > lo) && (hiInclusive ? min <= hi : min < hi);
+    }
+
+    /** Indique si toutes les valeurs du bloc appartiennent à l'intervalle. */
+    boolean allMatch(int block, double lo, boolean loInclusive, double hi, boolean hiInclusive) {
+        double max = maxs[block];
+        double min = mins[block];
+        return !approximate[block]
+                && (loInclusive ? min >= lo : min > lo) && (hiInclusive ? max <= hi : max < hi);
+    }
+}
@@ -0,0 +1,30 @@
+package com.ilian.dataframe;
+
+import java.lang.foreign.Arena;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Mémoire hors du tas à base de {@code MemorySegment}, allouée dans une {@link Arena} partagée.
+ *
+ * Compilée seulement avec le profil Maven {@code ffm} (JDK 22 ou plus) ; chargée par réflexion
+ * depuis {@link NativeMemory}. La fermeture de l'arène libère tous les segments à la fois et
+ * invalide les tampons qui les exposent : une lecture ultérieure lève une
+ * {@link IllegalStateException} au lieu d'accéder à de la mémoire libérée.
+ */
+final class SegmentMemory implements NativeMemory {
+    /** Alignement des blocs : une ligne de cache. */
+    private static final long ALIGNMENT = 64;
+
+    private final Arena arena = Arena.ofShared();
+
+    @Override
+    public ByteBuffer allocate(int bytes) {
+        return arena.allocate(bytes, ALIGNMENT).asByteBuffer().order(ByteOrder.nativeOrder());
+    }
+
+    @Override
+    public void close() {
+        arena.close();
+    }
+}
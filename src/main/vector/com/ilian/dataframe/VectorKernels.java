@@ -0,0 +1,153 @@
+package com.ilian.dataframe;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Noyaux SIMD écrits avec l'API Vector du JDK ({@code jdk.incubator.vector}).
+ *
+ * Compilée seulement avec le profil Maven {@code vector} ; chargée par réflexion depuis
+ * {@link NumericKernels}. Les sommes d'entiers sont élargies en {@code long} (4 voies sur
+ * 256 bits) pour ne pas déborder ; les sommes de flottants sont réassociées par voie et
+ * peuvent différer de la version scalaire au dernier bit près.
+ */
+final class VectorKernels implements NumericKernels {
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+    /** Quatre entiers, élargis en quatre longs ou quatre flottants de 256 bits. */
+    private static final VectorSpecies<Integer> INTS_128 = IntVector.SPECIES_128;
+    private static final VectorSpecies<Long> LONGS_256 = LongVector.SPECIES_256;
+    private static final VectorSpecies<Double> DOUBLES_256 = DoubleVector.SPECIES_256;
+
+    private final ScalarKernels scalar = new ScalarKernels();
+
+    @Override
+    public long sum(int[] a, int from, int to) {
+        LongVector acc = LongVector.zero(LONGS_256);
+        int i = from;
+        for (int bound = from + INTS_128.loopBound(to - from); i < bound; i += INTS_128.length()) {
+            acc = acc.add(IntVector.fromArray(INTS_128, a, i).convertShape(VectorOperators.I2L, LONGS_256, 0));
+        }
+        return acc.reduceLanes(VectorOperators.ADD) + scalar.sum(a, i, to);
+    }
+
+    @Override
+    public int min(int[] a, int from, int to) {
+        IntVector acc = IntVector.broadcast(INTS, Integer.MAX_VALUE);
+        int i = from;
+        for (int bound = from + INTS.loopBound(to - from); i < bound; i += INTS.length()) {
+            acc = acc.min(IntVector.fromArray(INTS, a, i));
+        }
+        return Math.min(acc.reduceLanes(VectorOperators.MIN), scalar.min(a, i, to));
+    }
+
+    @Override
+    public int max(int[] a, int from, int to) {
+        IntVector acc = IntVector.broadcast(INTS, Integer.MIN_VALUE);
+        int i = from;
+        for (int bound = from + INTS.loopBound(to - from); i < bound; i += INTS.length()) {
+            acc = acc.max(IntVector.fromArray(INTS, a, i));
+        }
+        return Math.max(acc.reduceLanes(VectorOperators.MAX), scalar.max(a, i, to));
+    }
+
+    @Override
+    public double squaredDeviations(int[] a, int from, int to, double mean) {
+        DoubleVector m = DoubleVector.broadcast(DOUBLES_256, mean);
+        DoubleVector acc = DoubleVector.zero(DOUBLES_256);
+        int i = from;
+        for (int bound = from + INTS_128.loopBound(to - from); i < bound; i += INTS_128.length()) {
+            DoubleVector d = ((DoubleVector) IntVector.fromArray(INTS_128, a, i)
+                    .convertShape(VectorOperators.I2D, DOUBLES_256, 0)).sub(m);
+            acc = d.fma(d, acc);
+        }
+        return acc.reduceLanes(VectorOperators.ADD) + scalar.squaredDeviations(a, i, to, mean);
+    }
+
+    @Override
+    public void selectRange(int[] a, int start, int rows, int lo, int hi, long[] out, int firstWord) {
+        int lanes = INTS.length();
+        int full = rows & ~63;
+        for (int base = 0, w = firstWord; base < full; base += 64, w++) {
+            long bits = 0;
+            for (int k = 0; k < 64; k += lanes) {
+                IntVector v = IntVector.fromArray(INTS, a, start + base + k);
+                VectorMask<Integer> match = v.compare(VectorOperators.GE, lo).and(v.compare(VectorOperators.LE, hi));
+                bits |= match.toLong() << k;
+            }
+            out[w] = bits;
+        }
+        if (full < rows) {
+            scalar.selectRange(a, start + full, rows - full, lo, hi, out, firstWord + (full >>> 6));
+        }
+    }
+
+    @Override
+    public double sum(double[] a, int from, int to) {
+        DoubleVector acc = DoubleVector.zero(DOUBLES);
+        int i = from;
+        for (int bound = from + DOUBLES.loopBound(to - from); i < bound; i += DOUBLES.length()) {
+            acc = acc.add(DoubleVector.fromArray(DOUBLES, a, i));
+        }
+        return acc.reduceLanes(VectorOperators.ADD) + scalar.sum(a, i, to);
+    }
+
+    @Override
+    public double min(double[] a, int from, int to) {
+        DoubleVector acc = DoubleVector.broadcast(DOUBLES, Double.POSITIVE_INFINITY);
+        int i = from;
+        for (int bound = from + DOUBLES.loopBound(to - from); i < bound; i += DOUBLES.length()) {
+            DoubleVector v = DoubleVector.fromArray(DOUBLES, a, i);
+            acc = acc.blend(v, v.compare(VectorOperators.LT, acc)); // NaN never compares lower
+        }
+        return Math.min(acc.reduceLanes(VectorOperators.MIN), scalar.min(a, i, to));
+    }
+
+    @Override
+    public double max(double[] a, int from, int to) {
+        DoubleVector acc = DoubleVector.broadcast(DOUBLES, Double.NEGATIVE_INFINITY);
+        int i = from;
+        for (int bound = from + DOUBLES.loopBound(to - from); i < bound; i += DOUBLES.length()) {
+            DoubleVector v = DoubleVector.fromArray(DOUBLES, a, i);
+            acc = acc.blend(v, v.compare(VectorOperators.GT, acc));
+        }
+        return Math.max(acc.reduceLanes(VectorOperators.MAX), scalar.max(a, i, to));
+    }
+
+    @Override
+    public double squaredDeviations(double[] a, int from, int to, double mean) {
+        DoubleVector m = DoubleVector.broadcast(DOUBLES, mean);
+        DoubleVector acc = DoubleVector.zero(DOUBLES);
+        int i = from;
+        for (int bound = from + DOUBLES.loopBound(to - from); i < bound; i += DOUBLES.length()) {
+            DoubleVector d = DoubleVector.fromArray(DOUBLES, a, i).sub(m);
+            acc = d.fma(d, acc);
+        }
+        return acc.reduceLanes(VectorOperators.ADD) + scalar.squaredDeviations(a, i, to, mean);
+    }
+
+    @Override
+    public void selectRange(double[] a, int start, int rows, double lo, boolean loInclusive,
+                            double hi, boolean hiInclusive, long[] out, int firstWord) {
+        VectorOperators.Comparison above = loInclusive ? VectorOperators.GE : VectorOperators.GT;
+        VectorOperators.Comparison below = hiInclusive ? VectorOperators.LE : VectorOperators.LT;
+        int lanes = DOUBLES.length();
+        int full = rows & ~63;
+        for (int base = 0, w = firstWord; base < full; base += 64, w++) {
+            long bits = 0;
+            for (int k = 0; k < 64; k += lanes) {
+                DoubleVector v = DoubleVector.fromArray(DOUBLES, a, start + base + k);
+                bits |= v.compare(above, lo).and(v.compare(below, hi)).toLong() << k;
+            }
+            out[w] = bits;
+        }
+        if (full < rows) {
+            scalar.selectRange(a, start + full, rows - full, lo, loInclusive, hi, hiInclusive,
+                    out, firstWord + (full >>> 6));
+        }
+    }
+}
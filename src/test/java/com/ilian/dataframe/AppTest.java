@@ -23,5 +23,6 @@ public class AppTest {
         assertEquals("Alice", df.getColumn("Nom").get(0));
         assertEquals(22, df.getColumn("Age").get(0));
         assertEquals(15, df.getColumn("Note").get(0));
+        assertTrue(df.getColumn("Age") instanceof IntSeries, "Les colonnes entières doivent être stockées en int[]");
     }
 }
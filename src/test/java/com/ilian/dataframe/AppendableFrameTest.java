@@ -0,0 +1,181 @@
+package com.ilian.dataframe;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class AppendableFrameTest {
+
+    private static DataFrame batch(int first, int rows, boolean decimal) {
+        int[] ids = new int[rows];
+        double[] prices = new double[rows];
+        long[] validity = new long[Bitmaps.words(rows)];
+        List<String> tickers = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            ids[i] = first + i;
+            prices[i] = decimal ? (first + i) % 100 + 0.5 : (first + i) % 100;
+            if ((first + i) % 10 != 0) validity[i >>> 6] |= 1L << i;
+            tickers.add("T" + (first + i) % 5);
+        }
+        return new DataFrame(Arrays.asList(new IntSeries("Id", ids), new DoubleSeries("Prix", prices, validity),
+                new Series<>("Titre", tickers)));
+    }
+
+    @Test
+    void testAppendAcrossChunks() {
+        AppendableFrame frame = new AppendableFrame("Id", "Prix", "Titre");
+        assertEquals(0, frame.getRowCount());
+        assertNull(frame.getStatistics("Prix"));
+
+        frame.append(batch(0, 10, false));
+        DataFrame early = frame.snapshot();
+        frame.append(batch(10, 2 * AppendableFrame.CHUNK_ROWS, false))
+                .append(batch(10 + 2 * AppendableFrame.CHUNK_ROWS, 5000, true).selectColumns("Titre", "Prix", "Id"));
+        int rows = 10 + 2 * AppendableFrame.CHUNK_ROWS + 5000;
+
+        assertEquals(10, early.getRowCount(), "Une copie publiée n'est pas modifiée par les ajouts suivants.");
+        assertEquals(rows, frame.getRowCount());
+        DataFrame all = frame.snapshot();
+        assertSame(all, frame.snapshot(), "Le DataFrame d'une version est conservé.");
+        assertEquals(Arrays.asList("Id", "Prix", "Titre"), new ArrayList<>(all.getColumnLabels()));
+        assertTrue(all.getColumn("Prix") instanceof DoubleSeries);
+        for (int i = 0; i < rows; i += 997) {
+            assertEquals(i, all.getColumn("Id").get(i));
+            assertEquals(i % 10 == 0 ? null : i % 100 + (i >= rows - 5000 ? 0.5 : 0), all.getColumn("Prix").get(i));
+            assertEquals("T" + i % 5, all.getColumn("Titre").get(i));
+        }
+
+        Map<String, Double> expected = all.getStatistics("Prix");
+        Map<String, Double> fresh = frame.getStatistics("Prix");
+        assertEquals(expected.get("count"), fresh.get("count"));
+        assertEquals(expected.get("nullCount"), fresh.get("nullCount"));
+        assertEquals(expected.get("min"), fresh.get("min"));
+        assertEquals(expected.get("max"), fresh.get("max"));
+        assertEquals(expected.get("mean"), fresh.get("mean"), 1e-9);
+        assertEquals(expected.get("variance"), fresh.get("variance"), 1e-6);
+        assertNull(frame.getStatistics("Titre"));
+        assertNull(frame.getStatistics("Absente"));
+
+        frame.append(new DataFrame(Arrays.asList(new Series<>("Id", Arrays.asList((Object) "X")),
+                new Series<>("Prix", Arrays.asList((Object) null)), new Series<>("Titre", Arrays.asList((Object) "T9")))));
+        DataFrame widened = frame.snapshot();
+        assertEquals("0", widened.getColumn("Id").get(0), "Une colonne qui reçoit du texte devient textuelle.");
+        assertEquals("X", widened.getColumn("Id").get(rows));
+        assertNull(widened.getColumn("Prix").get(rows));
+
+        assertThrows(IllegalArgumentException.class, () -> frame.append(batch(0, 1, false).selectColumns("Id", "Prix")));
+        assertThrows(IllegalArgumentException.class, () -> new AppendableFrame("A", "A"));
+        assertThrows(IllegalArgumentException.class, AppendableFrame::new);
+    }
+
+    @Test
+    void testPublishedVersionsKeepTheirRows() {
+        AppendableFrame frame = new AppendableFrame("Id", "Prix", "Titre");
+        List<DataFrame> versions = new ArrayList<>();
+        int rows = 0;
+        // Small batches, as a follower publishing every poll: each version is a view on the
+        // same growing columns, which later writes widen or re-encode without touching it.
+        for (int step = 0; rows < 3 * AppendableFrame.CHUNK_ROWS; step++) {
+            int size = 1 + step * 37 % 1500;
+            frame.append(batch(rows, size, rows > 2 * AppendableFrame.CHUNK_ROWS));
+            rows += size;
+            versions.add(frame.snapshot());
+        }
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < 2 * AppendableFrame.CHUNK_ROWS; i++) {
+            names.add("N" + i);
+        }
+        long[] large = new long[names.size()];
+        Arrays.fill(large, 1L << 40);
+        frame.append(new DataFrame(Arrays.asList(new LongSeries("Id", large),
+                new DoubleSeries("Prix", new double[names.size()]), new Series<>("Titre", names))));
+        DataFrame last = frame.snapshot();
+        assertEquals("N5", last.getColumn("Titre").get(rows + 5));
+        assertEquals(1L << 40, last.getColumn("Id").get(rows + 5));
+        assertEquals(7L, last.getColumn("Id").get(7));
+
+        for (DataFrame version : versions) {
+            int count = version.getRowCount();
+            for (String label : version.getColumnLabels()) {
+                assertEquals(count, version.getColumn(label).size(), label);
+            }
+            for (int i = 0; i < count; i += 113) {
+                assertEquals(i, ((Number) version.getColumn("Id").get(i)).intValue());
+                Object price = version.getColumn("Prix").get(i);
+                assertEquals(last.getColumn("Prix").get(i), price == null ? null : ((Number) price).doubleValue());
+                assertEquals("T" + i % 5, version.getColumn("Titre").get(i));
+            }
+        }
+    }
+
+    @Test
+    void testFailedConversionKeepsColumnsAligned() throws Exception {
+        AppendableFrame frame = new AppendableFrame(new String[] {"A", "B", "C"}, (from, to) -> {
+            throw new IOException("Fichier illisible");
+        });
+        List<String> lines = new ArrayList<>();
+        long[] ends = new long[AppendableFrame.CHUNK_ROWS + 1];
+        for (int i = 0; i < ends.length; i++) {
+            lines.add(i + ",1,2");
+            ends[i] = 6L * (i + 1);
+        }
+        frame.appendLines(lines, 0, ends);
+        frame.publish();
+        int rows = frame.getRowCount();
+
+        DataFrame text = new DataFrame(Arrays.asList(new IntSeries("A", new int[] {1}),
+                new IntSeries("B", new int[] {2}), new Series<>("C", Arrays.asList((Object) "x"))));
+        assertThrows(UncheckedIOException.class, () -> frame.append(text));
+        assertThrows(IOException.class, () -> frame.appendLines(Arrays.asList("7,8,y"), 0, new long[] {6}));
+        frame.append(new DataFrame(Arrays.asList(new IntSeries("A", new int[] {0}),
+                new IntSeries("B", new int[] {1}), new IntSeries("C", new int[] {1}))));
+
+        DataFrame all = frame.snapshot();
+        assertEquals(rows + 1, all.getRowCount(), "Les lignes refusées ne sont ajoutées à aucune colonne.");
+        for (String label : all.getColumnLabels()) {
+            assertEquals(rows + 1, all.getColumn(label).size(), label);
+        }
+        assertEquals(1, all.getColumn("C").get(rows));
+    }
+
+    @Test
+    void testReadersSeeConsistentVersions() throws Exception {
+        AppendableFrame frame = new AppendableFrame("Id", "Prix", "Titre");
+        int batches = 60;
+        int size = 1000;
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread reader = new Thread(() -> {
+            try {
+                double last = 0;
+                while (last < batches * size) {
+                    Map<String, Double> stats = frame.getStatistics("Id");
+                    double count = stats == null ? 0 : stats.get("count");
+                    assertTrue(count >= last, "Les versions ne reculent pas.");
+                    assertEquals(0, count % size, "Un lot est publié en entier.");
+                    if (count > 0) assertEquals(count - 1, stats.get("max"));
+                    DataFrame snapshot = frame.snapshot();
+                    assertEquals(snapshot.getRowCount(), snapshot.getColumn("Titre").size());
+                    last = count;
+                }
+            } catch (Throwable e) {
+                failure.set(e);
+            }
+        });
+        reader.start();
+        for (int b = 0; b < batches; b++) {
+            frame.append(batch(b * size, size, false));
+        }
+        reader.join(30_000);
+        assertFalse(reader.isAlive());
+        if (failure.get() != null) {
+            throw new AssertionError(failure.get());
+        }
+    }
+}
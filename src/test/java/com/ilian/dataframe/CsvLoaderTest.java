@@ -0,0 +1,401 @@
+package com.ilian.dataframe;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class CsvLoaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path writeCsv(String content) throws Exception {
+        Path file = tempDir.resolve("data.csv");
+        Files.writeString(file, content);
+        return file;
+    }
+
+    @Test
+    void testLoadParallelMatchesLoad() throws Exception {
+        StringBuilder sb = new StringBuilder("Id,Nom,Note,Code\r\n");
+        for (int i = 0; i < 500; i++) {
+            sb.append(i).append(",Eleve").append(i).append(',').append(i % 20).append(".5,").append(i).append("\r\n");
+        }
+        sb.append("500,Dernier,10.25,X12"); // no trailing newline, and Code becomes text in the last chunk
+        Path file = writeCsv(sb.toString());
+
+        DataFrame expected = CsvLoader.load(file.toString());
+        DataFrame actual = CsvLoader.loadParallel(file, new ForkJoinPool(4), 64);
+
+        assertEquals(501, actual.getRowCount());
+        assertEquals(expected.getColumnLabels(), actual.getColumnLabels());
+        assertTrue(actual.getColumn("Id") instanceof IntSeries);
+        assertTrue(actual.getColumn("Note") instanceof DoubleSeries);
+        assertFalse(actual.getColumn("Code") instanceof NumericSeries, "Une seule cellule texte doit rendre la colonne textuelle.");
+        for (String label : expected.getColumnLabels()) {
+            assertEquals(expected.getColumn(label).getValues(), actual.getColumn(label).getValues(), "Colonne " + label);
+        }
+        assertEquals("0", actual.getColumn("Code").get(0));
+    }
+
+    @Test
+    void testLoadParallelWidensAcrossChunks() throws Exception {
+        Path file = writeCsv("Valeur\n1\n2\n3\n4\n5000000000\n6\n7\n8.5\n");
+
+        DataFrame df = CsvLoader.loadParallel(file, ForkJoinPool.commonPool(), 4);
+
+        DoubleSeries values = (DoubleSeries) df.getColumn("Valeur");
+        assertEquals(8, values.size());
+        assertEquals(5_000_000_000.0, values.getDouble(4));
+        assertEquals(8.5, values.getDouble(7));
+    }
+
+    @Test
+    void testLoadParallelHeaderOnly() throws Exception {
+        Path file = writeCsv("A,B\n");
+        DataFrame df = CsvLoader.loadParallel(file.toString());
+        assertEquals(2, df.getColumnCount());
+        assertEquals(0, df.getRowCount());
+    }
+
+    @Test
+    void testLoadParallelEmptyFile() throws Exception {
+        Path file = writeCsv("");
+        assertThrows(java.io.IOException.class, () -> CsvLoader.loadParallel(file.toString()));
+    }
+
+    @Test
+    void testLoadWidensInPlace() throws Exception {
+        Path file = writeCsv("A,B,C,D\n1,1,1,x\n2,3000000000,2.5,2\n-3,4,3,3\n");
+
+        DataFrame df = CsvLoader.load(file.toString());
+
+        assertEquals(-3, ((IntSeries) df.getColumn("A")).getInt(2));
+        assertEquals(3_000_000_000L, ((LongSeries) df.getColumn("B")).getLong(1));
+        assertEquals(2.5, ((DoubleSeries) df.getColumn("C")).getDouble(1));
+        assertEquals("2", df.getColumn("D").get(1), "Une colonne textuelle conserve les valeurs brutes.");
+    }
+
+    @Test
+    void testLoadWithSchemaSkipsInference() throws Exception {
+        Path file = writeCsv("Nom,Age,Note\nAlice,22,15\nBob,23,13\n");
+
+        DataFrame df = CsvLoader.load(file.toString(), new CsvOptions()
+                .columnType("Age", ColumnType.LONG)
+                .columnType("Note", ColumnType.STRING));
+
+        assertEquals(23L, ((LongSeries) df.getColumn("Age")).getLong(1));
+        assertEquals("15", df.getColumn("Note").get(0));
+        assertEquals("Alice", df.getColumn("Nom").get(0));
+    }
+
+    @Test
+    void testLoadWithSchemaRejectsInvalidValue() throws Exception {
+        Path file = writeCsv("Nom,Age\nAlice,22\nBob,vingt\n");
+
+        CsvOptions options = new CsvOptions().columnType("Age", ColumnType.INT);
+        java.io.IOException e = assertThrows(java.io.IOException.class, () -> CsvLoader.load(file.toString(), options));
+        assertTrue(e.getMessage().contains("ligne 3"));
+        assertThrows(IllegalArgumentException.class,
+                () -> CsvLoader.load(file.toString(), new CsvOptions().columnType("Inconnue", ColumnType.INT)));
+    }
+
+    @Test
+    void testLoadWithSampleInference() throws Exception {
+        Path file = writeCsv("Code,Valeur\nA1,1\n2,2\n3,2.5\n");
+
+        DataFrame df = CsvLoader.load(file.toString(), new CsvOptions().inferenceSampleSize(1));
+
+        assertEquals("2", df.getColumn("Code").get(1), "Une colonne texte dans l'échantillon reste du texte.");
+        assertEquals(2.5, ((DoubleSeries) df.getColumn("Valeur")).getDouble(2), "Une valeur plus large hors échantillon élargit la colonne.");
+    }
+
+    @Test
+    void testRepetitiveTextIsDictionaryEncoded() throws Exception {
+        StringBuilder sb = new StringBuilder("Nom,Ville\n");
+        String[] cities = {"Paris", "Lyon", "Nice"};
+        for (int i = 0; i < 300; i++) {
+            sb.append("Eleve").append(i).append(',').append(cities[i % 3]).append('\n');
+        }
+        Path file = writeCsv(sb.toString());
+
+        for (DataFrame df : new DataFrame[] {CsvLoader.load(file.toString()), CsvLoader.loadParallel(file, ForkJoinPool.commonPool(), 256)}) {
+            assertFalse(df.getColumn("Nom") instanceof DictionarySeries);
+            DictionarySeries ville = (DictionarySeries) df.getColumn("Ville");
+            assertEquals(3, ville.getDictionarySize());
+            assertEquals("Nice", ville.get(299));
+        }
+    }
+
+    @Test
+    void testEmptyCellsBecomeNulls() throws Exception {
+        StringBuilder sb = new StringBuilder("Nom,Age,Note,Vide\n");
+        for (int i = 0; i < 300; i++) {
+            sb.append("Eleve").append(i).append(',').append(i % 7 == 0 ? "" : String.valueOf(20 + i % 5)).append(',');
+            if (i % 10 == 0) {
+                sb.append('\n'); // short row: Note and Vide are missing
+            } else {
+                sb.append(i % 4).append(".5,\n");
+            }
+        }
+        Path file = writeCsv(sb.toString());
+
+        DataFrame expected = CsvLoader.load(file.toString());
+        DataFrame actual = CsvLoader.loadParallel(file, new ForkJoinPool(4), 256);
+        for (DataFrame df : new DataFrame[] {expected, actual}) {
+            IntSeries age = (IntSeries) df.getColumn("Age");
+            assertTrue(age.isNull(0));
+            assertEquals(21, age.get(1));
+            assertEquals(43.0, df.getStatistics("Age").get("nullCount"));
+            assertTrue(df.getColumn("Note") instanceof DoubleSeries, "Les cellules vides ne rendent pas la colonne textuelle.");
+            assertNull(df.getColumn("Note").get(10));
+            assertEquals(30.0, df.getStatistics("Note").get("nullCount"));
+            assertFalse(df.getColumn("Vide") instanceof NumericSeries, "Une colonne entièrement vide reste textuelle.");
+        }
+        for (String label : expected.getColumnLabels()) {
+            assertEquals(expected.getColumn(label).getValues(), actual.getColumn(label).getValues(), "Colonne " + label);
+        }
+    }
+
+    @Test
+    void testStreamBatches() throws Exception {
+        StringBuilder sb = new StringBuilder("Id,Note,Code\n");
+        for (int i = 0; i < 1000; i++) {
+            sb.append(i == 950 ? "5000000000" : String.valueOf(i)).append(',');
+            sb.append(i % 9 == 0 ? "" : (i % 20) + ".5").append(',');
+            sb.append(i == 450 ? "X" + i : String.valueOf(i)).append('\n');
+        }
+        Path file = writeCsv(sb.toString());
+        DataFrame full = CsvLoader.load(file.toString());
+
+        List<Integer> sizes = new ArrayList<>();
+        List<Object> ids = new ArrayList<>();
+        List<Object> codes = new ArrayList<>();
+        try (Stream<DataFrame> batches = CsvLoader.stream(file.toString(), 300)) {
+            batches.forEach(batch -> {
+                sizes.add(batch.getRowCount());
+                ids.addAll(batch.getColumn("Id").getValues());
+                codes.addAll(batch.getColumn("Code").getValues().stream().map(String::valueOf).collect(Collectors.toList()));
+                assertTrue(batch.getColumn("Note") instanceof DoubleSeries);
+                if (sizes.size() == 1) {
+                    assertTrue(batch.getColumn("Id") instanceof IntSeries);
+                    assertTrue(batch.getColumn("Code") instanceof IntSeries);
+                }
+                if (sizes.size() == 2) {
+                    assertFalse(batch.getColumn("Code") instanceof NumericSeries, "La colonne devient textuelle dans le lot où le texte apparaît.");
+                }
+            });
+        }
+        assertEquals(Arrays.asList(300, 300, 300, 100), sizes);
+        assertEquals(full.getColumn("Code").getValues(), codes);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(((Number) full.getColumn("Id").get(i)).longValue(), ((Number) ids.get(i)).longValue());
+        }
+
+        Map<String, ColumnStatistics> streamed = CsvLoader.streamStatistics(file.toString(), 128);
+        for (String label : new String[] {"Id", "Note"}) {
+            Map<String, Double> expected = full.getStatistics(label);
+            Map<String, Double> actual = streamed.get(label).asMap();
+            for (String key : new String[] {"count", "nullCount", "sum", "min", "max"}) {
+                assertEquals(expected.get(key), actual.get(key), label + " " + key);
+            }
+            assertEquals(expected.get("mean"), actual.get("mean"), 1e-6);
+            assertEquals(1.0, actual.get("variance") / expected.get("variance"), 1e-9);
+            assertEquals(expected.get("distinct"), actual.get("distinct"), expected.get("distinct") * 0.05);
+        }
+        assertEquals(1000.0, streamed.get("Code").asMap().get("count"));
+    }
+
+    @Test
+    void testToCsvRoundTrip() throws Exception {
+        Path source = writeCsv("Id,Nom,Note,Grand,Petit\n1,Alice,12.5,5000000000,0.0001\n2,,15.0,,-0.00000000003\n,Emile,,7,2.0\n");
+        DataFrame df = CsvLoader.load(source.toString());
+
+        Path exported = tempDir.resolve("export.csv");
+        df.toCSV(exported);
+        DataFrame reloaded = CsvLoader.load(exported.toString());
+
+        assertEquals(df.getColumnLabels(), reloaded.getColumnLabels());
+        for (String label : df.getColumnLabels()) {
+            assertEquals(df.getColumn(label).getClass(), reloaded.getColumn(label).getClass(), "Type de " + label);
+            assertEquals(df.getColumn(label).getValues(), reloaded.getColumn(label).getValues(), "Colonne " + label);
+        }
+        List<String> lines = Files.readAllLines(exported);
+        assertEquals("Id,Nom,Note,Grand,Petit", lines.get(0));
+        assertEquals("1,Alice,12.5,5000000000,0.0001", lines.get(1));
+        assertEquals("2,,15.0,,-0.00000000003", lines.get(2));
+
+        DataFrame special = new DataFrame(Arrays.asList(new DoubleSeries("x",
+                new double[] {1.5, Double.NaN, 1e300, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY})));
+        Path nonFinite = tempDir.resolve("non-finite.csv");
+        special.toCSV(nonFinite);
+        DataFrame back = CsvLoader.load(nonFinite.toString());
+        assertTrue(back.getColumn("x") instanceof DoubleSeries, "Les valeurs non finies ne rendent pas la colonne textuelle.");
+        assertEquals(Arrays.asList(1.5, null, 1e300, null, null), back.getColumn("x").getValues());
+
+        DataFrame text = new DataFrame(Arrays.asList(new Series<>("Texte", Arrays.asList("dit \"oui\"", "Zoé", "naïve"))));
+        Path utf8 = tempDir.resolve("texte.csv");
+        text.toCSV(utf8);
+        assertEquals(text.getColumn("Texte").getValues(), CsvLoader.load(utf8.toString()).getColumn("Texte").getValues());
+        assertEquals(text.getColumn("Texte").getValues(), CsvLoader.loadParallel(utf8.toString()).getColumn("Texte").getValues());
+
+        Path unreadable = tempDir.resolve("virgule.csv");
+        for (String cell : Arrays.asList("a,b", "deux\nlignes")) {
+            DataFrame split = new DataFrame(Arrays.asList(new Series<>("Texte", Arrays.asList("x", cell))));
+            assertThrows(IllegalArgumentException.class, () -> split.toCSV(unreadable));
+            assertFalse(Files.exists(unreadable), "Un export refusé ne laisse pas de fichier partiel.");
+        }
+    }
+
+    @Test
+    void testLoadAllUnionsShards() throws Exception {
+        Path shards = Files.createDirectory(tempDir.resolve("shards"));
+        StringBuilder all = new StringBuilder("Id,Nom,Note,Code\n");
+        for (int f = 0; f < 12; f++) {
+            StringBuilder sb = new StringBuilder("Id,Nom,Note,Code\n");
+            for (int i = 0; i < 300; i++) {
+                int id = f * 300 + i;
+                // Note is an integer in most shards, Code becomes text in the last one.
+                String row = id + ",Eleve" + id % 40 + "," + (f == 5 ? (i % 20) + ".5" : String.valueOf(i % 20))
+                        + "," + (f == 11 && i == 299 ? "X" + i : i % 7 == 0 ? "" : String.valueOf(i)) + "\n";
+                sb.append(row);
+                all.append(row);
+            }
+            Files.writeString(shards.resolve(String.format("jour-%02d.csv", f)), sb.toString());
+        }
+        Files.writeString(shards.resolve("notes.txt"), "ignoré");
+        Path whole = writeCsv(all.toString());
+
+        DataFrame expected = CsvLoader.load(whole.toString());
+        DataFrame actual = CsvLoader.loadAll(CsvLoader.listFiles(shards), new ForkJoinPool(4), 1024);
+        assertEquals(3600, actual.getRowCount());
+        assertTrue(actual.getColumn("Note") instanceof DoubleSeries);
+        assertFalse(actual.getColumn("Code") instanceof NumericSeries);
+        for (String label : expected.getColumnLabels()) {
+            assertEquals(expected.getColumn(label).getValues(), actual.getColumn(label).getValues(), "Colonne " + label);
+        }
+        assertEquals(expected.getColumn("Id").getValues(), CsvLoader.loadAll(shards).getColumn("Id").getValues());
+
+        DataFrame globbed = CsvLoader.loadAll(shards.resolve("jour-0[0-2].csv"));
+        assertEquals(900, globbed.getRowCount());
+        assertTrue(globbed.getColumn("Note") instanceof IntSeries);
+        assertThrows(java.io.IOException.class, () -> CsvLoader.loadAll(shards.resolve("mois-*.csv")));
+    }
+
+    @Test
+    void testLoadAllMatchesColumnsByLabel() throws Exception {
+        Path shards = Files.createDirectory(tempDir.resolve("shards"));
+        Files.writeString(shards.resolve("a.csv"), "Id,Note\n1,12\n2,14\n");
+        Files.writeString(shards.resolve("b.csv"), "Note,Id,Commentaire\n9.5,3,bien\n");
+        Files.createDirectory(shards.resolve("c"));
+        Files.writeString(shards.resolve("c").resolve("d.csv"), "Id\n4\n");
+
+        DataFrame df = CsvLoader.loadAll(tempDir.resolve("shards/**.csv"));
+
+        assertEquals(Arrays.asList("Id", "Note", "Commentaire"), new ArrayList<>(df.getColumnLabels()));
+        assertEquals(Arrays.asList(1, 2, 3, 4), df.getColumn("Id").getValues());
+        assertEquals(Arrays.asList(12.0, 14.0, 9.5, null), df.getColumn("Note").getValues());
+        assertEquals(Arrays.asList("", "", "bien", ""), df.getColumn("Commentaire").getValues());
+    }
+
+    @Test
+    void testFollowAppendsNewRows() throws Exception {
+        Path feed = tempDir.resolve("feed.csv");
+        Files.writeString(feed, "Titre,Prix\r\nA,10\nB,12\n");
+        try (CsvFollower follower = CsvLoader.follow(feed.toString())) {
+            AppendableFrame frame = follower.getFrame();
+            assertEquals(Arrays.asList("Titre", "Prix"), frame.getColumnLabels());
+            assertEquals(2, frame.getRowCount());
+            assertEquals(0, follower.poll());
+
+            Files.writeString(feed, "A,14\nB,1", StandardOpenOption.APPEND);
+            assertEquals(1, follower.poll(), "Une ligne incomplète attend la suite.");
+            assertEquals(14.0, frame.getStatistics("Prix").get("max"));
+            Files.writeString(feed, "6.5\n\nC,\n", StandardOpenOption.APPEND);
+            assertEquals(2, follower.poll());
+
+            DataFrame df = frame.snapshot();
+            assertEquals(Arrays.asList("A", "B", "A", "B", "C"), df.getColumn("Titre").getValues());
+            assertEquals(Arrays.asList(10.0, 12.0, 14.0, 16.5, null), df.getColumn("Prix").getValues());
+            assertEquals(4.0, frame.getStatistics("Prix").get("count"));
+            assertEquals(16.5, frame.getStatistics("Prix").get("max"));
+
+            Files.writeString(feed, "Titre,Prix\n");
+            assertThrows(IOException.class, follower::poll);
+        }
+        Files.writeString(feed, "");
+        assertThrows(IOException.class, () -> CsvLoader.follow(feed.toString()));
+    }
+
+    @Test
+    void testFollowInBackground() throws Exception {
+        Path feed = tempDir.resolve("live.csv");
+        Files.writeString(feed, "Id,Valeur\n");
+        try (CsvFollower follower = CsvLoader.follow(feed.toString(), Duration.ofMillis(2))) {
+            AppendableFrame frame = follower.getFrame();
+            assertEquals(0, frame.getRowCount());
+            StringBuilder rows = new StringBuilder();
+            for (int i = 0; i < 20_000; i++) {
+                rows.append(i).append(',').append(i % 100).append('\n');
+            }
+            Files.writeString(feed, rows, StandardOpenOption.APPEND);
+            long deadline = System.nanoTime() + 10_000_000_000L;
+            while (frame.getRowCount() < 20_000 && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            assertEquals(20_000, frame.getRowCount());
+            assertEquals(19_999.0, frame.getStatistics("Id").get("max"));
+            assertEquals(49.5, frame.getStatistics("Valeur").get("mean"), 1e-9);
+        }
+    }
+
+    @Test
+    void testFollowKeepsRawTextWhenColumnTurnsTextual() throws Exception {
+        Path feed = tempDir.resolve("codes.csv");
+        Files.writeString(feed, "c\n007\n1.50\nabc\n");
+        try (CsvFollower follower = CsvLoader.follow(feed.toString())) {
+            List<?> values = follower.getFrame().snapshot().getColumn("c").getValues();
+            assertEquals(Arrays.asList("007", "1.50", "abc"), values);
+            assertEquals(CsvLoader.load(feed.toString()).getColumn("c").getValues(), values);
+        }
+
+        // The first chunks are sealed as numbers before the text arrives.
+        Path large = tempDir.resolve("large.csv");
+        StringBuilder rows = new StringBuilder("Id,Code\n");
+        for (int i = 0; i < 2 * AppendableFrame.CHUNK_ROWS + 10; i++) {
+            rows.append(i).append(',').append(i % 7 == 0 ? "" : "0" + i % 13 + ".50").append('\n');
+        }
+        Files.writeString(large, rows);
+        try (CsvFollower follower = CsvLoader.follow(large.toString())) {
+            AppendableFrame frame = follower.getFrame();
+            frame.append(new DataFrame(Arrays.asList(new IntSeries("Id", new int[] {-1}), new DoubleSeries("Code", new double[] {2.5}))));
+            Files.writeString(large, "-2,x\n", StandardOpenOption.APPEND);
+            assertEquals(1, follower.poll());
+            Files.writeString(large, "-3,4\n", StandardOpenOption.APPEND);
+            assertEquals(1, follower.poll());
+
+            List<?> codes = frame.snapshot().getColumn("Code").getValues();
+            List<?> loaded = CsvLoader.load(large.toString()).getColumn("Code").getValues();
+            int fromFile = 2 * AppendableFrame.CHUNK_ROWS + 10;
+            assertEquals("01.50", codes.get(1));
+            assertEquals(loaded.subList(0, fromFile), codes.subList(0, fromFile));
+            assertEquals(Arrays.asList("2.5", "x", "4"), codes.subList(fromFile, codes.size()),
+                    "Les valeurs ajoutées par DataFrame gardent leur représentation Java.");
+            assertEquals(fromFile + 3.0, frame.getStatistics("Id").get("count"));
+            assertNull(frame.getStatistics("Code"));
+        }
+    }
+}
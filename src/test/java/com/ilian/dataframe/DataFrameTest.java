@@ -6,6 +6,8 @@ import java.util.*;
 import static org.junit.jupiter.api.Assertions.*;
 import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
 
 public class DataFrameTest {
 
@@ -166,4 +168,128 @@ public class DataFrameTest {
         assertEquals(3, selected.getRowCount(), "Le nombre de lignes doit rester inchangé.");
     }
 
+    @Test
+    void testGetStatisticsOnPrimitiveColumn() {
+        IntSeries ages = new IntSeries("ages", new int[] {20, 30, 25, 35});
+        DataFrame df = new DataFrame(Arrays.asList(ages));
+
+        Map<String, Double> stats = df.getStatistics("ages");
+
+        assertNotNull(stats);
+        assertEquals(4.0, stats.get("count"));
+        assertEquals(27.5, stats.get("mean"), 0.01);
+        assertEquals(20.0, stats.get("min"));
+        assertEquals(35.0, stats.get("max"));
+    }
+
+    @Test
+    void testTake() {
+        DataFrame taken = dataFrame.take(new int[] {2, 0, 2});
+
+        assertEquals(3, taken.getRowCount());
+        assertEquals(3, taken.getColumn("Column1").get(0));
+        assertEquals("A", taken.getColumn("Column2").get(1));
+        assertEquals("C", taken.getColumn("Column2").get(2));
+        assertThrows(IllegalArgumentException.class, () -> dataFrame.take(new int[] {3}));
+    }
+
+    @Test
+    void testViewsComposeOverSharedStorage() {
+        int[] data = {10, 20, 30, 40, 50};
+        DataFrame df = new DataFrame(Arrays.asList(new IntSeries("v", data), new Series<>("s", Arrays.asList("a", "b", "c", "d", "e"))));
+
+        DataFrame window = df.selectRows(1, 5).take(new int[] {3, 0}).selectRows(0, 1);
+        IntSeries v = (IntSeries) window.getColumn("v");
+
+        assertEquals(1, window.getRowCount());
+        assertEquals(50, v.getInt(0));
+        assertEquals("e", window.getColumn("s").get(0));
+        assertThrows(IndexOutOfBoundsException.class, () -> v.getInt(1), "Une vue ne doit pas exposer les valeurs hors de sa fenêtre.");
+
+        data[4] = 55;
+        assertEquals(55, v.getInt(0), "Une vue partage le stockage de la série d'origine.");
+        DataFrame copy = window.materialize();
+        data[4] = 60;
+        assertEquals(55, ((IntSeries) copy.getColumn("v")).getInt(0), "materialize doit produire une copie indépendante.");
+        assertEquals(Arrays.asList("e"), copy.getColumn("s").getValues());
+    }
+
+    @Test
+    void testGetStatisticsOnView() {
+        DataFrame df = new DataFrame(Arrays.asList(new IntSeries("ages", new int[] {99, 20, 30, 25, 35, -1})));
+
+        Map<String, Double> stats = df.selectRows(1, 5).getStatistics("ages");
+        assertEquals(4.0, stats.get("count"));
+        assertEquals(27.5, stats.get("mean"), 0.01);
+        assertEquals(20.0, stats.get("min"));
+        assertEquals(35.0, stats.get("max"));
+
+        Map<String, Double> taken = df.take(new int[] {5, 0}).getStatistics("ages");
+        assertEquals(-1.0, taken.get("min"));
+        assertEquals(99.0, taken.get("max"));
+        assertEquals(98.0, taken.get("mean") * 2, 0.01);
+    }
+
+    @Test
+    void testOffHeapColumns() throws Exception {
+        DataFrame heap = CsvLoader.load("data/etudiants.csv");
+        heap.getStatistics("Note");
+        OffHeapArena arena = OffHeapArena.open();
+        DataFrame off = heap.offHeap(arena);
+
+        assertTrue(arena.getAllocatedBytes() >= 8L * heap.getRowCount());
+        assertSame(heap.getColumn("Note").getStatistics(), off.getColumn("Note").getStatistics());
+        for (String label : heap.getColumnLabels()) {
+            assertEquals(heap.getColumn(label).getValues(), off.getColumn(label).getValues(), "Colonne " + label);
+        }
+        Filter good = Filter.ge("Note", 15);
+        assertEquals(heap.filter(good).getColumn("Nom").getValues(), off.filter(good).getColumn("Nom").getValues());
+        assertEquals(heap.sortBy(SortKey.desc("Note")).getColumn("Nom").getValues(),
+                off.sortBy(SortKey.desc("Note")).getColumn("Nom").getValues());
+        assertEquals(heap.groupBy("Age").agg(Aggregation.mean("Note")).getColumn("mean(Note)").getValues(),
+                off.groupBy("Age").agg(Aggregation.mean("Note")).getColumn("mean(Note)").getValues());
+        assertEquals(heap.join(heap, "Nom", JoinType.INNER).getRowCount(), off.join(heap, "Nom", JoinType.INNER).getRowCount());
+        assertEquals(heap.take(new int[] {3, 1}).getStatistics("Age"), off.take(new int[] {3, 1}).offHeap(arena).getStatistics("Age"));
+
+        DataFrame view = off.selectRows(1, 3);
+        long direct = directMemoryUsed();
+        arena.close();
+        arena.close();
+        assertTrue(arena.isClosed());
+        // Both backends release the memory at once and refuse any later read.
+        assertThrows(IllegalStateException.class, () -> ((IntSeries) view.getColumn("Age")).getInt(0));
+        assertThrows(IllegalStateException.class, () -> view.getColumn("Note").get(0));
+        assertThrows(IllegalStateException.class, () -> off.filter(good));
+        if (Runtime.version().feature() < 22) {
+            assertTrue(directMemoryUsed() <= direct - arena.getAllocatedBytes(), "Les tampons directs sont libérés.");
+        }
+        assertThrows(IllegalStateException.class, () -> heap.offHeap(arena));
+    }
+
+    private static long directMemoryUsed() {
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            if (pool.getName().equals("direct")) return pool.getMemoryUsed();
+        }
+        throw new IllegalStateException("No direct buffer pool");
+    }
+
+    @Test
+    void testPrintToWriter() throws Exception {
+        java.io.StringWriter out = new java.io.StringWriter();
+        DataFrame df = new DataFrame(Arrays.asList(
+                new DoubleSeries("Note", new double[] {12.5, 15, 0.1 + 0.2}),
+                new Series<>("Nom", Arrays.asList("Zoé", null, "Bob"))));
+
+        df.print(out, 1, 3);
+
+        String[] lines = out.toString().split(System.lineSeparator());
+        assertEquals("Note\tNom", lines[0]);
+        assertEquals("15.0\tnull", lines[1]);
+        assertEquals(String.valueOf(0.1 + 0.2) + "\tBob", lines[2]);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        df.print(bytes, 0, 1);
+        assertEquals("Note\tNom" + System.lineSeparator() + "12.5\tZoé" + System.lineSeparator(),
+                bytes.toString(java.nio.charset.StandardCharsets.UTF_8));
+    }
 }
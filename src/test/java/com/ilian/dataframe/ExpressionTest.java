@@ -0,0 +1,136 @@
+package com.ilian.dataframe;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class ExpressionTest {
+
+    private static DataFrame students() {
+        long[] noteValidity = new long[1];
+        noteValidity[0] = 0b1011; // Note of the third student is missing
+        return new DataFrame(Arrays.asList(
+                new Series<>("Nom", Arrays.asList("Alice", "Bob", "Chloé", "David")),
+                new IntSeries("Age", new int[] {20, 23, 25, 19}),
+                new DoubleSeries("Note", new double[] {12.5, 9.0, 0, 16.0}, noteValidity),
+                new IntSeries("Bonus", new int[] {1, 0, 2, 3})));
+    }
+
+    @Test
+    void testWithColumnArithmetic() {
+        DataFrame df = students()
+                .withColumn("Total", "Note * 2 + Bonus")
+                .withColumn("Double", Expression.col("Age").times(Expression.lit(2)))
+                .withColumn("Moyenne", "(Age + Bonus) / 2")
+                .withColumn("Reste", "Age % (Bonus - 1)");
+
+        assertEquals(Arrays.asList("Nom", "Age", "Note", "Bonus", "Total", "Double", "Moyenne", "Reste"),
+                new ArrayList<>(df.getColumnLabels()));
+        assertEquals(Arrays.asList(26.0, 18.0, null, 35.0), df.getColumn("Total").getValues());
+        assertTrue(df.getColumn("Double") instanceof IntSeries, "Un calcul entier reste entier.");
+        assertEquals(Arrays.asList(40, 46, 50, 38), df.getColumn("Double").getValues());
+        assertEquals(Arrays.asList(10.5, 11.5, 13.5, 11.0), df.getColumn("Moyenne").getValues());
+        assertEquals(Arrays.asList(null, 0, 0, 1), df.getColumn("Reste").getValues(), "Un reste par zéro est nul.");
+        DataFrame decimal = df.withColumn("Reste", "Note % (Bonus - 1)").withColumn("Quotient", "Note / (Bonus - 1)");
+        assertEquals(Arrays.asList(null, 0.0, null, 0.0), decimal.getColumn("Reste").getValues(),
+                "Un reste décimal par zéro est nul aussi.");
+        assertEquals(Arrays.asList(Double.POSITIVE_INFINITY, -9.0, null, 8.0), decimal.getColumn("Quotient").getValues());
+
+        DataFrame replaced = df.withColumn("Age", "-Age + 100");
+        assertEquals(Arrays.asList(80, 77, 75, 81), replaced.getColumn("Age").getValues());
+        assertEquals(df.getColumnLabels(), replaced.getColumnLabels());
+        assertTrue(df.withColumn("Grand", "Age * 1000000000").getColumn("Grand") instanceof LongSeries);
+    }
+
+    @Test
+    void testWithColumnConditions() {
+        DataFrame df = students()
+                .withColumn("Majeur", Expression.col("Age").gt(Expression.lit(22)))
+                .withColumn("Bien", "Note >= 12 and Age < 24")
+                .withColumn("Ou", "Note >= 12 or Age > 24")
+                .withColumn("Pas", "not (Nom == \"Bob\") && Nom != 'David'");
+
+        assertEquals(Arrays.asList(false, true, true, false), df.getColumn("Majeur").getValues());
+        assertEquals(Arrays.asList(true, false, false, true), df.getColumn("Bien").getValues(),
+                "Faux et nul donnent faux.");
+        assertEquals(Arrays.asList(true, false, true, true), df.getColumn("Ou").getValues(),
+                "Vrai ou nul donnent vrai.");
+        assertEquals(Arrays.asList(true, false, true, false), df.getColumn("Pas").getValues());
+        assertEquals(Arrays.asList(false, false, null, false),
+                df.withColumn("Nul", "Note > 10 and Age > 22").getColumn("Nul").getValues());
+    }
+
+    @Test
+    void testFilterWhere() {
+        int n = 200_000;
+        int[] ages = new int[n];
+        double[] notes = new double[n];
+        long[] validity = new long[Bitmaps.words(n)];
+        List<String> classes = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            ages[i] = 18 + i % 9;
+            notes[i] = (i * 7919L % 2001) / 100.0;
+            if (i % 13 != 0) validity[i >>> 6] |= 1L << i;
+            classes.add(i % 3 == 0 ? "A" : "B");
+        }
+        DataFrame df = new DataFrame(Arrays.asList(new IntSeries("Age", ages), new DoubleSeries("Note", notes, validity),
+                DictionarySeries.tryEncode("Classe", classes)));
+
+        DataFrame filtered = df.filter(Filter.where("Note * 2 > Age + 10 and Classe == \"A\""));
+        int expected = 0;
+        for (int i = 0; i < n; i++) {
+            if (i % 13 != 0 && notes[i] * 2 > ages[i] + 10 && i % 3 == 0) expected++;
+        }
+        assertEquals(expected, filtered.getRowCount());
+        assertEquals(df.filter(Filter.and(Filter.where("Note * 2 > Age + 10"), Filter.eq("Classe", "A"))).getRowCount(),
+                expected);
+        int unknown = 0;
+        for (int i = 0; i < n; i += 13) {
+            if (i % 3 == 0) unknown++;
+        }
+        assertEquals(n - unknown - expected, df.filter(Filter.not(Filter.where("Note * 2 > Age + 10 and Classe == \"A\""))).getRowCount(),
+                "Seules les lignes où Note est nulle et Classe vaut A sont inconnues.");
+
+        DataFrame computed = df.withColumn("Score", "Note * 2 - Age");
+        DoubleSeries score = (DoubleSeries) computed.getColumn("Score");
+        for (int i = 0; i < n; i += 997) {
+            assertEquals(i % 13 == 0, score.isNull(i));
+            if (i % 13 != 0) assertEquals(notes[i] * 2 - ages[i], score.getDouble(i));
+        }
+
+        DataFrame view = df.selectRows(1000, 5000).filter(Filter.where("Age == 20"));
+        assertEquals(df.selectRows(1000, 5000).filter(Filter.eq("Age", 20)).getColumn("Note").getValues(),
+                view.getColumn("Note").getValues(), "Les vues sont lues à travers leur adressage.");
+    }
+
+    @Test
+    void testParseAndCache() {
+        Expression e = Expression.parse("Note*2+ `Prime annuelle` >= -1.5 || !(Age < 3) and Nom = \"a\\\"b\"");
+        assertEquals("((((Note * 2) + `Prime annuelle`) >= -1.5) or (not (Age < 3) and (Nom == \"a\\\"b\")))", e.toString());
+        assertEquals(e.toString(), Expression.parse(e.toString()).toString());
+        Expression smallest = Expression.col("Age").minus(Expression.lit(Long.MIN_VALUE));
+        assertEquals(smallest.toString(), Expression.parse(smallest.toString()).toString());
+        assertEquals(Long.MIN_VALUE, ((Expression.Literal) Expression.parse("-9223372036854775808")).value);
+        assertEquals("(Age - -3)", Expression.parse("Age - - 3").toString());
+
+        DataFrame df = students();
+        assertSame(ExpressionProgram.compile(Expression.parse("Note * 2 + Bonus"), df),
+                ExpressionProgram.compile(Expression.col("Note").times(Expression.lit(2)).plus(Expression.col("Bonus")), df),
+                "Une même expression sur un même schéma n'est compilée qu'une fois.");
+        DataFrame other = df.withColumn("Bonus", "Bonus * 0.5");
+        assertNotSame(ExpressionProgram.compile(Expression.parse("Note * 2 + Bonus"), df),
+                ExpressionProgram.compile(Expression.parse("Note * 2 + Bonus"), other));
+
+        assertThrows(IllegalArgumentException.class, () -> Expression.parse("Note +"));
+        assertThrows(IllegalArgumentException.class, () -> Expression.parse("(Note"));
+        assertThrows(IllegalArgumentException.class, () -> Expression.parse("Note # 2"));
+        assertThrows(IllegalArgumentException.class, () -> df.withColumn("x", "Absente + 1"));
+        assertThrows(IllegalArgumentException.class, () -> df.withColumn("x", "Nom + 1"));
+        assertThrows(IllegalArgumentException.class, () -> df.withColumn("x", "Age == \"20\""));
+        assertThrows(IllegalArgumentException.class, () -> df.withColumn("x", "(Age > 1) + 1"));
+        assertThrows(IllegalArgumentException.class, () -> df.filter(Filter.where("Age + 1")));
+    }
+}
@@ -0,0 +1,165 @@
+package com.ilian.dataframe;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.List;
+
+public class FilterTest {
+
+    private DataFrame df;
+
+    @BeforeEach
+    void setUp() {
+        df = new DataFrame(Arrays.asList(
+                new Series<>("Nom", Arrays.asList("Alice", "Bob", "Charlie", "David", "Anna")),
+                new IntSeries("Age", new int[] {22, 23, 21, 24, 22}),
+                new DoubleSeries("Note", new double[] {15.5, 13.0, 18.0, 12.0, Double.NaN}),
+                new LongSeries("Id", new long[] {1L, 2L, 3_000_000_000L, 4L, 5L})));
+    }
+
+    private static List<?> names(DataFrame result) {
+        return result.getColumn("Nom").getValues();
+    }
+
+    @Test
+    void testComparisons() {
+        assertEquals(Arrays.asList("Alice", "Anna"), names(df.filter(Filter.eq("Age", 22))));
+        assertEquals(Arrays.asList("Bob", "Charlie", "David"), names(df.filter(Filter.ne("Age", 22))));
+        assertEquals(Arrays.asList("Charlie"), names(df.filter(Filter.lt("Age", 22))));
+        assertEquals(Arrays.asList("Bob", "David"), names(df.filter(Filter.gt("Age", 22.5))));
+        assertEquals(Arrays.asList("Alice", "Charlie"), names(df.filter(Filter.ge("Note", 15.5))));
+        assertEquals(Arrays.asList("Bob", "David"), names(df.filter(Filter.le("Note", 13))));
+        assertEquals(Arrays.asList("Charlie"), names(df.filter(Filter.gt("Id", 2_999_999_999.0))));
+    }
+
+    @Test
+    void testRangeAndSets() {
+        assertEquals(Arrays.asList("Alice", "Bob", "Anna"), names(df.filter(Filter.between("Age", 22, 23))));
+        assertEquals(Arrays.asList("Bob", "David"), names(df.filter(Filter.in("Age", 23, 24))));
+        assertEquals(Arrays.asList("Bob", "David"), names(df.filter(Filter.in("Nom", "David", "Bob", "Zoe"))));
+        assertEquals(Arrays.asList("Alice", "Anna"), names(df.filter(Filter.startsWith("Nom", "A"))));
+        assertEquals(Arrays.asList("Bob"), names(df.filter(Filter.eq("Nom", "Bob"))));
+    }
+
+    @Test
+    void testCombinations() {
+        Filter query = Filter.or(
+                Filter.and(Filter.startsWith("Nom", "A"), Filter.not(Filter.eq("Age", 22))),
+                Filter.and(Filter.ge("Note", 12), Filter.le("Note", 13)));
+
+        assertEquals(Arrays.asList("Bob", "David"), names(df.filter(query)));
+        assertEquals(0, df.filter(Filter.and(Filter.eq("Age", 99), Filter.eq("Nom", "Bob"))).getRowCount());
+    }
+
+    @Test
+    void testFilterOnViewAndLargeFrame() {
+        int n = 1000;
+        int[] values = new int[n];
+        for (int i = 0; i < n; i++) values[i] = i % 10;
+        DataFrame large = new DataFrame(Arrays.asList(new IntSeries("v", values)));
+
+        DataFrame filtered = large.selectRows(100, 1000).filter(Filter.in("v", 1, 3, 5, 7, 9, 11, 13, 15, 17, 19, 21, 23, 25, 27, 29, 31, 33));
+        assertEquals(450, filtered.getRowCount());
+        assertEquals(1, ((IntSeries) filtered.getColumn("v")).getInt(0));
+
+        DataFrame reversed = large.take(new int[] {9, 8, 7}).filter(Filter.gt("v", 7));
+        assertEquals(Arrays.asList(9, 8), reversed.getColumn("v").getValues());
+    }
+
+    @Test
+    void testInvalidColumns() {
+        assertThrows(IllegalArgumentException.class, () -> df.filter(Filter.eq("Inconnue", 1)));
+        assertThrows(IllegalArgumentException.class, () -> df.filter(Filter.gt("Nom", 1)));
+        assertThrows(IllegalArgumentException.class, () -> df.filter(Filter.startsWith("Age", "2")));
+    }
+
+    @Test
+    void testFiltersOnDictionaryColumn() {
+        DataFrame df = new DataFrame(Arrays.asList(
+                new DictionarySeries("Ville", new int[] {0, 1, 0, 2, 1}, new String[] {"Paris", "Lyon", "Nice"}),
+                new IntSeries("Age", new int[] {20, 21, 22, 23, 24})));
+
+        assertEquals(Arrays.asList(20, 22), df.filter(Filter.eq("Ville", "Paris")).getColumn("Age").getValues());
+        assertEquals(Arrays.asList(21, 23, 24), df.filter(Filter.in("Ville", "Lyon", "Nice")).getColumn("Age").getValues());
+        assertEquals(Arrays.asList(22), df.selectRows(1, 5).filter(Filter.startsWith("Ville", "Pa")).getColumn("Age").getValues());
+    }
+
+    @Test
+    void testZoneMapsSkipBlocks() {
+        int n = 3 * ZoneMap.BLOCK_SIZE + 100;
+        long[] values = new long[n];
+        for (int i = 0; i < n; i++) values[i] = i;
+        values[n - 1] = (1L << 60) + 1; // beyond 2^53: the last block's bounds are inexact
+        LongSeries indexed = new LongSeries("v", values);
+        indexed.getStatistics();
+        DataFrame withZones = new DataFrame(Arrays.asList(indexed));
+        DataFrame withoutZones = new DataFrame(Arrays.asList(new LongSeries("v", values)));
+
+        Filter[] filters = {
+                Filter.between("v", 70_000, 140_000),
+                Filter.lt("v", ZoneMap.BLOCK_SIZE),
+                Filter.ge("v", 3 * ZoneMap.BLOCK_SIZE),
+                Filter.eq("v", (double) (1L << 60)),
+                Filter.gt("v", 1e18)};
+        for (Filter filter : filters) {
+            assertEquals(withoutZones.filter(filter).getColumn("v").getValues(), withZones.filter(filter).getColumn("v").getValues());
+        }
+        assertEquals(ZoneMap.BLOCK_SIZE, withZones.filter(Filter.lt("v", ZoneMap.BLOCK_SIZE)).getRowCount());
+    }
+
+    @Test
+    void testFiltersSkipNulls() {
+        long[] validity = {0b1011};
+        DataFrame df = new DataFrame(Arrays.asList(
+                new Series<>("Nom", Arrays.asList("Alice", "Bob", "Charlie", "David")),
+                new DoubleSeries("Note", new double[] {15, 12, 0, 18}, validity)));
+        df.getColumn("Note").getStatistics();
+
+        assertEquals(Arrays.asList("Alice", "David"), names(df.filter(Filter.ge("Note", 14))));
+        assertEquals(Arrays.asList("Alice", "Bob", "David"), names(df.filter(Filter.ge("Note", Double.NEGATIVE_INFINITY))));
+        assertEquals(Arrays.asList("Bob"), names(df.filter(Filter.in("Note", 0, 12))));
+        assertEquals(Arrays.asList(), names(df.filter(Filter.eq("Note", 0))));
+        assertEquals(3.0, df.getStatistics("Note").get("count"));
+        assertEquals(1.0, df.getStatistics("Note").get("nullCount"));
+        assertEquals(12.0, df.getStatistics("Note").get("min"));
+    }
+
+    @Test
+    void testNegationSkipsNulls() {
+        DataFrame df = new DataFrame(Arrays.asList(
+                new Series<>("Nom", Arrays.asList("Alice", "Bob", "Charlie", "David")),
+                new IntSeries("Age", new int[] {20, 0, 30, 20}, new long[] {0b1101}),
+                new DictionarySeries("Ville", new int[] {0, 1, 2, 1}, new String[] {"Paris", null, "Lyon"}),
+                new Series<>("Club", Arrays.asList("Échecs", null, null, "Voile"))));
+
+        assertEquals(Arrays.asList("Charlie"), names(df.filter(Filter.ne("Age", 20))));
+        assertEquals(names(df.filter(Filter.where("Age != 20"))), names(df.filter(Filter.ne("Age", 20))));
+        assertEquals(names(df.filter(Filter.where("!(Age == 20)"))), names(df.filter(Filter.not(Filter.eq("Age", 20)))));
+        assertEquals(Arrays.asList("Charlie"), names(df.filter(Filter.not(Filter.eq("Ville", "Paris")))));
+        assertEquals(Arrays.asList("Alice"), names(df.filter(Filter.not(Filter.eq("Club", "Voile")))));
+        assertEquals(Arrays.asList("Bob", "Charlie", "David"), names(df.filter(Filter.not(Filter.eq("Nom", "Alice")))));
+    }
+
+    @Test
+    void testNegationUsesThreeValuedLogic() {
+        DataFrame df = new DataFrame(Arrays.asList(
+                new Series<>("Nom", Arrays.asList("Alice", "Bob", "Charlie", "David")),
+                new IntSeries("A", new int[] {0, 2, 2, 0}),
+                new IntSeries("B", new int[] {0, 0, 2, 0}, new long[] {0b0101})));
+
+        // David: a = 0 and b is null, so "a > 1 and b > 1" is false whatever b is.
+        assertEquals(Arrays.asList("Alice", "Charlie", "David"),
+                names(df.filter(Filter.not(Filter.and(Filter.gt("A", 1), Filter.lt("B", 1))))));
+        assertEquals(Arrays.asList("Alice", "David"), names(df.filter(Filter.not(Filter.where("A > 1 and B > 1")))));
+        assertEquals(names(df.filter(Filter.where("not (A > 1 and B > 1)"))),
+                names(df.filter(Filter.not(Filter.where("A > 1 and B > 1")))));
+        assertEquals(names(df.filter(Filter.where("not (A > 1 and B > 1)"))),
+                names(df.filter(Filter.not(Filter.and(Filter.gt("A", 1), Filter.gt("B", 1))))));
+        // Bob: a = 2 makes "a > 1 or b > 1" true even though b is null.
+        assertEquals(Arrays.asList("Alice"), names(df.filter(Filter.not(Filter.or(Filter.gt("A", 1), Filter.gt("B", 1))))));
+        assertEquals(Arrays.asList("Bob", "Charlie"), names(df.filter(Filter.not(Filter.not(Filter.or(Filter.gt("A", 1), Filter.gt("B", 1)))))));
+    }
+}
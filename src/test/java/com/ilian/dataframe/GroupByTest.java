@@ -0,0 +1,98 @@
+package com.ilian.dataframe;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+public class GroupByTest {
+
+    @Test
+    void testMeanPerAgeOnCsv() throws Exception {
+        DataFrame df = CsvLoader.load("data/etudiants.csv");
+
+        DataFrame result = df.groupBy("Age").agg(Aggregation.count(), Aggregation.mean("Note"),
+                Aggregation.min("Note"), Aggregation.max("Note").as("meilleure"));
+
+        assertEquals(Arrays.asList("Age", "count", "mean(Note)", "min(Note)", "meilleure"),
+                Arrays.asList(result.getColumnLabels().toArray()));
+        IntSeries ages = (IntSeries) result.getColumn("Age");
+        assertEquals(22, ages.getInt(0), "Les groupes suivent l'ordre de première apparition.");
+        for (int g = 0; g < result.getRowCount(); g++) {
+            Filter sameAge = Filter.eq("Age", ages.getInt(g));
+            java.util.Map<String, Double> expected = df.filter(sameAge).getStatistics("Note");
+            assertEquals(expected.get("count"), ((LongSeries) result.getColumn("count")).getLong(g), 0.0);
+            assertEquals(expected.get("mean"), ((DoubleSeries) result.getColumn("mean(Note)")).getDouble(g), 1e-9);
+            assertEquals(expected.get("min"), ((DoubleSeries) result.getColumn("min(Note)")).getDouble(g));
+            assertEquals(expected.get("max"), ((DoubleSeries) result.getColumn("meilleure")).getDouble(g));
+        }
+    }
+
+    @Test
+    void testMultipleKeysAndVariance() {
+        DataFrame df = new DataFrame(Arrays.asList(
+                new Series<>("Classe", Arrays.asList("A", "B", "A", "A", "B")),
+                new IntSeries("Annee", new int[] {1, 1, 1, 2, 1}),
+                new DoubleSeries("Note", new double[] {10, 12, 14, 9, 16})));
+
+        DataFrame result = df.groupBy("Classe", "Annee").agg(Aggregation.sum("Note"), Aggregation.variance("Note"));
+
+        assertEquals(3, result.getRowCount());
+        assertEquals(Arrays.asList("A", "B", "A"), result.getColumn("Classe").getValues());
+        assertEquals(Arrays.asList(1, 1, 2), result.getColumn("Annee").getValues());
+        assertEquals(Arrays.asList(24.0, 28.0, 9.0), result.getColumn("sum(Note)").getValues());
+        assertEquals(8.0, ((DoubleSeries) result.getColumn("variance(Note)")).getDouble(0), 1e-9);
+        assertTrue(Double.isNaN(((DoubleSeries) result.getColumn("variance(Note)")).getDouble(2)));
+    }
+
+    @Test
+    void testParallelPartialsMatchSequential() {
+        int n = GroupBy.MIN_ROWS_PER_TASK * 4 + 17;
+        int[] keys = new int[n];
+        double[] values = new double[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = (i * 7919) % 1000;
+            values[i] = (i % 97) * 0.5;
+        }
+        DataFrame df = new DataFrame(Arrays.asList(new IntSeries("k", keys), new DoubleSeries("v", values)));
+        Aggregation[] aggs = {Aggregation.count(), Aggregation.mean("v"), Aggregation.variance("v"), Aggregation.max("v")};
+
+        DataFrame sequential = new GroupBy(df, new String[] {"k"}, new ForkJoinPool(1)).agg(aggs);
+        DataFrame parallel = new GroupBy(df, new String[] {"k"}, new ForkJoinPool(4)).agg(aggs);
+
+        assertEquals(1000, parallel.getRowCount());
+        assertEquals(sequential.getColumn("k").getValues(), parallel.getColumn("k").getValues());
+        assertEquals(sequential.getColumn("count").getValues(), parallel.getColumn("count").getValues());
+        for (String label : new String[] {"mean(v)", "variance(v)", "max(v)"}) {
+            DoubleSeries expected = (DoubleSeries) sequential.getColumn(label);
+            DoubleSeries actual = (DoubleSeries) parallel.getColumn(label);
+            for (int g = 0; g < 1000; g++) {
+                assertEquals(expected.getDouble(g), actual.getDouble(g), 1e-9, label);
+            }
+        }
+    }
+
+    @Test
+    void testInvalidColumns() {
+        DataFrame df = new DataFrame(Arrays.asList(new Series<>("Nom", Arrays.asList("A", "B"))));
+        assertThrows(IllegalArgumentException.class, () -> df.groupBy("Inconnue"));
+        assertThrows(IllegalArgumentException.class, () -> df.groupBy("Nom").agg(Aggregation.sum("Nom")));
+    }
+
+    @Test
+    void testNullKeysAndValues() {
+        DataFrame df = new DataFrame(Arrays.asList(
+                new IntSeries("Age", new int[] {22, 0, 22, 0, 23}, new long[] {0b10101}),
+                new DoubleSeries("Note", new double[] {10, 14, 0, 16, 12}, new long[] {0b11011})));
+
+        DataFrame result = df.groupBy("Age").agg(Aggregation.count(), Aggregation.mean("Note"), Aggregation.min("Note"));
+
+        assertEquals(Arrays.asList(22, null, 23), result.getColumn("Age").getValues(),
+                "Les lignes nulles forment un groupe distinct de la valeur 0.");
+        assertEquals(Arrays.asList(2L, 2L, 1L), result.getColumn("count").getValues());
+        assertEquals(Arrays.asList(10.0, 15.0, 12.0), result.getColumn("mean(Note)").getValues());
+        assertEquals(Arrays.asList(10.0, 14.0, 12.0), result.getColumn("min(Note)").getValues());
+        assertEquals(Arrays.asList(null, null, 22, 22, 23), df.sortBy("Age").getColumn("Age").getValues());
+    }
+}
@@ -0,0 +1,88 @@
+package com.ilian.dataframe;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class IndexTest {
+
+    private static DataFrame sample(int n) {
+        Random random = new Random(42);
+        int[] ids = new int[n];
+        double[] notes = new double[n];
+        long[] validity = new long[Bitmaps.words(n)];
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            ids[i] = random.nextInt(n / 4);
+            notes[i] = Math.round(random.nextDouble() * 200) / 10.0;
+            if (i % 17 != 0) validity[i >>> 6] |= 1L << i;
+            names.add("nom" + random.nextInt(n / 2));
+        }
+        return new DataFrame(Arrays.asList(
+                new IntSeries("Id", ids, validity),
+                new DoubleSeries("Note", notes),
+                new Series<>("Nom", names)));
+    }
+
+    @Test
+    void testFiltersUseIndexes() {
+        DataFrame plain = sample(200_000);
+        DataFrame indexed = sample(200_000)
+                .createIndex("Id", IndexKind.HASH)
+                .createIndex("Note", IndexKind.SORTED)
+                .createIndex("Nom", IndexKind.HASH);
+        assertTrue(indexed.hasIndex("Id", IndexKind.HASH));
+        assertFalse(indexed.hasIndex("Id", IndexKind.SORTED));
+        assertFalse(indexed.filter(Filter.ge("Id", 0)).hasIndex("Id", IndexKind.HASH));
+
+        Filter[] filters = {
+                Filter.eq("Id", 1234),
+                Filter.eq("Id", 0.5),
+                Filter.in("Id", 7, 8, 9),
+                Filter.between("Note", 12.3, 12.4),
+                Filter.gt("Note", 19.95),
+                Filter.ge("Note", 5),
+                Filter.eq("Nom", "nom42"),
+                Filter.in("Nom", "nom1", "nom2", "absent"),
+                Filter.and(Filter.eq("Nom", "nom42"), Filter.lt("Note", 10)),
+                Filter.or(Filter.eq("Id", 17), Filter.eq("Nom", "nom3")),
+                Filter.not(Filter.eq("Id", 5)),
+        };
+        for (Filter filter : filters) {
+            DataFrame expected = plain.filter(filter);
+            DataFrame actual = indexed.filter(filter);
+            for (String label : expected.getColumnLabels()) {
+                assertEquals(expected.getColumn(label).getValues(), actual.getColumn(label).getValues());
+            }
+        }
+        assertThrows(IllegalArgumentException.class, () -> indexed.createIndex("Nom", IndexKind.SORTED));
+    }
+
+    @Test
+    void testJoinProbesRightIndex() throws Exception {
+        DataFrame left = sample(50_000);
+        DataFrame right = CsvLoader.load("data/etudiants.csv");
+        DataFrame lookups = new DataFrame(Arrays.asList(
+                new Series<>("Nom", Arrays.asList("Bob", "Zoé", "Alice", null, "Bob")),
+                new IntSeries("Age", new int[] {23, 21, 22, 20, 99})));
+        DataFrame indexedRight = CsvLoader.load("data/etudiants.csv").createIndex("Nom", IndexKind.HASH).createIndex("Age", IndexKind.HASH);
+        for (JoinType type : JoinType.values()) {
+            for (String key : new String[] {"Nom", "Age"}) {
+                DataFrame expected = lookups.join(right, key, type);
+                DataFrame actual = lookups.join(indexedRight, key, type);
+                assertEquals(expected.getColumnLabels(), actual.getColumnLabels());
+                for (String label : expected.getColumnLabels()) {
+                    assertEquals(expected.getColumn(label).getValues(), actual.getColumn(label).getValues(), type + " " + label);
+                }
+            }
+        }
+        DataFrame self = left.join(sample(50_000), "Id", JoinType.INNER);
+        DataFrame selfIndexed = left.join(sample(50_000).createIndex("Id", IndexKind.HASH), "Id", JoinType.INNER);
+        assertEquals(self.getRowCount(), selfIndexed.getRowCount());
+        assertEquals(self.getColumn("Note_right").getValues(), selfIndexed.getColumn("Note_right").getValues());
+    }
+}
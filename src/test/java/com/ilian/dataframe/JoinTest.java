@@ -0,0 +1,178 @@
+package com.ilian.dataframe;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+public class JoinTest {
+
+    private DataFrame students;
+    private DataFrame grades;
+
+    @BeforeEach
+    void setUp() {
+        students = new DataFrame(Arrays.asList(
+                new Series<>("Nom", Arrays.asList("Alice", "Bob", "Charlie", "David")),
+                new IntSeries("Age", new int[] {22, 23, 21, 24})));
+        grades = new DataFrame(Arrays.asList(
+                new Series<>("Nom", Arrays.asList("Bob", "Alice", "Bob", "Zoe", "Alice")),
+                new DoubleSeries("Note", new double[] {13, 15, 11, 19, 17}),
+                new IntSeries("Age", new int[] {0, 0, 0, 0, 0})));
+    }
+
+    @Test
+    void testInnerJoin() {
+        DataFrame result = students.join(grades, "Nom", JoinType.INNER);
+
+        assertEquals(Arrays.asList("Nom", "Age", "Note", "Age_right"), Arrays.asList(result.getColumnLabels().toArray()));
+        assertEquals(Arrays.asList("Alice", "Alice", "Bob", "Bob"), result.getColumn("Nom").getValues());
+        assertEquals(Arrays.asList(15.0, 17.0, 13.0, 11.0), result.getColumn("Note").getValues());
+        assertTrue(result.getColumn("Note") instanceof DoubleSeries, "Les colonnes gardent leur type primitif.");
+    }
+
+    @Test
+    void testInnerJoinBuildsOnSmallerSide() {
+        DataFrame small = new DataFrame(Arrays.asList(new Series<>("Nom", Arrays.asList("Bob", "Alice"))));
+
+        DataFrame result = grades.join(small, "Nom", JoinType.INNER);
+
+        assertEquals(Arrays.asList("Bob", "Alice", "Bob", "Alice"), result.getColumn("Nom").getValues());
+        assertEquals(Arrays.asList(13.0, 15.0, 11.0, 17.0), result.getColumn("Note").getValues());
+    }
+
+    @Test
+    void testLeftSemiAntiJoins() {
+        DataFrame left = students.join(grades, "Nom", JoinType.LEFT);
+        assertEquals(Arrays.asList("Alice", "Alice", "Bob", "Bob", "Charlie", "David"), left.getColumn("Nom").getValues());
+        assertEquals(Arrays.asList(15.0, 17.0, 13.0, 11.0, null, null), left.getColumn("Note").getValues());
+
+        assertEquals(Arrays.asList("Alice", "Bob"), students.join(grades, "Nom", JoinType.SEMI).getColumn("Nom").getValues());
+        assertEquals(Arrays.asList("Charlie", "David"), students.join(grades, "Nom", JoinType.ANTI).getColumn("Nom").getValues());
+        assertEquals(2, students.join(grades, "Nom", JoinType.SEMI).getColumnCount(), "SEMI ne garde que les colonnes de gauche.");
+
+        DataFrame bigLeft = grades.join(students.selectRows(0, 1), "Nom", JoinType.ANTI);
+        assertEquals(Arrays.asList("Bob", "Bob", "Zoe"), bigLeft.getColumn("Nom").getValues());
+    }
+
+    @Test
+    void testMergeJoinOnSortedIntegerKeys() {
+        DataFrame a = new DataFrame(Arrays.asList(new IntSeries("id", new int[] {1, 2, 2, 4, 5}),
+                new Series<>("x", Arrays.asList("a", "b", "c", "d", "e"))));
+        DataFrame b = new DataFrame(Arrays.asList(new LongSeries("key", new long[] {2, 2, 3, 5}),
+                new IntSeries("y", new int[] {20, 21, 30, 50})));
+
+        DataFrame inner = a.join(b, new String[] {"id"}, new String[] {"key"}, JoinType.INNER);
+        assertEquals(Arrays.asList("b", "b", "c", "c", "e"), inner.getColumn("x").getValues());
+        assertEquals(Arrays.asList(20, 21, 20, 21, 50), inner.getColumn("y").getValues());
+
+        DataFrame left = a.join(b, new String[] {"id"}, new String[] {"key"}, JoinType.LEFT);
+        assertEquals(Arrays.asList(null, 20, 21, 20, 21, null, 50), left.getColumn("y").getValues());
+        assertEquals(Arrays.asList("a", "d"), a.join(b, new String[] {"id"}, new String[] {"key"}, JoinType.ANTI).getColumn("x").getValues());
+    }
+
+    @Test
+    void testParallelProbeOnMultipleKeys() {
+        int n = GroupBy.MIN_ROWS_PER_TASK * 3;
+        int[] k1 = new int[n];
+        double[] k2 = new double[n];
+        for (int i = 0; i < n; i++) {
+            k1[i] = (i * 31) % 100;
+            k2[i] = i % 2;
+        }
+        DataFrame big = new DataFrame(Arrays.asList(new IntSeries("a", k1), new DoubleSeries("b", k2)));
+        DataFrame dim = new DataFrame(Arrays.asList(new IntSeries("a", new int[] {3, 4}), new IntSeries("b", new int[] {1, 0}),
+                new IntSeries("label", new int[] {300, 400})));
+
+        DataFrame result = new Join(big, dim, new String[] {"a", "b"}, new String[] {"a", "b"}, JoinType.INNER, new ForkJoinPool(4)).execute();
+
+        IntSeries a = (IntSeries) result.getColumn("a");
+        IntSeries label = (IntSeries) result.getColumn("label");
+        int expected = 0;
+        for (int i = 0; i < n; i++) {
+            if ((k1[i] == 3 && k2[i] == 1) || (k1[i] == 4 && k2[i] == 0)) expected++;
+        }
+        assertEquals(expected, result.getRowCount());
+        for (int i = 0; i < result.getRowCount(); i++) {
+            assertEquals(a.getInt(i) * 100, label.getInt(i));
+        }
+    }
+
+    @Test
+    void testDictionaryKeysWithDifferentCodes() {
+        DataFrame left = new DataFrame(Arrays.asList(
+                new DictionarySeries("Ville", new int[] {0, 1, 0}, new String[] {"Paris", "Lyon"}),
+                new IntSeries("Id", new int[] {1, 2, 3})));
+        DataFrame right = new DataFrame(Arrays.asList(
+                new DictionarySeries("Ville", new int[] {1, 0}, new String[] {"Nice", "Paris"}),
+                new IntSeries("Habitants", new int[] {2_100_000, 340_000})));
+
+        DataFrame result = left.join(right, "Ville", JoinType.INNER);
+
+        assertEquals(Arrays.asList(1, 3), result.getColumn("Id").getValues());
+        assertEquals(Arrays.asList(2_100_000, 2_100_000), result.getColumn("Habitants").getValues());
+
+        DataFrame grouped = left.groupBy("Ville").agg(Aggregation.count());
+        assertEquals(Arrays.asList("Paris", "Lyon"), grouped.getColumn("Ville").getValues());
+        assertEquals(Arrays.asList(2L, 1L), grouped.getColumn("count").getValues());
+
+        DataFrame sorted = left.sortBy("Ville");
+        assertEquals(Arrays.asList(2, 1, 3), sorted.getColumn("Id").getValues());
+    }
+
+    @Test
+    void testNullKeysNeverMatch() {
+        DataFrame left = new DataFrame(Arrays.asList(
+                new Series<>("Nom", Arrays.asList("Alice", "Bob", "Charlie")),
+                new IntSeries("Id", new int[] {1, 0, 2}, new long[] {0b101})));
+        DataFrame right = new DataFrame(Arrays.asList(
+                new IntSeries("Id", new int[] {0, 1, 0}, new long[] {0b011}),
+                new IntSeries("Age", new int[] {30, 22, 40})));
+
+        DataFrame inner = left.join(right, "Id", JoinType.INNER);
+        assertEquals(Arrays.asList("Alice"), inner.getColumn("Nom").getValues(),
+                "Une clé nulle ne correspond ni à une autre clé nulle ni à 0.");
+
+        DataFrame result = left.join(right, "Id", JoinType.LEFT);
+        assertEquals(Arrays.asList("Alice", "Bob", "Charlie"), result.getColumn("Nom").getValues());
+        assertEquals(Arrays.asList(22, null, null), result.getColumn("Age").getValues());
+        assertTrue(result.getColumn("Age") instanceof IntSeries, "Les lignes sans correspondance sont des valeurs nulles.");
+        assertEquals(Arrays.asList("Bob", "Charlie"), left.join(right, "Id", JoinType.ANTI).getColumn("Nom").getValues());
+    }
+
+    @Test
+    void testRightColumnNamesStayUnique() {
+        DataFrame left = new DataFrame(Arrays.asList(new IntSeries("Id", new int[] {1, 2}),
+                new IntSeries("X", new int[] {10, 20}), new IntSeries("Y", new int[] {0, 0}),
+                new IntSeries("Y_right", new int[] {5, 6})));
+        DataFrame right = new DataFrame(Arrays.asList(new IntSeries("Id", new int[] {2, 1}),
+                new IntSeries("X", new int[] {200, 100}), new IntSeries("X_right", new int[] {7, 8}),
+                new IntSeries("Y", new int[] {3, 4})));
+
+        DataFrame result = left.join(right, "Id", JoinType.INNER);
+        assertEquals(Arrays.asList("Id", "X", "Y", "Y_right", "X_right_right", "X_right", "Y_right_right"),
+                Arrays.asList(result.getColumnLabels().toArray()));
+        assertEquals(Arrays.asList(100, 200), result.getColumn("X_right_right").getValues());
+        assertEquals(Arrays.asList(8, 7), result.getColumn("X_right").getValues());
+        assertEquals(Arrays.asList(4, 3), result.getColumn("Y_right_right").getValues());
+    }
+
+    @Test
+    void testLeftJoinKeepsTextColumnEncoding() {
+        DataFrame right = new DataFrame(Arrays.asList(
+                new IntSeries("Id", new int[] {0, 1, 2, 3}),
+                new DictionarySeries("Ville", new int[] {1, 0, 1, 0}, new String[] {"Paris", "Lyon"}),
+                new Series<>("Club", Arrays.asList("Golf", "Échecs", "Voile", null)))).selectRows(1, 4);
+        DataFrame left = new DataFrame(Arrays.asList(new IntSeries("Id", new int[] {3, 4, 2, 1})));
+
+        DataFrame result = left.join(right, "Id", JoinType.LEFT);
+        Series<?> cities = result.getColumn("Ville");
+        assertTrue(cities instanceof DictionarySeries, "Les codes sont copiés, pas les valeurs.");
+        assertEquals(Arrays.asList("Paris", null, "Lyon", "Paris"), cities.getValues());
+        assertEquals(3, ((DictionarySeries) cities).getDictionarySize(), "Une entrée nulle est ajoutée au dictionnaire.");
+        assertEquals(Arrays.asList(null, null, "Voile", "Échecs"), result.getColumn("Club").getValues());
+        assertEquals(1, cities.getStatistics().getNullCount());
+    }
+}
@@ -0,0 +1,60 @@
+package com.ilian.dataframe;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+/**
+ * Compare les noyaux retenus pour ce processus (vectoriels avec le profil Maven {@code vector})
+ * à la version scalaire de référence.
+ */
+public class KernelsTest {
+
+    private final NumericKernels kernels = NumericKernels.INSTANCE;
+    private final ScalarKernels reference = new ScalarKernels();
+
+    @Test
+    void testIntKernels() {
+        Random random = new Random(42);
+        int[] a = new int[1000];
+        for (int i = 0; i < a.length; i++) a[i] = random.nextInt();
+
+        for (int[] range : new int[][] {{0, 1000}, {3, 997}, {5, 6}, {7, 7}}) {
+            int from = range[0], to = range[1];
+            assertEquals(reference.sum(a, from, to), kernels.sum(a, from, to));
+            assertEquals(reference.min(a, from, to), kernels.min(a, from, to));
+            assertEquals(reference.max(a, from, to), kernels.max(a, from, to));
+            assertEquals(reference.squaredDeviations(a, from, to, 12.5), kernels.squaredDeviations(a, from, to, 12.5),
+                    Math.abs(reference.squaredDeviations(a, from, to, 12.5)) * 1e-12);
+
+            long[] expected = new long[Bitmaps.words(to - from) + 1];
+            long[] actual = new long[expected.length];
+            reference.selectRange(a, from, to - from, -1 << 30, 1 << 30, expected, 1);
+            kernels.selectRange(a, from, to - from, -1 << 30, 1 << 30, actual, 1);
+            assertArrayEquals(expected, actual);
+        }
+    }
+
+    @Test
+    void testDoubleKernels() {
+        Random random = new Random(7);
+        double[] a = new double[1000];
+        for (int i = 0; i < a.length; i++) a[i] = random.nextGaussian() * 100;
+        a[10] = Double.NaN;
+
+        for (int[] range : new int[][] {{0, 1000}, {11, 990}, {5, 6}, {7, 7}}) {
+            int from = range[0], to = range[1];
+            double sum = reference.sum(a, from, to);
+            assertEquals(sum, kernels.sum(a, from, to), Double.isNaN(sum) ? 0 : 1e-9);
+            assertEquals(reference.min(a, from, to), kernels.min(a, from, to));
+            assertEquals(reference.max(a, from, to), kernels.max(a, from, to));
+
+            long[] expected = new long[Bitmaps.words(to - from)];
+            long[] actual = new long[expected.length];
+            reference.selectRange(a, from, to - from, -50, true, 50, false, expected, 0);
+            kernels.selectRange(a, from, to - from, -50, true, 50, false, actual, 0);
+            assertArrayEquals(expected, actual);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.ilian.dataframe;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class LazyFrameTest {
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Fichier de plus de deux lots, dont la colonne Bonus est vide sur tout le deuxième lot et
+     * dont la colonne Code, numérique sur les 20 000 premières lignes, devient textuelle ensuite.
+     */
+    private String writeCsv() throws Exception {
+        StringBuilder sb = new StringBuilder("Id,Nom,Note,Age,Bonus,Commentaire,Code\n");
+        int rows = 2 * CsvScan.BATCH_SIZE + 500;
+        for (int i = 0; i < rows; i++) {
+            boolean emptyBonus = i >= CsvScan.BATCH_SIZE && i < 2 * CsvScan.BATCH_SIZE;
+            sb.append(i).append(",nom").append(i % 97).append(',')
+                    .append(i % 13 == 0 ? "" : (i % 200) / 10.0).append(',')
+                    .append(18 + i % 7).append(',')
+                    .append(emptyBonus ? "" : String.valueOf(i % 3)).append(',')
+                    .append("texte libre ").append(i).append(',')
+                    .append(i < 20000 ? String.valueOf(i % 50) : "A" + i % 100).append('\n');
+        }
+        Path file = tempDir.resolve("data.csv");
+        Files.writeString(file, sb.toString());
+        return file.toString();
+    }
+
+    private static void assertSameFrame(DataFrame expected, DataFrame actual) {
+        assertEquals(expected.getColumnLabels(), actual.getColumnLabels());
+        for (String label : expected.getColumnLabels()) {
+            assertEquals(expected.getColumn(label).getValues(), actual.getColumn(label).getValues(), "Colonne " + label);
+        }
+    }
+
+    @Test
+    void testCollectMatchesEagerPipeline() throws Exception {
+        String path = writeCsv();
+        DataFrame eager = CsvLoader.load(path);
+
+        assertSameFrame(eager, LazyFrame.scanCsv(path).collect());
+
+        Filter good = Filter.and(Filter.ge("Note", 15), Filter.startsWith("Nom", "nom1"));
+        assertSameFrame(eager.filter(good).selectColumns("Nom", "Note", "Id"),
+                LazyFrame.scanCsv(path).filter(good).select("Nom", "Note", "Id").collect());
+        assertSameFrame(eager.selectColumns("Id", "Age").filter(Filter.lt("Age", 20)),
+                LazyFrame.scanCsv(path).select("Id", "Age").filter(Filter.lt("Age", 20)).collect());
+        assertSameFrame(eager.filter(Filter.eq("Bonus", 2)).selectColumns("Id"),
+                LazyFrame.scanCsv(path).filter(Filter.eq("Bonus", 2)).select("Id").collect());
+        DataFrame code = LazyFrame.scanCsv(path).filter(Filter.eq("Code", "12")).collect();
+        assertEquals(400, code.getRowCount());
+        assertSameFrame(eager.filter(Filter.eq("Code", "12")), code);
+        assertSameFrame(eager.filter(Filter.or(Filter.eq("Code", "A7"), Filter.lt("Id", 3))).selectColumns("Id", "Code"),
+                LazyFrame.scanCsv(path).filter(Filter.or(Filter.eq("Code", "A7"), Filter.lt("Id", 3))).select("Id", "Code").collect());
+        assertThrows(IllegalArgumentException.class, () -> eager.filter(Filter.lt("Code", 10)));
+        assertThrows(IllegalArgumentException.class,
+                () -> LazyFrame.scanCsv(path).filter(Filter.lt("Code", 10)).collect());
+
+        Aggregation[] aggregations = {Aggregation.count(), Aggregation.mean("Note"), Aggregation.max("Id")};
+        assertSameFrame(eager.filter(Filter.gt("Note", 5)).groupBy("Age").agg(aggregations),
+                LazyFrame.scanCsv(path).filter(Filter.gt("Note", 5)).groupBy("Age").agg(aggregations).collect());
+        DataFrame grouped = eager.groupBy("Age").agg(aggregations);
+        assertSameFrame(grouped.filter(Filter.and(Filter.ge("Age", 20), Filter.gt("count", 0))),
+                LazyFrame.scanCsv(path).groupBy("Age").agg(aggregations)
+                        .filter(Filter.ge("Age", 20)).filter(Filter.gt("count", 0)).collect());
+    }
+
+    @Test
+    void testExplainShowsPushdown() throws Exception {
+        String path = writeCsv();
+        String plan = LazyFrame.scanCsv(path)
+                .select("Nom", "Note", "Age")
+                .filter(Filter.ge("Note", 12))
+                .filter(Filter.startsWith("Nom", "nom"))
+                .groupBy("Age")
+                .agg(Aggregation.mean("Note"))
+                .filter(Filter.lt("Age", 22))
+                .explain();
+
+        String[] lines = plan.split("\n");
+        assertEquals(2, lines.length, plan);
+        assertEquals("Aggregate keys=[Age] aggregations=[mean(Note)]", lines[0]);
+        assertTrue(lines[1].startsWith("  CsvScan " + path + " columns=[Note, Age] predicate="), plan);
+        assertTrue(lines[1].contains("Note >= 12.0") && lines[1].contains("Nom startsWith \"nom\"")
+                && lines[1].contains("Age < 22.0"), plan);
+
+        String kept = LazyFrame.scanCsv(path).groupBy("Age").agg(Aggregation.count())
+                .filter(Filter.gt("count", 10)).explain();
+        assertTrue(kept.startsWith("Filter count > 10.0\n  Aggregate"), kept);
+    }
+
+    @Test
+    void testUnknownColumns() throws Exception {
+        String path = writeCsv();
+        assertThrows(IllegalArgumentException.class, () -> LazyFrame.scanCsv(path).select("Absente").collect());
+        assertThrows(IllegalArgumentException.class, () -> LazyFrame.scanCsv(path).filter(Filter.eq("Absente", 1)).collect());
+        assertThrows(IllegalArgumentException.class,
+                () -> LazyFrame.scanCsv(path).select("Id").filter(Filter.eq("Note", 1)).collect());
+        assertThrows(IllegalArgumentException.class, () -> LazyFrame.scanCsv(path).groupBy());
+    }
+}
@@ -0,0 +1,194 @@
+package com.ilian.dataframe;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+
+public class SeriesTest {
+
+    @Test
+    void testIntSeriesTypedAccess() {
+        IntSeries series = new IntSeries("ages", new int[] {20, 30, 25});
+
+        assertEquals(3, series.size());
+        assertEquals(30, series.getInt(1));
+        assertEquals(30.0, series.getDouble(1));
+        assertEquals(Integer.valueOf(25), series.get(2));
+        assertEquals(Arrays.asList(20, 30, 25), series.getValues(), "La vue boxée doit refléter le tableau primitif.");
+    }
+
+    @Test
+    void testNumericAggregates() {
+        DoubleSeries doubles = new DoubleSeries("notes", new double[] {12.5, 8.0, 19.5});
+        assertEquals(40.0, doubles.sum());
+        assertEquals(8.0, doubles.min());
+        assertEquals(19.5, doubles.max());
+
+        LongSeries longs = new LongSeries("ids", new long[] {5_000_000_000L, -1L});
+        assertEquals(5_000_000_000.0 - 1, longs.sum());
+        assertEquals(-1.0, longs.min());
+        assertEquals(5_000_000_000.0, longs.max());
+    }
+
+    @Test
+    void testSliceKeepsPrimitiveType() {
+        IntSeries series = new IntSeries("ages", new int[] {20, 30, 25, 35});
+        IntSeries slice = series.slice(1, 3);
+
+        assertEquals(2, slice.size());
+        assertEquals(30, slice.getInt(0));
+        assertEquals(25, slice.getInt(1));
+    }
+
+    @Test
+    void testAppendValueWithoutBoxing() {
+        StringBuilder sb = new StringBuilder();
+        new LongSeries("ids", new long[] {42L}).appendValue(sb, 0);
+        sb.append('|');
+        new Series<>("noms", Arrays.asList("Alice")).appendValue(sb, 0);
+        assertEquals("42|Alice", sb.toString());
+    }
+
+    @Test
+    void testDictionaryEncoding() {
+        Series<String> encoded = DictionarySeries.tryEncode("ville", Arrays.asList("Paris", "Lyon", "Paris", "Paris", "Lyon", "Nice"));
+        assertTrue(encoded instanceof DictionarySeries);
+        DictionarySeries cities = (DictionarySeries) encoded;
+        assertEquals(3, cities.getDictionarySize());
+        assertEquals(cities.getCode(0), cities.getCode(2));
+        assertEquals("Nice", cities.get(5));
+
+        DictionarySeries view = cities.take(new int[] {5, 1}).materialize();
+        assertEquals(Arrays.asList("Nice", "Lyon"), view.getValues());
+        assertEquals(3, view.getDictionarySize(), "Le dictionnaire est partagé, pas recopié.");
+
+        Series<String> unique = DictionarySeries.tryEncode("nom", Arrays.asList("Alice", "Bob", "Charlie"));
+        assertFalse(unique instanceof DictionarySeries, "Des valeurs toutes distinctes ne gagnent rien à l'encodage.");
+    }
+
+    @Test
+    void testStatisticsAreCached() {
+        DoubleSeries notes = new DoubleSeries("notes", new double[] {12.5, 8.0, 19.5, 8.0});
+        ColumnStatistics stats = notes.getStatistics();
+
+        assertSame(stats, notes.getStatistics());
+        assertSame(stats, notes.rename("n").getStatistics(), "Un renommage garde les mêmes lignes et donc les statistiques.");
+        assertEquals(4, stats.getCount());
+        assertEquals(48.0, stats.getSum());
+        assertEquals(12.0, stats.getMean());
+        assertEquals(8.0, stats.getMin());
+        assertEquals(19.5, stats.getMax());
+        assertEquals(29.5, stats.getVariance(), 1e-9);
+        assertEquals(3, stats.getDistinctEstimate());
+
+        ColumnStatistics text = new Series<>("noms", Arrays.asList("Alice", null, "Bob", "Alice")).getStatistics();
+        assertFalse(text.isNumeric());
+        assertEquals(3, text.getCount());
+        assertEquals(1, text.getNullCount());
+        assertEquals(2, text.getDistinctEstimate());
+        assertTrue(Double.isNaN(text.getMean()));
+
+        ColumnStatistics codes = new DictionarySeries("ville", new int[] {0, 1, 1}, new String[] {"Paris", "Lyon", "Nice"}).getStatistics();
+        assertEquals(2, codes.getDistinctEstimate(), "Seuls les codes utilisés comptent.");
+    }
+
+    @Test
+    void testDistinctEstimateOnLargeColumn() {
+        int n = 200_000;
+        int[] values = new int[n];
+        for (int i = 0; i < n; i++) values[i] = i % 50_000;
+        IntSeries series = new IntSeries("v", values);
+
+        ColumnStatistics stats = series.getStatistics();
+
+        assertEquals(50_000, stats.getDistinctEstimate(), 50_000 * 0.05);
+        assertEquals(24_999.5, stats.getMean(), 1e-6);
+        assertEquals(n * 24_999.5, stats.getSum());
+    }
+
+    @Test
+    void testNullValuesAreSkipped() {
+        int n = 200;
+        int[] values = new int[n];
+        long[] validity = new long[Bitmaps.words(n)];
+        double sum = 0;
+        for (int i = 0; i < n; i++) {
+            values[i] = i;
+            if (i % 3 != 0) {
+                validity[i >>> 6] |= 1L << i;
+                sum += i;
+            }
+        }
+        IntSeries series = new IntSeries("v", values, validity);
+
+        assertNull(series.get(0));
+        assertTrue(series.isNull(3));
+        assertEquals(1, series.get(1));
+        assertEquals(sum, series.sum());
+        assertEquals(1.0, series.min());
+        assertEquals(199.0, series.max());
+        ColumnStatistics stats = series.getStatistics();
+        assertEquals(133, stats.getCount());
+        assertEquals(67, stats.getNullCount());
+        assertEquals(sum / 133, stats.getMean(), 1e-9);
+
+        IntSeries view = series.slice(5, 150);
+        assertTrue(view.isNull(1), "La ligne 6 de la série est nulle.");
+        assertFalse(view.isNull(0));
+        assertEquals(series.getValues().subList(5, 150), view.getValues());
+        assertEquals(series.getValues().subList(5, 150), view.materialize().getValues());
+        assertEquals(Arrays.asList(null, 7, null), series.take(new int[] {9, 7, 0}).getValues());
+        StringBuilder sb = new StringBuilder();
+        series.appendValue(sb, 0);
+        assertEquals("null", sb.toString());
+    }
+
+    @Test
+    void testCompressedIntColumns() throws Exception {
+        DataFrame df = CsvLoader.load("data/etudiants.csv");
+        assertEquals("packed", ((IntSeries) df.getColumn("Age")).getEncoding());
+
+        int n = 10_000;
+        int[] small = new int[n];
+        int[] sorted = new int[n];
+        int[] runs = new int[n];
+        java.util.Random random = new java.util.Random(7);
+        for (int i = 0; i < n; i++) {
+            small[i] = 100 + random.nextInt(20);
+            sorted[i] = 1_000_000_000 + 3 * i + random.nextInt(3);
+            runs[i] = i / 1000 * 1_000_000 - 5_000_000;
+        }
+        long[] validity = new long[Bitmaps.words(n)];
+        java.util.Arrays.fill(validity, -1L);
+        Bitmaps.clearTail(validity, n);
+        validity[2] &= ~(1L << 5);
+        String[] expected = {"packed", "frame-of-reference", "run-length"};
+        int[][] columns = {small, sorted, runs};
+        for (int c = 0; c < columns.length; c++) {
+            IntSeries plain = new IntSeries("v", columns[c]);
+            IntSeries encoded = IntSeries.encode("v", columns[c], n, null);
+            assertEquals(expected[c], encoded.getEncoding());
+            assertEquals(plain.getValues(), encoded.getValues());
+            assertEquals(plain.sum(), encoded.sum());
+            assertEquals(plain.min(), encoded.min());
+            assertEquals(plain.max(), encoded.max());
+            assertEquals(plain.getStatistics().getVariance(), encoded.getStatistics().getVariance(), 1e-6);
+            int[] rows = {n - 1, 17, 4_000};
+            assertEquals(plain.take(rows).getValues(), encoded.take(rows).materialize().getValues());
+            assertEquals(plain.slice(130, 7_000).sum(), encoded.slice(130, 7_000).sum());
+            assertEquals(plain.slice(130, 7_000).min(), encoded.slice(130, 7_000).min());
+            double mid = plain.getDouble(n / 2);
+            for (Filter filter : new Filter[] {Filter.between("v", mid - 50, mid + 50), Filter.ge("v", mid), Filter.lt("v", plain.min())}) {
+                DataFrame a = new DataFrame(Arrays.asList(plain)).filter(filter);
+                DataFrame b = new DataFrame(Arrays.asList(encoded)).filter(filter);
+                assertEquals(a.getColumn("v").getValues(), b.getColumn("v").getValues());
+            }
+            IntSeries nullable = IntSeries.encode("v", columns[c], n, validity);
+            assertTrue(nullable.isNull(133));
+            assertEquals(new IntSeries("v", columns[c], validity).sum(), nullable.sum());
+        }
+        assertEquals("array", IntSeries.encode("v", new int[] {1, Integer.MAX_VALUE, Integer.MIN_VALUE}, 3, null).getEncoding());
+    }
+
+}
@@ -0,0 +1,136 @@
+package com.ilian.dataframe;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+public class SketchTest {
+
+    /** Rang normalisé de {@code v} dans un tableau trié : proportion des valeurs inférieures ou égales. */
+    private static double rank(double[] sorted, double v) {
+        int lo = 0;
+        int hi = sorted.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sorted[mid] <= v) lo = mid + 1; else hi = mid;
+        }
+        return (double) lo / sorted.length;
+    }
+
+    @Test
+    void testApproxQuantile() {
+        int n = 300_000;
+        Random random = new Random(7);
+        double[] values = new double[n];
+        long[] validity = new long[Bitmaps.words(n)];
+        for (int i = 0; i < n; i++) {
+            values[i] = Math.round(random.nextGaussian() * 1000) / 10.0;
+            if (i % 11 != 0) validity[i >>> 6] |= 1L << i;
+        }
+        DataFrame df = new DataFrame(Arrays.asList(new DoubleSeries("Note", values, validity)));
+        double[] sorted = new double[n - (n + 10) / 11];
+        for (int i = 0, k = 0; i < n; i++) {
+            if (i % 11 != 0) sorted[k++] = values[i];
+        }
+        Arrays.sort(sorted);
+
+        for (double q : new double[] {0.01, 0.25, 0.5, 0.9, 0.999}) {
+            assertEquals(q, rank(sorted, df.approxQuantile("Note", q)), 0.01, "q = " + q);
+        }
+        assertEquals(sorted[0], df.approxQuantile("Note", 0));
+        assertEquals(sorted[sorted.length - 1], df.approxQuantile("Note", 1));
+
+        // Batches merged one by one summarize the same distribution.
+        QuantileSketch merged = new QuantileSketch();
+        for (int from = 0; from < n; from += 10_000) {
+            QuantileSketch batch = new QuantileSketch();
+            batch.add(df.selectRows(from, Math.min(n, from + 10_000)).getColumn("Note"));
+            merged.merge(batch);
+        }
+        assertEquals(sorted.length, merged.getCount());
+        assertEquals(0.5, rank(sorted, merged.quantile(0.5)), 0.01);
+
+        QuantileSketch small = new QuantileSketch();
+        small.add(new Series<>("v", Arrays.asList(5, null, 1, 4, 2, 3)));
+        assertEquals(3.0, small.quantile(0.5), "Exact tant que le résumé n'a rien compacté.");
+        assertEquals(1.0, small.quantile(0.2));
+        assertTrue(Double.isNaN(new QuantileSketch().quantile(0.5)));
+        assertThrows(IllegalArgumentException.class, () -> small.quantile(1.5));
+        assertThrows(IllegalArgumentException.class, () -> new QuantileSketch(2));
+        assertThrows(IllegalArgumentException.class, () -> new QuantileSketch().add(new Series<>("t", Arrays.asList("a", "b"))));
+    }
+
+    @Test
+    void testApproxDistinct() {
+        int n = 400_000;
+        int[] ids = new int[n];
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            ids[i] = (int) ((i * 2654435761L) % 150_000);
+            names.add("nom" + i % 700);
+        }
+        DataFrame df = new DataFrame(Arrays.asList(new IntSeries("Id", ids), new Series<>("Nom", names)));
+
+        assertEquals(150_000, df.approxDistinct("Id"), 150_000 * 3 * new HyperLogLog().getRelativeError());
+        assertEquals(700, df.approxDistinct("Nom"), 700 * 0.05);
+        assertEquals(3, new DataFrame(Arrays.asList(new Series<>("v", Arrays.asList(1, 2.0, null, 2, 3.5)))).approxDistinct("v"),
+                "Les petits ensembles sont comptés exactement, un entier et le décimal égal ne font qu'un.");
+        long[] stamps = new long[100];
+        for (int i = 0; i < stamps.length; i++) stamps[i] = (1L << 60) + i;
+        DataFrame large = new DataFrame(Arrays.asList(new LongSeries("t", stamps),
+                new Series<>("boxed", Arrays.stream(stamps).boxed().collect(Collectors.toList()))));
+        assertEquals(100, large.approxDistinct("t"), "Les entiers au-delà de 2^53 ne se confondent pas.");
+        assertEquals(100, large.approxDistinct("boxed"));
+        assertEquals(100, large.getColumn("t").getStatistics().getDistinctEstimate());
+
+        HyperLogLog left = new HyperLogLog(14);
+        HyperLogLog right = new HyperLogLog(14);
+        left.add(df.selectRows(0, n / 2).getColumn("Id"));
+        right.add(df.selectRows(n / 2, n).getColumn("Id"));
+        left.merge(right);
+        assertEquals(150_000, left.estimate(), 150_000 * 3 * left.getRelativeError());
+        assertThrows(IllegalArgumentException.class, () -> left.merge(new HyperLogLog()));
+        assertThrows(IllegalArgumentException.class, () -> new HyperLogLog(30));
+    }
+
+    @Test
+    void testApproxAggregatesPerGroup() {
+        int n = 200_000;
+        Random random = new Random(3);
+        String[] classes = {"A", "B", "C"};
+        List<String> classOf = new ArrayList<>();
+        double[] notes = new double[n];
+        int[] ids = new int[n];
+        for (int i = 0; i < n; i++) {
+            int c = i % 3;
+            classOf.add(classes[c]);
+            notes[i] = c * 100 + random.nextDouble() * 20;
+            ids[i] = c == 2 ? i % 5 : random.nextInt(10_000 * (c + 1));
+        }
+        DataFrame df = new DataFrame(Arrays.asList(
+                new Series<>("Classe", classOf), new DoubleSeries("Note", notes), new IntSeries("Id", ids)));
+
+        DataFrame result = df.groupBy("Classe").agg(Aggregation.approxQuantile("Note", 0.5),
+                Aggregation.approxDistinct("Id"), Aggregation.approxDistinct("Classe").as("classes"));
+
+        assertEquals(Arrays.asList("Classe", "approxQuantile(Note, 0.5)", "approxDistinct(Id)", "classes"),
+                new ArrayList<>(result.getColumnLabels()));
+        for (int g = 0; g < 3; g++) {
+            DataFrame group = df.filter(Filter.eq("Classe", classes[g]));
+            double[] sorted = group.getColumn("Note").getValues().stream().mapToDouble(v -> (Double) v).toArray();
+            Arrays.sort(sorted);
+            assertEquals(0.5, rank(sorted, ((DoubleSeries) result.getColumn("approxQuantile(Note, 0.5)")).getDouble(g)), 0.01);
+            long exact = group.getColumn("Id").getValues().stream().distinct().count();
+            long estimate = ((LongSeries) result.getColumn("approxDistinct(Id)")).getLong(g);
+            assertEquals(exact, estimate, exact * 0.08, "Classe " + classes[g]);
+            assertEquals(1, ((LongSeries) result.getColumn("classes")).getLong(g));
+        }
+        assertEquals(5, ((LongSeries) result.getColumn("approxDistinct(Id)")).getLong(2), "Exact pour un petit groupe.");
+        assertThrows(IllegalArgumentException.class, () -> Aggregation.approxQuantile("Note", -0.1));
+    }
+}
@@ -0,0 +1,131 @@
+package com.ilian.dataframe;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+
+public class SnapshotTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testSaveAndOpenRoundTrip() throws Exception {
+        DataFrame df = new DataFrame(Arrays.asList(
+                new IntSeries("Age", new int[] {22, 23, 21, 24}),
+                new LongSeries("Id", new long[] {5_000_000_000L, 1, 2, 3}),
+                new DoubleSeries("Note", new double[] {12.5, 8, 19.5, 14}),
+                new DictionarySeries("Ville", new int[] {0, 1, 0, 0}, new String[] {"Paris", "Nîmes"}),
+                new Series<>("Nom", Arrays.asList("Alice", null, "Élodie", ""))));
+        Path file = tempDir.resolve("df.snapshot");
+
+        df.save(file);
+        DataFrame reopened = DataFrame.open(file);
+
+        assertEquals(df.getColumnLabels(), reopened.getColumnLabels());
+        assertTrue(reopened.getColumn("Age") instanceof IntSeries);
+        assertTrue(reopened.getColumn("Ville") instanceof DictionarySeries);
+        for (String label : df.getColumnLabels()) {
+            assertEquals(df.getColumn(label).getValues(), reopened.getColumn(label).getValues(), "Colonne " + label);
+        }
+        assertEquals(21.0, reopened.getStatistics("Age").get("min"));
+        assertEquals(Arrays.asList(24, 21), reopened.selectRows(1, 4).sortBy(SortKey.desc("Age")).take(new int[] {0, 2}).getColumn("Age").getValues());
+        assertEquals(Arrays.asList(22, 21, 24), reopened.filter(Filter.eq("Ville", "Paris")).getColumn("Age").getValues());
+        assertEquals(Arrays.asList(12.5, 19.5), ((DoubleSeries) reopened.getColumn("Note")).take(new int[] {0, 2}).materialize().getValues());
+    }
+
+    @Test
+    void testSaveView() throws Exception {
+        DataFrame df = new DataFrame(Arrays.asList(new IntSeries("A", new int[] {1, 2, 3, 4})));
+        Path file = tempDir.resolve("view.snapshot");
+
+        df.take(new int[] {3, 1}).save(file);
+
+        assertEquals(Arrays.asList(4, 2), DataFrame.open(file).getColumn("A").getValues());
+    }
+
+    @Test
+    void testOpenRejectsOtherFiles() throws Exception {
+        Path file = tempDir.resolve("data.csv");
+        Files.writeString(file, "A,B\n1,2\n3,4\n5,6\n");
+        assertThrows(IOException.class, () -> DataFrame.open(file));
+    }
+
+    @Test
+    void testCsvSnapshotCache() throws Exception {
+        Path csv = tempDir.resolve("data.csv");
+        Files.writeString(csv, "Nom,Age\nAlice,22\nBob,23\n");
+        CsvOptions options = new CsvOptions().snapshotCache(true);
+
+        DataFrame first = CsvLoader.load(csv.toString(), options);
+        Path snapshot = tempDir.resolve("data.csv.snapshot");
+        assertTrue(Files.exists(snapshot));
+        assertTrue(Snapshot.isFresh(snapshot, csv));
+        DataFrame cached = CsvLoader.load(csv.toString(), options);
+        assertEquals(first.getColumn("Age").getValues(), cached.getColumn("Age").getValues());
+
+        Files.writeString(csv, "Nom,Age\nAlice,22\nBob,23\nCharlie,21\n");
+        Files.setLastModifiedTime(csv, FileTime.fromMillis(Files.getLastModifiedTime(csv).toMillis() + 1000));
+        assertFalse(Snapshot.isFresh(snapshot, csv));
+        DataFrame reloaded = CsvLoader.load(csv.toString(), options);
+        assertEquals(3, reloaded.getRowCount());
+        assertEquals(3, DataFrame.open(snapshot).getRowCount());
+    }
+
+    @Test
+    void testCsvSnapshotCacheIsBestEffort() throws Exception {
+        Path csv = tempDir.resolve("lecture.csv");
+        Files.writeString(csv, "Nom,Age\nAlice,22\nBob,23\n");
+        // A non-empty directory where the snapshot should go makes the final move fail.
+        Path snapshot = Files.createDirectory(tempDir.resolve("lecture.csv.snapshot"));
+        Files.writeString(snapshot.resolve("contenu"), "");
+
+        DataFrame df = CsvLoader.load(csv.toString(), new CsvOptions().snapshotCache(true));
+        assertEquals(Arrays.asList(22, 23), df.getColumn("Age").getValues());
+        assertTrue(Files.isDirectory(snapshot));
+        assertFalse(Files.exists(tempDir.resolve("lecture.csv.snapshot.tmp")), "Le fichier temporaire est supprimé.");
+    }
+
+    @Test
+    void testCsvChangedDuringParseIsNotCached() throws Exception {
+        Path csv = tempDir.resolve("suivi.csv");
+        Files.writeString(csv, "Nom,Age\nAlice,22\n");
+        long size = Files.size(csv);
+        long modified = Files.getLastModifiedTime(csv).toMillis();
+        DataFrame parsed = CsvLoader.load(csv.toString());
+        Path snapshot = tempDir.resolve("suivi.csv.snapshot");
+
+        // The file grows between the start of the parse and the cache write.
+        Files.writeString(csv, "Nom,Age\nAlice,22\nBob,23\n");
+        Files.setLastModifiedTime(csv, FileTime.fromMillis(modified + 1000));
+        assertFalse(Snapshot.writeCache(parsed, snapshot, csv, size, modified));
+        assertFalse(Files.exists(snapshot));
+        assertFalse(Files.exists(tempDir.resolve("suivi.csv.snapshot.tmp")));
+
+        assertTrue(Snapshot.writeCache(CsvLoader.load(csv.toString()), snapshot, csv,
+                Files.size(csv), Files.getLastModifiedTime(csv).toMillis()));
+        assertEquals(2, CsvLoader.load(csv.toString(), new CsvOptions().snapshotCache(true)).getRowCount());
+    }
+
+    @Test
+    void testNullValuesRoundTrip() throws Exception {
+        DataFrame df = new DataFrame(Arrays.asList(
+                new IntSeries("Age", new int[] {22, 0, 21, 24}, new long[] {0b1101}),
+                new LongSeries("Id", new long[] {0, 1, 2, 3}, new long[] {0b1110}),
+                new DoubleSeries("Note", new double[] {12.5, 8, 19.5, 14})));
+        Path file = tempDir.resolve("nulls.snapshot");
+
+        df.selectRows(1, 4).save(file);
+        DataFrame reopened = DataFrame.open(file);
+
+        assertEquals(Arrays.asList(null, 21, 24), reopened.getColumn("Age").getValues());
+        assertEquals(Arrays.asList(1L, 2L, 3L), reopened.getColumn("Id").getValues());
+        assertEquals(1.0, reopened.getStatistics("Age").get("nullCount"));
+    }
+}
@@ -0,0 +1,68 @@
+package com.ilian.dataframe;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+public class SortTest {
+
+    private final DataFrame df = new DataFrame(Arrays.asList(
+            new Series<>("Nom", Arrays.asList("Charlie", "alice", "Bob", "Alice", "Eva")),
+            new IntSeries("Age", new int[] {21, 22, -23, 22, 21}),
+            new DoubleSeries("Note", new double[] {18.0, -0.5, 13.0, Double.NaN, 18.0}),
+            new LongSeries("Id", new long[] {Long.MAX_VALUE, -4L, 3L, Long.MIN_VALUE, 0L})));
+
+    @Test
+    void testSortByNumericColumns() {
+        assertEquals(Arrays.asList("Bob", "Charlie", "Eva", "alice", "Alice"), df.sortBy("Age").getColumn("Nom").getValues());
+        assertEquals(Arrays.asList(-0.5, 13.0, 18.0, 18.0, Double.NaN), df.sortBy("Note").getColumn("Note").getValues());
+        assertEquals(Arrays.asList(Long.MIN_VALUE, -4L, 0L, 3L, Long.MAX_VALUE), df.sortBy("Id").getColumn("Id").getValues());
+    }
+
+    @Test
+    void testSortByTextAndMultipleKeys() {
+        assertEquals(Arrays.asList("Alice", "Bob", "Charlie", "Eva", "alice"), df.sortBy("Nom").getColumn("Nom").getValues());
+
+        DataFrame sorted = df.sortBy(SortKey.desc("Age"), SortKey.asc("Nom"));
+        assertEquals(Arrays.asList("Alice", "alice", "Charlie", "Eva", "Bob"), sorted.getColumn("Nom").getValues());
+        assertEquals(Arrays.asList(22, 22, 21, 21, -23), sorted.getColumn("Age").getValues());
+    }
+
+    @Test
+    void testTopN() {
+        assertEquals(Arrays.asList("Alice", "Charlie", "Eva"), df.topN(3, "Note").getColumn("Nom").getValues(),
+                "NaN est la plus grande valeur et les égalités gardent l'ordre d'origine.");
+        assertEquals(Arrays.asList("Bob"), df.topN(1, SortKey.asc("Age")).getColumn("Nom").getValues());
+        assertEquals(5, df.topN(10, "Age").getRowCount());
+        assertEquals(0, df.topN(0, "Age").getRowCount());
+    }
+
+    @Test
+    void testParallelSortMatchesReferenceSort() {
+        int n = Sorter.PARALLEL_THRESHOLD + 1234;
+        Random random = new Random(42);
+        int[] a = new int[n];
+        double[] b = new double[n];
+        for (int i = 0; i < n; i++) {
+            a[i] = random.nextInt(50) - 25;
+            b[i] = random.nextDouble();
+        }
+        DataFrame large = new DataFrame(Arrays.asList(new IntSeries("a", a), new DoubleSeries("b", b)));
+        SortKey[] keys = {SortKey.asc("a"), SortKey.desc("b")};
+
+        int[] perm = Sorter.sort(large, keys, new ForkJoinPool(3));
+
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < n; i++) expected.add(i);
+        expected.sort(Comparator.<Integer>comparingInt(i -> a[i]).thenComparing(i -> -b[i]));
+        for (int i = 0; i < n; i++) {
+            assertEquals((int) expected.get(i), perm[i], "position " + i);
+        }
+    }
+}
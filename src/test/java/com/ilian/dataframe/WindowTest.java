@@ -0,0 +1,161 @@
+package com.ilian.dataframe;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class WindowTest {
+
+    private static DataFrame prices() {
+        long[] validity = new long[1];
+        validity[0] = 0b1110111; // Price of the fourth row is missing
+        return new DataFrame(Arrays.asList(
+                new Series<>("Titre", Arrays.asList("A", "B", "A", "B", "A", "B", "A")),
+                new IntSeries("Jour", new int[] {1, 1, 2, 2, 3, 3, 4}),
+                new DoubleSeries("Prix", new double[] {10, 20, 12, 0, 11, 24, 15}, validity),
+                new IntSeries("Volume", new int[] {5, 1, 3, 4, 2, 8, 1})));
+    }
+
+    @Test
+    void testRollingAndCumulative() {
+        DataFrame df = prices();
+
+        DataFrame rolled = df.rolling("Volume", 3).sum();
+        assertEquals(Arrays.asList("Titre", "Jour", "Prix", "Volume", "rollingSum(Volume, 3)"),
+                new ArrayList<>(rolled.getColumnLabels()));
+        assertTrue(rolled.getColumn("rollingSum(Volume, 3)") instanceof IntSeries, "Une somme entière reste entière.");
+        assertEquals(Arrays.asList(null, null, 9, 8, 9, 14, 11), rolled.getColumn("rollingSum(Volume, 3)").getValues());
+
+        List<?> means = df.rolling("Prix", 3).minPeriods(2).mean().getColumn("rollingMean(Prix, 3)").getValues();
+        assertEquals(Arrays.asList(null, 15.0, 14.0, 16.0, 11.5, 17.5), means.subList(0, 6), "Les valeurs nulles sont ignorées.");
+        assertEquals(50.0 / 3, (Double) means.get(6), 1e-12);
+
+        assertEquals(Arrays.asList(5, 1, 1, 1, 2, 2, 1),
+                df.rolling("Volume", 3).minPeriods(1).as("Bas").min().getColumn("Bas").getValues());
+        assertEquals(Arrays.asList(5, 6, 9, 13, 15, 23, 24), df.cumulative("Volume").sum().getColumn("cumSum(Volume)").getValues());
+        assertEquals(Arrays.asList(10.0, 20.0, 20.0, 20.0, 20.0, 24.0, 24.0),
+                df.cumulative("Prix").max().getColumn("cumMax(Prix)").getValues());
+
+        DataFrame std = df.rolling("Volume", 2).std();
+        assertNull(std.getColumn("rollingStd(Volume, 2)").get(0));
+        assertEquals(Math.sqrt(8), (Double) std.getColumn("rollingStd(Volume, 2)").get(1), 1e-12);
+        assertTrue(Double.isNaN((Double) df.cumulative("Volume").std().getColumn("cumStd(Volume)").get(0)),
+                "L'écart type d'une seule valeur est NaN.");
+    }
+
+    @Test
+    void testPartitionsAndShifts() {
+        DataFrame df = prices();
+
+        assertEquals(Arrays.asList(5, 1, 8, 5, 10, 13, 11),
+                df.cumulative("Volume").partitionBy("Titre").sum().getColumn("cumSum(Volume)").getValues());
+        assertEquals(Arrays.asList(null, null, 12.0, null, 12.0, null, 15.0),
+                df.rolling("Prix", 2).partitionBy("Titre").max().getColumn("rollingMax(Prix, 2)").getValues());
+
+        assertEquals(Arrays.asList(null, null, 10.0, 20.0, 12.0, null, 11.0),
+                df.cumulative("Prix").partitionBy("Titre").lag(1).getColumn("lag(Prix, 1)").getValues());
+        assertEquals(Arrays.asList("B", "A", "B", "A", "B", "A", null),
+                df.cumulative("Titre").lead(1).getColumn("lead(Titre, 1)").getValues());
+        assertEquals(Arrays.asList(3, 4, 2, 8, 1, null, null),
+                df.rolling("Volume", 5).as("Volume").lead(2).getColumn("Volume").getValues(),
+                "Une colonne de même nom est remplacée.");
+        assertEquals(df.getColumn("Jour").getValues(), df.cumulative("Jour").lag(0).getColumn("lag(Jour, 0)").getValues());
+
+        assertThrows(IllegalArgumentException.class, () -> df.rolling("Absente", 3));
+        assertThrows(IllegalArgumentException.class, () -> df.rolling("Prix", 0));
+        assertThrows(IllegalArgumentException.class, () -> df.rolling("Prix", 3).minPeriods(0));
+        assertThrows(IllegalArgumentException.class, () -> df.rolling("Prix", 3).partitionBy("Absente"));
+        assertThrows(IllegalArgumentException.class, () -> df.rolling("Titre", 3).mean());
+        assertThrows(IllegalArgumentException.class, () -> df.cumulative("Prix").lag(-1));
+    }
+
+    @Test
+    void testMatchesNaiveWindows() {
+        int n = 150_000;
+        Random random = new Random(7);
+        double[] values = new double[n];
+        long[] validity = new long[Bitmaps.words(n)];
+        long[] amounts = new long[n];
+        List<Integer> keys = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            values[i] = random.nextInt(10) == 0 ? Double.NaN : random.nextGaussian() * 100;
+            if (random.nextInt(20) != 0) validity[i >>> 6] |= 1L << i;
+            amounts[i] = random.nextInt(1_000_000) - 500_000L;
+            keys.add(random.nextInt(7));
+        }
+        DataFrame df = new DataFrame(Arrays.asList(new DoubleSeries("x", values, validity),
+                new LongSeries("m", amounts), new Series<>("k", keys)));
+
+        for (int size : new int[] {1, 5, 1000}) {
+            for (boolean partitioned : new boolean[] {false, true}) {
+                Window window = df.rolling("x", size).minPeriods(1);
+                Window exact = df.rolling("m", size);
+                if (partitioned) {
+                    window = window.partitionBy("k");
+                    exact = exact.partitionBy("k");
+                }
+                List<?> sum = window.as("v").sum().getColumn("v").getValues();
+                List<?> mean = window.as("v").mean().getColumn("v").getValues();
+                List<?> min = window.as("v").min().getColumn("v").getValues();
+                List<?> max = window.as("v").max().getColumn("v").getValues();
+                List<?> std = window.as("v").std().getColumn("v").getValues();
+                List<?> exactMax = exact.as("v").max().getColumn("v").getValues();
+                List<?> exactSum = exact.as("v").sum().getColumn("v").getValues();
+
+                List<List<Integer>> partitions = new ArrayList<>();
+                int[] position = new int[n];
+                for (int i = 0; i < n; i++) {
+                    int p = partitioned ? keys.get(i) : 0;
+                    while (partitions.size() <= p) partitions.add(new ArrayList<>());
+                    position[i] = partitions.get(p).size();
+                    partitions.get(p).add(i);
+                }
+                for (int i = 0; i < n; i += size == 1000 ? 97 : 1) {
+                    List<Integer> rows = partitions.get(partitioned ? keys.get(i) : 0);
+                    int from = Math.max(0, position[i] - size + 1);
+                    List<Double> in = new ArrayList<>();
+                    long total = 0;
+                    long highest = Long.MIN_VALUE;
+                    for (int j = from; j <= position[i]; j++) {
+                        int r = rows.get(j);
+                        if ((validity[r >>> 6] & (1L << r)) != 0 && !Double.isNaN(values[r])) in.add(values[r]);
+                        total += amounts[r];
+                        highest = Math.max(highest, amounts[r]);
+                    }
+                    String where = "size " + size + (partitioned ? " partitioned" : "") + ", row " + i;
+                    boolean full = position[i] - from + 1 == size;
+                    assertEquals(full ? total : null, exactSum.get(i) == null ? null : ((Number) exactSum.get(i)).longValue(), where);
+                    assertEquals(full ? highest : null, exactMax.get(i) == null ? null : ((Number) exactMax.get(i)).longValue(), where);
+                    if (in.isEmpty()) {
+                        assertNull(sum.get(i), where);
+                        assertNull(max.get(i), where);
+                        continue;
+                    }
+                    double s = 0;
+                    for (double v : in) s += v;
+                    double m = s / in.size();
+                    double squares = 0;
+                    for (double v : in) squares += (v - m) * (v - m);
+                    assertEquals(s, (Double) sum.get(i), 1e-9, where);
+                    assertEquals(m, (Double) mean.get(i), 1e-9, where);
+                    assertEquals(in.stream().mapToDouble(Double::doubleValue).min().getAsDouble(), (Double) min.get(i), where);
+                    assertEquals(in.stream().mapToDouble(Double::doubleValue).max().getAsDouble(), (Double) max.get(i), where);
+                    if (in.size() > 1) {
+                        assertEquals(Math.sqrt(squares / (in.size() - 1)), (Double) std.get(i), 1e-9, where);
+                    }
+                }
+            }
+        }
+
+        List<?> cumulative = df.cumulative("m").partitionBy("k").sum().getColumn("cumSum(m)").getValues();
+        long[] running = new long[7];
+        for (int i = 0; i < n; i++) {
+            running[keys.get(i)] += amounts[i];
+            assertEquals(running[keys.get(i)], ((Number) cumulative.get(i)).longValue());
+        }
+    }
+}